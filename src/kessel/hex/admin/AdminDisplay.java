@@ -3,6 +3,7 @@ package kessel.hex.admin;
 import kessel.hex.domain.Game;
 import kessel.hex.domain.GameEvent;
 import kessel.hex.domain.Player;
+import kessel.hex.domain.SavePart;
 import kessel.hex.map.ControlLevel;
 import kessel.hex.map.Region;
 import kessel.hex.util.Tuple;
@@ -11,6 +12,7 @@ import java.awt.Dimension;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 
 /** Show the Game. */
@@ -44,10 +46,10 @@ public class AdminDisplay extends AbstractGameDisplay
   {
     // Decide if we're loading an old game or new game.
     File gameDir = new File( GameManager.SAVES_DIR, "foogame" );
-    File gameFile = new File( new File( gameDir, Game.ADMIN_DIR ), Game.GAME_FILE );
-    if ( gameFile.exists() )
+    if ( Game.exists( gameDir ) )
     {
-      _game = Game.load( gameDir );
+      // The players' views, events and orders are the bulk of the game, but none of them are shown.
+      _game = Game.load( gameDir, EnumSet.of( SavePart.PLAYERS ) );
     }
     else
     {
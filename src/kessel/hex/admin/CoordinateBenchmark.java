@@ -0,0 +1,113 @@
+package kessel.hex.admin;
+
+import kessel.hex.domain.Game;
+import kessel.hex.util.HexCalculator;
+import kessel.hex.util.Tuple;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks the queries that hash and compare hexes the most: neighbor queries, as lists and visited, finding the pop center in a hex
+ * and loading a game, which fills the maps keyed by hex. Each is timed over every hex of a generated game.
+ */
+@SuppressWarnings({ "UseOfSystemOutOrSystemErr" })
+public class CoordinateBenchmark
+{
+  private static final int PLAYERS = 10;
+  private static final int HEXES_PER_PLAYER = 50;
+  private static final double REGIONS_PER_PLAYER = 0.67;
+  private static final int TOWNS_PER_PLAYER = 8;
+  private static final int MAX_RADIUS = 3;
+
+  private static final int BENCHMARK_WARMUPS = 5;
+  private static final int BENCHMARK_RUNS = 20;
+
+  public static void main( String[] args ) throws IOException
+  {
+    File gameDir = Files.createTempDirectory( "hexbench" ).toFile();
+    Game game = new Game( "bench" );
+    game.createGame( PLAYERS, HEXES_PER_PLAYER, REGIONS_PER_PLAYER, TOWNS_PER_PLAYER );
+    game.save( gameDir );
+    final List<Tuple> hexes = new ArrayList<>( game.getMap().getLocationsByHex().keySet() );
+    final Game loaded = Game.load( gameDir );
+    final File dir = gameDir;
+
+    report( "neighbors", hexes.size(), time( new Runnable()
+    {
+      public void run()
+      {
+        for ( Tuple hex : hexes )
+        {
+          for ( int radius = 1; radius <= MAX_RADIUS; radius++ )
+          {
+            HexCalculator.getAllNeighbors( hex, radius );
+            HexCalculator.getEdgeNeighbors( hex, radius );
+          }
+        }
+      }
+    } ) );
+    report( "visits", hexes.size(), time( new Runnable()
+    {
+      public void run()
+      {
+        final int[] visited = { 0 };
+        HexCalculator.HexVisitor counter = new HexCalculator.HexVisitor()
+        {
+          public void visit( int x, int y )
+          {
+            visited[0]++;
+          }
+        };
+        for ( Tuple hex : hexes )
+        {
+          for ( int radius = 1; radius <= MAX_RADIUS; radius++ )
+          {
+            HexCalculator.forEachNeighbor( hex, radius, false, counter );
+            HexCalculator.forEachNeighbor( hex, radius, true, counter );
+          }
+        }
+      }
+    } ) );
+    report( "pop by hex", hexes.size(), time( new Runnable()
+    {
+      public void run()
+      {
+        for ( Tuple hex : hexes )
+        {
+          loaded.getPopCenter( hex );
+        }
+      }
+    } ) );
+    report( "load", hexes.size(), time( new Runnable()
+    {
+      public void run()
+      {
+        Game.load( dir );
+      }
+    } ) );
+  }
+
+  /** @return the average time of a run, after warming up. */
+  private static long time( Runnable benchmark )
+  {
+    for ( int i = 0; i < BENCHMARK_WARMUPS; i++ )
+    {
+      benchmark.run();
+    }
+    long start = System.nanoTime();
+    for ( int i = 0; i < BENCHMARK_RUNS; i++ )
+    {
+      benchmark.run();
+    }
+    return (System.nanoTime() - start) / BENCHMARK_RUNS;
+  }
+
+  private static void report( String name, int hexCount, long nanos )
+  {
+    System.out.println( String.format( "%-12s %5d hexes: %9.3f ms", name, hexCount, nanos / 1.0e6 ) );
+  }
+}
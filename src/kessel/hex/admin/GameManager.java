@@ -1,6 +1,10 @@
 package kessel.hex.admin;
 
 import kessel.hex.domain.Game;
+import kessel.hex.domain.Player;
+import kessel.hex.domain.SaveFormat;
+import kessel.hex.domain.TurnArchive;
+import kessel.hex.domain.TurnJournal;
 import org.apache.log4j.Logger;
 
 import java.io.File;
@@ -14,12 +18,19 @@ public class GameManager
 
   public static final String CREATE = "create";
   public static final String RUN_TURN = "run_turn";
+  public static final String RUN_TURN_DELTA = "run_turn_delta";
+  public static final String RESTORE_TURN = "restore_turn";
+  public static final String REPLAY_TURN = "replay_turn";
+  public static final String RESTORE_ARCHIVED_TURN = "restore_archived_turn";
+  public static final String PRUNE_ARCHIVE = "prune_archive";
   public static final String SAVES_DIR = "saves";
   public static final String CONF_DIR = "conf";
+  public static final String JOURNAL_SUFFIX = "_journal";
+  public static final String ARCHIVE_SUFFIX = "_archive";
 
   public static void main( String[] args ) throws IOException
   {
-    if ( args.length == 0 || args.length > 2 )
+    if ( args.length == 0 || args.length > 3 )
     {
       printUsage();
     }
@@ -29,7 +40,27 @@ public class GameManager
     }
     else if ( args[0].equals( RUN_TURN ) )
     {
-      runTurn( args[1] );
+      runTurn( args[1], getSnapshotInterval( args ) );
+    }
+    else if ( args[0].equals( RUN_TURN_DELTA ) )
+    {
+      runTurnWithDeltas( args[1], getSnapshotInterval( args ) );
+    }
+    else if ( args[0].equals( RESTORE_TURN ) && args.length == 3 )
+    {
+      restoreTurn( args[1], Integer.parseInt( args[2] ) );
+    }
+    else if ( args[0].equals( REPLAY_TURN ) && args.length == 3 )
+    {
+      replayTurn( args[1], Integer.parseInt( args[2] ) );
+    }
+    else if ( args[0].equals( RESTORE_ARCHIVED_TURN ) && args.length == 3 )
+    {
+      restoreArchivedTurn( args[1], Integer.parseInt( args[2] ) );
+    }
+    else if ( args[0].equals( PRUNE_ARCHIVE ) && args.length == 3 )
+    {
+      pruneArchive( args[1], Integer.parseInt( args[2] ) );
     }
     else
     {
@@ -48,47 +79,140 @@ public class GameManager
     // Create the game and save it in a directory based on it's name.
     Game game = new Game( name );
     File gameDir = new File( SAVES_DIR, name );
-    backupPriorGame( gameDir );
+    backupPriorGame( name );
     gameDir.mkdir();
     game.createGame( numPlayers, hexesPerPlayer, regionsPerPlayer, townsPerPlayer );
     game.save( gameDir );
+    getArchive( name ).archive( gameDir, game.getTurn() );
   }
 
-  private static void runTurn( String name ) throws IOException
+  /**
+   * Run the turn in place, saving it in the same format as the prior turn. The prior turn, along with the orders sent in for it, is archived
+   * before its files are replaced, and the game is restored to it if the turn can't be run or saved. The new turn is committed once it's
+   * archived too.
+   */
+  private static void runTurn( String name, int snapshotInterval ) throws IOException
   {
     File gameDir = new File( SAVES_DIR, name );
-    File oldGameDir = backupPriorGame( gameDir );
+    TurnArchive archive = getArchive( name );
+    recoverUncommittedTurn( gameDir, archive );
+    Integer priorTurn = null;
     try
     {
-      Game game = Game.runTurn( oldGameDir );
-      gameDir.mkdir();
-      game.save( gameDir );
+      Game game = Game.runTurn( gameDir, getJournal( name, snapshotInterval ) );
+      SaveFormat format = SaveFormat.forFile( Game.getGameFile( gameDir ) );
+      archive.archive( gameDir, game.getTurn() - 1 );
+      priorTurn = game.getTurn() - 1;
+      archive.removeArchivedFiles( priorTurn, gameDir );
+      game.save( gameDir, format );
+      archive.archive( gameDir, game.getTurn() );
     }
     catch ( Exception e )
     {
       LOG.error( "Game turn not executed.", e );
-      oldGameDir.renameTo( gameDir );
+      if ( priorTurn != null ) { archive.restore( priorTurn, gameDir ); }
     }
   }
 
-  /** @return the file pointing at the backup directory or null if there was no game to backup. */
-  private static File backupPriorGame( File gameDir )
+  /** Restore the game to its latest archived turn if a later turn was part way saved over it, e.g. when a crash interrupted the save. */
+  private static void recoverUncommittedTurn( File gameDir, TurnArchive archive ) throws IOException
   {
-    if ( gameDir.exists() )
+    Integer latestTurn = archive.getLatestTurn();
+    if ( latestTurn != null && !archive.hasGameFile( latestTurn, gameDir ) )
     {
-      File oldGameDir = new File( SAVES_DIR, gameDir.getName() + System.currentTimeMillis() );
-      gameDir.renameTo( oldGameDir );
-      return oldGameDir;
+      LOG.warn( "Restoring " + gameDir + " to its last committed turn, " + latestTurn );
+      archive.restore( latestTurn, gameDir );
     }
-    else
+  }
+
+  /**
+   * Run the turn in place, keeping prior turns as deltas in the game's history instead of as a backup of the whole game. Nothing is
+   * written unless the turn runs successfully.
+   */
+  private static void runTurnWithDeltas( String name, int snapshotInterval )
+  {
+    File gameDir = new File( SAVES_DIR, name );
+    try
+    {
+      Game game = Game.runTurn( gameDir, getJournal( name, snapshotInterval ) );
+      game.saveToHistory( gameDir, SaveFormat.JSON );
+    }
+    catch ( Exception e )
+    {
+      LOG.error( "Game turn not executed.", e );
+    }
+  }
+
+  /** Rebuild a turn from the game's history into its own game directory, e.g. "foogame_turn7". */
+  private static void restoreTurn( String name, int turn ) throws IOException
+  {
+    File gameDir = new File( SAVES_DIR, name );
+    File turnDir = new File( SAVES_DIR, Player.getStateName( name, turn ) );
+    Game.getHistory( gameDir ).restore( turn, turnDir, SaveFormat.JSON );
+    LOG.info( "Restored turn " + turn + " of " + name + " to " + turnDir );
+  }
+
+  /** Rebuild a turn by replaying the game's journal, saving it in its own game directory, e.g. "foogame_replay7". */
+  private static void replayTurn( String name, int turn ) throws IOException
+  {
+    File replayDir = new File( SAVES_DIR, name + "_replay" + turn );
+    replayDir.mkdir();
+    getJournal( name, TurnJournal.DEFAULT_SNAPSHOT_INTERVAL ).replay( turn ).save( replayDir );
+    LOG.info( "Replayed turn " + turn + " of " + name + " to " + replayDir );
+  }
+
+  /** Restore a turn from the game's archive into its own game directory, e.g. "foogame_archived7". */
+  private static void restoreArchivedTurn( String name, int turn ) throws IOException
+  {
+    File turnDir = new File( SAVES_DIR, name + "_archived" + turn );
+    getArchive( name ).restore( turn, turnDir );
+    LOG.info( "Restored archived turn " + turn + " of " + name + " to " + turnDir );
+  }
+
+  /** Remove all but the latest turns from the game's archive. */
+  private static void pruneArchive( String name, int turnsToKeep ) throws IOException
+  {
+    int removed = getArchive( name ).prune( turnsToKeep );
+    LOG.info( "Pruned the archive of " + name + " to its latest " + turnsToKeep + " turns, removing " + removed + " files" );
+  }
+
+  /** @return the archive of the game's turns. It's kept beside the game directory, like the journal. */
+  private static TurnArchive getArchive( String name )
+  {
+    return new TurnArchive( new File( SAVES_DIR, name + ARCHIVE_SUFFIX ) );
+  }
+
+  /** @return the journal of the game's turns. It's kept beside the game directory, so it's apart from the files of any one turn. */
+  private static TurnJournal getJournal( String name, int snapshotInterval )
+  {
+    return new TurnJournal( new File( SAVES_DIR, name + JOURNAL_SUFFIX ), snapshotInterval );
+  }
+
+  /** @return how many turns apart the journal's snapshots are taken, as given after the game name or else the journal's default. */
+  private static int getSnapshotInterval( String[] args )
+  {
+    return (args.length > 2) ? Integer.parseInt( args[2] ) : TurnJournal.DEFAULT_SNAPSHOT_INTERVAL;
+  }
+
+  /** Move any prior game with the name out of the way, along with its journal and archive, so a new game can take its place. */
+  private static void backupPriorGame( String name )
+  {
+    long now = System.currentTimeMillis();
+    for ( String suffix : new String[]{ "", JOURNAL_SUFFIX, ARCHIVE_SUFFIX } )
     {
-      return null;
+      File dir = new File( SAVES_DIR, name + suffix );
+      if ( dir.exists() )
+      {
+        dir.renameTo( new File( SAVES_DIR, name + suffix + now ) );
+      }
     }
   }
 
   @SuppressWarnings({ "UseOfSystemOutOrSystemErr" })
   private static void printUsage()
   {
-    System.out.println( "Usage: GameManager " + CREATE + " <game name> | " + RUN_TURN + " <game name>" );
+    System.out.println( "Usage: GameManager " + CREATE + " <game name> | " + RUN_TURN + " <game name> [snapshot interval] | " +
+                        RUN_TURN_DELTA + " <game name> [snapshot interval] | " + RESTORE_TURN + " <game name> <turn> | " + REPLAY_TURN + " <game name> <turn> | " +
+                        RESTORE_ARCHIVED_TURN + " <game name> <turn> | " + PRUNE_ARCHIVE + " <game name> <turns to keep>" );
   }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package kessel.hex.admin;
+
+import kessel.hex.domain.Agent;
+import kessel.hex.domain.Army;
+import kessel.hex.domain.Game;
+import kessel.hex.domain.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Benchmarks how the time to load a game, including fixing the references of every item in it and in each player's view, scales with the
+ * number of items in the game. The games are padded out with armies at each player's capitol, each with an agent based in it.
+ */
+@SuppressWarnings({ "UseOfSystemOutOrSystemErr" })
+public class LoadBenchmark
+{
+  private static final int[] ITEM_COUNTS = { 1000, 2500, 5000, 10000, 20000 };
+  private static final int PLAYERS = 6;
+  private static final int HEXES_PER_PLAYER = 50;
+  private static final double REGIONS_PER_PLAYER = 0.67;
+  private static final int TOWNS_PER_PLAYER = 8;
+
+  private static final int BENCHMARK_WARMUPS = 2;
+  private static final int BENCHMARK_RUNS = 5;
+
+  public static void main( String[] args ) throws IOException
+  {
+    for ( int itemCount : ITEM_COUNTS )
+    {
+      File gameDir = Files.createTempDirectory( "hexbench" ).toFile();
+      Game game = createGame( itemCount );
+      game.save( gameDir );
+
+      for ( int i = 0; i < BENCHMARK_WARMUPS; i++ )
+      {
+        Game.load( gameDir );
+      }
+      long start = System.nanoTime();
+      for ( int i = 0; i < BENCHMARK_RUNS; i++ )
+      {
+        Game.load( gameDir );
+      }
+      long loadNanos = (System.nanoTime() - start) / BENCHMARK_RUNS;
+      System.out.println( String.format( "%6d items: load %9.1f ms", game.getAllGameItems().size(), loadNanos / 1.0e6 ) );
+    }
+  }
+
+  /** @return a game with about the given number of items, once the players have seen their new armies and agents. */
+  private static Game createGame( int itemCount )
+  {
+    Game game = new Game( "bench" );
+    game.createGame( PLAYERS, HEXES_PER_PLAYER, REGIONS_PER_PLAYER, TOWNS_PER_PLAYER );
+    int armiesPerPlayer = Math.max( 0, itemCount - game.getAllGameItems().size() ) / (2 * PLAYERS);
+    for ( Player player : game.getPlayers() )
+    {
+      for ( int i = 0; i < armiesPerPlayer; i++ )
+      {
+        Army army = new Army( game.generateUniqueId(), "Army " + i, 0, player.getCapitol().getLocation(), player );
+        player.add( army );
+        player.add( new Agent( game.generateUniqueId(), "Agent " + i, 0, army, player ) );
+      }
+      player.updateIntelligence( game );
+    }
+    return game;
+  }
+}
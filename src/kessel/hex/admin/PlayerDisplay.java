@@ -3,6 +3,7 @@ package kessel.hex.admin;
 import kessel.hex.domain.Game;
 import kessel.hex.domain.GameEvent;
 import kessel.hex.domain.Player;
+import kessel.hex.domain.SaveFormat;
 import kessel.hex.map.ControlLevel;
 import kessel.hex.map.Region;
 import kessel.hex.util.Tuple;
@@ -13,6 +14,7 @@ import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -48,14 +50,15 @@ public class PlayerDisplay extends AbstractGameDisplay
     {
       public void actionPerformed( ActionEvent event )
       {
-//                try
-//                {
-//// CODEREVIEW                    _player.saveOrders( getPersistenceDir(), _player.getTurn() + 1 );
-//                }
-//                catch ( IOException e )
-//                {
-//                    throw new RuntimeException( e );
-//                }
+        if ( !isLoaded() ) { return; }
+        try
+        {
+          _player.saveOrders( getPersistenceDir(), _player.getGameView().getTurn() );
+        }
+        catch ( IOException e )
+        {
+          throw new RuntimeException( e );
+        }
       }
     };
   }
@@ -71,7 +74,7 @@ public class PlayerDisplay extends AbstractGameDisplay
         {
           public boolean accept( File pathName )
           {
-            return pathName.getName().endsWith( Player.STATE_FILE );
+            return SaveFormat.isSaveFile( pathName ) && !SaveFormat.getBaseName( pathName ).endsWith( Player.ORDERS_SUFFIX );
           }
 
           public String getDescription() { return "Player state files"; }
@@ -81,12 +84,13 @@ public class PlayerDisplay extends AbstractGameDisplay
         if ( returnVal == JFileChooser.APPROVE_OPTION )
         {
           File file = fc.getSelectedFile();
-          String[] fileBits = file.getName().split( "_" );
+          String[] fileBits = SaveFormat.getBaseName( file ).split( "_" );
           String name = fileBits[0];
           String turn = fileBits[1].substring( 4 );
           try
           {
-            _player = Player.load( getPersistenceDir(), name, Integer.parseInt( turn ) );
+            // Any orders already saved to the player's orders file are picked up, so saving again adds to them rather than losing them.
+            _player = Player.loadToIssueOrders( getPersistenceDir(), name, Integer.parseInt( turn ) );
           }
           catch ( Exception e )
           {
@@ -0,0 +1,135 @@
+package kessel.hex.admin;
+
+import kessel.hex.domain.Game;
+import kessel.hex.domain.Player;
+import kessel.hex.domain.SaveFormat;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/** Converts a saved game's files between the save formats, and benchmarks the formats against each other. */
+@SuppressWarnings({ "UseOfSystemOutOrSystemErr" })
+public class SnapshotConverter
+{
+  private static final Logger LOG = Logger.getLogger( SnapshotConverter.class );
+
+  public static final String TO_SNAPSHOT = "to_snapshot";
+  public static final String TO_JSON = "to_json";
+  public static final String TO_COMPRESSED = "to_compressed";
+  public static final String BENCHMARK = "benchmark";
+
+  private static final int BENCHMARK_WARMUPS = 5;
+  private static final int BENCHMARK_RUNS = 20;
+
+  public static void main( String[] args ) throws Exception
+  {
+    if ( args.length != 2 )
+    {
+      printUsage();
+    }
+    else if ( args[0].equals( TO_SNAPSHOT ) )
+    {
+      convert( new File( GameManager.SAVES_DIR, args[1] ), SaveFormat.SNAPSHOT );
+    }
+    else if ( args[0].equals( TO_JSON ) )
+    {
+      convert( new File( GameManager.SAVES_DIR, args[1] ), SaveFormat.JSON );
+    }
+    else if ( args[0].equals( TO_COMPRESSED ) )
+    {
+      convert( new File( GameManager.SAVES_DIR, args[1] ), SaveFormat.COMPRESSED );
+    }
+    else if ( args[0].equals( BENCHMARK ) )
+    {
+      benchmark( new File( GameManager.SAVES_DIR, args[1] ) );
+    }
+    else
+    {
+      printUsage();
+    }
+  }
+
+  /** Convert every admin and player file of the game to the given format. */
+  public static void convert( File gameDir, SaveFormat format ) throws IOException
+  {
+    for ( File dir : new File[]{ new File( gameDir, Game.ADMIN_DIR ), new File( gameDir, Game.PLAYERS_DIR ) } )
+    {
+      File[] files = dir.listFiles();
+      if ( files == null ) { continue; }
+      for ( File file : files )
+      {
+        if ( SaveFormat.isSaveFile( file ) )
+        {
+          File converted = format.convert( file );
+          LOG.info( "Converted " + file + " to " + converted );
+        }
+      }
+    }
+  }
+
+  /** Time saving and loading the game in each format and report the sizes of the files. */
+  private static void benchmark( File gameDir ) throws Exception
+  {
+    Game game = Game.load( gameDir );
+    for ( SaveFormat format : SaveFormat.values() )
+    {
+      File benchDir = Files.createTempDirectory( "hexbench" ).toFile();
+      for ( int i = 0; i < BENCHMARK_WARMUPS; i++ )
+      {
+        game.save( benchDir, format );
+        Game.load( benchDir );
+      }
+
+      long start = System.nanoTime();
+      for ( int i = 0; i < BENCHMARK_RUNS; i++ )
+      {
+        game.save( benchDir, format );
+      }
+      long saveNanos = (System.nanoTime() - start) / BENCHMARK_RUNS;
+
+      start = System.nanoTime();
+      for ( int i = 0; i < BENCHMARK_RUNS; i++ )
+      {
+        Game.load( benchDir );
+      }
+      long loadNanos = (System.nanoTime() - start) / BENCHMARK_RUNS;
+
+      // The player files are what's sent out each turn, so loading them is timed too.
+      File playersDir = new File( benchDir, Game.PLAYERS_DIR );
+      start = System.nanoTime();
+      for ( int i = 0; i < BENCHMARK_RUNS; i++ )
+      {
+        for ( Player player : game.getPlayers() )
+        {
+          Player.load( playersDir, player.getName(), game.getTurn() );
+        }
+      }
+      long playerLoadNanos = (System.nanoTime() - start) / BENCHMARK_RUNS;
+
+      long gameBytes = Game.getGameFile( benchDir ).length();
+      long playerBytes = 0;
+      File[] playerFiles = new File( benchDir, Game.PLAYERS_DIR ).listFiles();
+      for ( File file : playerFiles )
+      {
+        playerBytes += file.length();
+        file.delete();
+      }
+      Game.getGameFile( benchDir ).delete();
+      new File( benchDir, Game.ADMIN_DIR ).delete();
+      new File( benchDir, Game.PLAYERS_DIR ).delete();
+      benchDir.delete();
+
+      System.out.println( String.format( "%-10s save %6.1f ms, load %6.1f ms, load players %6.1f ms, game file %8d bytes, " +
+                                         "player files %8d bytes", format, saveNanos / 1.0e6, loadNanos / 1.0e6,
+                                         playerLoadNanos / 1.0e6, gameBytes, playerBytes ) );
+    }
+  }
+
+  private static void printUsage()
+  {
+    System.out.println( "Usage: SnapshotConverter " + TO_SNAPSHOT + " <game name> | " + TO_JSON + " <game name> | " +
+                        TO_COMPRESSED + " <game name> | " + BENCHMARK + " <game name>" );
+  }
+}
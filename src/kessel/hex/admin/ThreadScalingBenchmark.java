@@ -0,0 +1,152 @@
+package kessel.hex.admin;
+
+import kessel.hex.domain.Agent;
+import kessel.hex.domain.Army;
+import kessel.hex.domain.Game;
+import kessel.hex.domain.Player;
+import kessel.hex.domain.Wizard;
+import kessel.hex.orders.Order;
+import kessel.hex.orders.agent.MoveAgent;
+import kessel.hex.orders.agent.TrainAgent;
+import kessel.hex.orders.wizard.MoveWizard;
+import kessel.hex.orders.wizard.TrainWizard;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks how the wall clock time of a part of a turn the game spreads over threads scales with the number of players. Each game size
+ * is timed with the game's work on one thread and then on as many threads as there are processors, unless a thread count is given after
+ * the name of the part to time.
+ */
+@SuppressWarnings({ "UseOfSystemOutOrSystemErr" })
+public class ThreadScalingBenchmark
+{
+  private static final int[] PLAYER_COUNTS = { 3, 6, 9, 12, 15 };
+  private static final int HEXES_PER_PLAYER = 50;
+  private static final double REGIONS_PER_PLAYER = 0.67;
+  private static final int TOWNS_PER_PLAYER = 8;
+
+  private static final int BENCHMARK_WARMUPS = 3;
+  private static final int BENCHMARK_RUNS = 10;
+
+  /** The parts of a turn that can be timed. */
+  private enum Part
+  {
+    /** Running a turn, from loading the game and its orders to saving every player's file. */
+    TURN
+    {
+      long time( File gameDir, int threads ) throws IOException
+      {
+        long start = System.nanoTime();
+        Game.runTurn( gameDir, threads ).save( gameDir );
+        return System.nanoTime() - start;
+      }
+    },
+
+    /**
+     * Executing a turn's orders. Every agent and wizard moves back to its capitol and trains there, so each player's orders can be
+     * executed apart from the other players'.
+     */
+    ORDERS
+    {
+      long time( File gameDir, int threads ) throws IOException
+      {
+        Game game = Game.load( gameDir );
+        game.setThreads( threads );
+        game.setRandom( new Random( 1 ) );
+        List<Order<?>> orders = new ArrayList<>();
+        for ( Player player : game.getPlayers() )
+        {
+          for ( Agent agent : player.getAgents() )
+          {
+            orders.add( new MoveAgent( agent, player.getCapitol() ) );
+            orders.add( new TrainAgent( agent ) );
+          }
+          for ( Wizard wizard : player.getWizards() )
+          {
+            orders.add( new MoveWizard( wizard, player.getCapitol() ) );
+            orders.add( new TrainWizard( wizard ) );
+          }
+        }
+
+        long start = System.nanoTime();
+        game.processOrders( orders );
+        return System.nanoTime() - start;
+      }
+    },
+
+    /**
+     * Updating every player's intelligence. Each player's armies sit at the next player's capitol, so every player has foreign armies and
+     * pops to learn about.
+     */
+    INTEL
+    {
+      long time( File gameDir, int threads ) throws IOException
+      {
+        Game game = Game.load( gameDir );
+        game.setThreads( threads );
+        List<Player> players = game.getPlayers();
+        for ( int i = 0; i < players.size(); i++ )
+        {
+          Player nextPlayer = players.get( (i + 1) % players.size() );
+          for ( Army army : players.get( i ).getArmies() )
+          {
+            army.setLocation( nextPlayer.getCapitol().getLocation() );
+          }
+        }
+
+        long start = System.nanoTime();
+        game.updateIntelligence();
+        return System.nanoTime() - start;
+      }
+    };
+
+    /** @return the time taken to run the part once on the saved game, with the game's work spread over the given number of threads. */
+    abstract long time( File gameDir, int threads ) throws IOException;
+  }
+
+  public static void main( String[] args ) throws IOException
+  {
+    if ( args.length < 1 )
+    {
+      System.out.println( "Usage: ThreadScalingBenchmark <turn|orders|intel> [threads]" );
+      return;
+    }
+    Part part = Part.valueOf( args[0].toUpperCase() );
+    int concurrentThreads = (args.length > 1) ? Integer.parseInt( args[1] ) : Runtime.getRuntime().availableProcessors();
+    for ( int playerCount : PLAYER_COUNTS )
+    {
+      File gameDir = Files.createTempDirectory( "hexbench" ).toFile();
+      Game game = new Game( "bench" );
+      game.createGame( playerCount, HEXES_PER_PLAYER, REGIONS_PER_PLAYER, TOWNS_PER_PLAYER );
+      game.save( gameDir );
+
+      long sequentialNanos = time( part, gameDir, 1 );
+      long concurrentNanos = time( part, gameDir, concurrentThreads );
+      System.out.println( String.format( "%2d players: sequential %7.2f ms, concurrent (%d threads) %7.2f ms, speedup %.2fx",
+                                         playerCount, sequentialNanos / 1.0e6, concurrentThreads, concurrentNanos / 1.0e6,
+                                         (double) sequentialNanos / concurrentNanos ) );
+    }
+  }
+
+  /** @return the average time to run the part on the saved game with the given number of threads. */
+  private static long time( Part part, File gameDir, int threads ) throws IOException
+  {
+    for ( int i = 0; i < BENCHMARK_WARMUPS; i++ )
+    {
+      part.time( gameDir, threads );
+    }
+
+    long nanos = 0;
+    for ( int i = 0; i < BENCHMARK_RUNS; i++ )
+    {
+      nanos += part.time( gameDir, threads );
+    }
+    return nanos / BENCHMARK_RUNS;
+  }
+}
@@ -1,10 +1,6 @@
 package kessel.hex.domain;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
+import com.google.gson.stream.JsonReader;
 import kessel.hex.orders.AbstractMoveFigure;
 import kessel.hex.orders.agent.AgentReconLocation;
 import kessel.hex.orders.agent.AgentScoutControlLevel;
@@ -18,7 +14,7 @@ import kessel.hex.orders.agent.SabotageEmbassy;
 import kessel.hex.orders.agent.SabotagePopCenter;
 import kessel.hex.orders.agent.TrainAgent;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -100,19 +96,9 @@ public class Agent extends Figure
 
   public static class MyJsonAdapter extends Figure.MyJsonAdapter<Agent>
   {
-    public JsonElement serialize( Agent agent, Type type, JsonSerializationContext context )
+    public Agent read( JsonReader in ) throws IOException
     {
-      JsonObject jsonResponse = new JsonObject();
-      super.serialize( agent, jsonResponse, type, context );
-      return jsonResponse;
-    }
-
-    public Agent deserialize( JsonElement jsonOrder, Type type, JsonDeserializationContext context )
-      throws JsonParseException
-    {
-      Agent agent = new Agent();
-      super.doDeserialize( agent, jsonOrder, context );
-      return agent;
+      return readFields( in, new Agent() );
     }
   }
 }
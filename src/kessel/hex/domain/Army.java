@@ -1,11 +1,8 @@
 package kessel.hex.domain;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import kessel.hex.map.Location;
 import kessel.hex.map.Terrain;
 import kessel.hex.orders.Order;
@@ -15,7 +12,7 @@ import kessel.hex.orders.army.ArmyRecruit;
 import kessel.hex.orders.army.ArmySearch;
 import kessel.hex.orders.army.ArmyTransfer;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -39,7 +36,11 @@ public class Army extends CombatCapableItem
   public Army( Army toClone )
   {
     this( toClone.getId(), toClone.getName(), toClone.getTurnSeen(), toClone.getLocation(), toClone.getOwner() );
-    _units.addAll( toClone.getUnits() );
+    // The units are copied too, so intel about the army doesn't change along with the army itself.
+    for ( ArmyUnit unit : toClone.getUnits() )
+    {
+      addUnit( new ArmyUnit( unit ) );
+    }
   }
 
   public void clearUnits() { _units.clear(); }
@@ -294,22 +295,27 @@ public class Army extends CombatCapableItem
   public static class MyJsonAdapter extends GameItem.MyJsonAdapter<Army>
   {
     private static final String UNITS = "units";
+    private static final TypeToken<List<ArmyUnit>> UNIT_LIST = new TypeToken<List<ArmyUnit>>() {};
 
-    public JsonElement serialize( Army army, Type type, JsonSerializationContext context )
+    protected void writeFields( JsonWriter out, Army army ) throws IOException
     {
-      JsonObject jsonResponse = new JsonObject();
-      super.serialize( army, jsonResponse, type, context );
-      jsonResponse.add( UNITS, context.serialize( army._units ) );
-      return jsonResponse;
+      super.writeFields( out, army );
+      out.name( UNITS );
+      Game.GSON.getAdapter( UNIT_LIST ).write( out, army._units );
+    }
+
+    protected boolean readField( String field, JsonReader in, Army army ) throws IOException
+    {
+      switch ( field )
+      {
+        case UNITS: army._units = Game.GSON.getAdapter( UNIT_LIST ).read( in ); return true;
+        default: return super.readField( field, in, army );
+      }
     }
 
-    public Army deserialize( JsonElement jsonOrder, Type type, JsonDeserializationContext context )
-      throws JsonParseException
+    public Army read( JsonReader in ) throws IOException
     {
-      Army army = new Army();
-      super.doDeserialize( army, jsonOrder, context );
-      army._units = context.deserialize( jsonOrder.getAsJsonObject().get( UNITS ), new TypeToken<List<ArmyUnit>>(){}.getType() );
-      return army;
+      return readFields( in, new Army() );
     }
   }
 
@@ -1,16 +1,13 @@
 package kessel.hex.domain;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import kessel.hex.map.Location;
 import kessel.hex.map.Terrain;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.List;
 
 /** An individual army unit (a corp, brigade, platoon, whatever you want to call it). */
@@ -36,6 +33,13 @@ public class ArmyUnit extends CombatCapableItem
     this( UNKNOWN_ID, armoredTroop, 0 );
   }
 
+  public ArmyUnit( ArmyUnit toClone )
+  {
+    this( toClone.getId(), toClone.getTroopType(), toClone.getTurnSeen() );
+    _casualties = toClone._casualties;
+    _morale = toClone._morale;
+  }
+
   public TroopType getTroopType() { return _troopType; }
 
   public int getCasualties() { return _casualties; }
@@ -99,26 +103,32 @@ public class ArmyUnit extends CombatCapableItem
     private static final String CASUALTIES = "casualties";
     private static final String MORALE = "morale";
 
-    public JsonElement serialize( ArmyUnit unit, Type type, JsonSerializationContext context )
+    protected void writeFields( JsonWriter out, ArmyUnit unit ) throws IOException
+    {
+      super.writeFields( out, unit );
+      out.name( TROOP_TYPE );
+      Game.GSON.getAdapter( TroopType.class ).write( out, unit._troopType );
+      out.name( CASUALTIES ).value( unit._casualties );
+      out.name( MORALE ).value( unit._morale );
+    }
+
+    /** Units are always contained in their army, so their location isn't persisted. */
+    protected void writeCoordinate( JsonWriter out, ArmyUnit unit ) {}
+
+    protected boolean readField( String field, JsonReader in, ArmyUnit unit ) throws IOException
     {
-      JsonObject jsonResponse = new JsonObject();
-      super.serialize( unit, jsonResponse, type, context );
-      jsonResponse.remove( COORDINATE );
-      jsonResponse.add( TROOP_TYPE, context.serialize( unit._troopType ) );
-      jsonResponse.add( CASUALTIES, context.serialize( unit._casualties ) );
-      jsonResponse.add( MORALE, context.serialize( unit._morale ) );
-      return jsonResponse;
+      switch ( field )
+      {
+        case TROOP_TYPE: unit._troopType = Game.GSON.getAdapter( TroopType.class ).read( in ); return true;
+        case CASUALTIES: unit._casualties = in.nextInt(); return true;
+        case MORALE: unit._morale = in.nextDouble(); return true;
+        default: return super.readField( field, in, unit );
+      }
     }
 
-    public ArmyUnit deserialize( JsonElement jsonOrder, Type type, JsonDeserializationContext context )
-      throws JsonParseException
+    public ArmyUnit read( JsonReader in ) throws IOException
     {
-      ArmyUnit army = new ArmyUnit();
-      super.doDeserialize( army, jsonOrder, context );
-      army._troopType = context.deserialize( jsonOrder.getAsJsonObject().get( TROOP_TYPE ), TroopType.class );
-      army._casualties = context.deserialize( jsonOrder.getAsJsonObject().get( CASUALTIES ), Integer.class );
-      army._morale = context.deserialize( jsonOrder.getAsJsonObject().get( MORALE ), Double.class );
-      return army;
+      return readFields( in, new ArmyUnit() );
     }
   }
 
@@ -0,0 +1,134 @@
+package kessel.hex.domain;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import kessel.hex.map.ControlLevel;
+import kessel.hex.map.Region;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What a player knows of how much other players control of each region. The levels about each player are held by region ordinal, see
+ * RegionLevels, and the players are few enough to be searched by name. It's saved as it always was, by player name then region name.
+ * Each level is held as its ordinal, so Unknown is level 0, what a region without a level reads as.
+ */
+final class ControlIntel
+{
+  private static final ControlLevel[] LEVELS = ControlLevel.values();
+
+  private String[] _players = new String[0];
+  private RegionLevels[] _levels = new RegionLevels[0];
+
+  ControlLevel getLevel( Region region, String playerName )
+  {
+    int slot = findSlot( playerName );
+    return (slot < 0) ? ControlLevel.Unknown : LEVELS[_levels[slot].getLevel( region )];
+  }
+
+  void setLevel( Region region, String playerName, ControlLevel level )
+  {
+    getLevels( playerName ).setLevel( region, level.ordinal() );
+  }
+
+  private RegionLevels getLevels( String playerName )
+  {
+    int slot = findSlot( playerName );
+    if ( slot < 0 )
+    {
+      slot = _players.length;
+      _players = Arrays.copyOf( _players, slot + 1 );
+      _levels = Arrays.copyOf( _levels, slot + 1 );
+      _players[slot] = playerName;
+      _levels[slot] = new RegionLevels();
+    }
+    return _levels[slot];
+  }
+
+  private int findSlot( String playerName )
+  {
+    for ( int i = 0; i < _players.length; i++ )
+    {
+      if ( _players[i].equals( playerName ) ) { return i; }
+    }
+    return -1;
+  }
+
+  /** Move each level to its region's ordinal on the map. */
+  void arrange( List<Region> regions )
+  {
+    for ( RegionLevels levels : _levels )
+    {
+      levels.arrange( regions );
+    }
+  }
+
+  public boolean equals( Object o )
+  {
+    return (o instanceof ControlIntel) && isWithin( (ControlIntel) o ) && ((ControlIntel) o).isWithin( this );
+  }
+
+  // A player without intel is the same as one whose regions are all unknown.
+  private boolean isWithin( ControlIntel that )
+  {
+    for ( int i = 0; i < _players.length; i++ )
+    {
+      int slot = that.findSlot( _players[i] );
+      if ( !_levels[i].equals( (slot < 0) ? new RegionLevels() : that._levels[slot] ) ) { return false; }
+    }
+    return true;
+  }
+
+  public int hashCode()
+  {
+    int hash = 0;
+    for ( int i = 0; i < _players.length; i++ )
+    {
+      if ( _levels[i].hashCode() != 0 ) { hash += _players[i].hashCode() ^ _levels[i].hashCode(); }
+    }
+    return hash;
+  }
+
+  /** Write the levels keyed by player name then region name, leaving out those that are unknown, which is what's missing reads as. */
+  void write( JsonWriter out ) throws IOException
+  {
+    TypeAdapter<ControlLevel> levelAdapter = Game.GSON.getAdapter( ControlLevel.class );
+    out.beginObject();
+    for ( int i = 0; i < _players.length; i++ )
+    {
+      out.name( _players[i] ).beginObject();
+      RegionLevels levels = _levels[i];
+      for ( int slot = 0; slot < levels.getSlotCount(); slot++ )
+      {
+        if ( (levels.getRegion( slot ) != null) && (levels.getLevel( slot ) != 0) )
+        {
+          out.name( levels.getRegion( slot ) );
+          levelAdapter.write( out, LEVELS[levels.getLevel( slot )] );
+        }
+      }
+      out.endObject();
+    }
+    out.endObject();
+  }
+
+  static ControlIntel read( JsonReader in ) throws IOException
+  {
+    TypeAdapter<ControlLevel> levelAdapter = Game.GSON.getAdapter( ControlLevel.class );
+    ControlIntel intel = new ControlIntel();
+    in.beginObject();
+    while ( in.hasNext() )
+    {
+      RegionLevels levels = intel.getLevels( in.nextName() );
+      in.beginObject();
+      while ( in.hasNext() )
+      {
+        levels.setLevel( in.nextName(), levelAdapter.read( in ).ordinal() );
+      }
+      in.endObject();
+    }
+    in.endObject();
+    return intel;
+  }
+}
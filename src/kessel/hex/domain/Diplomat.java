@@ -1,10 +1,6 @@
 package kessel.hex.domain;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
+import com.google.gson.stream.JsonReader;
 import kessel.hex.orders.AbstractMoveFigure;
 import kessel.hex.orders.diplomat.DiplomatInciteRebellion;
 import kessel.hex.orders.diplomat.DiplomatInspireLoyalty;
@@ -14,7 +10,7 @@ import kessel.hex.orders.diplomat.MoveDiplomat;
 import kessel.hex.orders.diplomat.TakeRegionCensus;
 import kessel.hex.orders.diplomat.TrainDiplomat;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -96,19 +92,9 @@ public class Diplomat extends Figure
 
   public static class MyJsonAdapter extends Figure.MyJsonAdapter<Diplomat>
   {
-    public JsonElement serialize( Diplomat diplomat, Type type, JsonSerializationContext context )
+    public Diplomat read( JsonReader in ) throws IOException
     {
-      JsonObject jsonResponse = new JsonObject();
-      super.serialize( diplomat, jsonResponse, type, context );
-      return jsonResponse;
-    }
-
-    public Diplomat deserialize( JsonElement jsonOrder, Type type, JsonDeserializationContext context )
-      throws JsonParseException
-    {
-      Diplomat diplomat = new Diplomat();
-      super.doDeserialize( diplomat, jsonOrder, context );
-      return diplomat;
+      return readFields( in, new Diplomat() );
     }
   }
 }
@@ -1,13 +1,10 @@
 package kessel.hex.domain;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import kessel.hex.map.Location;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 /** Represents an figure in the game, such as an agent, wizard, etc. */
 public abstract class Figure extends GameItem
@@ -62,10 +59,15 @@ public abstract class Figure extends GameItem
 
   public void setBase( GameItem base )
   {
+    int oldBaseId = getBaseId();
     _base = base;
     super.setLocation( base.getLocation() );
+    if ( _owner != null ) { _owner.figureRebased( this, oldBaseId ); }
   }
 
+  /** @return the id of the figure's base, which is known even before the base is fixed after loading. */
+  int getBaseId() { return (_base != null) ? _base.getId() : _jsonBaseId; }
+
   public int getRange() { return _range; }
 
   public void setRange( int range ) { _range = range; }
@@ -103,22 +105,24 @@ public abstract class Figure extends GameItem
     private static final String RANGE = "range";
 
     /** serialize jut those bits relevant to Figure. */
-    public void serialize( X figure, JsonObject jsonResponse, Type type, JsonSerializationContext context )
+    protected void writeFields( JsonWriter out, X figure ) throws IOException
     {
-      super.serialize( figure, jsonResponse, type, context );
-      jsonResponse.add( LEVEL, context.serialize( figure.getLevel() ) );
-      jsonResponse.add( BASE_ID, context.serialize( figure.getBase().getId() ) );
-      jsonResponse.add( RANGE, context.serialize( figure.getRange() ) );
+      super.writeFields( out, figure );
+      out.name( LEVEL ).value( figure.getLevel() );
+      out.name( BASE_ID ).value( figure.getBase().getId() );
+      out.name( RANGE ).value( figure.getRange() );
     }
 
     /** deserialize jut those bits relevant to Figure. */
-    public void doDeserialize( X figure, JsonElement jsonOrder, JsonDeserializationContext context )
-      throws JsonParseException
+    protected boolean readField( String field, JsonReader in, X figure ) throws IOException
     {
-      super.doDeserialize( figure, jsonOrder, context );
-      figure._level = context.deserialize( jsonOrder.getAsJsonObject().get( LEVEL ), Integer.class );
-      figure._jsonBaseId = context.deserialize( jsonOrder.getAsJsonObject().get( BASE_ID ), Integer.class );
-      figure._range = context.deserialize( jsonOrder.getAsJsonObject().get( RANGE ), Integer.class );
+      switch ( field )
+      {
+        case LEVEL: figure._level = in.nextInt(); return true;
+        case BASE_ID: figure._jsonBaseId = in.nextInt(); return true;
+        case RANGE: figure._range = in.nextInt(); return true;
+        default: return super.readField( field, in, figure );
+      }
     }
   }
 
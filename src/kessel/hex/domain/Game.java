@@ -2,7 +2,13 @@ package kessel.hex.domain;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import kessel.hex.domain.PopCenter.PopType;
 import kessel.hex.map.ControlLevel;
 import kessel.hex.map.GameMap;
@@ -10,6 +16,7 @@ import kessel.hex.map.Location;
 import kessel.hex.map.MapCreator;
 import kessel.hex.map.Region;
 import kessel.hex.orders.Order;
+import kessel.hex.orders.OrderScheduler;
 import kessel.hex.orders.agent.AgentReconLocation;
 import kessel.hex.orders.agent.AgentScoutControlLevel;
 import kessel.hex.orders.agent.AgentScoutEmbassies;
@@ -71,9 +78,6 @@ import kessel.hex.orders.wizard.MoveWizard;
 import kessel.hex.orders.wizard.PhantomTroops;
 import kessel.hex.orders.wizard.PlagueArmy;
 import kessel.hex.orders.wizard.RaiseDead;
-import kessel.hex.orders.wizard.SummonDragons;
-import kessel.hex.orders.wizard.SummonOgres;
-import kessel.hex.orders.wizard.SummonWerebeasts;
 import kessel.hex.orders.wizard.Scry;
 import kessel.hex.orders.wizard.ShadowAssassin;
 import kessel.hex.orders.wizard.ShieldFigure;
@@ -81,6 +85,9 @@ import kessel.hex.orders.wizard.ShieldRegion;
 import kessel.hex.orders.wizard.SubvertCity;
 import kessel.hex.orders.wizard.SubvertHamlet;
 import kessel.hex.orders.wizard.SubvertTown;
+import kessel.hex.orders.wizard.SummonDragons;
+import kessel.hex.orders.wizard.SummonOgres;
+import kessel.hex.orders.wizard.SummonWerebeasts;
 import kessel.hex.orders.wizard.TeleportArmy;
 import kessel.hex.orders.wizard.TeleportFigure;
 import kessel.hex.orders.wizard.TeleportSelf;
@@ -88,20 +95,15 @@ import kessel.hex.orders.wizard.TrainWizard;
 import kessel.hex.orders.wizard.UnlimitedInvisibleArmy;
 import kessel.hex.orders.wizard.UnlimitedTeleportArmy;
 import kessel.hex.util.AtomicIntegerJsonAdapter;
+import kessel.hex.util.FilteringJsonReader;
 import kessel.hex.util.Tuple;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.log4j.Logger;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.util.ArrayList;
@@ -109,9 +111,18 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /** Creates the Game. This includes creating the map, the towns, the regions, etc. */
@@ -131,9 +142,14 @@ public class Game
   public static final int BASE_TOWN_PRODUCTION = 7;
   public static final int BASE_CITY_PRODUCTION = 14;
 
-  public static final String GAME_FILE = "game.json";
+  public static final String GAME_NAME = "game";
+  public static final String GAME_FILE = GAME_NAME + SaveFormat.JSON.getExtension();
   public static final String ADMIN_DIR = "admin";
   public static final String PLAYERS_DIR = "player";
+  public static final String HISTORY_DIR = "history";
+
+  /** Gson names the game's json members after its fields. */
+  private static final String PLAYERS_MEMBER = "_players";
 
   // The single GSON instance used in _all_ serialization.
   public static final Gson GSON = createGson();
@@ -155,11 +171,24 @@ public class Game
   GameMap _map;
   private int _turn;
   private final AtomicInteger _idGenerator = new AtomicInteger( 1 );
-  private final transient GameTurn _currentTurn = new GameTurn();
+  private transient GameTurn _currentTurn = new GameTurn();
+
+  // The source of every chance outcome while running a turn. Turns are recorded and replayed through it, see TurnJournal.
+  private transient Random _random = new Random();
+
+  // Set while orders are executed at once, when no random numbers may be drawn as they'd be drawn out of sequence.
+  private transient volatile boolean _executingApart = false;
   boolean _created = false;
 
   private transient MapCreator.MapCreationListener _listener;
 
+  // Every item by id and player by name, built when first needed.
+  private transient GameRegistry _registry;
+
+  // How many threads the game's work is spread over, e.g. loading and saving the player files, executing orders and updating
+  // the players' intelligence.
+  private transient int _threads = Runtime.getRuntime().availableProcessors();
+
   // Used only by GSON
   public Game() {}
   public Game( String name )
@@ -173,6 +202,7 @@ public class Game
     if ( LOG.isDebugEnabled() ) { LOG.debug( "Construct game started" ); }
 
     _players = new PlayerCreator( this ).createPlayers( numPlayers, true );
+    resetRegistry();
     _map = new MapCreator( this, _listener ).createMap( numPlayers, hexesPerPlayer, regionsPerPlayer, townsPerPlayer );
     updateIntelligence();
     _created = true;
@@ -185,21 +215,15 @@ public class Game
     }
   }
 
-  public void addPlayer( Player player ) { _players.add( player ); }
+  public void addPlayer( Player player )
+  {
+    _players.add( player );
+    if ( _registry != null ) { _registry.addPlayer( player ); }
+  }
 
   public List<Player> getPlayers() { return _players; }
 
-  public Player getPlayer( String playerName )
-  {
-    for ( Player player : _players )
-    {
-      if ( player.getName().equals( playerName ) )
-      {
-        return player;
-      }
-    }
-    return null;
-  }
+  public Player getPlayer( String playerName ) { return getRegistry().getPlayer( playerName ); }
 
   public List<String> getPlayerNames()
   {
@@ -253,40 +277,21 @@ public class Game
   public PopCenter getPopCenter( Location location )
   { return getPopCenter( location.getCoord() ); }
 
-  public PopCenter getPopCenter( int x, int y ) { return getPopCenter( new Tuple( x, y ) ); }
+  public PopCenter getPopCenter( int x, int y ) { return getPopCenter( _map.getTuple( x, y ) ); }
 
   public PopCenter getPopCenter( Tuple hex )
   {
-    for ( PopType value : PopType.values() )
-    {
-      PopCenter pop = _popCenters.get( value ).get( hex );
-      if ( pop != null )
-      {
-        return pop;
-      }
-    }
-    return null;
+    GameRegistry registry = getRegistry();
+    return registry.mayHoldPopCenter( hex ) ? registry.getPopCenter( hex ) : null;
   }
 
   /** @return the pop center with the given unique id or null if not found. */
-  public PopCenter getPopCenter( int popCenterId )
-  {
-    for ( Map<Tuple, PopCenter> popsByType : _popCenters.values() )
-    {
-      for ( PopCenter popCenter : popsByType.values() )
-      {
-        if ( popCenter.getId() == popCenterId )
-        {
-          return popCenter;
-        }
-      }
-    }
-    return null;
-  }
+  public PopCenter getPopCenter( int popCenterId ) { return getRegistry().getPopCenter( popCenterId ); }
 
   public void addPopCenter( PopCenter pop )
   {
-    _popCenters.get( pop.getType() ).put( pop.getLocation().getCoord(), pop );
+    PopCenter replaced = _popCenters.get( pop.getType() ).put( pop.getLocation().getCoord(), pop );
+    if ( _registry != null ) { _registry.popCenterAdded( pop, replaced ); }
     _map.getRegion( pop.getLocation().getRegion().getName() ).addPopCenter( pop );
   }
 
@@ -317,49 +322,76 @@ public class Game
     return items;
   }
 
-  /** Get every item in the game in the given hex. */
-  public List<GameItem> getAllGameItems( Tuple coord )
+  /** Get every item in the game in the given hex: its pops, then its armies, then the figures based in them. */
+  public List<GameItem> getAllGameItems( Tuple coord ) { return getRegistry().getItems( coord ); }
+
+  /** @return the armies in the given hex. */
+  public List<Army> getArmies( Tuple coord ) { return getRegistry().getArmies( coord ); }
+
+  /** @return the figures in the given hex, i.e. those based in its pops and armies. */
+  public List<Figure> getFigures( Tuple coord ) { return getRegistry().getFigures( coord ); }
+
+  /**
+   * @return the figures based at the given pop or army, found without searching every player's figures. They're in the order searching
+   *         would find them: by player, then as Player.getFigures() lists them.
+   */
+  public List<Figure> getFigures( GameItem base )
   {
-    List<GameItem> items = new ArrayList<>();
-    for ( GameItem item : getAllGameItems() )
+    List<Figure> figures = new ArrayList<>();
+    for ( Figure figure : getRegistry().getFigures( base ) )
+    {
+      if ( figure.getBase().equals( base ) ) { figures.add( figure ); }
+    }
+    if ( figures.size() > 1 )
     {
-      if ( item.getLocation().getCoord().equals( coord ) )
+      Collections.sort( figures, new Comparator<Figure>()
       {
-        items.add( item );
-      }
+        public int compare( Figure a, Figure b )
+        {
+          if ( !a.getOwner().equals( b.getOwner() ) )
+          {
+            return Integer.compare( _players.indexOf( a.getOwner() ), _players.indexOf( b.getOwner() ) );
+          }
+          return Integer.compare( a.getOwner().indexOfFigure( a ), b.getOwner().indexOfFigure( b ) );
+        }
+      } );
     }
-    return items;
+    return figures;
   }
 
   /** @return the Army with the given unique id or null if not found. */
   @SuppressWarnings({ "UnusedDeclaration" })
   public Army getArmy( int armyId )
   {
-    for ( Player player : _players )
-    {
-      Army army = player.getArmy( armyId );
-      if ( army != null )
-      {
-        return army;
-      }
-    }
-    return null;
+    GameItem item = getRegistry().getPlayerItem( armyId );
+    return (item instanceof Army) ? (Army) item : null;
   }
 
   /** @return the game item associated with the unique id. */
   public GameItem getItem( int id )
   {
     // It's either a pop center on the map or something owned by a player.
-    GameItem item = getPopCenter( id );
-    if ( item == null )
+    return getRegistry().getItem( id );
+  }
+
+  /** @return the registry of the game's items and players, built from the game when first needed and kept current from then on. */
+  GameRegistry getRegistry()
+  {
+    if ( _registry == null )
     {
-      for ( Player player : _players )
-      {
-        item = player.getItem( id );
-        if ( item != null ) { break; }
-      }
+      _registry = new GameRegistry( this );
+    }
+    return _registry;
+  }
+
+  /** Drop the registry, e.g. once the players are replaced, so it's built afresh when next needed. */
+  private void resetRegistry()
+  {
+    if ( _registry != null )
+    {
+      _registry.detach();
+      _registry = null;
     }
-    return item;
   }
 
   public String getName() { return _name; }
@@ -372,41 +404,189 @@ public class Game
 
   public GameTurn getCurrentTurn() { return _currentTurn; }
 
+  public Random getRandom()
+  {
+    if ( _executingApart ) { throw new IllegalStateException( "Orders executed at the same time can not draw random numbers." ); }
+    return _random;
+  }
+
+  void setExecutingApart( boolean executingApart ) { _executingApart = executingApart; }
+
+  public void setRandom( Random random ) { _random = random; }
+
+  public int getThreads() { return _threads; }
+
+  /**
+   * Sets how many threads the game's work is spread over. Player files are independent of each other, the orders of a type executed at
+   * once share nothing, and each player's intelligence update only writes to the player's own view, so the turn runs the same whatever
+   * the number, just faster.
+   */
+  public void setThreads( int threads )
+  {
+    if ( threads < 1 ) { throw new IllegalArgumentException( "There must be at least one thread." ); }
+    _threads = threads;
+  }
+
   /** Save the game and all player output files to the given directory. */
-  @SuppressWarnings({ "ResultOfMethodCallIgnored" })
   public void save( File gameDir ) throws IOException
+  {
+    save( gameDir, SaveFormat.JSON );
+  }
+
+  /** Save the game and all player output files to the given directory, in the given format. */
+  @SuppressWarnings({ "ResultOfMethodCallIgnored" })
+  public void save( File gameDir, SaveFormat format ) throws IOException
   {
     File adminDir = new File( gameDir, ADMIN_DIR );
     adminDir.mkdir();
     File playersDir = new File( gameDir, PLAYERS_DIR );
     playersDir.mkdir();
-    try (Writer w = new BufferedWriter( new FileWriter( new File( adminDir, GAME_FILE ) ) ))
+    format.save( this, Game.class, format.getFile( adminDir, GAME_NAME ) );
+    savePlayers( playersDir, _turn, format );
+  }
+
+  /** Save each player's file concurrently. If any fail, the first player's failure is thrown with the others suppressed in it. */
+  private void savePlayers( final File playersDir, final int turn, final SaveFormat format ) throws IOException
+  {
+    List<Callable<Void>> saves = new ArrayList<>();
+    for ( final Player player : _players )
+    {
+      saves.add( new Callable<Void>()
+      {
+        public Void call() throws IOException
+        {
+          player.save( playersDir, turn, format );
+          return null;
+        }
+      } );
+    }
+
+    IOException failure = null;
+    for ( Future<Void> save : invokeAll( saves, _threads ) )
+    {
+      try
+      {
+        save.get();
+      }
+      catch ( ExecutionException e )
+      {
+        IOException saveFailure = (e.getCause() instanceof IOException) ? (IOException) e.getCause() : new IOException( e.getCause() );
+        if ( failure == null ) { failure = saveFailure; }
+        else { failure.addSuppressed( saveFailure ); }
+      }
+      catch ( InterruptedException e )
+      {
+        throw new IllegalStateException( "Interrupted saving players", e );
+      }
+    }
+    if ( failure != null ) { throw failure; }
+  }
+
+  /** @return the results of running the tasks concurrently, in the same order as the tasks, once they've all finished. */
+  private static <T> List<Future<T>> invokeAll( List<Callable<T>> tasks, int threads )
+  {
+    ExecutorService executor = Executors.newFixedThreadPool( Math.max( 1, Math.min( tasks.size(), threads ) ) );
+    try
+    {
+      return executor.invokeAll( tasks );
+    }
+    catch ( InterruptedException e )
+    {
+      throw new IllegalStateException( "Interrupted running player tasks", e );
+    }
+    finally
     {
-      save( w );
-      savePlayers( playersDir, _turn );
+      executor.shutdown();
     }
   }
 
-  private void savePlayers( File playersDir, int turn ) throws IOException
+  /**
+   * Save the game's turn as deltas in the game's history instead of as a full game file. The players still get full files for the turn,
+   * but their files for the prior turn, orders included, are moved into the history. Any full game file is removed as the history
+   * replaces it.
+   */
+  @SuppressWarnings({ "ResultOfMethodCallIgnored" })
+  public void saveToHistory( File gameDir, SaveFormat format ) throws IOException
   {
+    TurnHistory history = getHistory( gameDir );
+    File gameFile = getGameFile( gameDir );
+    File playersDir = new File( gameDir, PLAYERS_DIR );
+    playersDir.mkdir();
+
+    // The prior turn has to be in the history before this turn can be recorded as changes to it.
+    if ( history.getLatestTurn() == null && gameFile.exists() )
+    {
+      history.record( load( gameFile ) );
+    }
+    List<File> priorPlayerFiles = new ArrayList<>();
     for ( Player player : _players )
     {
-      player.save( playersDir, turn );
+      File priorFile = SaveFormat.find( playersDir, Player.getStateName( player.getName(), _turn - 1 ) );
+      if ( priorFile.exists() )
+      {
+        // Orders submitted in their own file are recorded as part of the player's state, as if they'd been written back into it.
+        JsonObject priorState = SaveFormat.forFile( priorFile ).<JsonElement>load( priorFile, JsonElement.class ).getAsJsonObject();
+        File priorOrdersFile = SaveFormat.find( playersDir, Player.getOrdersName( player.getName(), _turn - 1 ) );
+        if ( priorOrdersFile.exists() )
+        {
+          priorState.add( Player.MyJsonAdapter.ORDERS, Player.loadOrders( playersDir, player.getName(), _turn - 1 ) );
+          priorPlayerFiles.add( priorOrdersFile );
+        }
+        history.record( player.getName(), _turn - 1, priorState );
+        priorPlayerFiles.add( priorFile );
+      }
     }
+
+    history.record( this );
+    savePlayers( playersDir, _turn, format );
+    for ( File priorFile : priorPlayerFiles )
+    {
+      priorFile.delete();
+    }
+    gameFile.delete();
+  }
+
+  /** @return the history of the game's turns, as saved by saveToHistory(). */
+  public static TurnHistory getHistory( File gameDir )
+  {
+    return new TurnHistory( new File( new File( gameDir, ADMIN_DIR ), HISTORY_DIR ) );
+  }
+
+  /** @return true if the directory holds a saved game, either as a game file or as a history. */
+  public static boolean exists( File gameDir )
+  {
+    return getGameFile( gameDir ).exists() || getHistory( gameDir ).getLatestTurn() != null;
   }
 
   void save( Writer out ) throws IOException
   {
-    String json = GSON.toJson( this );
-    IOUtils.write( json, out );
+    GSON.toJson( this, Game.class, GSON.newJsonWriter( out ) );
+    out.flush();
+  }
+
+  /** @return the admin game file in the game directory, in whichever save format it exists. */
+  public static File getGameFile( File gameDir )
+  {
+    return SaveFormat.find( new File( gameDir, ADMIN_DIR ), GAME_NAME );
   }
 
-  /** Load a game from disk. */
+  /**
+   * Load a game from disk, given either its game directory or the game file itself. The format is chosen by the file's extension. A game
+   * directory without a game file is loaded from the latest turn in its history.
+   */
   public static Game load( File gameDir )
   {
-    try (Reader in = new BufferedReader( new FileReader( new File( new File( gameDir, ADMIN_DIR ), GAME_FILE ) ) ))
+    File gameFile = gameDir.isFile() ? gameDir : getGameFile( gameDir );
+    try
     {
-      Game game = load( in );
+      if ( !gameFile.exists() )
+      {
+        TurnHistory history = getHistory( gameDir );
+        Integer latestTurn = history.getLatestTurn();
+        if ( latestTurn != null ) { return history.loadGame( latestTurn ); }
+      }
+      Game game = SaveFormat.forFile( gameFile ).load( gameFile, Game.class );
+      game.fixDeserializationReferences();
       return game;
     }
     catch ( IOException e )
@@ -415,18 +595,49 @@ public class Game
     }
   }
 
-  static Game load( Reader in )
+  /**
+   * Load just the given parts of a game, skipping over the rest of its file, e.g. only the map and regions, or the players without their
+   * views, events and orders. Without the players, the pop centers' owners aren't resolved. A game directory without a game file is fully
+   * loaded from its history.
+   * <p/>
+   * A snapshot save jumps straight over the parts that aren't wanted, but json still has to be read through to find where they end, so
+   * it's worth keeping a game that's often partly loaded as a snapshot.
+   */
+  public static Game load( File gameDir, Set<SavePart> parts )
   {
-    String json = null;
-    try
+    File gameFile = gameDir.isFile() ? gameDir : getGameFile( gameDir );
+    Set<SavePart> skippedParts = EnumSet.allOf( SavePart.class );
+    skippedParts.removeAll( parts );
+    if ( !gameFile.exists() || skippedParts.isEmpty() ) { return load( gameDir ); }
+
+    List<String> hiddenPaths = new ArrayList<>();
+    for ( SavePart part : skippedParts )
+    {
+      hiddenPaths.add( (part == SavePart.PLAYERS) ? PLAYERS_MEMBER : PLAYERS_MEMBER + "." + part.getPlayerMember() );
+    }
+    try (JsonReader in = new FilteringJsonReader( SaveFormat.forFile( gameFile ).openReader( gameFile ), hiddenPaths ))
     {
-      json = IOUtils.toString( in );
+      Game game = GSON.fromJson( in, Game.class );
+      if ( parts.contains( SavePart.PLAYERS ) )
+      {
+        game.fixDeserializationReferences();
+      }
+      else
+      {
+        game.fixMapDeserializationReferences();
+        game.fixPopCenterLocationDeserializationReferences();
+      }
+      return game;
     }
     catch ( IOException e )
     {
       throw new RuntimeException( e );
     }
-    Game game = GSON.fromJson( json, Game.class );
+  }
+
+  static Game load( Reader in )
+  {
+    Game game = GSON.fromJson( GSON.newJsonReader( in ), Game.class );
     game.fixDeserializationReferences();
     return game;
   }
@@ -444,25 +655,66 @@ public class Game
    * @return the game after the turn has been run.
    */
   public static Game runTurn( File gameDir )
+  {
+    return runTurn( gameDir, Runtime.getRuntime().availableProcessors() );
+  }
+
+  /** As above, but with the game's work spread over the given number of threads. */
+  public static Game runTurn( File gameDir, int threads )
   {
     Game game = load( gameDir );
-    game.doRunTurn( gameDir );
+    game.setThreads( threads );
+    JsonArray orders = loadPlayerOrders( new File( gameDir, PLAYERS_DIR ), game );
+    game.runNextTurn( orders );
     return game;
   }
 
-  private void doRunTurn( File gameDir )
+  /** As above, but the turn is also recorded in the journal so it can be replayed later. */
+  public static Game runTurn( File gameDir, TurnJournal journal ) throws IOException
+  {
+    Game game = load( gameDir );
+    JsonArray orders = loadPlayerOrders( new File( gameDir, PLAYERS_DIR ), game );
+    journal.record( game, orders );
+    return game;
+  }
+
+  /** Run the next turn with the given orders, in the json form the players issued them in. */
+  void runNextTurn( JsonArray ordersJson )
   {
     incrementTurn();
-    List<Order> orders = loadPlayerOrders( new File( gameDir, PLAYERS_DIR ), this );
-    processOrders( orders );
+    _currentTurn = new GameTurn();
+    for ( GameItem item : getAllGameItems() )
+    {
+      item.clearOrdersExecuted();
+    }
+    List<Order<?>> orders = bindOrders( ordersJson );
+    List<Order<?>> executionOrder = new ArrayList<>( orders );
+    processOrders( executionOrder );
+    _currentTurn.setExecutionOrder( getIndexes( orders, executionOrder ) );
     checkForRegionalControlChanges();
     produceResources();
     payMaintenance();
     updateIntelligence();
   }
 
+  /** @return the position of each of the items in the original list. */
+  private static int[] getIndexes( List<Order<?>> original, List<Order<?>> items )
+  {
+    Map<Order<?>, Integer> positions = new IdentityHashMap<>();
+    for ( int i = 0; i < original.size(); i++ )
+    {
+      positions.put( original.get( i ), i );
+    }
+    int[] indexes = new int[items.size()];
+    for ( int i = 0; i < indexes.length; i++ )
+    {
+      indexes[i] = positions.get( items.get( i ) );
+    }
+    return indexes;
+  }
+
   /** Execute all of the given orders. */
-  public void processOrders( List<Order> orders )
+  public void processOrders( List<Order<?>> orders )
   {
     // First, clear all the lastTurnStatus info for every game item before we run the orders for the new turn.
     for ( GameItem item : getAllGameItems() )
@@ -474,12 +726,27 @@ public class Game
     Map<Region, Player> controlInfo = getRegionOwners();
     _currentTurn.setRegionalControlInfo( controlInfo );
 
-    // Shuffle the orders, then sort so that orders of the same type will be randomly ordered after the sort.
-    Collections.shuffle( orders );
-    Collections.sort( orders, OrderComparator.INSTANCE );
-    for ( Order order : orders )
+    // Put the orders in the sequence they execute in, with the orders of each type in random order.
+    List<List<Order<?>>> buckets = OrderScheduler.schedule( orders, _random );
+    int i = 0;
+    for ( List<Order<?>> bucket : buckets )
     {
-      order.execute( this );
+      for ( Order<?> order : bucket )
+      {
+        orders.set( i++, order );
+      }
+    }
+    OrderExecutor executor = new OrderExecutor( this, _threads );
+    try
+    {
+      for ( List<Order<?>> bucket : buckets )
+      {
+        executor.execute( bucket );
+      }
+    }
+    finally
+    {
+      executor.shutdown();
     }
   }
 
@@ -518,16 +785,10 @@ public class Game
     Map<Region, Player> controlInfo = new HashMap<>();
     for ( Region region : _map.getRegions() )
     {
-      controlInfo.put( region, Player.UNOWNED );
-      for ( Player player : _players )
-      {
-        ControlLevel playerControlLevel = region.getControlLevel( player );
-        if ( (playerControlLevel == ControlLevel.Control) ||
-             (playerControlLevel == ControlLevel.Domination) )
-        {
-          controlInfo.put( region, player );
-        }
-      }
+      // Each region keeps track of who holds what of it, so only the one owner with Control, if any, need be looked up.
+      String controllerName = region.getControllerName();
+      Player controller = (controllerName == null) ? null : getPlayer( controllerName );
+      controlInfo.put( region, (controller == null) ? Player.UNOWNED : controller );
     }
     return controlInfo;
   }
@@ -579,39 +840,107 @@ public class Game
     }
   }
 
+  /**
+   * Update what each player knows of the game. Each player's update reads the game but writes only to the player, its view and its events,
+   * so the players are updated concurrently. The parts of the game built when first needed are built here first, along with the sweep of
+   * what the players' items see, so the updates only ever read the game.
+   */
   public void updateIntelligence()
   {
-    for ( Player player : getPlayers() )
+    getRegistry();
+    _map.getTopology();
+    _map.getLocations();
+    getRegionOwners();
+    final IntelSweep sweep = new IntelSweep( this );
+
+    List<Callable<Void>> updates = new ArrayList<>();
+    for ( final Player player : getPlayers() )
     {
-      player.updateIntelligence( this );
+      updates.add( new Callable<Void>()
+      {
+        public Void call()
+        {
+          player.updateIntelligence( Game.this, sweep );
+          return null;
+        }
+      } );
+    }
+    for ( Future<Void> update : invokeAll( updates, _threads ) )
+    {
+      try
+      {
+        update.get();
+      }
+      catch ( ExecutionException e )
+      {
+        if ( e.getCause() instanceof RuntimeException ) { throw (RuntimeException) e.getCause(); }
+        if ( e.getCause() instanceof Error ) { throw (Error) e.getCause(); }
+        throw new IllegalStateException( "Failed updating intelligence", e.getCause() );
+      }
+      catch ( InterruptedException e )
+      {
+        throw new IllegalStateException( "Interrupted updating intelligence", e );
+      }
     }
   }
 
-  private static List<Order> loadPlayerOrders( File playersDir, Game game ) throws OrderLoadException
+  /**
+   * @return every player's orders for the next turn, merged in player order, in the json form they were issued in. The players' files are
+   *         loaded concurrently, but the result and any failure are the same as loading them one at a time.
+   */
+  private static JsonArray loadPlayerOrders( final File playersDir, final Game game ) throws OrderLoadException
   {
-    List<Order> orders = new ArrayList<>();
-    boolean success = true;
-    for ( Player player : game.getPlayers() )
+    List<Callable<JsonArray>> loads = new ArrayList<>();
+    for ( final Player player : game.getPlayers() )
+    {
+      loads.add( new Callable<JsonArray>()
+      {
+        public JsonArray call() throws IOException
+        {
+          return Player.loadOrders( playersDir, player.getName(), game.getTurn() );
+        }
+      } );
+    }
+
+    JsonArray orders = new JsonArray();
+    List<String> failedPlayers = new ArrayList<>();
+    List<Future<JsonArray>> results = invokeAll( loads, game._threads );
+    for ( int i = 0; i < results.size(); i++ )
     {
+      String playerName = game.getPlayers().get( i ).getName();
       try
       {
-        Player tmpPlayer = Player.load( playersDir, player.getName(), game.getTurn() - 1 );
-        tmpPlayer.fixTurnOrdersDeserialization( game );
-        if ( tmpPlayer.getNextTurnOrders().isEmpty() )
+        JsonArray playerOrders = results.get( i ).get();
+        if ( playerOrders.size() == 0 )
         {
-          LOG.error( "Player " + tmpPlayer.getName() + " has issued no orders" );
+          LOG.error( "Player " + playerName + " has issued no orders" );
         }
-        orders.addAll( tmpPlayer.getNextTurnOrders() );
+        orders.addAll( playerOrders );
       }
-      catch ( Exception e )
+      catch ( ExecutionException e )
       {
-        LOG.debug( "Failure loading orders", e );
-        success = false;
+        LOG.debug( "Failure loading orders for " + playerName, e.getCause() );
+        failedPlayers.add( playerName );
       }
+      catch ( InterruptedException e )
+      {
+        throw new IllegalStateException( "Interrupted loading orders", e );
+      }
+    }
+    if ( !failedPlayers.isEmpty() )
+    {
+      throw new OrderLoadException( failedPlayers );
     }
-    if ( !success )
+    return orders;
+  }
+
+  /** @return the orders bound to this game's items. */
+  List<Order<?>> bindOrders( JsonArray ordersJson )
+  {
+    List<Order<?>> orders = GSON.fromJson( ordersJson, Player.MyJsonAdapter.ORDER_LIST.getType() );
+    for ( Order<?> order : orders )
     {
-      throw new OrderLoadException();
+      order.fixDeserializationReferences( this );
     }
     return orders;
   }
@@ -666,6 +995,17 @@ public class Game
     }
   }
 
+  private void fixPopCenterLocationDeserializationReferences()
+  {
+    for ( Map<Tuple, PopCenter> tuplePopCenterMap : _popCenters.values() )
+    {
+      for ( PopCenter popCenter : tuplePopCenterMap.values() )
+      {
+        popCenter.fixLocationDeserialization( this );
+      }
+    }
+  }
+
   private void fixPlayersDeserializationReferences()
   {
     for ( Player player : _players )
@@ -683,41 +1023,18 @@ public class Game
   }
 
   /** Thrown when there's a failure loading player orders. */
-  private static class OrderLoadException extends RuntimeException
-  {
-  }
-
-  private static class OrderComparator implements Comparator<Order>
+  public static class OrderLoadException extends RuntimeException
   {
-    static final Map<String, Integer> _orderSequence = new HashMap<>();
+    private final List<String> _playerNames;
 
-    static
+    OrderLoadException( List<String> playerNames )
     {
-      try (InputStream inStream = Order.class.getResourceAsStream( "./orderSequence.json" ))
-      {
-        String json = StringUtils.join( IOUtils.readLines( inStream ).toArray() );
-        List<String> orderSequence = GSON.fromJson( json, new TypeToken<List<String>>(){}.getType() );
-        int i = 0;
-        for ( String orderName : orderSequence )
-        {
-          _orderSequence.put( orderName, i );
-          i++;
-        }
-      }
-      catch ( IOException e )
-      {
-        throw new RuntimeException( "Failed to load order sequencing file: orderSequence.json", e );
-      }
+      super( "Failed to load the orders of " + StringUtils.join( playerNames, ", " ) );
+      _playerNames = Collections.unmodifiableList( new ArrayList<>( playerNames ) );
     }
 
-    static final OrderComparator INSTANCE = new OrderComparator();
-
-    public int compare( Order a, Order b )
-    {
-      Integer aVal = _orderSequence.get( a.getClass().getSimpleName() );
-      Integer bVal = _orderSequence.get( b.getClass().getSimpleName() );
-      return aVal.compareTo( bVal );
-    }
+    /** @return the players whose orders failed to load, in player order. */
+    public List<String> getPlayerNames() { return _playerNames; }
   }
 
   // Create the GSON instance. There are tons of specialized adapters for all the various orders in the game.
@@ -726,100 +1043,145 @@ public class Game
     GsonBuilder builder = new GsonBuilder();
     builder.setPrettyPrinting();
     builder.enableComplexMapKeySerialization();
-    builder.registerTypeAdapter( PlagueArmy.class, new PlagueArmy.MyJsonAdapter() );
-    builder.registerTypeAdapter( DarkRitual.class, new DarkRitual.MyJsonAdapter() );
-    builder.registerTypeAdapter( DispelCombatMagic.class, new DispelCombatMagic.MyJsonAdapter() );
-    builder.registerTypeAdapter( DeepFog.class, new DeepFog.MyJsonAdapter() );
-    builder.registerTypeAdapter( ShadowAssassin.class, new ShadowAssassin.MyJsonAdapter() );
-    builder.registerTypeAdapter( FireStorm.class, new FireStorm.MyJsonAdapter() );
-    builder.registerTypeAdapter( DamageRegion.class, new DamageRegion.MyJsonAdapter() );
-    builder.registerTypeAdapter( ImbueRegion.class, new ImbueRegion.MyJsonAdapter() );
-    builder.registerTypeAdapter( CurseRegion.class, new CurseRegion.MyJsonAdapter() );
-    builder.registerTypeAdapter( DiplomaticAura.class, new DiplomaticAura.MyJsonAdapter() );
-    builder.registerTypeAdapter( DemandSurrender.class, new DemandSurrender.MyJsonAdapter() );
-    builder.registerTypeAdapter( Fireball.class, new Fireball.MyJsonAdapter() );
-    builder.registerTypeAdapter( PhantomTroops.class, new PhantomTroops.MyJsonAdapter() );
-    builder.registerTypeAdapter( MoveCapitol.class, new MoveCapitol.MyJsonAdapter() );
-    builder.registerTypeAdapter( MagicDome.class, new MagicDome.MyJsonAdapter() );
-    builder.registerTypeAdapter( SubvertHamlet.class, new SubvertHamlet.MyJsonAdapter() );
-    builder.registerTypeAdapter( SubvertTown.class, new SubvertTown.MyJsonAdapter() );
-    builder.registerTypeAdapter( SubvertCity.class, new SubvertCity.MyJsonAdapter() );
-    builder.registerTypeAdapter( BadOmen.class, new BadOmen.MyJsonAdapter() );
-    builder.registerTypeAdapter( CorruptEmbassy.class, new CorruptEmbassy.MyJsonAdapter() );
-    builder.registerTypeAdapter( EnhanceEmbassy.class, new EnhanceEmbassy.MyJsonAdapter() );
-    builder.registerTypeAdapter( EnhancePower.class, new EnhancePower.MyJsonAdapter() );
-    builder.registerTypeAdapter( UnlimitedInvisibleArmy.class, new UnlimitedInvisibleArmy.MyJsonAdapter() );
-    builder.registerTypeAdapter( EnhancedInvisibleArmy.class, new EnhancedInvisibleArmy.MyJsonAdapter() );
-    builder.registerTypeAdapter( InvisibleArmy.class, new InvisibleArmy.MyJsonAdapter() );
-    builder.registerTypeAdapter( UnlimitedTeleportArmy.class, new UnlimitedTeleportArmy.MyJsonAdapter() );
-    builder.registerTypeAdapter( EnhancedTeleportArmy.class, new EnhancedTeleportArmy.MyJsonAdapter() );
-    builder.registerTypeAdapter( TeleportArmy.class, new TeleportArmy.MyJsonAdapter() );
-    builder.registerTypeAdapter( ShieldRegion.class, new ShieldRegion.MyJsonAdapter() );
-    builder.registerTypeAdapter( ShieldFigure.class, new ShieldFigure.MyJsonAdapter() );
-    builder.registerTypeAdapter( CharmFigure.class, new CharmFigure.MyJsonAdapter() );
-    builder.registerTypeAdapter( TeleportFigure.class, new TeleportFigure.MyJsonAdapter() );
-    builder.registerTypeAdapter( CharmRegion.class, new CharmRegion.MyJsonAdapter() );
-    builder.registerTypeAdapter( DamagePopCenter.class, new DamagePopCenter.MyJsonAdapter() );
-    builder.registerTypeAdapter( RaiseDead.class, new RaiseDead.MyJsonAdapter() );
-    builder.registerTypeAdapter( SummonWerebeasts.class, new SummonWerebeasts.MyJsonAdapter() );
-    builder.registerTypeAdapter( SummonOgres.class, new SummonOgres.MyJsonAdapter() );
-    builder.registerTypeAdapter( SummonDragons.class, new SummonDragons.MyJsonAdapter() );
-    builder.registerTypeAdapter( ImbuePopCenter.class, new ImbuePopCenter.MyJsonAdapter() );
-    builder.registerTypeAdapter( TeleportSelf.class, new TeleportSelf.MyJsonAdapter() );
-    builder.registerTypeAdapter( Alchemy.class, new Alchemy.MyJsonAdapter() );
-    builder.registerTypeAdapter( Scry.class, new Scry.MyJsonAdapter() );
-    builder.registerTypeAdapter( SabotagePopCenter.class, new SabotagePopCenter.MyJsonAdapter() );
-    builder.registerTypeAdapter( SabotageEmbassy.class, new SabotageEmbassy.MyJsonAdapter() );
-    builder.registerTypeAdapter( TakeRegionCensus.class, new TakeRegionCensus.MyJsonAdapter() );
-    builder.registerTypeAdapter( MapRegion.class, new MapRegion.MyJsonAdapter() );
-    builder.registerTypeAdapter( AgentScoutControlLevel.class, new AgentScoutControlLevel.MyJsonAdapter() );
-    builder.registerTypeAdapter( AgentScoutEmbassies.class, new AgentScoutEmbassies.MyJsonAdapter() );
-    builder.registerTypeAdapter( CounterEspionage.class, new CounterEspionage.MyJsonAdapter() );
-    builder.registerTypeAdapter( AssassinateAgent.class, new AssassinateAgent.MyJsonAdapter() );
-    builder.registerTypeAdapter( AssassinateDiplomat.class, new AssassinateDiplomat.MyJsonAdapter() );
-    builder.registerTypeAdapter( AssassinateWizard.class, new AssassinateWizard.MyJsonAdapter() );
-    builder.registerTypeAdapter( ImprovePower.class, new ImprovePower.MyJsonAdapter() );
-    builder.registerTypeAdapter( ImproveEmbassy.class, new ImproveEmbassy.MyJsonAdapter() );
-    builder.registerTypeAdapter( ImprovePopCenter.class, new ImprovePopCenter.MyJsonAdapter() );
-    builder.registerTypeAdapter( CreateArmy.class, new CreateArmy.MyJsonAdapter() );
-    builder.registerTypeAdapter( ArmyCombine.class, new ArmyCombine.MyJsonAdapter() );
-    builder.registerTypeAdapter( ArmyTransfer.class, new ArmyTransfer.MyJsonAdapter() );
-    builder.registerTypeAdapter( ArmyRecruit.class, new ArmyRecruit.MyJsonAdapter() );
-    builder.registerTypeAdapter( RetireUnit.class, new RetireUnit.MyJsonAdapter() );
-    builder.registerTypeAdapter( TrainAgent.class, new TrainAgent.MyJsonAdapter() );
-    builder.registerTypeAdapter( TrainWizard.class, new TrainWizard.MyJsonAdapter() );
-    builder.registerTypeAdapter( TrainDiplomat.class, new TrainDiplomat.MyJsonAdapter() );
-    builder.registerTypeAdapter( HireWizard.class, new HireWizard.MyJsonAdapter() );
-    builder.registerTypeAdapter( HireDiplomat.class, new HireDiplomat.MyJsonAdapter() );
-    builder.registerTypeAdapter( HireAgent.class, new HireAgent.MyJsonAdapter() );
-    builder.registerTypeAdapter( ArmyAttackArmy.class, new ArmyAttackArmy.MyJsonAdapter() );
-    builder.registerTypeAdapter( ArmyAttackPop.class, new ArmyAttackPop.MyJsonAdapter() );
-    builder.registerTypeAdapter( AgentReconLocation.class, new AgentReconLocation.MyJsonAdapter() );
-    builder.registerTypeAdapter( MoveWizard.class, new MoveWizard.MyJsonAdapter() );
-    builder.registerTypeAdapter( MoveDiplomat.class, new MoveDiplomat.MyJsonAdapter() );
-    builder.registerTypeAdapter( MoveAgent.class, new MoveAgent.MyJsonAdapter() );
-    builder.registerTypeAdapter( ArmyMove.class, new ArmyMove.MyJsonAdapter() );
-    builder.registerTypeAdapter( ArmySearch.class, new ArmySearch.MyJsonAdapter() );
-    builder.registerTypeAdapter( DiplomatInciteRebellion.class, new DiplomatInciteRebellion.MyJsonAdapter() );
-    builder.registerTypeAdapter( DiplomatNegotiateFealty.class, new DiplomatNegotiateFealty.MyJsonAdapter() );
-    builder.registerTypeAdapter( DiplomatInspireLoyalty.class, new DiplomatInspireLoyalty.MyJsonAdapter() );
-    builder.registerTypeAdapter( Order.class, new Order.MyJsonAdapter<Order>() );
-    builder.registerTypeAdapter( GameItem.class, new GameItem.MyJsonAdapter() );
-    builder.registerTypeAdapter( Figure.class, new GameItem.MyJsonAdapter() );
+    registerOrderType( builder, PlagueArmy.class, new PlagueArmy.MyJsonAdapter() );
+    registerOrderType( builder, DarkRitual.class, new DarkRitual.MyJsonAdapter() );
+    registerOrderType( builder, DispelCombatMagic.class, new DispelCombatMagic.MyJsonAdapter() );
+    registerOrderType( builder, DeepFog.class, new DeepFog.MyJsonAdapter() );
+    registerOrderType( builder, ShadowAssassin.class, new ShadowAssassin.MyJsonAdapter() );
+    registerOrderType( builder, FireStorm.class, new FireStorm.MyJsonAdapter() );
+    registerOrderType( builder, DamageRegion.class, new DamageRegion.MyJsonAdapter() );
+    registerOrderType( builder, ImbueRegion.class, new ImbueRegion.MyJsonAdapter() );
+    registerOrderType( builder, CurseRegion.class, new CurseRegion.MyJsonAdapter() );
+    registerOrderType( builder, DiplomaticAura.class, new DiplomaticAura.MyJsonAdapter() );
+    registerOrderType( builder, DemandSurrender.class, new DemandSurrender.MyJsonAdapter() );
+    registerOrderType( builder, Fireball.class, new Fireball.MyJsonAdapter() );
+    registerOrderType( builder, PhantomTroops.class, new PhantomTroops.MyJsonAdapter() );
+    registerOrderType( builder, MoveCapitol.class, new MoveCapitol.MyJsonAdapter() );
+    registerOrderType( builder, MagicDome.class, new MagicDome.MyJsonAdapter() );
+    registerOrderType( builder, SubvertHamlet.class, new SubvertHamlet.MyJsonAdapter() );
+    registerOrderType( builder, SubvertTown.class, new SubvertTown.MyJsonAdapter() );
+    registerOrderType( builder, SubvertCity.class, new SubvertCity.MyJsonAdapter() );
+    registerOrderType( builder, BadOmen.class, new BadOmen.MyJsonAdapter() );
+    registerOrderType( builder, CorruptEmbassy.class, new CorruptEmbassy.MyJsonAdapter() );
+    registerOrderType( builder, EnhanceEmbassy.class, new EnhanceEmbassy.MyJsonAdapter() );
+    registerOrderType( builder, EnhancePower.class, new EnhancePower.MyJsonAdapter() );
+    registerOrderType( builder, UnlimitedInvisibleArmy.class, new UnlimitedInvisibleArmy.MyJsonAdapter() );
+    registerOrderType( builder, EnhancedInvisibleArmy.class, new EnhancedInvisibleArmy.MyJsonAdapter() );
+    registerOrderType( builder, InvisibleArmy.class, new InvisibleArmy.MyJsonAdapter() );
+    registerOrderType( builder, UnlimitedTeleportArmy.class, new UnlimitedTeleportArmy.MyJsonAdapter() );
+    registerOrderType( builder, EnhancedTeleportArmy.class, new EnhancedTeleportArmy.MyJsonAdapter() );
+    registerOrderType( builder, TeleportArmy.class, new TeleportArmy.MyJsonAdapter() );
+    registerOrderType( builder, ShieldRegion.class, new ShieldRegion.MyJsonAdapter() );
+    registerOrderType( builder, ShieldFigure.class, new ShieldFigure.MyJsonAdapter() );
+    registerOrderType( builder, CharmFigure.class, new CharmFigure.MyJsonAdapter() );
+    registerOrderType( builder, TeleportFigure.class, new TeleportFigure.MyJsonAdapter() );
+    registerOrderType( builder, CharmRegion.class, new CharmRegion.MyJsonAdapter() );
+    registerOrderType( builder, DamagePopCenter.class, new DamagePopCenter.MyJsonAdapter() );
+    registerOrderType( builder, RaiseDead.class, new RaiseDead.MyJsonAdapter() );
+    registerOrderType( builder, SummonWerebeasts.class, new SummonWerebeasts.MyJsonAdapter() );
+    registerOrderType( builder, SummonOgres.class, new SummonOgres.MyJsonAdapter() );
+    registerOrderType( builder, SummonDragons.class, new SummonDragons.MyJsonAdapter() );
+    registerOrderType( builder, ImbuePopCenter.class, new ImbuePopCenter.MyJsonAdapter() );
+    registerOrderType( builder, TeleportSelf.class, new TeleportSelf.MyJsonAdapter() );
+    registerOrderType( builder, Alchemy.class, new Alchemy.MyJsonAdapter() );
+    registerOrderType( builder, Scry.class, new Scry.MyJsonAdapter() );
+    registerOrderType( builder, SabotagePopCenter.class, new SabotagePopCenter.MyJsonAdapter() );
+    registerOrderType( builder, SabotageEmbassy.class, new SabotageEmbassy.MyJsonAdapter() );
+    registerOrderType( builder, TakeRegionCensus.class, new TakeRegionCensus.MyJsonAdapter() );
+    registerOrderType( builder, MapRegion.class, new MapRegion.MyJsonAdapter() );
+    registerOrderType( builder, AgentScoutControlLevel.class, new AgentScoutControlLevel.MyJsonAdapter() );
+    registerOrderType( builder, AgentScoutEmbassies.class, new AgentScoutEmbassies.MyJsonAdapter() );
+    registerOrderType( builder, CounterEspionage.class, new CounterEspionage.MyJsonAdapter() );
+    registerOrderType( builder, AssassinateAgent.class, new AssassinateAgent.MyJsonAdapter() );
+    registerOrderType( builder, AssassinateDiplomat.class, new AssassinateDiplomat.MyJsonAdapter() );
+    registerOrderType( builder, AssassinateWizard.class, new AssassinateWizard.MyJsonAdapter() );
+    registerOrderType( builder, ImprovePower.class, new ImprovePower.MyJsonAdapter() );
+    registerOrderType( builder, ImproveEmbassy.class, new ImproveEmbassy.MyJsonAdapter() );
+    registerOrderType( builder, ImprovePopCenter.class, new ImprovePopCenter.MyJsonAdapter() );
+    registerOrderType( builder, CreateArmy.class, new CreateArmy.MyJsonAdapter() );
+    registerOrderType( builder, ArmyCombine.class, new ArmyCombine.MyJsonAdapter() );
+    registerOrderType( builder, ArmyTransfer.class, new ArmyTransfer.MyJsonAdapter() );
+    registerOrderType( builder, ArmyRecruit.class, new ArmyRecruit.MyJsonAdapter() );
+    registerOrderType( builder, RetireUnit.class, new RetireUnit.MyJsonAdapter() );
+    registerOrderType( builder, TrainAgent.class, new TrainAgent.MyJsonAdapter() );
+    registerOrderType( builder, TrainWizard.class, new TrainWizard.MyJsonAdapter() );
+    registerOrderType( builder, TrainDiplomat.class, new TrainDiplomat.MyJsonAdapter() );
+    registerOrderType( builder, HireWizard.class, new HireWizard.MyJsonAdapter() );
+    registerOrderType( builder, HireDiplomat.class, new HireDiplomat.MyJsonAdapter() );
+    registerOrderType( builder, HireAgent.class, new HireAgent.MyJsonAdapter() );
+    registerOrderType( builder, ArmyAttackArmy.class, new ArmyAttackArmy.MyJsonAdapter() );
+    registerOrderType( builder, ArmyAttackPop.class, new ArmyAttackPop.MyJsonAdapter() );
+    registerOrderType( builder, AgentReconLocation.class, new AgentReconLocation.MyJsonAdapter() );
+    registerOrderType( builder, MoveWizard.class, new MoveWizard.MyJsonAdapter() );
+    registerOrderType( builder, MoveDiplomat.class, new MoveDiplomat.MyJsonAdapter() );
+    registerOrderType( builder, MoveAgent.class, new MoveAgent.MyJsonAdapter() );
+    registerOrderType( builder, ArmyMove.class, new ArmyMove.MyJsonAdapter() );
+    registerOrderType( builder, ArmySearch.class, new ArmySearch.MyJsonAdapter() );
+    registerOrderType( builder, DiplomatInciteRebellion.class, new DiplomatInciteRebellion.MyJsonAdapter() );
+    registerOrderType( builder, DiplomatNegotiateFealty.class, new DiplomatNegotiateFealty.MyJsonAdapter() );
+    registerOrderType( builder, DiplomatInspireLoyalty.class, new DiplomatInspireLoyalty.MyJsonAdapter() );
+    builder.registerTypeAdapter( Order.class, new Order.MyJsonAdapter<Order>().nullSafe() );
+    // Lists of orders are typed over Order<?>, which Gson doesn't take to be the raw Order.
+    builder.registerTypeAdapter( new TypeToken<Order<?>>() {}.getType(), new Order.MyJsonAdapter<Order<?>>().nullSafe() );
+    builder.registerTypeAdapter( GameItem.class, new GameItem.MyJsonAdapter().nullSafe() );
+    builder.registerTypeAdapter( Figure.class, new GameItem.MyJsonAdapter().nullSafe() );
     builder.registerTypeAdapter( AtomicInteger.class, new AtomicIntegerJsonAdapter() );
-    builder.registerTypeAdapter( GameMap.class, new GameMap.MyJsonAdapter() );
-    builder.registerTypeAdapter( Region.class, new Region.MyJsonAdapter() );
-    builder.registerTypeAdapter( PopCenter.class, new PopCenter.MyJsonAdapter() );
-    builder.registerTypeAdapter( Wizard.class, new Wizard.MyJsonAdapter() );
-    builder.registerTypeAdapter( Diplomat.class, new Diplomat.MyJsonAdapter() );
-    builder.registerTypeAdapter( Agent.class, new Agent.MyJsonAdapter() );
-    builder.registerTypeAdapter( King.class, new King.MyJsonAdapter() );
-    builder.registerTypeAdapter( Army.class, new Army.MyJsonAdapter() );
-    builder.registerTypeAdapter( ArmyUnit.class, new ArmyUnit.MyJsonAdapter() );
-    builder.registerTypeAdapter( Player.class, new Player.MyJsonAdapter() );
+    builder.registerTypeAdapter( GameMap.class, new GameMap.MyJsonAdapter().nullSafe() );
+    builder.registerTypeAdapter( Location.class, new Location.MyJsonAdapter().nullSafe() );
+    builder.registerTypeAdapter( Region.class, new Region.MyJsonAdapter().nullSafe() );
+    builder.registerTypeAdapter( PopCenter.class, new PopCenter.MyJsonAdapter().nullSafe() );
+    builder.registerTypeAdapter( Wizard.class, new Wizard.MyJsonAdapter().nullSafe() );
+    builder.registerTypeAdapter( Diplomat.class, new Diplomat.MyJsonAdapter().nullSafe() );
+    builder.registerTypeAdapter( Agent.class, new Agent.MyJsonAdapter().nullSafe() );
+    builder.registerTypeAdapter( King.class, new King.MyJsonAdapter().nullSafe() );
+    builder.registerTypeAdapter( Army.class, new Army.MyJsonAdapter().nullSafe() );
+    builder.registerTypeAdapter( ArmyUnit.class, new ArmyUnit.MyJsonAdapter().nullSafe() );
+    builder.registerTypeAdapter( Player.class, new Player.MyJsonAdapter().nullSafe() );
+    builder.registerTypeAdapter( PopCentersJsonAdapter.TYPE.getType(), new PopCentersJsonAdapter().nullSafe() );
     return builder.create();
   }
 
+  // Each order type needs its place in the turn's sequence as well as its adapter, so one without is caught as soon as the game loads.
+  private static void registerOrderType( GsonBuilder builder, Class<? extends Order<?>> type, TypeAdapter<?> adapter )
+  {
+    OrderScheduler.getRank( type );
+    builder.registerTypeAdapter( type, adapter.nullSafe() );
+  }
+
+  /**
+   * Reads and writes the pop centers by type exactly as Gson's own map support would, but reads the type names as names so it works with
+   * any JsonReader (e.g. a binary snapshot reader), not just one over json text.
+   */
+  private static class PopCentersJsonAdapter extends TypeAdapter<Map<PopType, Map<Tuple, PopCenter>>>
+  {
+    static final TypeToken<Map<PopType, Map<Tuple, PopCenter>>> TYPE = new TypeToken<Map<PopType, Map<Tuple, PopCenter>>>() {};
+    private static final TypeToken<Map<Tuple, PopCenter>> POPS_BY_HEX = new TypeToken<Map<Tuple, PopCenter>>() {};
+
+    public void write( JsonWriter out, Map<PopType, Map<Tuple, PopCenter>> popCenters ) throws IOException
+    {
+      out.beginObject();
+      for ( Map.Entry<PopType, Map<Tuple, PopCenter>> entry : popCenters.entrySet() )
+      {
+        out.name( entry.getKey().name() );
+        GSON.getAdapter( POPS_BY_HEX ).write( out, entry.getValue() );
+      }
+      out.endObject();
+    }
+
+    public Map<PopType, Map<Tuple, PopCenter>> read( JsonReader in ) throws IOException
+    {
+      Map<PopType, Map<Tuple, PopCenter>> popCenters = new EnumMap<>( PopType.class );
+      in.beginObject();
+      while ( in.hasNext() )
+      {
+        PopType type = PopType.valueOf( in.nextName() );
+        popCenters.put( type, GSON.getAdapter( POPS_BY_HEX ).read( in ) );
+      }
+      in.endObject();
+      return popCenters;
+    }
+  }
+
   // ----------For testing only below this line--------------
   Game( String name, GameMap map )
   {
@@ -830,6 +1192,7 @@ public class Game
 
   void setPlayers( List<Player> players )
   {
+    resetRegistry();
     _players.clear();
     _players.addAll( players );
   }
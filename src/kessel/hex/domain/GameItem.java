@@ -1,18 +1,17 @@
 package kessel.hex.domain;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import kessel.hex.map.Location;
 import kessel.hex.orders.Order;
 import kessel.hex.util.Tuple;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.StringTokenizer;
@@ -86,7 +85,15 @@ public abstract class GameItem
 
   public Location getLocation() { return _location; }
 
-  public void setLocation( Location location ) { _location = location; }
+  public void setLocation( Location location )
+  {
+    Tuple oldHex = getHex();
+    _location = location;
+    if ( _owner != null ) { _owner.itemMoved( this, oldHex ); }
+  }
+
+  /** @return the item's hex, which is known even before its location is fixed after loading. */
+  Tuple getHex() { return (_location != null) ? _location.getCoord() : _jsonLocationTuple; }
 
   public String getName() { return _name; }
 
@@ -162,6 +169,9 @@ public abstract class GameItem
 
   public void clearLastTurnStatus() { _lastTurnStatus.clear(); }
 
+  /** Orders executed aren't persisted, so clearing them starts a turn the same way as a freshly loaded game. */
+  public void clearOrdersExecuted() { _ordersExecuted.clear(); }
+
   public void setInvisible( boolean isInvisible ) { _isInvisible = isInvisible; }
 
   public boolean isInvisible() { return _isInvisible; }
@@ -180,8 +190,12 @@ public abstract class GameItem
   public int hashCode() { return _id; }
 
 
-  /** Exists to support subclass deserialization, never registered with or invoked directly by GSON. */
-  public static class MyJsonAdapter<X extends GameItem> implements JsonSerializer<X>, JsonDeserializer<X>
+  /**
+   * Streams GameItems straight to and from the json writer/reader without building an intermediate tree. Subclass adapters add their
+   * own fields through writeFields() and readField(). The base adapter is registered for the abstract types and defers to the concrete
+   * item's adapter when reading.
+   */
+  public static class MyJsonAdapter<X extends GameItem> extends TypeAdapter<X>
   {
     protected static final String CLASS = "class";
     protected static final String ID = "id";
@@ -192,39 +206,77 @@ public abstract class GameItem
     protected static final String OWNER = "owner";
     protected static final String LAST_TURN_STATUS = "lastTurnStatus";
 
+    private static final TypeToken<List<String>> STRING_LIST = new TypeToken<List<String>>() {};
+
+    public void write( JsonWriter out, X gameItem ) throws IOException
+    {
+      out.beginObject();
+      writeFields( out, gameItem );
+      out.endObject();
+    }
+
     /** serialize jut those bits relevant to GameItem. */
-    public void serialize( X gameItem, JsonObject jsonResponse, Type type, JsonSerializationContext context )
+    protected void writeFields( JsonWriter out, X gameItem ) throws IOException
+    {
+      out.name( CLASS ).value( gameItem.getClass().getName() );
+      out.name( ID ).value( gameItem._id );
+      out.name( NAME ).value( gameItem._name );
+      out.name( INVISIBLE ).value( gameItem._isInvisible );
+      out.name( TURN_SEEN ).value( gameItem._turnSeen );
+      writeCoordinate( out, gameItem );
+      out.name( OWNER ).value( gameItem._owner.getName() );
+      out.name( LAST_TURN_STATUS );
+      Game.GSON.getAdapter( STRING_LIST ).write( out, gameItem._lastTurnStatus );
+    }
+
+    protected void writeCoordinate( JsonWriter out, X gameItem ) throws IOException
     {
-      jsonResponse.add( CLASS, context.serialize( gameItem.getClass().getName() ) );
-      jsonResponse.add( ID, context.serialize( gameItem._id ) );
-      jsonResponse.add( NAME, context.serialize( gameItem._name ) );
-      jsonResponse.add( INVISIBLE, context.serialize( gameItem._isInvisible ) );
-      jsonResponse.add( TURN_SEEN, context.serialize( gameItem._turnSeen ) );
-      jsonResponse.add( COORDINATE, context.serialize( gameItem._location.getCoord() ) );
-      jsonResponse.add( OWNER, context.serialize( gameItem._owner.getName() ) );
-      jsonResponse.add( LAST_TURN_STATUS, context.serialize( gameItem._lastTurnStatus ) );
+      out.name( COORDINATE );
+      Game.GSON.getAdapter( Tuple.class ).write( out, gameItem._location.getCoord() );
     }
 
-    /** deserialize jut those bits relevant to GameItem. */
-    public void doDeserialize( X gameItem, JsonElement jsonOrder, JsonDeserializationContext context )
-      throws JsonParseException
+    /** Read the item's fields into the given, freshly constructed, item. */
+    protected X readFields( JsonReader in, X gameItem ) throws IOException
     {
-      gameItem._name = context.deserialize( jsonOrder.getAsJsonObject().get( NAME ), String.class );
-      gameItem._id = context.deserialize( jsonOrder.getAsJsonObject().get( ID ), Integer.class );
-      gameItem._isInvisible = context.deserialize( jsonOrder.getAsJsonObject().get( INVISIBLE ), Boolean.class );
-      gameItem._turnSeen = context.deserialize( jsonOrder.getAsJsonObject().get( TURN_SEEN ), Integer.class );
-      gameItem._jsonLocationTuple = context.deserialize( jsonOrder.getAsJsonObject().get( COORDINATE ), Tuple.class );
-      gameItem._jsonOwnerName = context.deserialize( jsonOrder.getAsJsonObject().get( OWNER ), String.class );
-      gameItem._lastTurnStatus = context.deserialize( jsonOrder.getAsJsonObject().get( LAST_TURN_STATUS ), new TypeToken<List<String>>(){}.getType() );
+      in.beginObject();
+      while ( in.hasNext() )
+      {
+        String field = in.nextName();
+        if ( in.peek() == JsonToken.NULL || !readField( field, in, gameItem ) )
+        {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+      return gameItem;
     }
 
-    public X deserialize( JsonElement jsonElement, Type type, JsonDeserializationContext context )
-      throws JsonParseException
+    /** deserialize jut those bits relevant to GameItem. @return false if the field isn't known to the adapter. */
+    protected boolean readField( String field, JsonReader in, X gameItem ) throws IOException
     {
-      String className = jsonElement.getAsJsonObject().get( "_class" ).getAsString();
+      switch ( field )
+      {
+        case NAME: gameItem._name = in.nextString(); return true;
+        case ID: gameItem._id = in.nextInt(); return true;
+        case INVISIBLE: gameItem._isInvisible = in.nextBoolean(); return true;
+        case TURN_SEEN: gameItem._turnSeen = in.nextInt(); return true;
+        case COORDINATE: gameItem._jsonLocationTuple = Game.GSON.getAdapter( Tuple.class ).read( in ); return true;
+        case OWNER: gameItem._jsonOwnerName = in.nextString(); return true;
+        case LAST_TURN_STATUS: gameItem._lastTurnStatus = Game.GSON.getAdapter( STRING_LIST ).read( in ); return true;
+        default: return false;
+      }
+    }
+
+    public X read( JsonReader in ) throws IOException
+    {
+      // Only the abstract types get here, figure out the item type and defer to it's specific adapter.
+      JsonObject jsonItem = Game.GSON.getAdapter( JsonElement.class ).read( in ).getAsJsonObject();
+      String className = jsonItem.get( CLASS ).getAsString();
       try
       {
-        X gameItem = context.deserialize( jsonElement, Class.forName( className ) );
+        // The class named is the item's own, which is an X as the adapter was asked for one.
+        @SuppressWarnings( "unchecked" )
+        X gameItem = (X) Game.GSON.getAdapter( Class.forName( className ) ).fromJsonTree( jsonItem );
         return gameItem;
       }
       catch ( ClassNotFoundException e )
@@ -232,13 +284,6 @@ public abstract class GameItem
         throw new RuntimeException( e );
       }
     }
-
-    public JsonElement serialize( X x, Type type, JsonSerializationContext jsonSerializationContext )
-    {
-      // We can't mark the class abstract since we'll deserialize on GameItem, but serialization should
-      // always happen in the overridden method in a GameItem subclass so this method shouldn't be invoked.
-      throw new RuntimeException( "Shouldn't ever be called!" );
-    }
   }
 
   protected static String getLevelString( int level )
@@ -0,0 +1,317 @@
+package kessel.hex.domain;
+
+import kessel.hex.map.GameMap;
+import kessel.hex.util.Tuple;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every item of a game by id and every player by name, so each is found in one lookup rather than by searching the whole game. The game
+ * tells its registry of the players and pops it adds, and each player tells the registries of the games it's in as it gains and loses
+ * items, e.g. as figures are hired or assassinated and pops are captured, so the registry stays current while a turn runs.
+ * <p/>
+ * An id can be held by more than one item in a player's view, e.g. a figure known under its old owner after being charmed away. As when
+ * searching, the first player's item wins, so the few ids held more than once are resolved again by searching whenever their items change.
+ * <p/>
+ * The registry also holds the pops and armies in each hex and the figures at each base, so what's in a hex is found in time proportional
+ * to what's there. Items tell their owner as they move, which tells its registries. A figure is wherever its base is, so it moves with
+ * its army without the registry being told. It places the id of the pop in each hex on the game's map too, so the many hexes without a
+ * pop are known to be empty without waiting on the registry.
+ * <p/>
+ * Orders may be executed at the same time, see OrderExecutor, so the registry is read and changed one call at a time.
+ */
+final class GameRegistry
+{
+  private final Game _game;
+
+  // The map the registry places the pops on, the game's when the registry was built. Null if the game had no map.
+  private final GameMap _map;
+  private final Map<String, Player> _playersByName = new HashMap<>();
+  private final Map<Integer, PopCenter> _popCentersById = new HashMap<>();
+  private final Map<Integer, GameItem> _playerItemsById = new HashMap<>();
+
+  // How many more player items hold an id than the one registered for it, for the ids held more than once.
+  private final Map<Integer, Integer> _extraHolders = new HashMap<>();
+
+  private final Map<Tuple, List<PopCenter>> _popCentersByHex = new HashMap<>();
+  private final Map<Tuple, List<Army>> _armiesByHex = new HashMap<>();
+  private final Map<Integer, List<Figure>> _figuresByBaseId = new HashMap<>();
+
+  GameRegistry( Game game )
+  {
+    _game = game;
+    _map = game.getMap();
+    if ( _map != null ) { _map.clearPopCenterIds(); }
+    for ( PopCenter pop : game.getAllPopCenters() )
+    {
+      popCenterAdded( pop, null );
+    }
+    for ( Player player : game.getPlayers() )
+    {
+      addPlayer( player );
+    }
+  }
+
+  synchronized void addPlayer( Player player )
+  {
+    if ( !_playersByName.containsKey( player.getName() ) ) { _playersByName.put( player.getName(), player ); }
+    if ( player.addRegistry( this ) )
+    {
+      for ( GameItem item : player.getAllItems() )
+      {
+        itemAdded( item );
+      }
+    }
+  }
+
+  /** Stop the players from telling this registry of their items, once the game has no more use for it. */
+  synchronized void detach()
+  {
+    for ( Player player : _game.getPlayers() )
+    {
+      player.removeRegistry( this );
+    }
+  }
+
+  synchronized Player getPlayer( String name ) { return _playersByName.get( name ); }
+
+  synchronized PopCenter getPopCenter( int id ) { return _popCentersById.get( id ); }
+
+  synchronized GameItem getPlayerItem( int id ) { return _playerItemsById.get( id ); }
+
+  /** @return the pop center with the id, or else the player's item with it, just as the game is searched. */
+  synchronized GameItem getItem( int id )
+  {
+    GameItem item = _popCentersById.get( id );
+    return (item == null) ? _playerItemsById.get( id ) : item;
+  }
+
+  /** @return the pops, then the armies, then the figures in the hex. */
+  synchronized List<GameItem> getItems( Tuple hex )
+  {
+    List<GameItem> items = new ArrayList<>();
+    items.addAll( getPopCenters( hex ) );
+    items.addAll( getArmies( hex ) );
+    items.addAll( getFigures( hex ) );
+    return items;
+  }
+
+  /** @return false if the hex is on the map and the registry has no pop in it, which is known without waiting on the registry. */
+  boolean mayHoldPopCenter( Tuple hex )
+  {
+    return (_map == null) || !_map.isOnMap( hex ) || (_map.getPopCenterId( hex ) != 0);
+  }
+
+  /** @return the pop of the earliest type in the hex, just as the game's pops are searched by type. */
+  synchronized PopCenter getPopCenter( Tuple hex )
+  {
+    List<PopCenter> popsInHex = _popCentersByHex.get( hex );
+    return (popsInHex == null) ? null : popsInHex.get( 0 );
+  }
+
+  /** @return the pops in the hex, in order of type. */
+  synchronized List<PopCenter> getPopCenters( Tuple hex ) { return copyOf( _popCentersByHex.get( hex ) ); }
+
+  synchronized List<Army> getArmies( Tuple hex ) { return copyOf( _armiesByHex.get( hex ) ); }
+
+  /** @return the figures based at the pops and armies in the hex. */
+  synchronized List<Figure> getFigures( Tuple hex )
+  {
+    List<GameItem> bases = new ArrayList<>();
+    bases.addAll( getPopCenters( hex ) );
+    bases.addAll( getArmies( hex ) );
+    List<Figure> figures = new ArrayList<>();
+    for ( int i = 0; i < bases.size(); i++ )
+    {
+      // A view can know of an army more than once, but its figures are only there once.
+      if ( bases.indexOf( bases.get( i ) ) == i )
+      {
+        figures.addAll( getFigures( bases.get( i ) ) );
+      }
+    }
+    return figures;
+  }
+
+  synchronized List<Figure> getFigures( GameItem base ) { return copyOf( _figuresByBaseId.get( base.getId() ) ); }
+
+  /**
+   * Register a pop the game has added to the map.
+   *
+   * @param replaced the pop previously in its hex, if any.
+   */
+  synchronized void popCenterAdded( PopCenter pop, PopCenter replaced )
+  {
+    if ( replaced != null )
+    {
+      removeFrom( _popCentersByHex, replaced.getHex(), replaced );
+      placePopCenter( replaced.getHex() );
+      if ( (replaced.getId() != pop.getId()) && (_popCentersById.get( replaced.getId() ) == replaced) )
+      {
+        resolvePopCenter( replaced.getId() );
+      }
+    }
+    List<PopCenter> popsInHex = getList( _popCentersByHex, pop.getHex() );
+    int index = 0;
+    while ( (index < popsInHex.size()) && (popsInHex.get( index ).getType().compareTo( pop.getType() ) <= 0) )
+    {
+      index++;
+    }
+    popsInHex.add( index, pop );
+    placePopCenter( pop.getHex() );
+
+    // The pops are searched by type, so a pop of an earlier type keeps the id, e.g. if intel about it has a different type.
+    PopCenter registered = _popCentersById.get( pop.getId() );
+    if ( (registered == null) || (registered.getType().compareTo( pop.getType() ) >= 0) )
+    {
+      _popCentersById.put( pop.getId(), pop );
+    }
+  }
+
+  /** Place the id of the pop of the earliest type in the hex on the map, or 0 if it has none. */
+  private void placePopCenter( Tuple hex )
+  {
+    if ( _map != null )
+    {
+      List<PopCenter> popsInHex = _popCentersByHex.get( hex );
+      _map.setPopCenterId( hex, (popsInHex == null) ? 0 : popsInHex.get( 0 ).getId() );
+    }
+  }
+
+  synchronized void itemAdded( GameItem item )
+  {
+    if ( item instanceof Army )
+    {
+      getList( _armiesByHex, item.getHex() ).add( (Army) item );
+    }
+    else if ( item instanceof Figure )
+    {
+      getList( _figuresByBaseId, ((Figure) item).getBaseId() ).add( (Figure) item );
+    }
+
+    int id = item.getId();
+    if ( _playerItemsById.containsKey( id ) )
+    {
+      Integer extra = _extraHolders.get( id );
+      _extraHolders.put( id, (extra == null) ? 1 : extra + 1 );
+      resolvePlayerItem( id );
+    }
+    else
+    {
+      _playerItemsById.put( id, item );
+    }
+  }
+
+  synchronized void itemRemoved( GameItem item )
+  {
+    if ( item instanceof Army )
+    {
+      removeFrom( _armiesByHex, item.getHex(), (Army) item );
+    }
+    else if ( item instanceof Figure )
+    {
+      removeFrom( _figuresByBaseId, ((Figure) item).getBaseId(), (Figure) item );
+    }
+
+    int id = item.getId();
+    Integer extra = _extraHolders.get( id );
+    if ( extra == null )
+    {
+      _playerItemsById.remove( id );
+    }
+    else
+    {
+      if ( extra == 1 ) { _extraHolders.remove( id ); }
+      else { _extraHolders.put( id, extra - 1 ); }
+      resolvePlayerItem( id );
+    }
+  }
+
+  /** Move an army from the given hex to where it is now. Other items are placed by their base or don't move. */
+  synchronized void itemMoved( GameItem item, Tuple oldHex )
+  {
+    if ( (item instanceof Army) && removeFrom( _armiesByHex, oldHex, (Army) item ) )
+    {
+      getList( _armiesByHex, item.getHex() ).add( (Army) item );
+    }
+  }
+
+  synchronized void figureRebased( Figure figure, int oldBaseId )
+  {
+    if ( removeFrom( _figuresByBaseId, oldBaseId, figure ) )
+    {
+      getList( _figuresByBaseId, figure.getBaseId() ).add( figure );
+    }
+  }
+
+  private static <K, V> List<V> getList( Map<K, List<V>> map, K key )
+  {
+    List<V> list = map.get( key );
+    if ( list == null )
+    {
+      list = new ArrayList<>( 2 );
+      map.put( key, list );
+    }
+    return list;
+  }
+
+  /**
+   * Remove the very item from the key's list, as others in it may be equal to it, e.g. intel about the same army.
+   *
+   * @return true if it was in the list.
+   */
+  private static <K, V> boolean removeFrom( Map<K, List<V>> map, K key, V item )
+  {
+    List<V> list = map.get( key );
+    if ( list != null )
+    {
+      for ( int i = 0; i < list.size(); i++ )
+      {
+        if ( list.get( i ) == item )
+        {
+          list.remove( i );
+          if ( list.isEmpty() ) { map.remove( key ); }
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static <T> List<T> copyOf( List<T> list )
+  {
+    return (list == null) ? new ArrayList<T>() : new ArrayList<>( list );
+  }
+
+  private void resolvePopCenter( int id )
+  {
+    _popCentersById.remove( id );
+    for ( Map<Tuple, PopCenter> popsByType : _game._popCenters.values() )
+    {
+      for ( PopCenter pop : popsByType.values() )
+      {
+        if ( pop.getId() == id )
+        {
+          _popCentersById.put( id, pop );
+          return;
+        }
+      }
+    }
+  }
+
+  private void resolvePlayerItem( int id )
+  {
+    _playerItemsById.remove( id );
+    for ( Player player : _game.getPlayers() )
+    {
+      GameItem item = player.getItem( id );
+      if ( item != null )
+      {
+        _playerItemsById.put( id, item );
+        return;
+      }
+    }
+  }
+}
@@ -8,16 +8,29 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-/** Holds information specific to a given game turn. */
+/**
+ * Holds information specific to a given game turn. The orders executed so far are kept by type, and also by whatever key an OrderIndex
+ * gives them, so e.g. the shields on a figure are found without looking at every shield cast this turn. Orders may be executed at the
+ * same time, so the orders executed are looked up and added one at a time.
+ */
 @SuppressWarnings({ "RawUseOfParameterizedType" })
 public class GameTurn
 {
+  /** The indexes of each order type, as they're created. */
+  private static final Map<Class<?>, List<OrderIndex<?>>> INDEXES_BY_TYPE = new ConcurrentHashMap<>();
+
   /** A map of orders executed for the turn, keyed by the order class name. */
   private final Map<String, List<? extends Order>> _ordersByType = new HashMap<>();
+
+  /** The executed orders by key, for each index used this turn. */
+  private final Map<OrderIndex<?>, Map<Object, List<Order<?>>>> _ordersByIndex = new HashMap<>();
   private Map<Region, Player> _regionalControlInfo = new HashMap<>();
+  private int[] _executionOrder = new int[0];
 
-  public <T> List<T> getOrdersOfType( Class<T> clazz )
+  public synchronized <T> List<T> getOrdersOfType( Class<T> clazz )
   {
     List<? extends Order> orders = _ordersByType.get( clazz.getName() );
     if ( orders == null )
@@ -27,8 +40,16 @@ public class GameTurn
     return (List<T>) orders;
   }
 
-  public <T> void addOrderExecuted( T order )
+  public synchronized <T> void addOrderExecuted( T order )
   {
+    List<OrderIndex<?>> indexes = INDEXES_BY_TYPE.get( order.getClass() );
+    if ( indexes != null )
+    {
+      for ( OrderIndex<?> index : indexes )
+      {
+        index.add( getOrdersByKey( index ), order );
+      }
+    }
     List<T> orders = (List<T>) _ordersByType.get( order.getClass().getName() );
     if ( orders == null )
     {
@@ -38,7 +59,78 @@ public class GameTurn
     orders.add( order );
   }
 
+  /**
+   * @return the orders of the index's type executed this turn with the given key, in the order they were executed. The list is a copy, so
+   *         it's unaffected by orders executed later.
+   */
+  public synchronized <T extends Order<?>> List<T> getOrders( OrderIndex<T> index, Object key )
+  {
+    List<Order<?>> orders = getOrdersByKey( index ).get( key );
+    if ( orders == null ) { return Collections.emptyList(); }
+    List<T> typedOrders = new ArrayList<>( orders.size() );
+    for ( Order<?> order : orders )
+    {
+      typedOrders.add( index._type.cast( order ) );
+    }
+    return typedOrders;
+  }
+
+  // An index made after orders of its type were executed starts with those, keyed as they are now.
+  private <T extends Order<?>> Map<Object, List<Order<?>>> getOrdersByKey( OrderIndex<T> index )
+  {
+    Map<Object, List<Order<?>>> ordersByKey = _ordersByIndex.get( index );
+    if ( ordersByKey == null )
+    {
+      ordersByKey = new HashMap<>();
+      for ( T order : getOrdersOfType( index._type ) )
+      {
+        index.add( ordersByKey, order );
+      }
+      _ordersByIndex.put( index, ordersByKey );
+    }
+    return ordersByKey;
+  }
+
   public void setRegionalControlInfo( Map<Region, Player> regionalControlInfo ) { _regionalControlInfo = regionalControlInfo; }
 
   public Map<Region, Player> getRegionalControlInfo() { return _regionalControlInfo; }
+
+  /** @param executionOrder the position, in the orders issued, of each order in the order they were executed. */
+  public void setExecutionOrder( int[] executionOrder ) { _executionOrder = executionOrder; }
+
+  public int[] getExecutionOrder() { return _executionOrder; }
+
+  /**
+   * A way to find the executed orders of a type by a key, e.g. a spell's target, or the region its caster was in. The key is worked out
+   * as each order is executed, so an effect stays where it was cast even if its caster is moved later in the turn. An index is declared
+   * as a constant of the order type it indexes, so it's made before any such order is executed.
+   */
+  public abstract static class OrderIndex<T extends Order<?>>
+  {
+    private final Class<T> _type;
+
+    protected OrderIndex( Class<T> type )
+    {
+      _type = type;
+      INDEXES_BY_TYPE.putIfAbsent( type, new CopyOnWriteArrayList<OrderIndex<?>>() );
+      INDEXES_BY_TYPE.get( type ).add( this );
+    }
+
+    /** @return the key to find the order by. Keys are compared by equals(), e.g. a list of items for a spell's caster and target. */
+    protected abstract Object getKey( T order );
+
+    /** Add the order, which is of the index's type, to the orders with its key. */
+    private void add( Map<Object, List<Order<?>>> ordersByKey, Object order )
+    {
+      T typedOrder = _type.cast( order );
+      Object key = getKey( typedOrder );
+      List<Order<?>> orders = ordersByKey.get( key );
+      if ( orders == null )
+      {
+        orders = new ArrayList<>( 1 );
+        ordersByKey.put( key, orders );
+      }
+      orders.add( typedOrder );
+    }
+  }
 }
@@ -0,0 +1,89 @@
+package kessel.hex.domain;
+
+import kessel.hex.util.Tuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What the players' armies and pops see of the other players' armies, worked out in one sweep over the hexes with armies in them rather
+ * than by each player for each of its items. It also holds the armies big enough that a player might hear of them elsewhere. It's built
+ * once as intelligence is updated and only read by the players' updates, so they may share it.
+ */
+final class IntelSweep
+{
+  // The fewest units an army can have for anyone to hear of it, i.e. in a region they dominate.
+  private static final int FEWEST_UNITS_HEARD_OF = 2;
+
+  // The other players' armies each player sees, by player name and then by hex, in player order.
+  private final Map<String, Map<Tuple, List<Army>>> _sightings = new HashMap<>();
+  private final List<Army> _bigArmies = new ArrayList<>();
+
+  IntelSweep( Game game )
+  {
+    Map<Tuple, List<Army>> armiesByHex = new LinkedHashMap<>();
+    for ( Army army : game.getAllPlayerArmies() )
+    {
+      getList( armiesByHex, army.getHex() ).add( army );
+      if ( !army.isInvisible() && (army.getUnits().size() >= FEWEST_UNITS_HEARD_OF) ) { _bigArmies.add( army ); }
+    }
+
+    for ( Map.Entry<Tuple, List<Army>> hexArmies : armiesByHex.entrySet() )
+    {
+      // Those with an army or a pop in the hex see every visible army of the others there.
+      Tuple hex = hexArmies.getKey();
+      Set<String> observers = new LinkedHashSet<>();
+      for ( Army army : hexArmies.getValue() )
+      {
+        observers.add( army.getOwnerName() );
+      }
+      PopCenter pop = game.getPopCenter( hex );
+      if ( pop != null ) { observers.add( pop.getOwnerName() ); }
+
+      for ( String observer : observers )
+      {
+        for ( Army army : hexArmies.getValue() )
+        {
+          if ( !army.isInvisible() && !army.getOwnerName().equals( observer ) )
+          {
+            Map<Tuple, List<Army>> observerSightings = _sightings.get( observer );
+            if ( observerSightings == null )
+            {
+              observerSightings = new HashMap<>();
+              _sightings.put( observer, observerSightings );
+            }
+            getList( observerSightings, hex ).add( army );
+          }
+        }
+      }
+    }
+  }
+
+  private static List<Army> getList( Map<Tuple, List<Army>> armiesByHex, Tuple hex )
+  {
+    List<Army> armies = armiesByHex.get( hex );
+    if ( armies == null )
+    {
+      armies = new ArrayList<>();
+      armiesByHex.put( hex, armies );
+    }
+    return armies;
+  }
+
+  /** @return the visible armies of other players the player sees in the hex, which are none unless it has an army or pop there. */
+  List<Army> getSightings( Player player, Tuple hex )
+  {
+    Map<Tuple, List<Army>> playerSightings = _sightings.get( player.getName() );
+    List<Army> armies = (playerSightings == null) ? null : playerSightings.get( hex );
+    return (armies == null) ? Collections.<Army>emptyList() : armies;
+  }
+
+  /** @return every player's visible armies with enough units that another player might hear of them, in player order. */
+  List<Army> getBigArmies() { return _bigArmies; }
+}
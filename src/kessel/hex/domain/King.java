@@ -1,10 +1,6 @@
 package kessel.hex.domain;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
+import com.google.gson.stream.JsonReader;
 import kessel.hex.orders.Order;
 import kessel.hex.orders.PolicyOrder;
 import kessel.hex.orders.army.CreateArmy;
@@ -12,7 +8,7 @@ import kessel.hex.orders.king.ImproveEmbassy;
 import kessel.hex.orders.king.ImprovePower;
 import kessel.hex.orders.king.MoveCapitol;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -115,19 +111,9 @@ public class King extends Figure
 
   public static class MyJsonAdapter extends Figure.MyJsonAdapter<King>
   {
-    public JsonElement serialize( King king, Type type, JsonSerializationContext context )
+    public King read( JsonReader in ) throws IOException
     {
-      JsonObject jsonResponse = new JsonObject();
-      super.serialize( king, jsonResponse, type, context );
-      return jsonResponse;
-    }
-
-    public King deserialize( JsonElement jsonOrder, Type type, JsonDeserializationContext context )
-      throws JsonParseException
-    {
-      King king = new King();
-      super.doDeserialize( king, jsonOrder, context );
-      return king;
+      return readFields( in, new King() );
     }
   }
 }
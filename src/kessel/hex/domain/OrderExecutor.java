@@ -0,0 +1,167 @@
+package kessel.hex.domain;
+
+import kessel.hex.orders.Order;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Executes a turn's orders, a bucket of one type at a time, as scheduled by the OrderScheduler. Where each order of a bucket gives its
+ * footprint, the orders that share nothing of it are executed at once: the orders are grouped by what they share, and the groups run on
+ * a fork-join pool, each group's orders in their scheduled sequence. As no two groups touch the same thing, the game ends up just as if
+ * the orders were executed one at a time, and the orders are added to the turn's executed orders in their scheduled sequence once they're
+ * done. A bucket with any order that may affect anything is executed one order at a time.
+ */
+final class OrderExecutor
+{
+  private final Game _game;
+  private final int _threads;
+  private ForkJoinPool _pool;
+
+  /** @param threads how many orders may be executed at once, 1 to execute them one at a time. */
+  OrderExecutor( Game game, int threads )
+  {
+    _game = game;
+    _threads = threads;
+  }
+
+  /** Execute the orders, which are all of the same type, as if in the given sequence. */
+  <T extends Order<?>> void execute( List<T> orders )
+  {
+    List<List<T>> groups = (_threads > 1) ? group( orders ) : null;
+    if ( (groups == null) || (groups.size() < 2) )
+    {
+      for ( T order : orders )
+      {
+        order.execute( _game );
+      }
+      return;
+    }
+
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for ( final List<T> group : groups )
+    {
+      tasks.add( new Callable<Void>()
+      {
+        public Void call()
+        {
+          for ( T order : group )
+          {
+            order.executeApart( _game );
+          }
+          return null;
+        }
+      } );
+    }
+    // The parts of the game built when first needed are built here first, as updateIntelligence does, so the groups only ever read them.
+    _game.getRegistry();
+    _game.getMap().getLocations();
+    _game.setExecutingApart( true );
+    try
+    {
+      for ( Future<Void> task : getPool().invokeAll( tasks ) )
+      {
+        task.get();
+      }
+    }
+    catch ( ExecutionException e )
+    {
+      if ( e.getCause() instanceof RuntimeException ) { throw (RuntimeException) e.getCause(); }
+      if ( e.getCause() instanceof Error ) { throw (Error) e.getCause(); }
+      throw new IllegalStateException( "Failed executing orders", e.getCause() );
+    }
+    catch ( InterruptedException e )
+    {
+      throw new IllegalStateException( "Interrupted executing orders", e );
+    }
+    finally
+    {
+      _game.setExecutingApart( false );
+    }
+    for ( T order : orders )
+    {
+      if ( order.wasExecuted() ) { _game.getCurrentTurn().addOrderExecuted( order ); }
+    }
+  }
+
+  /**
+   * Group the orders so that any two that share part of their footprints are in the same group, in the sequence they're given.
+   *
+   * @return the groups, in the sequence of their first orders, or null if any order has no footprint.
+   */
+  static <T extends Order<?>> List<List<T>> group( List<T> orders )
+  {
+    // Each order is joined to the first order with anything in common with it, and a group is known by its first order.
+    int[] firsts = new int[orders.size()];
+    Map<Object, Integer> firstOrderWith = new IdentityHashMap<>();
+    for ( int i = 0; i < orders.size(); i++ )
+    {
+      Collection<?> footprint = orders.get( i ).getFootprint();
+      if ( footprint == null ) { return null; }
+      firsts[i] = i;
+      for ( Object touched : footprint )
+      {
+        Integer first = firstOrderWith.get( touched );
+        if ( first == null )
+        {
+          firstOrderWith.put( touched, i );
+        }
+        else
+        {
+          join( firsts, first, i );
+        }
+      }
+    }
+
+    List<List<T>> groups = new ArrayList<>();
+    List<List<T>> groupOf = new ArrayList<>( Collections.<List<T>>nCopies( orders.size(), null ) );
+    for ( int i = 0; i < orders.size(); i++ )
+    {
+      int first = findFirst( firsts, i );
+      if ( groupOf.get( first ) == null )
+      {
+        groupOf.set( first, new ArrayList<T>() );
+        groups.add( groupOf.get( first ) );
+      }
+      groupOf.get( first ).add( orders.get( i ) );
+    }
+    return groups;
+  }
+
+  private static void join( int[] firsts, int a, int b )
+  {
+    int firstOfA = findFirst( firsts, a );
+    int firstOfB = findFirst( firsts, b );
+    firsts[Math.max( firstOfA, firstOfB )] = Math.min( firstOfA, firstOfB );
+  }
+
+  private static int findFirst( int[] firsts, int i )
+  {
+    while ( firsts[i] != i )
+    {
+      firsts[i] = firsts[firsts[i]];
+      i = firsts[i];
+    }
+    return i;
+  }
+
+  private ForkJoinPool getPool()
+  {
+    if ( _pool == null ) { _pool = new ForkJoinPool( _threads ); }
+    return _pool;
+  }
+
+  /** Stop the threads, if any were started, once the turn's orders have all been executed. */
+  void shutdown()
+  {
+    if ( _pool != null ) { _pool.shutdown(); }
+  }
+}
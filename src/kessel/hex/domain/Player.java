@@ -1,41 +1,38 @@
 package kessel.hex.domain;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import kessel.hex.map.ControlLevel;
 import kessel.hex.map.GameMap;
 import kessel.hex.map.Location;
+import kessel.hex.map.MapTopology;
 import kessel.hex.map.Region;
 import kessel.hex.orders.Order;
-import kessel.hex.util.HexCalculator;
+import kessel.hex.util.FilteringJsonReader;
 import kessel.hex.util.Tuple;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.log4j.Logger;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static kessel.hex.domain.GameItem.getGameItem;
 
@@ -52,6 +49,9 @@ public class Player
   // Suffix for player persistence file.
   public static final String STATE_FILE = ".json";
 
+  // Suffix for the name of a file holding just a player's orders.
+  public static final String ORDERS_SUFFIX = "_orders";
+
   private static final int MIN_POWER = 8;
 
   /** The name of the player, which must be unique within a Game. */
@@ -80,17 +80,20 @@ public class Player
   /** An index for which random name to assign to the next new Figure. */
   int _nextFigureName = 0;
 
-  /** The player's embassy presence in each region, keyed by the region's name. */
-  Map<String, Integer> _embassyLevels = new HashMap<>();
+  /** The player's embassy presence in each region, held by the region's ordinal and saved by its name. */
+  RegionLevels _embassyLevels = new RegionLevels();
 
   /** The player's orders for the next turn. */
-  List<Order> _turnOrders = new ArrayList<>();
+  List<Order<?>> _turnOrders = new ArrayList<>();
 
   /** The history of game events known to the player. */
   List<GameEvent> _events = new ArrayList<>();
 
   /** The player's intelligence about regional control levels: Player->(Region,Level). */
-  Map<String, Map<String, ControlLevel>> _controlLevelIntel = new HashMap<>();
+  ControlIntel _controlLevelIntel = new ControlIntel();
+
+  // The registries of the games the player is in, which are told as the player gains and loses items.
+  private final transient CopyOnWriteArrayList<GameRegistry> _registries = new CopyOnWriteArrayList<>();
 
   /** The player's view of the game. Each player has only limited knowledge of the full game information. */
   Game _gameView;
@@ -140,6 +143,7 @@ public class Player
       throw new RuntimeException( "Invalid figure type to add: " + figure.getClass() );
     }
     figure.setOwner( this );
+    registerItem( figure );
   }
 
   @SuppressWarnings({ "ChainOfInstanceofChecks" })
@@ -147,15 +151,15 @@ public class Player
   {
     if ( figure instanceof Agent )
     {
-      _agents.remove( figure );
+      removeItem( _agents, figure );
     }
     else if ( figure instanceof Diplomat )
     {
-      _diplomats.remove( figure );
+      removeItem( _diplomats, figure );
     }
     else if ( figure instanceof Wizard )
     {
-      _wizards.remove( figure );
+      removeItem( _wizards, figure );
     }
     else
     {
@@ -185,6 +189,42 @@ public class Player
     return figures;
   }
 
+  /** @return where the figure comes in getFigures(), without building the list, or -1 if the player doesn't have it. */
+  int indexOfFigure( Figure figure )
+  {
+    int index = _wizards.indexOf( figure );
+    if ( index >= 0 ) { return index; }
+    int offset = _wizards.size();
+    index = _agents.indexOf( figure );
+    if ( index >= 0 ) { return offset + index; }
+    offset += _agents.size();
+    index = _diplomats.indexOf( figure );
+    if ( index >= 0 ) { return offset + index; }
+    offset += _diplomats.size();
+    return ((_king != null) && _king.equals( figure )) ? offset : -1;
+  }
+
+  /** @return the player's figures based at the item, found through the registry of a game the player is in, else by searching. */
+  private List<Figure> getFigures( GameItem base )
+  {
+    List<Figure> figures = new ArrayList<>();
+    if ( _registries.isEmpty() )
+    {
+      for ( Figure figure : getFigures() )
+      {
+        if ( figure.getBase().equals( base ) ) { figures.add( figure ); }
+      }
+    }
+    else
+    {
+      for ( Figure figure : _registries.get( 0 ).getFigures( base ) )
+      {
+        if ( (figure.getOwner() == this) && figure.getBase().equals( base ) ) { figures.add( figure ); }
+      }
+    }
+    return figures;
+  }
+
   private Figure getFigure( int id )
   {
     for ( Figure figure : getFigures() )
@@ -266,20 +306,22 @@ public class Player
     return null;
   }
 
-  public void remove( Army army ) { _armies.remove( army ); }
+  public void remove( Army army ) { removeItem( _armies, army ); }
   public void add( Army army )
   {
     _armies.add( army );
     army.setOwner( this );
+    registerItem( army );
   }
 
   public List<PopCenter> getPopCenters() { return _popCenters; }
 
-  public void remove( PopCenter pop ) { _popCenters.remove( pop ); }
+  public void remove( PopCenter pop ) { removeItem( _popCenters, pop ); }
   public void add( PopCenter pop )
   {
     _popCenters.add( pop );
     pop.setOwner( this );
+    registerItem( pop );
   }
 
   /** @return the player's item with the given id. */
@@ -298,7 +340,58 @@ public class Player
 
   public King getKing() { return _king; }
 
-  public void setKing( King king ) { _king = king; }
+  public void setKing( King king )
+  {
+    if ( _king != null ) { unregisterItem( _king ); }
+    _king = king;
+    if ( _king != null ) { registerItem( _king ); }
+  }
+
+  /** @return true if the registry wasn't already told of the player's items. */
+  boolean addRegistry( GameRegistry registry ) { return _registries.addIfAbsent( registry ); }
+
+  void removeRegistry( GameRegistry registry ) { _registries.remove( registry ); }
+
+  private void registerItem( GameItem item )
+  {
+    for ( GameRegistry registry : _registries )
+    {
+      registry.itemAdded( item );
+    }
+  }
+
+  private void unregisterItem( GameItem item )
+  {
+    for ( GameRegistry registry : _registries )
+    {
+      registry.itemRemoved( item );
+    }
+  }
+
+  /** Remove the item from the list. The registries are told of the instance removed, which may just have the same id as the given one. */
+  private void removeItem( List<? extends GameItem> items, GameItem item )
+  {
+    int index = items.indexOf( item );
+    if ( index >= 0 ) { unregisterItem( items.remove( index ) ); }
+  }
+
+  /** Tell the registries the item has moved from the given hex. */
+  void itemMoved( GameItem item, Tuple oldHex )
+  {
+    for ( GameRegistry registry : _registries )
+    {
+      registry.itemMoved( item, oldHex );
+    }
+  }
+
+  /** Tell the registries the figure has moved from the base with the given id. */
+  void figureRebased( Figure figure, int oldBaseId )
+  {
+    for ( GameRegistry registry : _registries )
+    {
+      registry.figureRebased( figure, oldBaseId );
+    }
+  }
 
   public Game getGameView() { return _gameView; }
 
@@ -315,7 +408,7 @@ public class Player
     }
     return orders;
   }
-  public List<Order> getNextTurnOrders() { return _turnOrders; }
+  public List<Order<?>> getNextTurnOrders() { return _turnOrders; }
 
   public void addOrder( Order order ) { _turnOrders.add( order ); }
 
@@ -352,9 +445,9 @@ public class Player
 
     // Any of the player's other figures at the capitol, that haven't already done something, are moved as well and
     // it counts as the figure's order for the turn.
-    for ( Figure figure : getFigures() )
+    for ( Figure figure : getFigures( oldCapitol ) )
     {
-      if ( figure.getBase().equals( oldCapitol ) && figure.getOrdersExecuted().isEmpty() )
+      if ( figure.getOrdersExecuted().isEmpty() )
       {
         figure.forceMove( target );
       }
@@ -367,6 +460,12 @@ public class Player
    * population centers, he's "in the wild". Losing ones capitol always causes a power loss.
    */
   public void forcedCapitolRelocation()
+  {
+    forcedCapitolRelocation( new Random() );
+  }
+
+  /** As above, with the random pick between equally strong population centers made from the given random. */
+  public void forcedCapitolRelocation( Random random )
   {
     remove( _capitol );
     if ( _popCenters.isEmpty() )
@@ -404,7 +503,7 @@ public class Player
           strongestPops.add( popCenter );
         }
       }
-      Collections.shuffle( strongestPops );
+      Collections.shuffle( strongestPops, random );
       relocateCapitol( strongestPops.get( 0 ) );
     }
     adjustPower( -1 );
@@ -447,24 +546,25 @@ public class Player
   }
 
   /** @param region improve the embassy in the region by one level. */
-  public void improveEmbassy( Region region ) { improveEmbassy( region.getName() ); }
+  public void improveEmbassy( Region region )
+  {
+    _embassyLevels.setLevel( region, _embassyLevels.getLevel( region ) + 1 );
+  }
 
   public void improveEmbassy( String region )
   {
-    int level = _embassyLevels.get( region );
-    _embassyLevels.put( region, level + 1 );
+    _embassyLevels.setLevel( region, _embassyLevels.getLevel( region ) + 1 );
   }
 
   private void setEmbassyLevel( Region region, int embassyLevel )
   {
-    _embassyLevels.put( region.getName(), embassyLevel );
+    _embassyLevels.setLevel( region, embassyLevel );
   }
 
   /** Reduce the embassy level by one in the region. Can't go below zero. */
   public void degradeEmbassy( Region region )
   {
-    int level = _embassyLevels.get( region.getName() );
-    _embassyLevels.put( region.getName(), Math.max( 0, level - 1 ) );
+    _embassyLevels.setLevel( region, Math.max( 0, _embassyLevels.getLevel( region ) - 1 ) );
   }
 
   /** The kingdom's pop centers (and other items, if relevant) produce for the turn. */
@@ -539,7 +639,7 @@ public class Player
   {
     for ( Region region : regions )
     {
-      _embassyLevels.put( region.getName(), 0 );
+      _embassyLevels.setLevel( region, 0 );
     }
   }
 
@@ -565,17 +665,13 @@ public class Player
     return cost;
   }
 
-  /** The embassy levels for each region. */
+  /** The embassy levels for each region, by the region's name. */
   @SuppressWarnings("UnusedDeclaration")
-  Map<String, Integer> getEmbassyLevels() { return _embassyLevels; }
+  Map<String, Integer> getEmbassyLevels() { return _embassyLevels.asMap(); }
 
-  public int getEmbassyLevel( Region region ) { return getEmbassyLevel( region.getName() ); }
+  public int getEmbassyLevel( Region region ) { return _embassyLevels.getLevel( region ); }
 
-  public int getEmbassyLevel( String region )
-  {
-    Integer level = _embassyLevels.get( region );
-    return level == null ? 0 : level;
-  }
+  public int getEmbassyLevel( String region ) { return _embassyLevels.getLevel( region ); }
 
   /** How many kingdom troops are available for recruiting. */
   public int getKingdomTroopsAvailable()
@@ -619,32 +715,113 @@ public class Player
   /** Save the player's state and orders to the given directory for the given turn. */
   public void save( File playerDir, int turn ) throws IOException
   {
-    try (Writer stateWriter = new BufferedWriter( new FileWriter( new File( playerDir, _name + "_turn" + turn + STATE_FILE ) ) ))
-    {
-      save( stateWriter );
-    }
+    save( playerDir, turn, SaveFormat.JSON );
+  }
+
+  /** Save the player's state and orders to the given directory for the given turn, in the given format. */
+  public void save( File playerDir, int turn, SaveFormat format ) throws IOException
+  {
+    format.save( this, Player.class, format.getFile( playerDir, getStateName( _name, turn ) ) );
+  }
+
+  /**
+   * Save just the player's orders for the given turn to the given directory. The turn is run from this small file when it exists, so the
+   * player needn't write back their whole state to submit orders.
+   */
+  public void saveOrders( File playerDir, int turn ) throws IOException
+  {
+    saveOrders( playerDir, turn, SaveFormat.JSON );
+  }
+
+  /** As above, in the given format. */
+  public void saveOrders( File playerDir, int turn, SaveFormat format ) throws IOException
+  {
+    JsonObject orders = new JsonObject();
+    orders.add( MyJsonAdapter.ORDERS, Game.GSON.toJsonTree( _turnOrders, MyJsonAdapter.ORDER_LIST.getType() ) );
+    format.save( orders, JsonElement.class, format.getFile( playerDir, getOrdersName( _name, turn ) ) );
+  }
+
+  /** @return the name, less the save format extension, of a player's state file for a given turn. */
+  public static String getStateName( String playerName, int turn )
+  {
+    return playerName + "_turn" + turn;
+  }
+
+  /** @return the name, less the save format extension, of the file holding just the orders a player issued for a given turn. */
+  public static String getOrdersName( String playerName, int turn )
+  {
+    return getStateName( playerName, turn ) + ORDERS_SUFFIX;
   }
 
   void save( Writer out ) throws IOException
   {
-    String json = Game.GSON.toJson( this );
-    IOUtils.write( json, out );
+    Game.GSON.toJson( this, Player.class, Game.GSON.newJsonWriter( out ) );
+    out.flush();
   }
 
   /** Meant to load just the player, independent of it's game. Such as when used by a player GUI tool. */
   public static Player load( File playersDir, String playerName, int turn ) throws Exception
   {
-    try (Reader stateReader = new BufferedReader( new FileReader( new File( playersDir, playerName + "_turn" + turn + STATE_FILE ) ) ))
+    File stateFile = SaveFormat.find( playersDir, getStateName( playerName, turn ) );
+    Player player = SaveFormat.forFile( stateFile ).load( stateFile, Player.class );
+    return player;
+  }
+
+  /**
+   * Load just the given parts of a player's state for the given turn, skipping over the rest of its file, e.g. only their view of the game.
+   * The player's own kingdom is always loaded.
+   */
+  public static Player load( File playersDir, String playerName, int turn, Set<SavePart> parts ) throws IOException
+  {
+    List<String> hiddenPaths = new ArrayList<>();
+    for ( SavePart part : SavePart.values() )
     {
-      Player player = load( stateReader );
-      return player;
+      if ( part.getPlayerMember() != null && !parts.contains( part ) ) { hiddenPaths.add( part.getPlayerMember() ); }
+    }
+    File stateFile = SaveFormat.find( playersDir, getStateName( playerName, turn ) );
+    try (JsonReader in = new FilteringJsonReader( SaveFormat.forFile( stateFile ).openReader( stateFile ), hiddenPaths ))
+    {
+      return Game.GSON.fromJson( in, Player.class );
     }
   }
 
+  /**
+   * Load the player's state for the given turn as the player issues orders from it: their view of the game and their events, along with the
+   * orders they've issued so far for the turn, bound to the items in their view. Those orders are read as the turn reads them, from the
+   * player's orders file if they've saved one.
+   */
+  public static Player loadToIssueOrders( File playersDir, String playerName, int turn ) throws IOException
+  {
+    Player player = load( playersDir, playerName, turn, EnumSet.of( SavePart.VIEWS, SavePart.EVENTS ) );
+    player.fixDeserializationReferences();
+    player._turnOrders = player._gameView.bindOrders( loadOrders( playersDir, playerName, turn ) );
+    return player;
+  }
+
+  /**
+   * @return just the orders the player issued for the given turn, in their json form. They're read from the player's orders file, or from
+   *         their state file if there's no orders file.
+   */
+  public static JsonArray loadOrders( File playersDir, String playerName, int turn ) throws IOException
+  {
+    File file = SaveFormat.find( playersDir, getOrdersName( playerName, turn ) );
+    if ( !file.exists() ) { file = SaveFormat.find( playersDir, getStateName( playerName, turn ) ); }
+    try (JsonReader in = SaveFormat.forFile( file ).openReader( file ))
+    {
+      // Everything else, such as the game view in a state file, is skipped over without being built.
+      in.beginObject();
+      while ( in.hasNext() )
+      {
+        if ( in.nextName().equals( MyJsonAdapter.ORDERS ) ) { return Game.GSON.fromJson( in, JsonArray.class ); }
+        in.skipValue();
+      }
+    }
+    return new JsonArray();
+  }
+
   static Player load( Reader stateReader ) throws IOException
   {
-    String json = IOUtils.toString( stateReader );
-    Player player = Game.GSON.fromJson( json, Player.class );
+    Player player = Game.GSON.fromJson( Game.GSON.newJsonReader( stateReader ), Player.class );
     return player;
   }
 
@@ -655,13 +832,19 @@ public class Player
    * center in that locations, etc.
    */
   public void updateIntelligence( Game game )
+  {
+    updateIntelligence( game, new IntelSweep( game ) );
+  }
+
+  /** Update the player's view with what its items see, as swept for all the players at once. */
+  void updateIntelligence( Game game, IntelSweep sweep )
   {
     addGameStartInfo( game );
     _gameView.setTurn( game.getTurn() );
     updateGeneralIntelForFigures( game );
-    updateGeneralIntelForArmies( game );
-    updateGeneralIntelForPops( game );
-    updateGeneralIntelForControlInfo( game );
+    updateGeneralIntelForArmies( game, sweep );
+    updateGeneralIntelForPops( game, sweep );
+    updateGeneralIntelForControlInfo( game, sweep );
   }
 
   /**
@@ -688,14 +871,9 @@ public class Player
 
   private void addGameStartMapInfo( Game game )
   {
+    // The view's locations take the map's terrain as they're first needed.
     GameMap gameMap = game.getMap();
-    GameMap viewMap = GameMap.createBySize( gameMap.getWidth(), gameMap.getHeight() );
-    for ( Location viewLocation : viewMap.getLocationsByHex().values() )
-    {
-      Location mapLocation = gameMap.getLocation( viewLocation.getCoord() );
-      viewLocation.setTerrain( mapLocation.getTerrain() );
-      viewLocation.setRegion( Region.UNKNOWN_REGION );
-    }
+    GameMap viewMap = GameMap.createView( gameMap );
     viewMap.setGame( _gameView );
     _gameView.setMap( viewMap );
     addGameStartRegionInfo( gameMap.getRegions() );
@@ -788,7 +966,7 @@ public class Player
    * - any pop owner in the location - any
    * other armies in the location
    */
-  private void updateGeneralIntelForArmies( Game game )
+  private void updateGeneralIntelForArmies( Game game, IntelSweep sweep )
   {
     for ( Army myArmy : _armies )
     {
@@ -807,9 +985,9 @@ public class Player
       }
 
       // Knows about other armies in that location.
-      for ( Army otherArmy : game.getAllPlayerArmies() )
+      for ( Army otherArmy : sweep.getSightings( this, armyLocation.getCoord() ) )
       {
-        updateIntelForArmyInMyLocation( game, myArmy, otherArmy );
+        updateIntelForArmyInMyLocation( game, otherArmy );
       }
     }
   }
@@ -817,30 +995,31 @@ public class Player
   /** Update the view's intelligence based on my pop centers. Pops know:
    * - the location
    * - any armies at that location */
-  private void updateGeneralIntelForPops( Game game )
+  private void updateGeneralIntelForPops( Game game, IntelSweep sweep )
   {
     // Pops know their location, surrounding locations, and any armies sitting on that location.
     for ( PopCenter myPop : _popCenters )
     {
-      for ( Tuple tuple : HexCalculator.getAllNeighbors( myPop.getLocation().getCoord(), 1 ) )
+      GameMap map = game.getMap();
+      MapTopology topology = map.getTopology();
+      Tuple popHex = myPop.getLocation().getCoord();
+      int cell = topology.getCell( popHex.x, popHex.y );
+      addKnownLocation( map.getLocationByCell( cell ) );
+      for ( int i = topology.getNeighborsStart( cell ); i < topology.getNeighborsEnd( cell ); i++ )
       {
-        Location location = game.getMap().getLocationsByHex().get( tuple );
-        if ( location != null )
-        {
-          addKnownLocation( location );
-        }
+        addKnownLocation( map.getLocationByCell( topology.getNeighbor( i ) ) );
       }
 
       // Knows about other armies in that location.
-      for ( Army otherArmy : game.getAllPlayerArmies() )
+      for ( Army otherArmy : sweep.getSightings( this, popHex ) )
       {
-        updateIntelForArmyInMyLocation( game, myPop, otherArmy );
+        updateIntelForArmyInMyLocation( game, otherArmy );
       }
     }
   }
 
   /** Players know who is in control of each region. They also know their control level in every region. */
-  private void updateGeneralIntelForControlInfo( Game game )
+  private void updateGeneralIntelForControlInfo( Game game, IntelSweep sweep )
   {
     // Know who controls each region.
     Map<Region, Player> generalControlInfo = game.getRegionOwners();
@@ -861,17 +1040,15 @@ public class Player
       addKnownControlLevel( region, this, controlLevel );
     }
 
-    hearAboutBigArmies( game );
+    hearAboutBigArmies( game, sweep );
   }
 
   /** Hear about any sizable groups. */
-  private void hearAboutBigArmies( Game game )
+  private void hearAboutBigArmies( Game game, IntelSweep sweep )
   {
-    List<Player> otherPlayers = new ArrayList<>( game.getPlayers() );
-    otherPlayers.remove( this );
-    for ( Player player : otherPlayers )
+    for ( Army army : sweep.getBigArmies() )
     {
-      for ( Army army : player.getArmies() )
+      if ( !army.getOwnerName().equals( _name ) )
       {
         int noticeLevel = 100;
         Region region = army.getLocation().getRegion();
@@ -894,7 +1071,7 @@ public class Player
             break;
         }
 
-        if ( (army.getUnits().size() >= noticeLevel) && !army.isInvisible() )
+        if ( army.getUnits().size() >= noticeLevel )
         {
           GameEvent event = new GameEvent(
             army.getName() + " of " + army.getOwner().getName() + " has been spotted in " + region.getName(),
@@ -905,21 +1082,17 @@ public class Player
     }
   }
 
-  private void updateIntelForArmyInMyLocation( Game game, GameItem myItem, Army otherArmy )
+  /** Learn of another player's visible army at the location of one of my items, though not what its units are. */
+  private void updateIntelForArmyInMyLocation( Game game, Army otherArmy )
   {
-    boolean isAnotherPlayerArmy = !otherArmy.getOwnerName().equals( _name );
-    boolean isAtMyArmyLocation = otherArmy.getLocation().equals( myItem.getLocation() );
-    if ( isAnotherPlayerArmy && isAtMyArmyLocation && !otherArmy.isInvisible() )
+    Army intelArmy = new Army( otherArmy );
+    intelArmy.clearUnits();
+    intelArmy.setTurnSeen( game.getTurn() );
+    for ( int i = 0; i < otherArmy.getUnits().size(); i++ )
     {
-      Army intelArmy = new Army( otherArmy );
-      intelArmy.clearUnits();
-      intelArmy.setTurnSeen( game.getTurn() );
-      for ( int i = 0; i < otherArmy.getUnits().size(); i++ )
-      {
-        intelArmy.addUnit( ArmyUnit.UNKNOWN_UNIT );
-      }
-      addKnownItem( intelArmy );
+      intelArmy.addUnit( new ArmyUnit( ArmyUnit.UNKNOWN_UNIT ) );
     }
+    addKnownItem( intelArmy );
   }
 
   @SuppressWarnings("ChainOfInstanceofChecks")
@@ -952,8 +1125,13 @@ public class Player
       else if ( item instanceof PopCenter )
       {
         _gameView.addPopCenter( (PopCenter) item );
-        ownerView.remove( (PopCenter) item );
-        ownerView.add( (PopCenter) item );
+
+        // The view holds the player himself, whose pops are the real ones rather than intel about them.
+        if ( ownerView != this )
+        {
+          ownerView.remove( (PopCenter) item );
+          ownerView.add( (PopCenter) item );
+        }
       }
       else if ( item instanceof Army )
       {
@@ -1007,13 +1185,7 @@ public class Player
 
   public void addKnownControlLevel( Region region, Player player, ControlLevel controlLevel )
   {
-    Map<String, ControlLevel> controlInfo = _controlLevelIntel.get( player.getName() );
-    if ( controlInfo == null )
-    {
-      controlInfo = new HashMap<>();
-      _controlLevelIntel.put( player.getName(), controlInfo );
-    }
-    controlInfo.put( region.getName(), controlLevel );
+    _controlLevelIntel.setLevel( region, player.getName(), controlLevel );
   }
 
   /** There are times where a player knows an item is no longer on the board (such as a dead agent). */
@@ -1051,19 +1223,10 @@ public class Player
 
   public ControlLevel getControlLevelIntel( Region region, String playerName )
   {
-    Map<String, ControlLevel> controlInfo = _controlLevelIntel.get( playerName );
-    if ( controlInfo != null )
-    {
-      ControlLevel level = controlInfo.get( region.getName() );
-      if ( level != null )
-      {
-        return level;
-      }
-    }
-    return ControlLevel.Unknown;
+    return _controlLevelIntel.getLevel( region, playerName );
   }
 
-  public static class MyJsonAdapter implements JsonSerializer<Player>, JsonDeserializer<Player>
+  public static class MyJsonAdapter extends TypeAdapter<Player>
   {
     // Painful, but we have to manually serialize the bits so we can handle a special case with _gameView to avoid
     // circular reference in serialization.
@@ -1081,79 +1244,113 @@ public class Player
     private static final String KINGDOM_TROOPS_AVAILABLE = "kingdomTroopsAvailable";
     private static final String NEXT_FIGURE_NAME = "nextFigureName";
     private static final String EMBASSIES = "embassies";
-    private static final String ORDERS = "orders";
-    private static final String EVENTS = "events";
+    static final String ORDERS = "orders";
+    static final String EVENTS = "events";
     private static final String CONTROL_INTEL = "controlIntel";
-    private static final String GAME_VIEW = "gameView";
+    static final String GAME_VIEW = "gameView";
 
-    public JsonElement serialize( Player player, Type type, JsonSerializationContext context )
+    private static final TypeToken<List<Wizard>> WIZARD_LIST = new TypeToken<List<Wizard>>() {};
+    private static final TypeToken<List<Diplomat>> DIPLOMAT_LIST = new TypeToken<List<Diplomat>>() {};
+    private static final TypeToken<List<Agent>> AGENT_LIST = new TypeToken<List<Agent>>() {};
+    private static final TypeToken<List<Army>> ARMY_LIST = new TypeToken<List<Army>>() {};
+    private static final TypeToken<List<Integer>> INTEGER_LIST = new TypeToken<List<Integer>>() {};
+    static final TypeToken<List<Order<?>>> ORDER_LIST = new TypeToken<List<Order<?>>>() {};
+    private static final TypeToken<List<GameEvent>> EVENT_LIST = new TypeToken<List<GameEvent>>() {};
+
+    public void write( JsonWriter out, Player player ) throws IOException
     {
-      JsonObject jsonResponse = new JsonObject();
-      jsonResponse.add( NAME, context.serialize( player._name ) );
-      if ( player._kingdom != null ) { jsonResponse.add( KINGDOM, context.serialize( player._kingdom.getName() ) ); }
-      if ( player._capitol != null ) { jsonResponse.add( CAPITOL_ID, context.serialize( player._capitol.getId() ) ); }
-      if ( player._king != null ) jsonResponse.add( KING, context.serialize( player._king ) );
-      if ( player._wizards != null ) jsonResponse.add( WIZARDS, context.serialize( player._wizards ) );
-      if ( player._diplomats != null ) jsonResponse.add( DIPLOMATS, context.serialize( player._diplomats ) );
-      if ( player._agents != null ) jsonResponse.add( AGENTS, context.serialize( player._agents ) );
-      if ( player._armies != null ) jsonResponse.add( ARMIES, context.serialize( player._armies ) );
+      out.beginObject();
+      out.name( NAME ).value( player._name );
+      if ( player._kingdom != null ) { out.name( KINGDOM ).value( player._kingdom.getName() ); }
+      if ( player._capitol != null ) { out.name( CAPITOL_ID ).value( player._capitol.getId() ); }
+      if ( player._king != null ) { write( out, KING, TypeToken.get( King.class ), player._king ); }
+      if ( player._wizards != null ) { write( out, WIZARDS, WIZARD_LIST, player._wizards ); }
+      if ( player._diplomats != null ) { write( out, DIPLOMATS, DIPLOMAT_LIST, player._diplomats ); }
+      if ( player._agents != null ) { write( out, AGENTS, AGENT_LIST, player._agents ); }
+      if ( player._armies != null ) { write( out, ARMIES, ARMY_LIST, player._armies ); }
       if ( player._popCenters != null )
       {
-        List<Integer> popIds = new ArrayList<>();
+        out.name( POP_IDS ).beginArray();
         for ( PopCenter popCenter : player._popCenters )
         {
-          popIds.add( popCenter.getId() );
+          out.value( popCenter.getId() );
         }
-        jsonResponse.add( POP_IDS, context.serialize( popIds ) );
+        out.endArray();
+      }
+      out.name( GOLD ).value( player._gold );
+      out.name( POWER ).value( player._power );
+      out.name( KINGDOM_TROOPS_AVAILABLE ).value( player._kingdomTroopsAvailable );
+      out.name( NEXT_FIGURE_NAME ).value( player._nextFigureName );
+      if ( player._embassyLevels != null )
+      {
+        out.name( EMBASSIES );
+        player._embassyLevels.write( out );
+      }
+      if ( player._turnOrders != null ) { write( out, ORDERS, ORDER_LIST, player._turnOrders ); }
+      if ( player._events != null ) { write( out, EVENTS, EVENT_LIST, player._events ); }
+      if ( player._controlLevelIntel != null )
+      {
+        out.name( CONTROL_INTEL );
+        player._controlLevelIntel.write( out );
       }
-      jsonResponse.add( GOLD, context.serialize( player._gold ) );
-      jsonResponse.add( POWER, context.serialize( player._power ) );
-      jsonResponse.add( KINGDOM_TROOPS_AVAILABLE, context.serialize( player._kingdomTroopsAvailable ) );
-      jsonResponse.add( NEXT_FIGURE_NAME, context.serialize( player._nextFigureName ) );
-      if ( player._embassyLevels != null ) { jsonResponse.add( EMBASSIES, context.serialize( player._embassyLevels ) ); }
-      if ( player._turnOrders != null ) { jsonResponse.add( ORDERS, context.serialize( player._turnOrders ) ); }
-      if ( player._events != null ) { jsonResponse.add( EVENTS, context.serialize( player._events ) ); }
-      if ( player._controlLevelIntel != null ) { jsonResponse.add( CONTROL_INTEL, context.serialize( player._controlLevelIntel ) ); }
       if ( player._gameView != null )
       {
         // Don't serialize the player state within their own game view. It will cause a circular serialization.
         player._gameView.getPlayers().remove( player );
-        jsonResponse.add( GAME_VIEW, context.serialize( player._gameView ) );
+        write( out, GAME_VIEW, TypeToken.get( Game.class ), player._gameView );
         player._gameView.getPlayers().add( player );
       }
-      return jsonResponse;
+      out.endObject();
+    }
+
+    private static <T> void write( JsonWriter out, String name, TypeToken<T> type, T value ) throws IOException
+    {
+      out.name( name );
+      Game.GSON.getAdapter( type ).write( out, value );
+    }
+
+    private static <T> T read( JsonReader in, TypeToken<T> type ) throws IOException
+    {
+      return Game.GSON.getAdapter( type ).read( in );
     }
 
-    public Player deserialize( JsonElement jsonOrder, Type type, JsonDeserializationContext context )
-      throws JsonParseException
+    public Player read( JsonReader in ) throws IOException
     {
       Player player = new Player();
-      JsonObject asJsonObject = jsonOrder.getAsJsonObject();
-      player._name = context.deserialize( asJsonObject.get( NAME ), String.class );
-      String kingdom = context.deserialize( asJsonObject.get( KINGDOM ), String.class );
-      if ( kingdom != null ) { player._kingdom = Kingdoms.KINGDOMS.get( kingdom ); }
-      player._jsonCapitolId = context.deserialize( asJsonObject.get( CAPITOL_ID ), Integer.class );
-      player._king = context.deserialize( asJsonObject.get( KING ), King.class );
-      player._wizards = context.deserialize( asJsonObject.get( WIZARDS ), new TypeToken<List<Wizard>>(){}.getType() );
-      player._diplomats = context.deserialize( asJsonObject.get( DIPLOMATS ), new TypeToken<List<Diplomat>>(){}.getType() );
-      player._agents = context.deserialize( asJsonObject.get( AGENTS ), new TypeToken<List<Agent>>(){}.getType() );
-      player._armies = context.deserialize( asJsonObject.get( ARMIES ), new TypeToken<List<Army>>(){}.getType() );
-      player._jsonPopIds = context.deserialize( asJsonObject.get( POP_IDS ), new TypeToken<List<Integer>>(){}.getType() );
-      player._gold = context.deserialize( asJsonObject.get( GOLD ), Integer.class );
-      player._power = context.deserialize( asJsonObject.get( POWER ), Integer.class );
-      player._kingdomTroopsAvailable = context.deserialize( asJsonObject.get( KINGDOM_TROOPS_AVAILABLE ), Integer.class );
-      player._nextFigureName = context.deserialize( asJsonObject.get( NEXT_FIGURE_NAME ), Integer.class );
-      player._embassyLevels = context.deserialize( asJsonObject.get( EMBASSIES ), new TypeToken<Map<String, Integer>>(){}.getType() );
-      player._events = context.deserialize( asJsonObject.get( EVENTS ), new TypeToken<List<GameEvent>>(){}.getType() );
-      player._controlLevelIntel = context.deserialize( asJsonObject.get( CONTROL_INTEL ), new TypeToken<Map<String, Map<String, ControlLevel>>>(){}.getType() );
-      JsonElement gameViewElement = asJsonObject.get( GAME_VIEW );
-      if ( gameViewElement != null )
+      in.beginObject();
+      while ( in.hasNext() )
       {
-        player._gameView = context.deserialize( gameViewElement, Game.class );
-        player._gameView.addPlayer( player );
+        String field = in.nextName();
+        if ( in.peek() == JsonToken.NULL )
+        {
+          in.skipValue();
+          continue;
+        }
+        switch ( field )
+        {
+          case NAME: player._name = in.nextString(); break;
+          case KINGDOM: player._kingdom = Kingdoms.KINGDOMS.get( in.nextString() ); break;
+          case CAPITOL_ID: player._jsonCapitolId = in.nextInt(); break;
+          case KING: player._king = read( in, TypeToken.get( King.class ) ); break;
+          case WIZARDS: player._wizards = read( in, WIZARD_LIST ); break;
+          case DIPLOMATS: player._diplomats = read( in, DIPLOMAT_LIST ); break;
+          case AGENTS: player._agents = read( in, AGENT_LIST ); break;
+          case ARMIES: player._armies = read( in, ARMY_LIST ); break;
+          case POP_IDS: player._jsonPopIds = read( in, INTEGER_LIST ); break;
+          case GOLD: player._gold = in.nextInt(); break;
+          case POWER: player._power = in.nextInt(); break;
+          case KINGDOM_TROOPS_AVAILABLE: player._kingdomTroopsAvailable = in.nextInt(); break;
+          case NEXT_FIGURE_NAME: player._nextFigureName = in.nextInt(); break;
+          case EMBASSIES: player._embassyLevels = RegionLevels.read( in ); break;
+          case ORDERS: player._turnOrders = read( in, ORDER_LIST ); break;
+          case EVENTS: player._events = read( in, EVENT_LIST ); break;
+          case CONTROL_INTEL: player._controlLevelIntel = ControlIntel.read( in ); break;
+          case GAME_VIEW: player._gameView = read( in, TypeToken.get( Game.class ) ); break;
+          default: in.skipValue();
+        }
       }
-      player._turnOrders = context.deserialize( asJsonObject.get( ORDERS ), new TypeToken<List<Order>>(){}.getType() );
-
+      in.endObject();
+      if ( player._gameView != null ) { player._gameView.addPlayer( player ); }
       return player;
     }
   }
@@ -1170,11 +1367,17 @@ public class Player
     if ( _needsDeserialization )
     {
       _needsDeserialization = false;
+      _embassyLevels.arrange( game.getMap().getRegions() );
+      _controlLevelIntel.arrange( game.getMap().getRegions() );
       fixPopCenterDeserializationReferences( game );
-      fixCapitolDeserializationReference();
+      fixCapitolDeserializationReference( game );
       fixFiguresDeserializationReferences( game );
       fixArmyDeserializationReferences( game );
-      if ( _gameView != null ) { _gameView.fixDeserializationReferences(); }
+      if ( _gameView != null )
+      {
+        _gameView.getMap().setTemplate( game.getMap() );
+        _gameView.fixDeserializationReferences();
+      }
     }
   }
 
@@ -1187,6 +1390,7 @@ public class Player
       {
         pop.fixDeserializationReferences( game );
         _popCenters.add( pop );
+        registerItem( pop );
       }
       else
       {
@@ -1195,17 +1399,12 @@ public class Player
     }
   }
 
-  private void fixCapitolDeserializationReference()
+  private void fixCapitolDeserializationReference( Game game )
   {
+    // Looked up across the whole game, as the player needn't still own the capitol, so that a reload matches the saved game exactly.
     if ( _jsonCapitolId != null )
     {
-      for ( PopCenter popCenter : _popCenters )
-      {
-        if ( popCenter.getId() == _jsonCapitolId )
-        {
-          _capitol = popCenter;
-        }
-      }
+      _capitol = (_jsonCapitolId == PopCenter.THE_WILDS.getId()) ? PopCenter.THE_WILDS : game.getPopCenter( _jsonCapitolId );
     }
   }
 
@@ -1,19 +1,17 @@
 package kessel.hex.domain;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import kessel.hex.map.ControlLevel;
 import kessel.hex.map.Location;
+import kessel.hex.map.Region;
 import kessel.hex.map.Terrain;
 import kessel.hex.orders.agent.HireAgent;
 import kessel.hex.orders.diplomat.HireDiplomat;
 import kessel.hex.orders.king.ImprovePopCenter;
 import kessel.hex.orders.wizard.HireWizard;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -40,6 +38,10 @@ public class PopCenter extends CombatCapableItem
   // A Pop has a type, which never changes regardless of its level.
   private PopType _type;
 
+  // The regions the pop has been added to, e.g. the map's and its owner's view's, told when the pop's level or owner changes. Copies of
+  // the pop, e.g. intel about it, are in no list of the map's regions, so they're never told about.
+  private transient volatile Region[] _regions = new Region[0];
+
   protected PopCenter() // GSON only
   {
     super();
@@ -128,11 +130,55 @@ public class PopCenter extends CombatCapableItem
 
   public int getLevel() { return _level; }
 
-  public void setLevel( int level ) { _level = level; }
+  // Changes to a pop's level and owner change who controls its region, so the region is told.
+  public void setLevel( int level )
+  {
+    _level = level;
+    popCenterChanged();
+  }
+
+  public void degradeLevel() { setLevel( Math.max( 1, _level - 1 ) ); }
 
-  public void degradeLevel() { _level = Math.max( 1, _level - 1 ); }
+  public void improveLevel() { setLevel( _level + 1 ); }
+
+  public void setOwner( Player owner )
+  {
+    super.setOwner( owner );
+    popCenterChanged();
+  }
+
+  public void fixDeserializationReferences( Game game )
+  {
+    super.fixDeserializationReferences( game );
+    popCenterChanged();
+  }
+
+  /** Called by a region when it adds the pop to its list of pops. */
+  public synchronized void addRegion( Region region )
+  {
+    for ( Region known : _regions )
+    {
+      if ( known == region ) { return; }
+    }
+    Region[] regions = Arrays.copyOf( _regions, _regions.length + 1 );
+    regions[_regions.length] = region;
+    _regions = regions;
+  }
 
-  public void improveLevel() { _level++; }
+  /** Tell the regions still holding the pop that it has changed, and forget those that no longer hold it. */
+  private void popCenterChanged()
+  {
+    if ( _regions.length == 0 ) { return; }
+    synchronized ( this )
+    {
+      List<Region> holders = new ArrayList<>( _regions.length );
+      for ( Region region : _regions )
+      {
+        if ( region.popCenterChanged( this ) ) { holders.add( region ); }
+      }
+      if ( holders.size() < _regions.length ) { _regions = holders.toArray( new Region[holders.size()] ); }
+    }
+  }
 
   public PopType getType() { return _type; }
 
@@ -165,23 +211,27 @@ public class PopCenter extends CombatCapableItem
     private static final String LEVEL = "level";
     private static final String TYPE = "type";
 
-    public JsonElement serialize( PopCenter pop, Type type, JsonSerializationContext context )
+    protected void writeFields( JsonWriter out, PopCenter pop ) throws IOException
+    {
+      super.writeFields( out, pop );
+      out.name( LEVEL ).value( pop._level );
+      out.name( TYPE );
+      Game.GSON.getAdapter( PopType.class ).write( out, pop._type );
+    }
+
+    protected boolean readField( String field, JsonReader in, PopCenter pop ) throws IOException
     {
-      JsonObject jsonResponse = new JsonObject();
-      super.serialize( pop, jsonResponse, type, context );
-      jsonResponse.add( LEVEL, context.serialize( pop._level ) );
-      jsonResponse.add( TYPE, context.serialize( pop._type ) );
-      return jsonResponse;
+      switch ( field )
+      {
+        case LEVEL: pop._level = in.nextInt(); return true;
+        case TYPE: pop._type = Game.GSON.getAdapter( PopType.class ).read( in ); return true;
+        default: return super.readField( field, in, pop );
+      }
     }
 
-    public PopCenter deserialize( JsonElement jsonOrder, Type type, JsonDeserializationContext context )
-      throws JsonParseException
+    public PopCenter read( JsonReader in ) throws IOException
     {
-      PopCenter pop = new PopCenter();
-      super.doDeserialize( pop, jsonOrder, context );
-      pop._level = context.deserialize( jsonOrder.getAsJsonObject().get( LEVEL ), Integer.class );
-      pop._type = context.deserialize( jsonOrder.getAsJsonObject().get( TYPE ), PopType.class );
-      return pop;
+      return readFields( in, new PopCenter() );
     }
   }
 }
@@ -0,0 +1,175 @@
+package kessel.hex.domain;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import kessel.hex.map.Region;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A level for each of a player's regions, e.g. their embassies, kept in an array by the region's ordinal on its map rather than hashed by
+ * the region's name. Each slot keeps its region's name too, as they're saved by name, so a region in another slot (e.g. one read from a
+ * file before it was arranged) is still found by searching the names. A region without a level is at level 0, and isn't saved.
+ */
+final class RegionLevels
+{
+  private String[] _regions = new String[0];
+  private int[] _levels = new int[0];
+
+  int getLevel( Region region )
+  {
+    int slot = findSlot( region );
+    return (slot < 0) ? 0 : _levels[slot];
+  }
+
+  int getLevel( String region )
+  {
+    int slot = findSlot( region );
+    return (slot < 0) ? 0 : _levels[slot];
+  }
+
+  void setLevel( Region region, int level )
+  {
+    int slot = findSlot( region );
+    if ( slot < 0 )
+    {
+      int ordinal = region.getOrdinal();
+      slot = ((ordinal >= 0) && ((ordinal >= _regions.length) || (_regions[ordinal] == null))) ? ordinal : _regions.length;
+      addSlot( slot, region.getName() );
+    }
+    _levels[slot] = level;
+  }
+
+  void setLevel( String region, int level )
+  {
+    int slot = findSlot( region );
+    if ( slot < 0 )
+    {
+      slot = _regions.length;
+      addSlot( slot, region );
+    }
+    _levels[slot] = level;
+  }
+
+  /** @return the number of slots, some of which may be empty. */
+  int getSlotCount() { return _regions.length; }
+
+  /** @return the name of the slot's region, or null if it's empty. */
+  String getRegion( int slot ) { return _regions[slot]; }
+
+  int getLevel( int slot ) { return _levels[slot]; }
+
+  private int findSlot( Region region )
+  {
+    int ordinal = region.getOrdinal();
+    if ( (ordinal >= 0) && (ordinal < _regions.length) && region.getName().equals( _regions[ordinal] ) ) { return ordinal; }
+    return findSlot( region.getName() );
+  }
+
+  private int findSlot( String region )
+  {
+    for ( int i = 0; i < _regions.length; i++ )
+    {
+      if ( region.equals( _regions[i] ) ) { return i; }
+    }
+    return -1;
+  }
+
+  private void addSlot( int slot, String region )
+  {
+    if ( slot >= _regions.length )
+    {
+      _regions = Arrays.copyOf( _regions, slot + 1 );
+      _levels = Arrays.copyOf( _levels, slot + 1 );
+    }
+    _regions[slot] = region;
+  }
+
+  /** Move each level to its region's ordinal on the map, e.g. once the levels have been read from a file. */
+  void arrange( List<Region> regions )
+  {
+    String[] oldRegions = _regions;
+    int[] oldLevels = _levels;
+    _regions = new String[0];
+    _levels = new int[0];
+    for ( Region region : regions )
+    {
+      for ( int i = 0; i < oldRegions.length; i++ )
+      {
+        if ( region.getName().equals( oldRegions[i] ) )
+        {
+          setLevel( region, oldLevels[i] );
+          oldRegions[i] = null;
+        }
+      }
+    }
+    // Levels for regions not on the map are kept, after the map's.
+    for ( int i = 0; i < oldRegions.length; i++ )
+    {
+      if ( (oldRegions[i] != null) && (findSlot( oldRegions[i] ) < 0) ) { setLevel( oldRegions[i], oldLevels[i] ); }
+    }
+  }
+
+  /** @return the levels by region name, in the order they're held. */
+  Map<String, Integer> asMap()
+  {
+    Map<String, Integer> levels = new LinkedHashMap<>();
+    for ( int i = 0; i < _regions.length; i++ )
+    {
+      if ( _regions[i] != null ) { levels.put( _regions[i], _levels[i] ); }
+    }
+    return levels;
+  }
+
+  /** @return true if each region is at the same level in both, whether it's held at level 0 or not at all. */
+  public boolean equals( Object o )
+  {
+    return (o instanceof RegionLevels) && isWithin( (RegionLevels) o ) && ((RegionLevels) o).isWithin( this );
+  }
+
+  private boolean isWithin( RegionLevels that )
+  {
+    for ( int i = 0; i < _regions.length; i++ )
+    {
+      if ( (_regions[i] != null) && (_levels[i] != that.getLevel( _regions[i] )) ) { return false; }
+    }
+    return true;
+  }
+
+  public int hashCode()
+  {
+    int hash = 0;
+    for ( int i = 0; i < _regions.length; i++ )
+    {
+      if ( (_regions[i] != null) && (_levels[i] != 0) ) { hash += _regions[i].hashCode() ^ _levels[i]; }
+    }
+    return hash;
+  }
+
+  /** Write the levels as an object keyed by region name, leaving out those at level 0. */
+  void write( JsonWriter out ) throws IOException
+  {
+    out.beginObject();
+    for ( int i = 0; i < _regions.length; i++ )
+    {
+      if ( (_regions[i] != null) && (_levels[i] != 0) ) { out.name( _regions[i] ).value( _levels[i] ); }
+    }
+    out.endObject();
+  }
+
+  static RegionLevels read( JsonReader in ) throws IOException
+  {
+    RegionLevels levels = new RegionLevels();
+    in.beginObject();
+    while ( in.hasNext() )
+    {
+      levels.setLevel( in.nextName(), in.nextInt() );
+    }
+    in.endObject();
+    return levels;
+  }
+}
@@ -0,0 +1,210 @@
+package kessel.hex.domain;
+
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import kessel.hex.util.BinaryJsonReader;
+import kessel.hex.util.BinaryJsonWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The formats game and player files can be saved in. A file's format is determined by its extension, though compressed content is
+ * recognized whatever the extension.
+ */
+public enum SaveFormat
+{
+  /** Pretty printed json, easy to read and diff. */
+  JSON( ".json" )
+  {
+    public void save( Object src, Type type, File file ) throws IOException
+    {
+      try (Writer out = new BufferedWriter( new FileWriter( file ) ))
+      {
+        Game.GSON.toJson( src, type, Game.GSON.newJsonWriter( out ) );
+      }
+    }
+
+    public JsonReader openReader( File file ) throws IOException
+    {
+      return Game.GSON.newJsonReader( new BufferedReader( new InputStreamReader( openInput( file ) ) ) );
+    }
+  },
+
+  /** A versioned binary snapshot, much smaller and faster to load than json. See BinaryJsonWriter. */
+  SNAPSHOT( ".hexs" )
+  {
+    public void save( Object src, Type type, File file ) throws IOException
+    {
+      try (OutputStream out = new BufferedOutputStream( new FileOutputStream( file ) ))
+      {
+        BinaryJsonWriter writer = new BinaryJsonWriter( out );
+        Game.GSON.toJson( src, type, writer );
+        writer.flush();
+      }
+    }
+
+    public JsonReader openReader( File file ) throws IOException
+    {
+      InputStream in = openInput( file );
+      try
+      {
+        return new BinaryJsonReader( in );
+      }
+      catch ( IOException e )
+      {
+        in.close();
+        throw e;
+      }
+    }
+  },
+
+  /**
+   * Gzipped json without the pretty printing, for the files sent to the players and archived every turn. It's several times smaller than
+   * json while staying readable with everyday tools.
+   */
+  COMPRESSED( ".json.gz" )
+  {
+    public void save( Object src, Type type, File file ) throws IOException
+    {
+      try (Writer out = new BufferedWriter( new OutputStreamWriter( new GZIPOutputStream( new FileOutputStream( file ), BUFFER_SIZE ) ) ))
+      {
+        JsonWriter writer = Game.GSON.newJsonWriter( out );
+        writer.setIndent( "" );
+        Game.GSON.toJson( src, type, writer );
+      }
+    }
+
+    public JsonReader openReader( File file ) throws IOException
+    {
+      return JSON.openReader( file );
+    }
+  };
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final String _extension;
+
+  SaveFormat( String extension )
+  {
+    _extension = extension;
+  }
+
+  public String getExtension() { return _extension; }
+
+  /** @return the file for the given base name (e.g. "game") in this format. */
+  public File getFile( File dir, String baseName )
+  {
+    return new File( dir, baseName + _extension );
+  }
+
+  /** Save the object to the file in this format. */
+  public abstract void save( Object src, Type type, File file ) throws IOException;
+
+  /** @return the object loaded from the file in this format. */
+  public <T> T load( File file, Type type ) throws IOException
+  {
+    try (JsonReader in = openReader( file ))
+    {
+      return Game.GSON.fromJson( in, type );
+    }
+  }
+
+  /** @return a reader over the file's content, for reading only part of it. Closing the reader closes the file. */
+  public abstract JsonReader openReader( File file ) throws IOException;
+
+  /**
+   * @return a stream of the file's content. Gzipped content is recognized by its magic number and decompressed, so any format can be read
+   *         whether or not it's been compressed.
+   */
+  private static InputStream openInput( File file ) throws IOException
+  {
+    InputStream in = new BufferedInputStream( new FileInputStream( file ), BUFFER_SIZE );
+    try
+    {
+      in.mark( 2 );
+      int magic = in.read() | (in.read() << 8);
+      in.reset();
+      return (magic == GZIPInputStream.GZIP_MAGIC) ? new BufferedInputStream( new GZIPInputStream( in, BUFFER_SIZE ), BUFFER_SIZE ) : in;
+    }
+    catch ( IOException e )
+    {
+      in.close();
+      throw e;
+    }
+  }
+
+  /** @return the format of the file, based on its extension. */
+  public static SaveFormat forFile( File file )
+  {
+    SaveFormat format = forFileOrNull( file );
+    if ( format == null ) { throw new IllegalArgumentException( "Not a recognized save file: " + file ); }
+    return format;
+  }
+
+  /** @return true if the file is in one of the save formats. */
+  public static boolean isSaveFile( File file )
+  {
+    return forFileOrNull( file ) != null;
+  }
+
+  private static SaveFormat forFileOrNull( File file )
+  {
+    for ( SaveFormat format : values() )
+    {
+      if ( file.getName().endsWith( format._extension ) ) { return format; }
+    }
+    return null;
+  }
+
+  /** @return the file name without its save format extension. */
+  public static String getBaseName( File file )
+  {
+    String name = file.getName();
+    return name.substring( 0, name.length() - forFile( file )._extension.length() );
+  }
+
+  /**
+   * @return the file for the given base name in whichever format exists in the directory, checking the formats in declaration order. If
+   *         none exist, the json file is returned.
+   */
+  public static File find( File dir, String baseName )
+  {
+    for ( SaveFormat format : values() )
+    {
+      File file = format.getFile( dir, baseName );
+      if ( file.exists() ) { return file; }
+    }
+    return JSON.getFile( dir, baseName );
+  }
+
+  /** Convert a save file to this format, preserving its content exactly. The original file is removed. */
+  public File convert( File file ) throws IOException
+  {
+    SaveFormat from = forFile( file );
+    File converted = getFile( file.getParentFile(), getBaseName( file ) );
+    if ( from != this )
+    {
+      JsonElement content = from.load( file, JsonElement.class );
+      save( content, JsonElement.class, converted );
+      if ( !file.delete() ) { throw new IOException( "Unable to remove " + file ); }
+    }
+    return converted;
+  }
+}
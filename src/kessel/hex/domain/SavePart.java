@@ -0,0 +1,31 @@
+package kessel.hex.domain;
+
+/**
+ * The optional parts of a saved game or player that can be asked for when loading it. The parts that aren't asked for are skipped over in
+ * the file without being built, which is much quicker when only some of a large game is needed. A game's map, regions and pop centers are
+ * always loaded, as is a player's own kingdom.
+ */
+public enum SavePart
+{
+  /** Each player and what they own: figures, armies, pops, gold, embassies and regional control intel. */
+  PLAYERS( null ),
+
+  /** Each player's view of the game. */
+  VIEWS( Player.MyJsonAdapter.GAME_VIEW ),
+
+  /** The events each player has seen. */
+  EVENTS( Player.MyJsonAdapter.EVENTS ),
+
+  /** The orders each player has issued. */
+  ORDERS( Player.MyJsonAdapter.ORDERS );
+
+  private final String _playerMember;
+
+  SavePart( String playerMember )
+  {
+    _playerMember = playerMember;
+  }
+
+  /** @return the player's json member holding this part, or null if it isn't part of a player. */
+  String getPlayerMember() { return _playerMember; }
+}
@@ -0,0 +1,307 @@
+package kessel.hex.domain;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An archive of the admin and player files of every turn of a game. Each file is stored once per distinct content, keyed by its hash, and
+ * each turn has a manifest of which content each of its files had. Most files are the same from one turn to the next, e.g. the orders and
+ * states of earlier turns, so the archive grows by only what a turn changed.
+ * <p/>
+ * Content and manifests are written to a temporary file, forced to disk and then moved into place, so a crash never leaves a partial one
+ * behind. A turn is committed by moving its manifest into place, after everything it lists is stored.
+ */
+public class TurnArchive
+{
+  private static final String BLOBS_DIR = "blobs";
+  private static final String MANIFESTS_DIR = "manifests";
+  private static final String TMP_DIR = "tmp";
+  private static final String MANIFEST_PREFIX = "turn";
+  private static final String MANIFEST_SUFFIX = ".manifest";
+  private static final String HASH_ALGORITHM = "SHA-256";
+  private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+  private final File _dir;
+
+  public TurnArchive( File dir )
+  {
+    _dir = dir;
+  }
+
+  /**
+   * Archive the game directory's admin and player files as the given turn. Archiving a turn again replaces its manifest, e.g. once the
+   * players have sent in their orders.
+   */
+  public void archive( File gameDir, int turn ) throws IOException
+  {
+    Map<String, String> manifest = new LinkedHashMap<>();
+    for ( String path : listGameFiles( gameDir ) )
+    {
+      File file = new File( gameDir, path );
+      String hash = hash( file );
+      File blob = getBlobFile( hash );
+      if ( !blob.exists() )
+      {
+        blob.getParentFile().mkdirs();
+        File tmp = createTempFile();
+        copy( file, tmp );
+        moveIntoPlace( tmp, blob );
+      }
+      manifest.put( path, hash );
+    }
+    writeManifest( turn, manifest );
+  }
+
+  /**
+   * Restore the game directory's admin and player files to how they were for the given turn. Admin and player files the turn didn't have
+   * are removed, e.g. those of a later turn whose save failed part way, so they aren't archived along with the turn again. Other files are
+   * left alone.
+   */
+  public void restore( int turn, File gameDir ) throws IOException
+  {
+    Map<String, String> manifest = getManifest( turn );
+    for ( Map.Entry<String, String> entry : manifest.entrySet() )
+    {
+      File file = new File( gameDir, entry.getKey() );
+      file.getParentFile().mkdirs();
+      File tmp = createTempFile();
+      copy( getBlobFile( entry.getValue() ), tmp );
+      moveIntoPlace( tmp, file );
+    }
+    for ( String path : listGameFiles( gameDir ) )
+    {
+      if ( !manifest.containsKey( path ) ) { Files.delete( new File( gameDir, path ).toPath() ); }
+    }
+  }
+
+  /** Remove the files archived for the given turn from the game directory, since the archive holds them. */
+  public void removeArchivedFiles( int turn, File gameDir ) throws IOException
+  {
+    for ( String path : getManifest( turn ).keySet() )
+    {
+      Files.deleteIfExists( new File( gameDir, path ).toPath() );
+    }
+  }
+
+  /**
+   * Remove all but the given number of latest turns from the archive, along with any content only they used.
+   *
+   * @return the number of content files removed.
+   */
+  public int prune( int turnsToKeep ) throws IOException
+  {
+    if ( turnsToKeep < 1 ) { throw new IllegalArgumentException( "At least one turn must be kept." ); }
+    List<Integer> turns = getTurns();
+    for ( Integer turn : turns.subList( 0, Math.max( 0, turns.size() - turnsToKeep ) ) )
+    {
+      Files.delete( getManifestFile( turn ).toPath() );
+    }
+
+    // The manifests are removed first, so a crash part way through only leaves unused content for the next prune.
+    Set<String> usedHashes = new HashSet<>();
+    for ( Integer turn : getTurns() )
+    {
+      usedHashes.addAll( getManifest( turn ).values() );
+    }
+    int removed = 0;
+    for ( File blobDir : listFiles( new File( _dir, BLOBS_DIR ) ) )
+    {
+      for ( File blob : listFiles( blobDir ) )
+      {
+        if ( !usedHashes.contains( blob.getName() ) )
+        {
+          Files.delete( blob.toPath() );
+          removed++;
+        }
+      }
+    }
+
+    // Left behind by a crash while archiving or restoring.
+    for ( File tmp : listFiles( new File( _dir, TMP_DIR ) ) )
+    {
+      Files.delete( tmp.toPath() );
+    }
+    return removed;
+  }
+
+  /** @return the archived turns, in order. */
+  public List<Integer> getTurns()
+  {
+    List<Integer> turns = new ArrayList<>();
+    for ( File file : listFiles( new File( _dir, MANIFESTS_DIR ) ) )
+    {
+      String name = file.getName();
+      if ( name.startsWith( MANIFEST_PREFIX ) && name.endsWith( MANIFEST_SUFFIX ) )
+      {
+        turns.add( Integer.parseInt( name.substring( MANIFEST_PREFIX.length(), name.length() - MANIFEST_SUFFIX.length() ) ) );
+      }
+    }
+    Collections.sort( turns );
+    return turns;
+  }
+
+  /** @return the latest archived turn, or null if nothing has been archived. */
+  public Integer getLatestTurn()
+  {
+    List<Integer> turns = getTurns();
+    return turns.isEmpty() ? null : turns.get( turns.size() - 1 );
+  }
+
+  /**
+   * @return true if the game directory's game file is the one archived for the turn. It isn't if a later turn was part way saved over the
+   *         turn without being archived, e.g. after a crash.
+   */
+  public boolean hasGameFile( int turn, File gameDir ) throws IOException
+  {
+    File gameFile = Game.getGameFile( gameDir );
+    String hash = getManifest( turn ).get( Game.ADMIN_DIR + "/" + gameFile.getName() );
+    return gameFile.exists() && hash != null && hash.equals( hash( gameFile ) );
+  }
+
+  /** @return the hash of each of the turn's files, by their path within the game directory. */
+  public Map<String, String> getManifest( int turn ) throws IOException
+  {
+    File manifestFile = getManifestFile( turn );
+    if ( !manifestFile.exists() ) { throw new IllegalArgumentException( "Turn " + turn + " isn't in the archive." ); }
+    Map<String, String> manifest = new LinkedHashMap<>();
+    try (BufferedReader in = Files.newBufferedReader( manifestFile.toPath(), StandardCharsets.UTF_8 ))
+    {
+      for ( String line = in.readLine(); line != null; line = in.readLine() )
+      {
+        // Paths can hold spaces, e.g. a player's name, but hashes can't.
+        int separator = line.indexOf( ' ' );
+        manifest.put( line.substring( separator + 1 ), line.substring( 0, separator ) );
+      }
+    }
+    return manifest;
+  }
+
+  /** @return the paths of the admin and player files in the game directory, relative to it. */
+  private static List<String> listGameFiles( File gameDir )
+  {
+    List<String> paths = new ArrayList<>();
+    for ( String dirName : new String[]{ Game.ADMIN_DIR, Game.PLAYERS_DIR } )
+    {
+      for ( File file : listFiles( new File( gameDir, dirName ) ) )
+      {
+        if ( file.isFile() ) { paths.add( dirName + "/" + file.getName() ); }
+      }
+    }
+    Collections.sort( paths );
+    return paths;
+  }
+
+  private static List<File> listFiles( File dir )
+  {
+    File[] files = dir.listFiles();
+    return (files == null) ? Collections.<File>emptyList() : Arrays.asList( files );
+  }
+
+  private void writeManifest( int turn, Map<String, String> manifest ) throws IOException
+  {
+    File manifestFile = getManifestFile( turn );
+    manifestFile.getParentFile().mkdirs();
+    File tmp = createTempFile();
+    try (FileChannel channel = FileChannel.open( tmp.toPath(), StandardOpenOption.WRITE ))
+    {
+      Writer out = new BufferedWriter( new OutputStreamWriter( Channels.newOutputStream( channel ), StandardCharsets.UTF_8 ) );
+      for ( Map.Entry<String, String> entry : manifest.entrySet() )
+      {
+        out.write( entry.getValue() + " " + entry.getKey() + "\n" );
+      }
+      out.flush();
+      channel.force( true );
+    }
+    moveIntoPlace( tmp, manifestFile );
+  }
+
+  private File getManifestFile( int turn )
+  {
+    return new File( new File( _dir, MANIFESTS_DIR ), MANIFEST_PREFIX + turn + MANIFEST_SUFFIX );
+  }
+
+  private File getBlobFile( String hash )
+  {
+    return new File( new File( new File( _dir, BLOBS_DIR ), hash.substring( 0, 2 ) ), hash );
+  }
+
+  private File createTempFile() throws IOException
+  {
+    File tmpDir = new File( _dir, TMP_DIR );
+    tmpDir.mkdirs();
+    return File.createTempFile( "archive", ".tmp", tmpDir );
+  }
+
+  /** Copy the file's content directly between the channels, forcing it to disk. */
+  private static void copy( File from, File to ) throws IOException
+  {
+    try (FileChannel in = FileChannel.open( from.toPath(), StandardOpenOption.READ );
+         FileChannel out = FileChannel.open( to.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                             StandardOpenOption.TRUNCATE_EXISTING ))
+    {
+      long size = in.size();
+      for ( long position = 0; position < size; )
+      {
+        position += in.transferTo( position, size - position, out );
+      }
+      out.force( true );
+    }
+  }
+
+  private static void moveIntoPlace( File from, File to ) throws IOException
+  {
+    Files.move( from.toPath(), to.toPath(), StandardCopyOption.ATOMIC_MOVE );
+  }
+
+  private static String hash( File file ) throws IOException
+  {
+    MessageDigest digest;
+    try
+    {
+      digest = MessageDigest.getInstance( HASH_ALGORITHM );
+    }
+    catch ( NoSuchAlgorithmException e )
+    {
+      throw new IllegalStateException( e );
+    }
+
+    try (FileChannel in = FileChannel.open( file.toPath(), StandardOpenOption.READ ))
+    {
+      ByteBuffer buffer = ByteBuffer.allocate( HASH_BUFFER_SIZE );
+      while ( in.read( buffer ) >= 0 )
+      {
+        buffer.flip();
+        digest.update( buffer );
+        buffer.clear();
+      }
+    }
+
+    StringBuilder sb = new StringBuilder();
+    for ( byte b : digest.digest() )
+    {
+      sb.append( String.format( "%02x", b ) );
+    }
+    return sb.toString();
+  }
+}
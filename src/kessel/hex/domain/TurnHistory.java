@@ -0,0 +1,229 @@
+package kessel.hex.domain;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import kessel.hex.util.JsonDelta;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps every turn of a game, and of each player's state, as a full baseline followed by per turn deltas. Only what changed from the prior
+ * turn is stored, so a long campaign costs a fraction of keeping full copies. Any recorded turn can be rebuilt from its nearest baseline
+ * plus the deltas after it. A new baseline is started every so many turns, which bounds the work to rebuild or record a turn.
+ * <p/>
+ * Files are named {@code <name>_turn<turn>} for baselines and {@code <name>_turn<turn>_delta} for deltas, in any save format.
+ */
+public class TurnHistory
+{
+  public static final int DEFAULT_BASELINE_INTERVAL = 10;
+
+  private static final String TURN_SEPARATOR = "_turn";
+  private static final String DELTA_SUFFIX = "_delta";
+
+  private final File _dir;
+  private final SaveFormat _format;
+  private final int _baselineInterval;
+
+  // The latest state recorded through this history for each name, so recording the next turn needn't rebuild it.
+  private final Map<String, JsonElement> _latestStates = new HashMap<>();
+  private final Map<String, Integer> _latestTurns = new HashMap<>();
+
+  public TurnHistory( File dir )
+  {
+    this( dir, SaveFormat.SNAPSHOT, DEFAULT_BASELINE_INTERVAL );
+  }
+
+  /**
+   * @param dir the directory holding the history.
+   * @param format the format new baselines and deltas are saved in.
+   * @param baselineInterval a new baseline is saved once this many turns have passed since the last one.
+   */
+  public TurnHistory( File dir, SaveFormat format, int baselineInterval )
+  {
+    if ( baselineInterval < 1 ) { throw new IllegalArgumentException( "The baseline interval must be at least 1." ); }
+    _dir = dir;
+    _format = format;
+    _baselineInterval = baselineInterval;
+  }
+
+  /**
+   * Record the game and each player's state for the game's current turn. The game is recorded last, so a turn whose game is recorded is
+   * complete.
+   */
+  public void record( Game game ) throws IOException
+  {
+    for ( Player player : game.getPlayers() )
+    {
+      record( player, game.getTurn() );
+    }
+    record( Game.GAME_NAME, game.getTurn(), Game.GSON.toJsonTree( game, Game.class ) );
+  }
+
+  /** Record the player's state for a turn. Re-recording the latest turn replaces it, e.g. once the player has added their orders. */
+  public void record( Player player, int turn ) throws IOException
+  {
+    record( player.getName(), turn, Game.GSON.toJsonTree( player, Player.class ) );
+  }
+
+  /** @return the latest turn recorded for the game, or null if nothing has been recorded. */
+  public Integer getLatestTurn()
+  {
+    List<Integer> turns = getTurns( Game.GAME_NAME );
+    return turns.isEmpty() ? null : turns.get( turns.size() - 1 );
+  }
+
+  /**
+   * Record the state of the named game or player for a turn. Turns must be recorded in order, although the latest turn may be recorded
+   * again to replace it.
+   */
+  @SuppressWarnings({ "ResultOfMethodCallIgnored" })
+  public void record( String name, int turn, JsonElement state ) throws IOException
+  {
+    List<Integer> turns = getTurns( name );
+    int latestTurn = turns.isEmpty() ? Integer.MIN_VALUE : turns.get( turns.size() - 1 );
+    if ( turn < latestTurn )
+    {
+      throw new IllegalArgumentException( "Turn " + turn + " of " + name + " is before the latest recorded turn " + latestTurn );
+    }
+    if ( turn == latestTurn )
+    {
+      delete( name, turn );
+      _latestTurns.remove( name );
+      turns.remove( turns.size() - 1 );
+    }
+
+    _dir.mkdirs();
+    Integer priorTurn = turns.isEmpty() ? null : turns.get( turns.size() - 1 );
+    if ( priorTurn == null || turn - getBaselineTurn( name, priorTurn ) >= _baselineInterval )
+    {
+      _format.save( state, JsonElement.class, _format.getFile( _dir, getBaselineName( name, turn ) ) );
+    }
+    else
+    {
+      JsonElement priorState = priorTurn.equals( _latestTurns.get( name ) ) ? _latestStates.get( name ) : rebuild( name, priorTurn );
+      JsonObject delta = JsonDelta.diff( priorState, state );
+      _format.save( delta, JsonElement.class, _format.getFile( _dir, getDeltaName( name, turn ) ) );
+    }
+    _latestStates.put( name, state );
+    _latestTurns.put( name, turn );
+  }
+
+  /** @return the game as it was at the end of the given turn. */
+  public Game loadGame( int turn ) throws IOException
+  {
+    Game game = Game.GSON.fromJson( rebuild( Game.GAME_NAME, turn ), Game.class );
+    game.fixDeserializationReferences();
+    return game;
+  }
+
+  /** @return the player's state as it was for the given turn. */
+  public Player loadPlayer( String playerName, int turn ) throws IOException
+  {
+    return Game.GSON.fromJson( rebuild( playerName, turn ), Player.class );
+  }
+
+  /** Write the full game and player files of a recorded turn to a game directory, as if the turn had been saved normally. */
+  @SuppressWarnings({ "ResultOfMethodCallIgnored" })
+  public void restore( int turn, File gameDir, SaveFormat format ) throws IOException
+  {
+    File adminDir = new File( gameDir, Game.ADMIN_DIR );
+    adminDir.mkdirs();
+    File playersDir = new File( gameDir, Game.PLAYERS_DIR );
+    playersDir.mkdirs();
+    format.save( rebuild( Game.GAME_NAME, turn ), JsonElement.class, format.getFile( adminDir, Game.GAME_NAME ) );
+    for ( Player player : loadGame( turn ).getPlayers() )
+    {
+      if ( getTurns( player.getName() ).contains( turn ) )
+      {
+        File playerFile = format.getFile( playersDir, Player.getStateName( player.getName(), turn ) );
+        format.save( rebuild( player.getName(), turn ), JsonElement.class, playerFile );
+      }
+    }
+  }
+
+  /** Rebuild the json for the named game or player at the given turn from its baseline and deltas. */
+  public JsonElement rebuild( String name, int turn ) throws IOException
+  {
+    if ( _latestTurns.containsKey( name ) && _latestTurns.get( name ) == turn ) { return _latestStates.get( name ).deepCopy(); }
+
+    int baselineTurn = getBaselineTurn( name, turn );
+    JsonElement state = load( getBaselineName( name, baselineTurn ) );
+    for ( int deltaTurn : getTurns( name ) )
+    {
+      if ( deltaTurn > baselineTurn && deltaTurn <= turn )
+      {
+        state = JsonDelta.apply( state, load( getDeltaName( name, deltaTurn ) ).getAsJsonObject() );
+      }
+    }
+    return state;
+  }
+
+  /** @return the recorded turns for the named game or player, in order. */
+  public List<Integer> getTurns( String name )
+  {
+    List<Integer> turns = new ArrayList<>();
+    File[] files = _dir.listFiles();
+    if ( files == null ) { return turns; }
+
+    String prefix = name + TURN_SEPARATOR;
+    for ( File file : files )
+    {
+      if ( !SaveFormat.isSaveFile( file ) ) { continue; }
+      String baseName = SaveFormat.getBaseName( file );
+      if ( baseName.startsWith( prefix ) )
+      {
+        String turnText = baseName.substring( prefix.length() );
+        if ( turnText.endsWith( DELTA_SUFFIX ) ) { turnText = turnText.substring( 0, turnText.length() - DELTA_SUFFIX.length() ); }
+        try
+        {
+          turns.add( Integer.parseInt( turnText ) );
+        }
+        catch ( NumberFormatException e )
+        {
+          // Belongs to another name that starts with this one, e.g. "Bob_turnip".
+        }
+      }
+    }
+    Collections.sort( turns );
+    return turns;
+  }
+
+  /** @return the turn of the baseline the given turn is rebuilt from. */
+  private int getBaselineTurn( String name, int turn )
+  {
+    for ( int i = turn; i >= 0; i-- )
+    {
+      if ( SaveFormat.find( _dir, getBaselineName( name, i ) ).exists() ) { return i; }
+    }
+    throw new IllegalArgumentException( "No baseline recorded for " + name + " at or before turn " + turn );
+  }
+
+  private JsonElement load( String baseName ) throws IOException
+  {
+    File file = SaveFormat.find( _dir, baseName );
+    return SaveFormat.forFile( file ).load( file, JsonElement.class );
+  }
+
+  @SuppressWarnings({ "ResultOfMethodCallIgnored" })
+  private void delete( String name, int turn )
+  {
+    SaveFormat.find( _dir, getBaselineName( name, turn ) ).delete();
+    SaveFormat.find( _dir, getDeltaName( name, turn ) ).delete();
+  }
+
+  private static String getBaselineName( String name, int turn )
+  {
+    return name + TURN_SEPARATOR + turn;
+  }
+
+  private static String getDeltaName( String name, int turn )
+  {
+    return getBaselineName( name, turn ) + DELTA_SUFFIX;
+  }
+}
@@ -0,0 +1,285 @@
+package kessel.hex.domain;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import kessel.hex.util.ReplayableRandom;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * An append-only journal of the turns run for a game. For each turn it records the merged orders the players issued, the order they were
+ * executed in after the shuffle, and every random draw made while running the turn. Along with a snapshot of the game taken every so many
+ * turns, that's enough to rebuild any turn by replaying it, rather than keeping full copies of every turn.
+ * <p/>
+ * A turn with a snapshot of its own is rebuilt by just loading the snapshot, which is quicker than loading the game's json save. Each turn
+ * since the last snapshot has to be run again, which takes about as long as the load again, so the snapshot interval trades the room the
+ * snapshots take against how long a replay takes. By default every turn is snapshotted.
+ * <p/>
+ * The journal is one compact json entry per line, so a turn is committed by appending a single line. A turn that's run again, e.g. after
+ * its results failed to save, supersedes the earlier entry for that turn and any after it.
+ */
+public class TurnJournal
+{
+  private static final Logger LOG = Logger.getLogger( TurnJournal.class );
+
+  public static final int DEFAULT_SNAPSHOT_INTERVAL = 1;
+  public static final String JOURNAL_FILE = "turns.journal";
+
+  private static final String TURN = "turn";
+  private static final String ORDERS = "orders";
+  private static final String EXECUTION_ORDER = "executionOrder";
+  private static final String DRAWS = "draws";
+
+  private final File _dir;
+  private final int _snapshotInterval;
+
+  public TurnJournal( File dir )
+  {
+    this( dir, DEFAULT_SNAPSHOT_INTERVAL );
+  }
+
+  /**
+   * @param dir the directory holding the journal and its snapshots.
+   * @param snapshotInterval a new snapshot is taken of the turn run once it's this many turns since the last one.
+   */
+  public TurnJournal( File dir, int snapshotInterval )
+  {
+    if ( snapshotInterval < 1 ) { throw new IllegalArgumentException( "The snapshot interval must be at least 1." ); }
+    _dir = dir;
+    _snapshotInterval = snapshotInterval;
+  }
+
+  /** Run the game's next turn with the given orders, recording it in the journal. */
+  @SuppressWarnings({ "ResultOfMethodCallIgnored" })
+  public void record( Game game, JsonArray orders ) throws IOException
+  {
+    _dir.mkdirs();
+
+    // A turn that's run again supersedes the journaled turns after it, so their snapshots no longer show what happened.
+    SortedMap<Integer, String> entries = readEntries();
+    if ( !entries.isEmpty() )
+    {
+      for ( int turn = game.getTurn() + 1; turn <= entries.lastKey(); turn++ )
+      {
+        getSnapshotFile( turn ).delete();
+      }
+    }
+
+    // The journal needs the game as it was before its first turn to replay from.
+    Integer snapshotTurn = getLatestSnapshotTurn( game.getTurn() );
+    if ( snapshotTurn == null )
+    {
+      snapshotTurn = game.getTurn();
+      SaveFormat.SNAPSHOT.save( game, Game.class, getSnapshotFile( snapshotTurn ) );
+    }
+
+    Random oldRandom = game.getRandom();
+    ReplayableRandom random = ReplayableRandom.recording();
+    game.setRandom( random );
+    try
+    {
+      game.runNextTurn( orders );
+    }
+    finally
+    {
+      game.setRandom( oldRandom );
+    }
+
+    JsonObject entry = new JsonObject();
+    entry.addProperty( TURN, game.getTurn() );
+    entry.add( ORDERS, orders );
+    entry.add( EXECUTION_ORDER, toJson( game.getCurrentTurn().getExecutionOrder() ) );
+    entry.add( DRAWS, toJson( random.getRecordedDraws() ) );
+    append( entry );
+
+    // Only once the turn's committed to the journal, so a snapshot is never of a turn the journal doesn't have.
+    if ( game.getTurn() - snapshotTurn >= _snapshotInterval )
+    {
+      SaveFormat.SNAPSHOT.save( game, Game.class, getSnapshotFile( game.getTurn() ) );
+    }
+  }
+
+  /** @return the game as it was at the end of the given turn, rebuilt by replaying the journal from the nearest snapshot. */
+  public Game replay( int turn ) throws IOException
+  {
+    Integer snapshotTurn = getLatestSnapshotTurn( turn );
+    if ( snapshotTurn == null ) { throw new IllegalArgumentException( "No snapshot to replay turn " + turn + " from." ); }
+    Game game = Game.load( getSnapshotFile( snapshotTurn ) );
+
+    // The snapshots of superseded turns are removed, so a turn with its own snapshot needs nothing more from the journal.
+    if ( snapshotTurn == turn ) { return game; }
+    for ( Map.Entry<Integer, String> entry : readEntries().subMap( snapshotTurn + 1, turn + 1 ).entrySet() )
+    {
+      if ( entry.getKey() != game.getTurn() + 1 ) { throw new IllegalStateException( "The journal is missing turn " + (game.getTurn() + 1) ); }
+      replay( game, JsonParser.parseString( entry.getValue() ).getAsJsonObject() );
+    }
+    if ( game.getTurn() != turn ) { throw new IllegalArgumentException( "Turn " + turn + " isn't in the journal." ); }
+    return game;
+  }
+
+  /** Run the entry's turn on the game exactly as it was originally run. */
+  private static void replay( Game game, JsonObject entry )
+  {
+    int[] draws = toInts( entry.getAsJsonArray( DRAWS ) );
+    Random oldRandom = game.getRandom();
+    ReplayableRandom random = ReplayableRandom.replaying( draws );
+    game.setRandom( random );
+    try
+    {
+      game.runNextTurn( entry.getAsJsonArray( ORDERS ) );
+    }
+    finally
+    {
+      game.setRandom( oldRandom );
+    }
+
+    // The recorded draws only reproduce the turn if they were used by exactly the same decisions.
+    if ( !Arrays.equals( toInts( entry.getAsJsonArray( EXECUTION_ORDER ) ), game.getCurrentTurn().getExecutionOrder() ) ||
+         !random.isReplayComplete() )
+    {
+      throw new IllegalStateException( "Replaying turn " + game.getTurn() + " didn't match the journal." );
+    }
+  }
+
+  /** @return the turns recorded in the journal, in order. */
+  public List<Integer> getTurns() throws IOException
+  {
+    return new ArrayList<>( readEntries().keySet() );
+  }
+
+  /** @return the orders issued for the turn, in their json form, or null if the turn isn't in the journal. */
+  public JsonArray getOrders( int turn ) throws IOException
+  {
+    String entry = readEntries().get( turn );
+    return entry == null ? null : JsonParser.parseString( entry ).getAsJsonObject().getAsJsonArray( ORDERS );
+  }
+
+  private void append( JsonObject entry ) throws IOException
+  {
+    File journalFile = new File( _dir, JOURNAL_FILE );
+    boolean endsIncomplete = endsIncomplete( journalFile );
+    try (Writer out = new BufferedWriter( new FileWriter( journalFile, true ) ))
+    {
+      // Start a fresh line after any incomplete entry left by a crash.
+      if ( endsIncomplete ) { out.write( '\n' ); }
+
+      // Not pretty printed, so the entry is a single line.
+      Game.GSON.toJson( entry, JsonElement.class, new JsonWriter( out ) );
+      out.write( '\n' );
+    }
+  }
+
+  private static boolean endsIncomplete( File journalFile ) throws IOException
+  {
+    if ( journalFile.length() == 0 ) { return false; }
+    try (RandomAccessFile in = new RandomAccessFile( journalFile, "r" ))
+    {
+      in.seek( journalFile.length() - 1 );
+      return in.read() != '\n';
+    }
+  }
+
+  /** @return the journal's current entry for each turn, by turn. They're left as the lines they were written as until they're needed. */
+  private SortedMap<Integer, String> readEntries() throws IOException
+  {
+    SortedMap<Integer, String> entries = new TreeMap<>();
+    File journalFile = new File( _dir, JOURNAL_FILE );
+    if ( !journalFile.exists() ) { return entries; }
+
+    try (BufferedReader in = new BufferedReader( new FileReader( journalFile ) ))
+    {
+      for ( String line = in.readLine(); line != null; line = in.readLine() )
+      {
+        if ( line.isEmpty() ) { continue; }
+        Integer turn = getTurn( line );
+        if ( turn == null )
+        {
+          // A crash interrupted the entry's append, so its turn was never committed.
+          LOG.error( "Ignoring an incomplete entry in " + journalFile );
+          continue;
+        }
+        entries.tailMap( turn ).clear();
+        entries.put( turn, line );
+      }
+    }
+    return entries;
+  }
+
+  /** @return the turn of the entry on the line, or null if the entry's incomplete. The whole entry is checked, but nothing else is kept. */
+  private static Integer getTurn( String line )
+  {
+    try
+    {
+      JsonReader in = new JsonReader( new StringReader( line ) );
+      Integer turn = null;
+      in.beginObject();
+      while ( in.hasNext() )
+      {
+        if ( in.nextName().equals( TURN ) ) { turn = in.nextInt(); }
+        else { in.skipValue(); }
+      }
+      in.endObject();
+      return (in.peek() == JsonToken.END_DOCUMENT) ? turn : null;
+    }
+    catch ( IOException | IllegalStateException | NumberFormatException e )
+    {
+      return null;
+    }
+  }
+
+  /** @return the turn of the latest snapshot at or before the given turn, or null if there isn't one. */
+  private Integer getLatestSnapshotTurn( int turn )
+  {
+    for ( int i = turn; i >= 0; i-- )
+    {
+      if ( getSnapshotFile( i ).exists() ) { return i; }
+    }
+    return null;
+  }
+
+  private File getSnapshotFile( int turn )
+  {
+    return SaveFormat.SNAPSHOT.getFile( _dir, Player.getStateName( Game.GAME_NAME, turn ) );
+  }
+
+  private static JsonArray toJson( int[] values )
+  {
+    JsonArray json = new JsonArray();
+    for ( int value : values )
+    {
+      json.add( value );
+    }
+    return json;
+  }
+
+  private static int[] toInts( JsonArray json )
+  {
+    int[] values = new int[json.size()];
+    for ( int i = 0; i < values.length; i++ )
+    {
+      values[i] = json.get( i ).getAsInt();
+    }
+    return values;
+  }
+}
@@ -1,15 +1,11 @@
 package kessel.hex.domain;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
+import com.google.gson.stream.JsonReader;
 import kessel.hex.orders.AbstractMoveFigure;
 import kessel.hex.orders.wizard.MoveWizard;
 import kessel.hex.orders.wizard.TrainWizard;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -95,19 +91,9 @@ public class Wizard extends Figure
 
   public static class MyJsonAdapter extends Figure.MyJsonAdapter<Wizard>
   {
-    public JsonElement serialize( Wizard wizard, Type type, JsonSerializationContext context )
+    public Wizard read( JsonReader in ) throws IOException
     {
-      JsonObject jsonResponse = new JsonObject();
-      super.serialize( wizard, jsonResponse, type, context );
-      return jsonResponse;
-    }
-
-    public Wizard deserialize( JsonElement jsonOrder, Type type, JsonDeserializationContext context )
-      throws JsonParseException
-    {
-      Wizard wizard = new Wizard();
-      super.doDeserialize( wizard, jsonOrder, context );
-      return wizard;
+      return readFields( in, new Wizard() );
     }
   }
 }
@@ -1,13 +1,9 @@
 package kessel.hex.map;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import kessel.hex.domain.Game;
 import kessel.hex.domain.PopCenter;
 import kessel.hex.util.Tuple;
@@ -15,13 +11,18 @@ import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.log4j.Logger;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /** Creates the Game. This includes creating the map, the towns, the regions, etc. */
 @SuppressWarnings({ "ObjectEquality" })
@@ -29,13 +30,32 @@ public class GameMap
 {
   private static final Logger LOG = Logger.getLogger( GameMap.class );
 
+  // The locations are held in square chunks, each created when one of its locations is first needed, so a player's view of a large map
+  // only holds the parts the player has seen. The game's map is read by several threads at once while running a turn, so a chunk is
+  // published whole through the atomic array, and a thread that finds its chunk missing creates it under the map's lock.
+  private static final int CHUNK_BITS = 4;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
   private int _width, _height;
-  private Location[][] _locations;
+  private transient AtomicReferenceArray<Location[]> _chunks;
+
+  // What's known of each hex, which the locations are views onto. A view's hexes take the terrain of the map it views as their chunks of
+  // locations are created.
+  private transient LocationGrid _grid;
   private List<Region> _regions = new ArrayList<>();
   private Game _game;
 
-  /** Locations by tuple is such a common need, it's computed once and cached. */
-  private Map<Tuple, Location> _locationsByHex;
+  // The map a view of it takes the terrain of locations from, as they're first needed. Null if the map isn't a view.
+  private transient GameMap _template;
+
+  // The regions by name, built when first needed and dropped whenever the regions or their names change.
+  private transient Map<String, Region> _regionsByName;
+
+  /** Locations by tuple is such a common need, it's a view straight onto the locations, rather than a hashed copy of them all. */
+  private final transient Map<Tuple, Location> _locationsByHex = new LocationsByHex();
+
+  // Which hexes are next to which, built when first needed and dropped whenever the locations change.
+  private transient MapTopology _topology;
 
   private GameMap() {} // Used only for testing
 
@@ -62,91 +82,272 @@ public class GameMap
     return map;
   }
 
-  private void cacheLocationsByHex()
+  /** @return a view of the map, whose locations have the map's terrain but no known region until the player learns of them. */
+  public static GameMap createView( GameMap map )
   {
-    _locationsByHex = new HashMap<>();
-    for ( int x = 0; x < _width; x++ )
+    GameMap view = createBySize( map.getWidth(), map.getHeight() );
+    view._template = map;
+    return view;
+  }
+
+  /**
+   * Make the map a view of the given one once it's loaded, and drop any chunks of locations with nothing more than the given map's terrain.
+   * They're created again from the given map if needed. This is done before the view's references are fixed, which places its regions on
+   * their locations.
+   */
+  public void setTemplate( GameMap template )
+  {
+    _template = template;
+    for ( int i = 0; i < _chunks.length(); i++ )
     {
-      for ( int y = 0; y < _height; y++ )
+      Location[] chunk = _chunks.get( i );
+      if ( (chunk != null) && isUnseen( chunk ) ) { _chunks.set( i, null ); }
+    }
+  }
+
+  private boolean isUnseen( Location[] chunk )
+  {
+    for ( Location location : chunk )
+    {
+      if ( (location != null) && ((location.getRegion() != Region.UNKNOWN_REGION) ||
+                                  (location.getTerrain() != _template.getLocation( location.getCoord() ).getTerrain())) )
       {
-        _locationsByHex.put( new Tuple( x, y ), _locations[x][y] );
+        return false;
       }
     }
+    return true;
   }
 
+  private void locationsChanged()
+  {
+    _topology = null;
+    for ( int i = 0; i < _regions.size(); i++ )
+    {
+      _regions.get( i ).setMap( this, i );
+    }
+  }
+
+  /** Make sure the map holds its locations, though they're only created as needed. Those already created are kept. */
   void initLocations()
   {
-    Location[][] locations = _locations == null ? new Location[_width][_height] : _locations;
-    for ( int x = 0; x < _width; x++ )
+    if ( _chunks == null )
     {
-      for ( int y = 0; y < _height; y++ )
+      _chunks = new AtomicReferenceArray<>( getChunksHigh() * ((_width + CHUNK_SIZE - 1) >> CHUNK_BITS) );
+    }
+    if ( _grid == null ) { _grid = new LocationGrid( _width * _height ); }
+    locationsChanged();
+  }
+
+  /** @return the hex's cell of the grid, numbered as the map's topology numbers them. */
+  private int getCell( int x, int y ) { return x * _height + y; }
+
+  private int getChunkIndex( int x, int y )
+  {
+    return (x >> CHUNK_BITS) * getChunksHigh() + (y >> CHUNK_BITS);
+  }
+
+  private int getChunksHigh() { return (_height + CHUNK_SIZE - 1) >> CHUNK_BITS; }
+
+  private static int getIndexInChunk( int x, int y )
+  {
+    return ((x & (CHUNK_SIZE - 1)) << CHUNK_BITS) + (y & (CHUNK_SIZE - 1));
+  }
+
+  /** @return the chunk holding the hex, creating it if it's not yet needed. */
+  private Location[] getChunk( int x, int y )
+  {
+    Location[] chunk = _chunks.get( getChunkIndex( x, y ) );
+    return (chunk == null) ? createChunk( x, y ) : chunk;
+  }
+
+  private synchronized Location[] createChunk( int x, int y )
+  {
+    int chunkIndex = getChunkIndex( x, y );
+    if ( _chunks.get( chunkIndex ) == null )
+    {
+      Location[] chunk = new Location[CHUNK_SIZE * CHUNK_SIZE];
+      int firstX = x & ~(CHUNK_SIZE - 1);
+      int firstY = y & ~(CHUNK_SIZE - 1);
+      for ( int chunkX = firstX; chunkX < Math.min( firstX + CHUNK_SIZE, _width ); chunkX++ )
       {
-        if ( locations[x][y] == null )
+        for ( int chunkY = firstY; chunkY < Math.min( firstY + CHUNK_SIZE, _height ); chunkY++ )
         {
-          locations[x][y] = new Location( x, y );
+          chunk[getIndexInChunk( chunkX, chunkY )] = createLocation( chunkX, chunkY );
         }
       }
+      _chunks.set( chunkIndex, chunk );
     }
-    _locations = locations;
-    cacheLocationsByHex();
+    return _chunks.get( chunkIndex );
+  }
+
+  private Location createLocation( int x, int y )
+  {
+    int cell = getCell( x, y );
+    if ( _template == null ) { return new Location( new Tuple( x, y ), _grid, cell ); }
+
+    // A view's location shares the hex's tuple with the map it views, and starts out with its terrain.
+    _grid.setTerrain( cell, _template._grid.getTerrain( cell ) );
+    return new Location( _template.getTuple( x, y ), _grid, cell );
   }
 
   public boolean isOnMap( Tuple hex )
   {
-    List<Tuple> list = new ArrayList<>();
-    list.add( hex );
-    removeOffMapTuples( list, _width, _height );
-    return !list.isEmpty();
+    return isInBounds( hex.x, hex.y );
   }
 
   static void removeOffMapTuples( List<Tuple> neighbors, int width, int height )
   {
-    for ( Iterator<Tuple> iter = neighbors.iterator(); iter.hasNext(); )
+    // Keep those on the map in place, then drop the rest in one go.
+    int kept = 0;
+    for ( Tuple neighbor : neighbors )
     {
-      Tuple neighbor = iter.next();
-      if ( (neighbor.x < 0) || (neighbor.x >= width) ||
-           (neighbor.y < 0) || (neighbor.y >= height) )
+      if ( (neighbor.x >= 0) && (neighbor.x < width) &&
+           (neighbor.y >= 0) && (neighbor.y < height) )
       {
-        iter.remove();
+        neighbors.set( kept++, neighbor );
       }
     }
+    neighbors.subList( kept, neighbors.size() ).clear();
+  }
+
+  public MapTopology getTopology()
+  {
+    if ( _topology == null )
+    {
+      _topology = MapTopology.createBounded( getWidth(), getHeight() );
+    }
+    return _topology;
+  }
+
+  /** @return true if both hexes are on the map and next to each other. */
+  public boolean isAdjacent( Tuple hex, Tuple otherHex )
+  {
+    MapTopology topology = getTopology();
+    int cell = topology.getCell( hex.x, hex.y );
+    int otherCell = topology.getCell( otherHex.x, otherHex.y );
+    return (cell >= 0) && (otherCell >= 0) && topology.isAdjacent( cell, otherCell );
   }
 
-  public Location getLocation( Tuple tuple ) { return _locations[tuple.x][tuple.y]; }
+  public Location getLocation( Tuple tuple ) { return getLocation( tuple.x, tuple.y ); }
 
-  public Location[][] getLocations() { return _locations; }
+  /**
+   * @return the map's one tuple for the hex, that of its location, so tuples from the map can be compared by identity. A hex off the map
+   *         gets a new tuple.
+   */
+  public Tuple getTuple( int x, int y )
+  {
+    if ( !isInBounds( x, y ) ) { return new Tuple( x, y ); }
 
+    // A view's locations share the tuples of the map it views, so there's no need to create one.
+    boolean isCreated = _chunks.get( getChunkIndex( x, y ) ) != null;
+    return (isCreated || (_template == null)) ? getLocation( x, y ).getCoord() : _template.getTuple( x, y );
+  }
+
+  /** @return the map's one tuple for the given hex, or the given tuple if it's off the map. */
+  public Tuple intern( Tuple hex ) { return isInBounds( hex.x, hex.y ) ? getTuple( hex.x, hex.y ) : hex; }
+
+  private boolean isInBounds( int x, int y )
+  {
+    return (x >= 0) && (x < _width) && (y >= 0) && (y < _height);
+  }
+
+  /** @return all the map's locations, by x then y. This creates any not yet needed, so isn't for views of large maps. */
+  public Location[][] getLocations()
+  {
+    Location[][] locations = new Location[_width][_height];
+    for ( int x = 0; x < _width; x++ )
+    {
+      for ( int y = 0; y < _height; y++ )
+      {
+        locations[x][y] = getLocation( x, y );
+      }
+    }
+    return locations;
+  }
+
+  /** Take on the terrain and region of each of the given locations, by x then y. The map keeps its own locations. */
   public void setLocations( Location[][] locations )
   {
-    _locations = locations;
-    cacheLocationsByHex();
+    for ( int x = 0; x < _width; x++ )
+    {
+      for ( int y = 0; y < _height; y++ )
+      {
+        Location location = getLocation( x, y );
+        location.setTerrain( locations[x][y].getTerrain() );
+        location.setRegion( locations[x][y].getRegion() );
+      }
+    }
+    locationsChanged();
   }
 
   public Map<Tuple, Location> getLocationsByHex() { return _locationsByHex; }
 
-  public int getWidth() { return _locations.length; }
+  public int getWidth() { return _width; }
 
-  public int getHeight() { return _locations[0].length; }
+  public int getHeight() { return _height; }
 
   public Region getRegion( String regionName )
   {
-    for ( Region region : _regions )
+    if ( _regionsByName == null )
     {
-      if ( region.getName().equals( regionName ) )
+      // The first region with a name wins, just as when searching.
+      _regionsByName = new HashMap<>();
+      for ( Region region : _regions )
       {
-        return region;
+        if ( !_regionsByName.containsKey( region.getName() ) ) { _regionsByName.put( region.getName(), region ); }
       }
     }
-    return null;
+    return _regionsByName.get( regionName );
   }
 
-  void clearRegions() { _regions.clear(); }
+  /** Drop the regions, taking them off their locations too so the map can be divided into regions again from scratch. */
+  void clearRegions()
+  {
+    _grid.clearRegions();
+    _regions.clear();
+    _regionsByName = null;
+  }
 
   public List<Region> getRegions() { return _regions; }
 
-  public void addRegion( Region region ) { _regions.add( region ); }
+  public void addRegion( Region region )
+  {
+    _regions.add( region );
+    region.setMap( this, _regions.size() - 1 );
+    _regionsByName = null;
+  }
+
+  void regionRenamed() { _regionsByName = null; }
+
+  public Location getLocation( int x, int y )
+  {
+    if ( !isInBounds( x, y ) ) { throw new ArrayIndexOutOfBoundsException( "Not on the map: (" + x + "," + y + ")" ); }
+    return getChunk( x, y )[getIndexInChunk( x, y )];
+  }
+
+  /**
+   * @return the id of the pop the game has placed in the hex, or 0 if there's none or the hex is off the map. The game keeps it current
+   *         for the map's hexes, so most hexes are known to hold no pop without searching the game's pops.
+   */
+  public int getPopCenterId( Tuple hex )
+  {
+    return isInBounds( hex.x, hex.y ) ? _grid.getPopCenterId( getCell( hex.x, hex.y ) ) : 0;
+  }
 
-  public Location getLocation( int x, int y ) { return _locations[x][y]; }
+  /** Place the pop with the given id in the hex, 0 for none. Hexes off the map have no place for a pop. */
+  public void setPopCenterId( Tuple hex, int popCenterId )
+  {
+    if ( isInBounds( hex.x, hex.y ) ) { _grid.setPopCenterId( getCell( hex.x, hex.y ), popCenterId ); }
+  }
+
+  public void clearPopCenterIds() { _grid.clearPopCenterIds(); }
+
+  /** @return the location of a cell of the map's topology. */
+  public Location getLocationByCell( int cell )
+  {
+    MapTopology topology = getTopology();
+    return getLocation( topology.getX( cell ), topology.getY( cell ) );
+  }
 
   public void setGame( Game game ) { _game = game; }
 
@@ -160,32 +361,139 @@ public class GameMap
     return HashCodeBuilder.reflectionHashCode( this, Arrays.asList( "_game" ) );
   }
 
-  public static class MyJsonAdapter implements JsonSerializer<GameMap>, JsonDeserializer<GameMap>
+  /** The locations keyed by their hexes, looked up by indexing the locations and listed in the order they're laid out. */
+  private class LocationsByHex extends AbstractMap<Tuple, Location>
+  {
+    public Location get( Object key )
+    {
+      if ( !(key instanceof Tuple) ) { return null; }
+      Tuple hex = (Tuple) key;
+      return isInBounds( hex.x, hex.y ) ? getLocation( hex.x, hex.y ) : null;
+    }
+
+    public boolean containsKey( Object key ) { return get( key ) != null; }
+
+    public int size() { return _width * _height; }
+
+    public Set<Entry<Tuple, Location>> entrySet()
+    {
+      return new AbstractSet<Entry<Tuple, Location>>()
+      {
+        public int size() { return LocationsByHex.this.size(); }
+
+        public Iterator<Entry<Tuple, Location>> iterator()
+        {
+          return new Iterator<Entry<Tuple, Location>>()
+          {
+            private int _next = 0;
+
+            public boolean hasNext() { return _next < size(); }
+
+            public Entry<Tuple, Location> next()
+            {
+              if ( !hasNext() ) { throw new NoSuchElementException(); }
+              Location location = getLocation( _next / _height, _next % _height );
+              _next++;
+              return new SimpleImmutableEntry<>( location.getCoord(), location );
+            }
+
+            public void remove() { throw new UnsupportedOperationException(); }
+          };
+        }
+      };
+    }
+  }
+
+  public static class MyJsonAdapter extends TypeAdapter<GameMap>
   {
     private static final String WIDTH = "width";
     private static final String HEIGHT = "height";
     private static final String LOCATIONS = "locations";
     private static final String REGIONS = "regions";
 
-    public JsonElement serialize( GameMap map, Type type, JsonSerializationContext context )
+    private static final TypeToken<List<Region>> REGION_LIST = new TypeToken<List<Region>>() {};
+
+    public void write( JsonWriter out, GameMap map ) throws IOException
     {
-      JsonObject jsonResponse = new JsonObject();
-      jsonResponse.add( WIDTH, context.serialize( map._width ) );
-      jsonResponse.add( HEIGHT, context.serialize( map._height ) );
-      jsonResponse.add( LOCATIONS, context.serialize( map._locations ) );
-      jsonResponse.add( REGIONS, context.serialize( map._regions ) );
-      return jsonResponse;
+      out.beginObject();
+      out.name( WIDTH ).value( map._width );
+      out.name( HEIGHT ).value( map._height );
+      out.name( LOCATIONS );
+      writeLocations( out, map );
+      out.name( REGIONS );
+      Game.GSON.getAdapter( REGION_LIST ).write( out, map._regions );
+      out.endObject();
     }
 
-    public GameMap deserialize( JsonElement jsonOrder, Type type, JsonDeserializationContext context )
-      throws JsonParseException
+    /**
+     * Write every location, as an array of columns, straight from the grid. A view's hexes whose locations aren't yet needed have the
+     * terrain of the map it views and no known region.
+     */
+    private void writeLocations( JsonWriter out, GameMap map ) throws IOException
     {
-      int width = context.deserialize( jsonOrder.getAsJsonObject().get( WIDTH ), Integer.class );
-      int height = context.deserialize( jsonOrder.getAsJsonObject().get( HEIGHT ), Integer.class );
-      Location[][] locations = context.deserialize( jsonOrder.getAsJsonObject().get( LOCATIONS ), new TypeToken<Location[][]>(){}.getType() );
-      List<Region> regions = context.deserialize( jsonOrder.getAsJsonObject().get( REGIONS ), new TypeToken<List<Region>>(){}.getType() );
+      out.beginArray();
+      for ( int x = 0; x < map._width; x++ )
+      {
+        out.beginArray();
+        for ( int y = 0; y < map._height; y++ )
+        {
+          int cell = map.getCell( x, y );
+          boolean isCreated = map._chunks.get( map.getChunkIndex( x, y ) ) != null;
+          LocationGrid grid = (isCreated || (map._template == null)) ? map._grid : map._template._grid;
+          Location.MyJsonAdapter.write( out, new Tuple( x, y ), grid.getTerrain( cell ) );
+        }
+        out.endArray();
+      }
+      out.endArray();
+    }
+
+    /** @return the terrain of every location, by x then y. */
+    private List<List<Terrain>> readLocations( JsonReader in ) throws IOException
+    {
+      List<List<Terrain>> terrains = new ArrayList<>();
+      in.beginArray();
+      while ( in.hasNext() )
+      {
+        List<Terrain> columnTerrains = new ArrayList<>();
+        in.beginArray();
+        while ( in.hasNext() )
+        {
+          columnTerrains.add( Location.MyJsonAdapter.readTerrain( in ) );
+        }
+        in.endArray();
+        terrains.add( columnTerrains );
+      }
+      in.endArray();
+      return terrains;
+    }
+
+
+    public GameMap read( JsonReader in ) throws IOException
+    {
+      int width = 0, height = 0;
+      List<List<Terrain>> terrains = null;
+      List<Region> regions = null;
+      in.beginObject();
+      while ( in.hasNext() )
+      {
+        switch ( in.nextName() )
+        {
+          case WIDTH: width = in.nextInt(); break;
+          case HEIGHT: height = in.nextInt(); break;
+          case LOCATIONS: terrains = readLocations( in ); break;
+          case REGIONS: regions = Game.GSON.getAdapter( REGION_LIST ).read( in ); break;
+          default: in.skipValue();
+        }
+      }
+      in.endObject();
       GameMap map = createBySize( width, height );
-      map._locations = locations;
+      for ( int x = 0; x < width; x++ )
+      {
+        for ( int y = 0; y < height; y++ )
+        {
+          map.getLocation( x, y ).setTerrain( terrains.get( x ).get( y ) );
+        }
+      }
       map._regions = regions;
       return map;
     }
@@ -194,11 +502,12 @@ public class GameMap
   public void fixDeserializationReferences( Game game )
   {
     _game = game;
-    for ( Region region : _regions )
+    for ( int i = 0; i < _regions.size(); i++ )
     {
-      region.fixDeserializationReferences( game );
+      _regions.get( i ).setMap( this, i );
+      _regions.get( i ).fixDeserializationReferences( game );
     }
-    cacheLocationsByHex();
+    locationsChanged();
   }
 
   public String debugInfo()
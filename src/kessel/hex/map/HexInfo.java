@@ -0,0 +1,13 @@
+package kessel.hex.map;
+
+/** What's known of the hexes a location can be a view onto, by cell. */
+interface HexInfo
+{
+  Terrain getTerrain( int cell );
+
+  void setTerrain( int cell, Terrain terrain );
+
+  Region getRegion( int cell );
+
+  void setRegion( int cell, Region region );
+}
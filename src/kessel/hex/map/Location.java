@@ -1,33 +1,53 @@
 package kessel.hex.map;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import kessel.hex.domain.Game;
 import kessel.hex.util.Tuple;
 
-/** A very simple POJO for a location (hex on the board). */
+import java.io.IOException;
+
+/**
+ * A location (hex on the board). A map's location is a view onto its cell of the map's grid, which holds what's known of the hex a
+ * column per field; a location that's not on a map, e.g. where a game event happened, holds it in a single hex of its own.
+ */
 public class Location
 {
   // Represents an unknown location. Use this instead when you'd want to use null for a location.
   public static final Location NOWHERE = new Location( -1, -1 );
 
-  private Tuple _coord;
-  private Terrain _terrain = Terrain.Undefined;
-  private transient Region _region = Region.UNKNOWN_REGION;
-
-  Location() {} // JSON support only.
+  private final Tuple _coord;
+  private final HexInfo _hex;
+  private final int _cell;
 
+  /** Create a location that's not on a map. */
   public Location( int x, int y )
   {
-    _coord = new Tuple( x, y );
+    this( new Tuple( x, y ) );
+  }
+
+  private Location( Tuple coord )
+  {
+    this( coord, new SingleHex(), 0 );
+  }
+
+  Location( Tuple coord, HexInfo hex, int cell )
+  {
+    _coord = coord;
+    _hex = hex;
+    _cell = cell;
   }
 
   public Tuple getCoord() { return _coord; }
 
-  public Terrain getTerrain() { return _terrain; }
+  public Terrain getTerrain() { return _hex.getTerrain( _cell ); }
 
-  public void setTerrain( Terrain terrain ) { _terrain = terrain; }
+  public void setTerrain( Terrain terrain ) { _hex.setTerrain( _cell, terrain ); }
 
-  public Region getRegion() { return _region; }
+  public Region getRegion() { return _hex.getRegion( _cell ); }
 
-  public void setRegion( Region region ) { _region = region; }
+  public void setRegion( Region region ) { _hex.setRegion( _cell, region ); }
 
   public boolean equals( Object o )
   {
@@ -41,4 +61,78 @@ public class Location
   {
     return _coord.hashCode();
   }
+
+  /** A location is saved as its hex and terrain, e.g. where a game event happened, and loaded as a location that's not on a map. */
+  public static class MyJsonAdapter extends TypeAdapter<Location>
+  {
+    private static final String COORD = "_coord";
+    private static final String TERRAIN = "_terrain";
+
+    public void write( JsonWriter out, Location location ) throws IOException
+    {
+      write( out, location.getCoord(), location.getTerrain() );
+    }
+
+    /** Write a location from what's known of its hex, so a map can save its hexes without creating their locations. */
+    static void write( JsonWriter out, Tuple coord, Terrain terrain ) throws IOException
+    {
+      out.beginObject();
+      out.name( COORD );
+      Game.GSON.getAdapter( Tuple.class ).write( out, coord );
+      out.name( TERRAIN ).value( terrain.name() );
+      out.endObject();
+    }
+
+    public Location read( JsonReader in ) throws IOException
+    {
+      Tuple coord = null;
+      Terrain terrain = Terrain.Undefined;
+      in.beginObject();
+      while ( in.hasNext() )
+      {
+        switch ( in.nextName() )
+        {
+          case COORD: coord = Game.GSON.getAdapter( Tuple.class ).read( in ); break;
+          case TERRAIN: terrain = Terrain.valueOf( in.nextString() ); break;
+          default: in.skipValue();
+        }
+      }
+      in.endObject();
+      Location location = new Location( coord );
+      location.setTerrain( terrain );
+      return location;
+    }
+
+    /** @return the terrain of a saved location, so a map can load its hexes without creating a location for each. */
+    static Terrain readTerrain( JsonReader in ) throws IOException
+    {
+      Terrain terrain = Terrain.Undefined;
+      in.beginObject();
+      while ( in.hasNext() )
+      {
+        switch ( in.nextName() )
+        {
+          case TERRAIN: terrain = Terrain.valueOf( in.nextString() ); break;
+          default: in.skipValue();
+        }
+      }
+      in.endObject();
+      return terrain;
+    }
+  }
+
+  /** What's known of the one hex of a location that's not on a map. */
+  private static final class SingleHex implements HexInfo
+  {
+    private Terrain _terrain = Terrain.Undefined;
+    private Region _region = Region.UNKNOWN_REGION;
+
+    public Terrain getTerrain( int cell ) { return _terrain; }
+
+    public void setTerrain( int cell, Terrain terrain ) { _terrain = terrain; }
+
+    public Region getRegion( int cell ) { return _region; }
+
+    public void setRegion( int cell, Region region ) { _region = region; }
+  }
 }
@@ -0,0 +1,72 @@
+package kessel.hex.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What's known of each hex of a grid, held a column per field with an entry per cell, rather than an object per hex. Cells are numbered
+ * as the map's topology numbers them, x * height + y. A map's locations are views onto its grid's cells.
+ * <p/>
+ * A cell's region is held as a small id into the regions placed on the grid, id 0 being the unknown region, and its pop as the pop's id,
+ * 0 being none as no pop has that id.
+ */
+final class LocationGrid implements HexInfo
+{
+  private static final Terrain[] TERRAINS = Terrain.values();
+
+  private final byte[] _terrains;
+  private final short[] _regionIds;
+  private final int[] _popCenterIds;
+
+  // The regions placed on the grid's cells, by their id less one.
+  private final List<Region> _regions = new ArrayList<>();
+
+  LocationGrid( int cellCount )
+  {
+    _terrains = new byte[cellCount];
+    _regionIds = new short[cellCount];
+    _popCenterIds = new int[cellCount];
+    Arrays.fill( _terrains, (byte) Terrain.Undefined.ordinal() );
+  }
+
+  int getCellCount() { return _terrains.length; }
+
+  public Terrain getTerrain( int cell ) { return TERRAINS[_terrains[cell]]; }
+
+  public void setTerrain( int cell, Terrain terrain ) { _terrains[cell] = (byte) terrain.ordinal(); }
+
+  public Region getRegion( int cell )
+  {
+    int regionId = _regionIds[cell];
+    return (regionId == 0) ? Region.UNKNOWN_REGION : _regions.get( regionId - 1 );
+  }
+
+  public void setRegion( int cell, Region region ) { _regionIds[cell] = getRegionId( region ); }
+
+  /** @return the region's id on the grid, giving it the next one if it's not yet been placed. */
+  private short getRegionId( Region region )
+  {
+    if ( region == Region.UNKNOWN_REGION ) { return 0; }
+    for ( int i = 0; i < _regions.size(); i++ )
+    {
+      if ( _regions.get( i ) == region ) { return (short) (i + 1); }
+    }
+    if ( _regions.size() == Short.MAX_VALUE ) { throw new IllegalStateException( "Too many regions for the grid." ); }
+    _regions.add( region );
+    return (short) _regions.size();
+  }
+
+  /** Take every region off the grid. */
+  void clearRegions()
+  {
+    Arrays.fill( _regionIds, (short) 0 );
+    _regions.clear();
+  }
+
+  int getPopCenterId( int cell ) { return _popCenterIds[cell]; }
+
+  void setPopCenterId( int cell, int popCenterId ) { _popCenterIds[cell] = popCenterId; }
+
+  void clearPopCenterIds() { Arrays.fill( _popCenterIds, 0 ); }
+}
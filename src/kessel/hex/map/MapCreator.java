@@ -86,6 +86,17 @@ public class MapCreator
 
   /** Create the regions. This just allocated hexes to regions, nothing else. */
   private void createRegions( GameMap map )
+  {
+    // Start over until the allocation is valid, which larger maps can take more attempts at than there is stack to recurse for.
+    do
+    {
+      allocateRegions( map );
+    }
+    while ( !regionsAreValid() );
+  }
+
+  /** Make one attempt at allocating every hex of the map to a region. */
+  private void allocateRegions( GameMap map )
   {
     map.initLocations();
     map.clearRegions();
@@ -101,7 +112,10 @@ public class MapCreator
     int regionDistanceRadius = determineDispersedHexRadius( _regionSize );
     int coreRegionRadius = regionDistanceRadius - 1;
     determineRegionCenters( regionDistanceRadius, coreRegionRadius, _numRegions );
-    map.getRegions().addAll( _regionForCenter.values() );
+    for ( Region region : _regionForCenter.values() )
+    {
+      map.addRegion( region );
+    }
     allocateRegionCores( coreRegionRadius );
     for ( Map.Entry<Tuple, Region> regionEntry : _regionForCenter.entrySet() )
     {
@@ -136,10 +150,6 @@ public class MapCreator
 
     fixUnallocatedHexes( unallocatedHexes );
     _listener.mapChanged();
-    if ( !regionsAreValid() )
-    {
-      createRegions( map );
-    }
   }
 
 
@@ -598,16 +608,7 @@ public class MapCreator
   /** @return true if the hex is surrounded by hexes already allocated to a region. */
   private boolean isLockedIn( Tuple expandHex )
   {
-    List<Tuple> neighbors = HexCalculator.getEdgeNeighbors( expandHex, 1 );
-    GameMap.removeOffMapTuples( neighbors, _mapWidth, _mapHeight );
-    for ( Tuple neighbor : neighbors )
-    {
-      if ( _map.getLocation( neighbor ).getRegion().equals( Region.UNKNOWN_REGION ) )
-      {
-        return false;
-      }
-    }
-    return true;
+    return countNeighbors( expandHex, Region.UNKNOWN_REGION, true ) == 0;
   }
 
 
@@ -639,24 +640,13 @@ public class MapCreator
    * Remove any locations that would create a peninsula. Effectively, this means that an absorbable target must be next to at least 2
    * other hexes of the same region.
    */
-  @SuppressWarnings("ObjectEquality")
   private void removePeninsulaLocations( Tuple expandHex, List<Tuple> absorbableTargets )
   {
     Region myRegion = _map.getLocation( expandHex ).getRegion();
     for ( Iterator<Tuple> iter = absorbableTargets.iterator(); iter.hasNext(); )
     {
       Tuple target = iter.next();
-      List<Tuple> targetNeighbors = HexCalculator.getEdgeNeighbors( target, 1 );
-      GameMap.removeOffMapTuples( targetNeighbors, _mapWidth, _mapHeight );
-      int neighborsInRegion = 0;
-      for ( Tuple targetNeighbor : targetNeighbors )
-      {
-        if ( _map.getLocation( targetNeighbor ).getRegion() == myRegion )
-        {
-          neighborsInRegion++;
-        }
-      }
-
+      int neighborsInRegion = countNeighbors( target, myRegion, true );
       if ( neighborsInRegion < 2 )
       {
         iter.remove();
@@ -710,17 +700,20 @@ public class MapCreator
   /** @return true if the hex is surrounded by hexes of the same region. */
   private boolean isInteriorHex( Tuple hex )
   {
-    Location hexLocation = _map.getLocation( hex );
-    List<Tuple> neighbors = HexCalculator.getEdgeNeighbors( hex, 1 );
-    GameMap.removeOffMapTuples( neighbors, _mapWidth, _mapHeight );
-    for ( Tuple neighbor : neighbors )
+    return countNeighbors( hex, _map.getLocation( hex ).getRegion(), false ) == 0;
+  }
+
+  /** @return how many of the hexes next to the hex on the map are, or aren't, in the region. */
+  private int countNeighbors( Tuple hex, Region region, boolean inRegion )
+  {
+    MapTopology topology = _map.getTopology();
+    int cell = topology.getCell( hex.x, hex.y );
+    int count = 0;
+    for ( int i = topology.getNeighborsStart( cell ); i < topology.getNeighborsEnd( cell ); i++ )
     {
-      if ( !_map.getLocation( neighbor ).getRegion().equals( hexLocation.getRegion() ) )
-      {
-        return false;
-      }
+      if ( _map.getLocationByCell( topology.getNeighbor( i ) ).getRegion().equals( region ) == inRegion ) { count++; }
     }
-    return true;
+    return count;
   }
 
   private List<Tuple> createAllCoordList()
@@ -0,0 +1,109 @@
+package kessel.hex.map;
+
+import kessel.hex.util.HexCalculator;
+
+/**
+ * Which hexes of a map are next to which, worked out once for the map's size. Each hex is a cell, numbered as the map's locations are
+ * laid out, x * height + y, and the neighbors of all the cells are held in one flat array, so the neighbors of a cell are walked as:
+ * <pre>
+ *   for ( int i = topology.getNeighborsStart( cell ); i < topology.getNeighborsEnd( cell ); i++ )
+ *   {
+ *     int neighbor = topology.getNeighbor( i );
+ *   }
+ * </pre>
+ * A bounded map has no neighbors past its edges. A map that wraps around joins its east and west edges, which needs an even width so the
+ * columns still alternate across the join.
+ */
+public final class MapTopology
+{
+  private final int _width, _height;
+  private final boolean _wrapsAround;
+
+  // The neighbors of cell c are _neighbors[_neighborsStart[c]] to _neighbors[_neighborsStart[c + 1] - 1], in the order of direction.
+  private final int[] _neighborsStart;
+  private final int[] _neighbors;
+
+  private MapTopology( int width, int height, boolean wrapsAround )
+  {
+    _width = width;
+    _height = height;
+    _wrapsAround = wrapsAround;
+    _neighborsStart = new int[width * height + 1];
+    int[] neighbors = new int[width * height * 6];
+    int size = 0;
+    for ( int cell = 0; cell < width * height; cell++ )
+    {
+      _neighborsStart[cell] = size;
+      int x = getX( cell );
+      int y = getY( cell );
+      for ( int direction = 0; direction < 6; direction++ )
+      {
+        int neighbor = getCell( HexCalculator.getGridXNeighbor( x, y, direction ), HexCalculator.getGridYNeighbor( x, y, direction ) );
+        if ( (neighbor >= 0) && (neighbor != cell) && !contains( neighbors, _neighborsStart[cell], size, neighbor ) )
+        {
+          neighbors[size++] = neighbor;
+        }
+      }
+    }
+    _neighborsStart[width * height] = size;
+    _neighbors = new int[size];
+    System.arraycopy( neighbors, 0, _neighbors, 0, size );
+  }
+
+  public static MapTopology createBounded( int width, int height )
+  {
+    return new MapTopology( width, height, false );
+  }
+
+  public static MapTopology createWrapped( int width, int height )
+  {
+    if ( (width % 2) != 0 )
+    {
+      throw new IllegalArgumentException( "A map that wraps around needs an even width, not " + width );
+    }
+    return new MapTopology( width, height, true );
+  }
+
+  private static boolean contains( int[] cells, int start, int end, int cell )
+  {
+    for ( int i = start; i < end; i++ )
+    {
+      if ( cells[i] == cell ) { return true; }
+    }
+    return false;
+  }
+
+  public int getWidth() { return _width; }
+
+  public int getHeight() { return _height; }
+
+  public boolean wrapsAround() { return _wrapsAround; }
+
+  public int getCellCount() { return _width * _height; }
+
+  /** @return the cell of the hex, or -1 if it's off the map. */
+  public int getCell( int x, int y )
+  {
+    if ( _wrapsAround )
+    {
+      x = ((x % _width) + _width) % _width;
+    }
+    if ( (x < 0) || (x >= _width) || (y < 0) || (y >= _height) ) { return -1; }
+    return x * _height + y;
+  }
+
+  public int getX( int cell ) { return cell / _height; }
+
+  public int getY( int cell ) { return cell % _height; }
+
+  public int getNeighborsStart( int cell ) { return _neighborsStart[cell]; }
+
+  public int getNeighborsEnd( int cell ) { return _neighborsStart[cell + 1]; }
+
+  public int getNeighbor( int index ) { return _neighbors[index]; }
+
+  public boolean isAdjacent( int cell, int otherCell )
+  {
+    return contains( _neighbors, _neighborsStart[cell], _neighborsStart[cell + 1], otherCell );
+  }
+}
@@ -1,21 +1,23 @@
 package kessel.hex.map;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import kessel.hex.domain.Game;
 import kessel.hex.domain.Player;
 import kessel.hex.domain.PopCenter;
 import kessel.hex.util.Tuple;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static kessel.hex.map.ControlLevel.*;
 
@@ -30,18 +32,86 @@ public class Region
   private List<PopCenter> _popCenters = new ArrayList<>();
   List<Integer> _jsonPopIds = new ArrayList<>();
 
+  // Who holds what of the region, worked out when first needed and again once its pops change.
+  private transient RegionalControl _control;
+
+  // Counts the changes to the level or owner of the region's pops, so the region knows whether the control it last worked out is current.
+  private final transient AtomicInteger _popCenterChanges = new AtomicInteger();
+
+  // The map holding the region, told when it's renamed, and the region's place in the map's list of regions.
+  private transient GameMap _map;
+  private transient int _ordinal = -1;
+
+  // The map's cells that may be in the region, so most checks of whether a location is in it don't search its locations. Built when first
+  // needed once it's on a map. A cell is set for every location in the region, but may stay set after its location is cleared away.
+  private transient BitSet _cells;
+
   public Region( String name )
   {
     _name = name;
   }
 
   public String getName() { return _name; }
-  public void setName( String name ) { _name = name; }
+  public void setName( String name )
+  {
+    _name = name;
+    if ( _map != null ) { _map.regionRenamed(); }
+  }
+
+  void setMap( GameMap map, int ordinal )
+  {
+    _map = map;
+    _ordinal = ordinal;
+    _cells = null;
+  }
+
+  /**
+   * @return the region's place in its map's list of regions, or -1 if it's not on a map. A player's view lists the regions as the game
+   *         does, so what's held for each region can be kept in an array rather than hashed by name.
+   */
+  public int getOrdinal() { return _ordinal; }
 
   public List<Location> getLocations() { return _locations; }
 
-  public void addLocation( Location location ) { _locations.remove( location ); _locations.add( location ); }
-  public void removeLocation( Location viewLocation ) { _locations.remove( viewLocation ); }
+  public void addLocation( Location location )
+  {
+    // Moves a location already in the region to the end.
+    if ( mayContain( location ) ) { _locations.remove( location ); }
+    _locations.add( location );
+    int cell = getCell( location );
+    if ( cell >= 0 ) { getCells().set( cell ); }
+  }
+
+  public void removeLocation( Location viewLocation )
+  {
+    if ( mayContain( viewLocation ) ) { _locations.remove( viewLocation ); }
+  }
+
+  private boolean mayContain( Location location )
+  {
+    int cell = getCell( location );
+    return (cell < 0) || getCells().get( cell );
+  }
+
+  /** @return the location's cell of the map, or -1 if the region isn't on a map or the location's off it. */
+  private int getCell( Location location )
+  {
+    return (_map == null) ? -1 : _map.getTopology().getCell( location.getCoord().x, location.getCoord().y );
+  }
+
+  private BitSet getCells()
+  {
+    if ( _cells == null )
+    {
+      _cells = new BitSet( _map.getTopology().getCellCount() );
+      for ( Location location : _locations )
+      {
+        int cell = getCell( location );
+        if ( cell >= 0 ) { _cells.set( cell ); }
+      }
+    }
+    return _cells;
+  }
 
   public List<PopCenter> getPopCenters() { return _popCenters; }
 
@@ -49,18 +119,32 @@ public class Region
   {
     _popCenters.remove( popCenter ); // clear out any old reference to the pop.
     _popCenters.add( popCenter );    // use the new reference.
+    popCenter.addRegion( this );
+    popCentersChanged();
   }
 
-  public int getTotalPopLevels()
+  /**
+   * Tell the region that the level or owner of a pop it was given has changed.
+   *
+   * @return false if the region no longer holds the pop, e.g. its pops have been cleared away, so it needn't be told again.
+   */
+  public boolean popCenterChanged( PopCenter popCenter )
   {
-    int total = 0;
-    for ( PopCenter popCenter : _popCenters )
+    for ( PopCenter held : _popCenters )
     {
-      total += popCenter.getLevel();
+      if ( held == popCenter )
+      {
+        popCentersChanged();
+        return true;
+      }
     }
-    return total;
+    return false;
   }
 
+  private void popCentersChanged() { _popCenterChanges.incrementAndGet(); }
+
+  public int getTotalPopLevels() { return getControl()._totalLevels; }
+
   /**
    * @param player   the player gaining the knowledge.
    * @param popTypes the pop types to be discovered
@@ -98,20 +182,9 @@ public class Region
 
   public ControlLevel getControlLevel( Player player )
   {
-    int playerLevel = 0;
-    boolean ownsCity = false;
-    for ( PopCenter popCenter : _popCenters )
-    {
-      if ( popCenter.getOwner().equals( player ) )
-      {
-        playerLevel += popCenter.getLevel();
-        if ( popCenter.getType() == PopCenter.PopType.City )
-        {
-          ownsCity = true;
-        }
-      }
-    }
-    int playerPercentage = (playerLevel * 100) / getTotalPopLevels();
+    RegionalControl control = getControl();
+    Integer playerLevel = control._levelsByOwner.get( player.getName() );
+    int playerPercentage = (((playerLevel == null) ? 0 : playerLevel) * 100) / control._totalLevels;
     if ( playerPercentage < Presence.getPercentRequired() )
     {
       return None;
@@ -126,51 +199,129 @@ public class Region
     }
     else
     {
-      return ownsCity ? Domination : Control;
+      return control._cityOwners.contains( player.getName() ) ? Domination : Control;
+    }
+  }
+
+  /** @return the name of the owner, Unowned included, with at least Control of the region, or null if none has. Only one owner can. */
+  public String getControllerName()
+  {
+    RegionalControl control = getControl();
+    for ( Map.Entry<String, Integer> ownerLevel : control._levelsByOwner.entrySet() )
+    {
+      if ( (ownerLevel.getValue() * 100) / control._totalLevels >= Control.getPercentRequired() )
+      {
+        return ownerLevel.getKey();
+      }
     }
+    return null;
   }
 
-  public static class MyJsonAdapter implements JsonSerializer<Region>, JsonDeserializer<Region>
+  private RegionalControl getControl()
+  {
+    RegionalControl control = _control;
+    int popCenterChanges = _popCenterChanges.get();
+    if ( (control == null) || !control.isCurrent( _popCenters, popCenterChanges ) )
+    {
+      control = new RegionalControl( _popCenters, popCenterChanges );
+      _control = control;
+    }
+    return control;
+  }
+
+  /** The pop levels each owner holds in a region and who owns its cities, as they were after some number of changes to the pops. */
+  private static final class RegionalControl
+  {
+    private final List<PopCenter> _popCenters;
+    private final int _popCenterCount;
+    private final int _popCenterChanges;
+    private final int _totalLevels;
+    private final Map<String, Integer> _levelsByOwner = new HashMap<>();
+    private final Set<String> _cityOwners = new HashSet<>();
+
+    RegionalControl( List<PopCenter> popCenters, int popCenterChanges )
+    {
+      _popCenters = popCenters;
+      _popCenterCount = popCenters.size();
+      _popCenterChanges = popCenterChanges;
+      int totalLevels = 0;
+      for ( PopCenter popCenter : popCenters )
+      {
+        totalLevels += popCenter.getLevel();
+        String ownerName = popCenter.getOwner().getName();
+        Integer ownerLevel = _levelsByOwner.get( ownerName );
+        _levelsByOwner.put( ownerName, ((ownerLevel == null) ? 0 : ownerLevel) + popCenter.getLevel() );
+        if ( popCenter.getType() == PopCenter.PopType.City ) { _cityOwners.add( ownerName ); }
+      }
+      _totalLevels = totalLevels;
+    }
+
+    /** @return true if no pop has changed since, and the region's list of pops is the same, e.g. it's not been loaded again. */
+    boolean isCurrent( List<PopCenter> popCenters, int popCenterChanges )
+    {
+      return (popCenterChanges == _popCenterChanges) && (popCenters == _popCenters) && (popCenters.size() == _popCenterCount);
+    }
+  }
+
+  public static class MyJsonAdapter extends TypeAdapter<Region>
   {
     private static final String NAME = "name";
     private static final String LOCS = "locationReferences";
     private static final String POPS = "popReferences";
 
-    public JsonElement serialize( Region region, Type type, JsonSerializationContext context )
+    private static final TypeToken<List<Tuple>> TUPLE_LIST = new TypeToken<List<Tuple>>() {};
+    private static final TypeToken<List<Integer>> INTEGER_LIST = new TypeToken<List<Integer>>() {};
+
+    public void write( JsonWriter out, Region region ) throws IOException
     {
-      JsonObject jsonResponse = new JsonObject();
-      jsonResponse.add( NAME, context.serialize( region._name ) );
-      jsonResponse.add( LOCS, context.serialize( getLocationReferences( region ) ) );
-      jsonResponse.add( POPS, context.serialize( getPopReferences( region ) ) );
-      return jsonResponse;
+      out.beginObject();
+      out.name( NAME ).value( region._name );
+      writeLocationReferences( out, region );
+      writePopReferences( out, region );
+      out.endObject();
     }
 
-    private List<Tuple> getLocationReferences( Region region )
+    private void writeLocationReferences( JsonWriter out, Region region ) throws IOException
     {
-      List<Tuple> locationReferences = new ArrayList<>();
+      TypeAdapter<Tuple> tupleAdapter = Game.GSON.getAdapter( Tuple.class );
+      out.name( LOCS ).beginArray();
       for ( Location location : region._locations )
       {
-        locationReferences.add( location.getCoord() );
+        tupleAdapter.write( out, location.getCoord() );
       }
-      return locationReferences;
+      out.endArray();
     }
 
-    private List<Integer> getPopReferences( Region region )
+    private void writePopReferences( JsonWriter out, Region region ) throws IOException
     {
-      List<Integer> popReferences = new ArrayList<>();
+      out.name( POPS ).beginArray();
       for ( PopCenter popCenter : region.getPopCenters() )
       {
-        popReferences.add( popCenter.getId() );
+        out.value( popCenter.getId() );
       }
-      return popReferences;
+      out.endArray();
     }
 
-    public Region deserialize( JsonElement jsonOrder, Type type, JsonDeserializationContext context )
-      throws JsonParseException
+    public Region read( JsonReader in ) throws IOException
     {
-      Region region = new Region( context.<String>deserialize( jsonOrder.getAsJsonObject().get( NAME ), String.class ) );
-      region._jsonLocTuples = context.deserialize( jsonOrder.getAsJsonObject().get( LOCS ), new TypeToken<List<Tuple>>(){}.getType() );
-      region._jsonPopIds = context.deserialize( jsonOrder.getAsJsonObject().get( POPS ), new TypeToken<List<Integer>>(){}.getType() );
+      String name = null;
+      List<Tuple> locTuples = null;
+      List<Integer> popIds = null;
+      in.beginObject();
+      while ( in.hasNext() )
+      {
+        switch ( in.nextName() )
+        {
+          case NAME: name = in.nextString(); break;
+          case LOCS: locTuples = Game.GSON.getAdapter( TUPLE_LIST ).read( in ); break;
+          case POPS: popIds = Game.GSON.getAdapter( INTEGER_LIST ).read( in ); break;
+          default: in.skipValue();
+        }
+      }
+      in.endObject();
+      Region region = new Region( name );
+      region._jsonLocTuples = locTuples;
+      region._jsonPopIds = popIds;
       return region;
     }
   }
@@ -184,6 +335,7 @@ public class Region
   private void fixLocationsDeserializationReferences( Game game )
   {
     _locations = new ArrayList<>();
+    _cells = null;
     for ( Tuple tuple : _jsonLocTuples )
     {
       Location location = game.getMap().getLocation( tuple );
@@ -197,7 +349,10 @@ public class Region
     _popCenters = new ArrayList<>();
     for ( Integer popId : _jsonPopIds )
     {
-      _popCenters.add( game.getPopCenter( popId ) );
+      PopCenter popCenter = game.getPopCenter( popId );
+      popCenter.addRegion( this );
+      _popCenters.add( popCenter );
     }
+    popCentersChanged();
   }
 }
@@ -12,6 +12,7 @@ import kessel.hex.domain.PopCenter;
 import kessel.hex.map.Location;
 import kessel.hex.util.HexCalculator;
 
+import java.util.Collection;
 import java.util.Map;
 
 /** Move a figure's (agent, Diplomat, etc) base of operations. */
@@ -140,6 +141,18 @@ public abstract class AbstractMoveFigure<T extends Figure> extends Order<T>
 
   public GameItem getNewBase() { return _newBase; }
 
+  /** A move changes the figures at the figure's old base and new base, as well as the figure and its owner's treasury. */
+  public Collection<Object> getFootprint()
+  {
+    Collection<Object> footprint = getSubjectFootprint();
+    if ( footprint != null )
+    {
+      footprint.add( _subject.getBase() );
+      footprint.add( _newBase );
+    }
+    return footprint;
+  }
+
   protected Map<String, Object> getSerializationItems()
   {
     Map<String, Object> map = super.getSerializationItems();
@@ -5,6 +5,8 @@ import kessel.hex.domain.Game;
 import kessel.hex.domain.Player;
 import kessel.hex.domain.PopCenter;
 
+import java.util.Collection;
+
 /** Train a figure's (improve it's level). */
 public abstract class AbstractTrainFigure<T extends Figure> extends Order<T>
 {
@@ -64,6 +66,12 @@ public abstract class AbstractTrainFigure<T extends Figure> extends Order<T>
     return false;
   }
 
+  /** Training changes just the figure and its owner's treasury. */
+  public Collection<Object> getFootprint()
+  {
+    return getSubjectFootprint();
+  }
+
   public String getShortDescription()
   {
     return _subject.getName() + " train";
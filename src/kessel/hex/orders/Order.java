@@ -1,12 +1,11 @@
 package kessel.hex.orders;
 
 import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import kessel.hex.domain.Figure;
 import kessel.hex.domain.Game;
 import kessel.hex.domain.GameEvent;
@@ -22,8 +21,11 @@ import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.log4j.Logger;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -64,6 +66,20 @@ public abstract class Order<T extends GameItem>
 
   /** Execute the order on the given game. Few, if any, subclasses would override this. */
   public void execute( Game game )
+  {
+    if ( executeApart( game ) )
+    {
+      game.getCurrentTurn().addOrderExecuted( this );
+    }
+  }
+
+  /**
+   * Execute the order, but leave it to the caller to add it to the turn's executed orders, e.g. once the orders being executed at the
+   * same time are all done, so they're added in sequence.
+   *
+   * @return true if the order was executed.
+   */
+  public boolean executeApart( Game game )
   {
     if ( canExecute( game ) )
     {
@@ -72,9 +88,31 @@ public abstract class Order<T extends GameItem>
       updateViews( game );
       handleOrderCost();
       trackOrderExecuted();
-      game.getCurrentTurn().addOrderExecuted( this );
     }
     publishEvents();
+    return _wasExecuted;
+  }
+
+  /**
+   * Orders of the same type that share nothing in their footprints may be executed at the same time. An order can only give one if it
+   * draws no random numbers, as they have to be drawn in sequence, and doesn't look at the executed orders of its own type.
+   *
+   * @return the game items and players the order reads or changes, including any player it tells of events; or null if it may affect
+   *         anything, so it must be executed in sequence with the others of its type. By default orders are executed in sequence.
+   */
+  public Collection<Object> getFootprint()
+  {
+    return null;
+  }
+
+  /** @return a footprint of the subject and its owner, for an order to add to, or null if the subject is missing. */
+  protected Collection<Object> getSubjectFootprint()
+  {
+    if ( _subjectMissing ) { return null; }
+    Collection<Object> footprint = new ArrayList<>();
+    footprint.add( _subject );
+    footprint.add( _subject.getOwner() );
+    return footprint;
   }
 
   /** Tracks who executed the order. Usually it's the subject, but there are exceptions to the rule. */
@@ -126,15 +164,7 @@ public abstract class Order<T extends GameItem>
    */
   protected boolean isCharmed( Game game, Figure target )
   {
-    List<CharmFigure> charmOrders = game.getCurrentTurn().getOrdersOfType( CharmFigure.class );
-    for ( CharmFigure charmOrder : charmOrders )
-    {
-      if ( charmOrder.getTarget().equals( target ) )
-      {
-        return true;
-      }
-    }
-    return false;
+    return !game.getCurrentTurn().getOrders( CharmFigure.BY_TARGET, target ).isEmpty();
   }
 
   /**
@@ -143,15 +173,7 @@ public abstract class Order<T extends GameItem>
    */
   protected boolean isFigureProtected( Game game, Figure target )
   {
-    List<ShieldFigure> shieldOrders = game.getCurrentTurn().getOrdersOfType( ShieldFigure.class );
-    for ( ShieldFigure shieldOrder : shieldOrders )
-    {
-      if ( shieldOrder.getTarget().equals( target ) )
-      {
-        return true;
-      }
-    }
-    return false;
+    return !game.getCurrentTurn().getOrders( ShieldFigure.BY_TARGET, target ).isEmpty();
   }
 
   /**
@@ -264,7 +286,11 @@ public abstract class Order<T extends GameItem>
     return map;
   }
 
-  public static class MyJsonAdapter<X extends Order> implements JsonSerializer<X>, JsonDeserializer<X>
+  /**
+   * Orders stream their serialization items straight to the json writer. Orders are small, so each one is read back as its own little
+   * json tree and handed to the order type's doDeserialize().
+   */
+  public static class MyJsonAdapter<X extends Order> extends TypeAdapter<X>
   {
     // Used for json persistence.
     public static final String ORDER_TYPE = "type";
@@ -272,27 +298,47 @@ public abstract class Order<T extends GameItem>
     public static final String SUBJECT_NAME = "subjectName";
     public static final String SUBJECT_OWNER = "ownerName";
 
-    public JsonElement serialize( X order, Type type, JsonSerializationContext context )
+    /** Lets doDeserialize() implementations resolve their nested values via the game's Gson. */
+    private static final JsonDeserializationContext CONTEXT = new JsonDeserializationContext()
+    {
+      public <T> T deserialize( JsonElement json, Type typeOfT ) throws JsonParseException
+      {
+        return Game.GSON.fromJson( json, typeOfT );
+      }
+    };
+
+    @SuppressWarnings({ "unchecked" })
+    public void write( JsonWriter out, X order ) throws IOException
     {
-      JsonObject jsonResponse = new JsonObject();
+      out.beginObject();
       Map<String, Object> fieldsToSerialize = order.getSerializationItems();
       for ( Map.Entry<String, Object> entry : fieldsToSerialize.entrySet() )
       {
-        jsonResponse.add( entry.getKey(), context.serialize( entry.getValue() ) );
+        Object value = entry.getValue();
+        out.name( entry.getKey() );
+        if ( value == null )
+        {
+          out.nullValue();
+        }
+        else
+        {
+          ((TypeAdapter<Object>) Game.GSON.getAdapter( value.getClass() )).write( out, value );
+        }
       }
-      return jsonResponse;
+      out.endObject();
     }
 
-    public X deserialize( JsonElement jsonOrder, Type type, JsonDeserializationContext context )
-      throws JsonParseException
+    @SuppressWarnings({ "unchecked" })
+    public X read( JsonReader in ) throws IOException
     {
       // Figure out the order type and defer to it's specific deserializer.
+      JsonElement jsonOrder = Game.GSON.getAdapter( JsonElement.class ).read( in );
       String className = jsonOrder.getAsJsonObject().get( ORDER_TYPE ).getAsString();
       try
       {
         Class<?> orderClass = Class.forName( className );
         X order = (X) orderClass.newInstance();
-        order.doDeserialize( jsonOrder, context );
+        order.doDeserialize( jsonOrder, CONTEXT );
         return order;
 
       }
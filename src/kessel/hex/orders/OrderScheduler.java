@@ -0,0 +1,107 @@
+package kessel.hex.orders;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Schedules a turn's orders in the sequence given by orderSequence.json, which lists the phases of a turn (e.g. combat), each with its
+ * order types in the sequence they execute. Each order type is ranked once, by its place in the sequence, and the orders are dealt into a
+ * bucket per rank, each then shuffled so it's random which of the orders of a type goes first.
+ */
+public final class OrderScheduler
+{
+  private static final String SEQUENCE_FILE = "orderSequence.json";
+
+  // The order type and the phase of each rank, and the rank of each order type.
+  private static final List<String> _orderTypes = new ArrayList<>();
+  private static final List<String> _phases = new ArrayList<>();
+  private static final Map<String, Integer> _ranks = new HashMap<>();
+
+  static
+  {
+    try (InputStream inStream = OrderScheduler.class.getResourceAsStream( SEQUENCE_FILE ))
+    {
+      String json = StringUtils.join( IOUtils.readLines( inStream ).toArray() );
+      Map<String, List<String>> sequence = new Gson().fromJson( json, new TypeToken<Map<String, List<String>>>(){}.getType() );
+      for ( Map.Entry<String, List<String>> phase : sequence.entrySet() )
+      {
+        for ( String orderType : phase.getValue() )
+        {
+          if ( _ranks.put( orderType, _orderTypes.size() ) != null )
+          {
+            throw new IllegalStateException( orderType + " is in more than one place in " + SEQUENCE_FILE );
+          }
+          _orderTypes.add( orderType );
+          _phases.add( phase.getKey() );
+        }
+      }
+    }
+    catch ( IOException e )
+    {
+      throw new RuntimeException( "Failed to load order sequencing file: " + SEQUENCE_FILE, e );
+    }
+  }
+
+  private static final ClassValue<Integer> RANKS = new ClassValue<Integer>()
+  {
+    protected Integer computeValue( Class<?> type )
+    {
+      Integer rank = _ranks.get( type.getSimpleName() );
+      if ( rank == null )
+      {
+        throw new IllegalStateException( "The order type " + type.getName() + " has no place in " + SEQUENCE_FILE );
+      }
+      return rank;
+    }
+  };
+
+  private OrderScheduler() {}
+
+  /** @return where orders of the type execute in a turn, from 0, the first. */
+  public static int getRank( Class<? extends Order<?>> type )
+  {
+    return RANKS.get( type );
+  }
+
+  public static int getRankCount() { return _orderTypes.size(); }
+
+  /** @return the simple name of the order type with the rank. */
+  public static String getOrderType( int rank ) { return _orderTypes.get( rank ); }
+
+  /** @return the name of the phase the rank is in. */
+  public static String getPhase( int rank ) { return _phases.get( rank ); }
+
+  /**
+   * Deal the orders into the sequence they execute in.
+   *
+   * @return a bucket of orders for each rank, in rank order, each in random order.
+   */
+  public static <T extends Order<?>> List<List<T>> schedule( List<T> orders, Random random )
+  {
+    List<List<T>> buckets = new ArrayList<>( getRankCount() );
+    for ( int rank = 0; rank < getRankCount(); rank++ )
+    {
+      buckets.add( new ArrayList<T>() );
+    }
+    for ( T order : orders )
+    {
+      buckets.get( RANKS.get( order.getClass() ) ).add( order );
+    }
+    for ( List<T> bucket : buckets )
+    {
+      Collections.shuffle( bucket, random );
+    }
+    return buckets;
+  }
+}
@@ -7,8 +7,9 @@ import kessel.hex.map.Region;
 import kessel.hex.orders.Mechanics;
 import kessel.hex.orders.Order;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Random;
 
 /** Common behavior for all agent missions. */
 @SuppressWarnings({ "ClassReferencesSubclass" })
@@ -18,7 +19,6 @@ public abstract class AbstractAgentMission extends Order<Agent>
   protected static final int MINIMUM_KILLED_RISK_LEVEL = 5;
   protected static final int RISK_PER_DIFFICULTY = 2;
 
-  protected final transient Random _r = new Random();
   protected transient boolean _wasSuccessful = false;
   protected transient boolean _wasKilled = false;
   protected transient int _agentHits;
@@ -70,7 +70,7 @@ public abstract class AbstractAgentMission extends Order<Agent>
     {
       handleAgentPromotion();
     }
-    _wasSeen = _r.nextInt( 100 ) < PERCENT_SEEN;
+    _wasSeen = game.getRandom().nextInt( 100 ) < PERCENT_SEEN;
     publishAgentEvent( game );
     publishVictimEvent( game );
   }
@@ -111,7 +111,7 @@ public abstract class AbstractAgentMission extends Order<Agent>
   public boolean makeAttempt( Game game )
   {
     int difficultyLevel = determineResistance( game );
-    _agentHits = Mechanics.standardLevelRoll( _subject.getLevel() );
+    _agentHits = Mechanics.standardLevelRoll( game.getRandom(), _subject.getLevel() );
     return _agentHits >= difficultyLevel;
   }
 
@@ -128,25 +128,33 @@ public abstract class AbstractAgentMission extends Order<Agent>
     int difficultyLevel = determineResistance( game );
     int successDifference = _agentHits - difficultyLevel;
     int missionRisk = Math.max( MINIMUM_KILLED_RISK_LEVEL, (difficultyLevel - successDifference) * RISK_PER_DIFFICULTY );
-    return _r.nextInt( 100 ) < missionRisk;
+    return game.getRandom().nextInt( 100 ) < missionRisk;
   }
 
   /** @return the amount of counter espionage. Only the best counter espionage applies (i.e. they aren't cumulative). */
   protected int determineCounterEspionage( Game game, Player targetPlayer )
   {
     int counterLevel = 0;
-    Region missionRegion = getMissionRegion();
-    List<CounterEspionage> counterEspionageOrders = game.getCurrentTurn().getOrdersOfType( CounterEspionage.class );
-    for ( CounterEspionage order : counterEspionageOrders )
+    for ( CounterEspionage order : getCounterEspionageOrders( game, targetPlayer ) )
     {
-      boolean affectsMyRegion = order.getSubject().getLocation().getRegion().equals( missionRegion );
-      boolean wasIssuedByTarget = order.getSubject().getOwner().equals( targetPlayer );
-      if ( affectsMyRegion && wasIssuedByTarget )
+      counterLevel = Math.max( counterLevel, order.getSubject().getLevel() );
+    }
+    return counterLevel;
+  }
+
+  /** @return the counter espionage by the target player in the mission's region. */
+  private List<CounterEspionage> getCounterEspionageOrders( Game game, Player targetPlayer )
+  {
+    if ( targetPlayer == null ) { return Collections.emptyList(); }
+    List<CounterEspionage> counterEspionageOrders = new ArrayList<>();
+    for ( CounterEspionage order : game.getCurrentTurn().getOrders( CounterEspionage.BY_OWNER, targetPlayer.getName() ) )
+    {
+      if ( order.getSubject().getLocation().getRegion().equals( getMissionRegion() ) )
       {
-        counterLevel = Math.max( counterLevel, order.getSubject().getLevel() );
+        counterEspionageOrders.add( order );
       }
     }
-    return counterLevel;
+    return counterEspionageOrders;
   }
 
   /** Should be overridden by any mission where the region is not that of the agent. */
@@ -158,36 +166,29 @@ public abstract class AbstractAgentMission extends Order<Agent>
   /** This is the default implementation for any dangerous mission. Missions with non-standard dangers should override it. */
   protected void handleFateOfCounterAgents( Game game, Player targetPlayer )
   {
-    List<CounterEspionage> counterEspionageOrders = game.getCurrentTurn().getOrdersOfType( CounterEspionage.class );
-    for ( CounterEspionage order : counterEspionageOrders )
+    for ( CounterEspionage order : getCounterEspionageOrders( game, targetPlayer ) )
     {
-      int actualMissionDifficulty = determineResistance( game );
-      boolean affectsMissionRegion = order.getSubject().getLocation().getRegion().equals( getMissionRegion() );
-      boolean wasIssuedByTarget = order.getSubject().getOwner().equals( targetPlayer );
-      if ( affectsMissionRegion && wasIssuedByTarget )
+      // If the mission succeeded, the attacking agent may kill any defending agents.
+      if ( _wasSuccessful )
       {
-        // If the mission succeeded, the attacking agent may kill any defending agents.
-        if ( _wasSuccessful )
+        int attacker = Mechanics.standardLevelRoll( game.getRandom(), _subject.getLevel() );
+        int defender = Mechanics.standardLevelRoll( game.getRandom(), order.getSubject().getLevel() );
+        if ( attacker >= 2 * defender )
         {
-          int attacker = Mechanics.standardLevelRoll( _subject.getLevel() );
-          int defender = Mechanics.standardLevelRoll( order.getSubject().getLevel() );
-          if ( attacker >= 2 * defender )
-          {
-            order.getSubject().getOwner().remove( order.getSubject() );
-            publishDeadCounterAgentEvent( game, order.getSubject() );
-
-            // This would normally be in updateViews(), but it'd be messy to wait til that point to handle it.
-            _subject.getOwner().removeKnownItem( order.getSubject() );
-          }
+          order.getSubject().getOwner().remove( order.getSubject() );
+          publishDeadCounterAgentEvent( game, order.getSubject() );
+
+          // This would normally be in updateViews(), but it'd be messy to wait til that point to handle it.
+          _subject.getOwner().removeKnownItem( order.getSubject() );
         }
-        else
+      }
+      else
+      {
+        // If the mission failed, the counter agent may be rewarded if they tipped the balance.
+        int difficultyWithoutEspionage = determineResistance( game ) - order.getSubject().getLevel();
+        if ( _agentHits >= difficultyWithoutEspionage )
         {
-          // If the mission failed, the counter agent may be rewarded if they tipped the balance.
-          int difficultyWithoutEspionage = actualMissionDifficulty - order.getSubject().getLevel();
-          if ( _agentHits >= difficultyWithoutEspionage )
-          {
-            order.getSubject().incrementLevel();
-          }
+          order.getSubject().incrementLevel();
         }
       }
     }
@@ -94,7 +94,7 @@ public abstract class AbstractAgentScoutRegion extends AbstractAgentMission
   protected boolean checkForAgentDeath( Game game )
   {
     // Once in a while a recon is fatal for junior agents.
-    return _subject.getLevel() < 3 && _r.nextInt( 20 ) == 0;
+    return _subject.getLevel() < 3 && game.getRandom().nextInt( 20 ) == 0;
   }
 
   protected void handleFateOfCounterAgents( Game game, Player targetPlayer )
@@ -103,7 +103,7 @@ public class AgentReconLocation extends AbstractAgentMission
   protected boolean checkForAgentDeath( Game game )
   {
     // Once in a while a recon is fatal for junior agents.
-    return _subject.getLevel() < 3 && _r.nextInt( 20 ) == 0;
+    return _subject.getLevel() < 3 && game.getRandom().nextInt( 20 ) == 0;
   }
 
   protected void handleFateOfCounterAgents( Game game, Player targetPlayer )
@@ -143,51 +143,50 @@ public class AgentReconLocation extends AbstractAgentMission
     // TODO - learn about any unusual stuff
 
     // Things owned by other players.
-    for ( Player player : game.getPlayers() )
+    for ( Army army : game.getArmies( target ) )
     {
-      if ( player.equals( executingPlayer ) ) continue;
-
-      // Seems like there should be a more elegant way to do this...
-      for ( Agent agent : player.getAgents() )
-      {
-        if ( agent.getLocation().getCoord().equals( target ) && !agent.getBase().isInvisible() )
-        {
-          Agent intelAgent = new Agent( agent );
-          executingPlayer.addKnownItem( intelAgent );
-        }
-      }
-      for ( Diplomat diplomat : player.getDiplomats() )
-      {
-        if ( diplomat.getLocation().getCoord().equals( target ) && !diplomat.getBase().isInvisible() )
-        {
-          Diplomat intelDiplomat = new Diplomat( diplomat );
-          executingPlayer.addKnownItem( intelDiplomat );
-        }
-      }
-      for ( Wizard wizard : player.getWizards() )
+      if ( !army.getOwner().equals( executingPlayer ) && !army.isInvisible() )
       {
-        if ( wizard.getLocation().getCoord().equals( target ) && !wizard.getBase().isInvisible() )
-        {
-          Wizard intelWizard = new Wizard( wizard );
-          executingPlayer.addKnownItem( intelWizard );
-        }
+        executingPlayer.addKnownItem( new Army( army ) );
       }
-      for ( Army army : player.getArmies() )
+    }
+    for ( Figure figure : game.getFigures( target ) )
+    {
+      if ( figure.getOwner().equals( executingPlayer ) ) continue;
+
+      // Kings are always seen, the others unless hidden by their base.
+      if ( figure instanceof King )
       {
-        if ( army.getLocation().getCoord().equals( target ) && !army.isInvisible() )
-        {
-          Army intelArmy = new Army( army );
-          executingPlayer.addKnownItem( intelArmy );
-        }
+        executingPlayer.addKnownItem( new King( (King) figure ) );
       }
-      if ( player.getKing().getLocation().getCoord().equals( target ) )
+      else if ( !figure.getBase().isInvisible() )
       {
-        King intelKing = new King( player.getKing() );
-        executingPlayer.addKnownItem( intelKing );
+        executingPlayer.addKnownItem( copyOf( figure ) );
       }
     }
   }
 
+  @SuppressWarnings({ "ChainOfInstanceofChecks" })
+  private static Figure copyOf( Figure figure )
+  {
+    if ( figure instanceof Agent )
+    {
+      return new Agent( (Agent) figure );
+    }
+    else if ( figure instanceof Diplomat )
+    {
+      return new Diplomat( (Diplomat) figure );
+    }
+    else if ( figure instanceof Wizard )
+    {
+      return new Wizard( (Wizard) figure );
+    }
+    else
+    {
+      throw new RuntimeException( "Invalid figure type to recon: " + figure.getClass() );
+    }
+  }
+
   public Tuple getTarget() { return _target; }
 
   protected Map<String, Object> getSerializationItems()
@@ -2,6 +2,7 @@ package kessel.hex.orders.agent;
 
 import kessel.hex.domain.Agent;
 import kessel.hex.domain.Game;
+import kessel.hex.domain.GameTurn;
 import kessel.hex.domain.Player;
 
 /**
@@ -10,6 +11,12 @@ import kessel.hex.domain.Player;
  */
 public class CounterEspionage extends AbstractAgentMission
 {
+  /** The counter espionage executed this turn, by the name of the agent's owner. */
+  static final GameTurn.OrderIndex<CounterEspionage> BY_OWNER = new GameTurn.OrderIndex<CounterEspionage>( CounterEspionage.class )
+  {
+    protected Object getKey( CounterEspionage order ) { return order.getSubject().getOwner().getName(); }
+  };
+
   public CounterEspionage() { super(); } // GSON only
 
   public CounterEspionage( Agent agent )
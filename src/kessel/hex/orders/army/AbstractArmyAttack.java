@@ -23,9 +23,9 @@ import kessel.hex.orders.wizard.PhantomTroops;
 import org.apache.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 
 /** Have one army attack another army or pop center. */
 public abstract class AbstractArmyAttack extends AbstractArmyOrder
@@ -40,7 +40,9 @@ public abstract class AbstractArmyAttack extends AbstractArmyOrder
   /** How often figures in the pop are captures when the pop is conquered. */
   static int CAPTURE_CHANCE = 50;
 
-  protected final transient Random _r = new Random();
+  // The kinds of figures that can be captured, in the order each player's are checked.
+  @SuppressWarnings("unchecked")
+  private static final List<Class<? extends Figure>> CAPTURED_FIGURE_TYPES = Arrays.asList( Agent.class, Diplomat.class, Wizard.class );
 
   // Use for json persistence.
   public static final String TARGET_ID_JSON = "targetId";
@@ -79,15 +81,11 @@ public abstract class AbstractArmyAttack extends AbstractArmyOrder
   private boolean handleSubjectCantAttack( Game game )
   {
     // If the subject cast Deep Fog, they're not allowed to attack.
-    List<DeepFog> orders = game.getCurrentTurn().getOrdersOfType( DeepFog.class );
-    for ( DeepFog deepFogOrder : orders )
+    if ( !game.getCurrentTurn().getOrders( DeepFog.BY_BASE, _subject ).isEmpty() )
     {
-      if ( deepFogOrder.getSubject().getBase().equals( _subject ) )
-      {
-        addPlayerEvent( game, _subject,
-          _subject.getName() + " had a wizard cast Deep Fog and is not allowed to initiate an attack." );
-        return true;
-      }
+      addPlayerEvent( game, _subject,
+        _subject.getName() + " had a wizard cast Deep Fog and is not allowed to initiate an attack." );
+      return true;
     }
     return false;
   }
@@ -135,24 +133,20 @@ public abstract class AbstractArmyAttack extends AbstractArmyOrder
   private boolean handleTargetProtected( Game game )
   {
     // If the target cast Deep Fog against the attacker then the defender is safe unless the attacker dispels it.
-    List<DeepFog> deepFogOrders = game.getCurrentTurn().getOrdersOfType( DeepFog.class );
-    for ( DeepFog deepFogOrder : deepFogOrders )
+    for ( DeepFog deepFogOrder : game.getCurrentTurn().getOrders( DeepFog.BY_TARGET, _subject ) )
     {
-      if ( deepFogOrder.getTarget().equals( _subject ) )
+      if ( !CombatSpell.dispelSucceeds( game, _subject, _target, deepFogOrder ) )
       {
-        if ( !CombatSpell.dispelSucceeds( game, _subject, _target, deepFogOrder ) )
-        {
-          // None of the dispels worked, so the fog stops the attack.
-          addPlayerEvent( game, _subject, _subject.getName() + " was unable engage the " + _target.getName() +
-                                          " due to a deep fog obscuring the battle field." );
-          return true;
-        }
-        else
-        {
-          addPlayerEvent( game, _subject, _subject.getName() + " dispelled the Deep Fog cast by the enemy!" );
-          Wizard deepFogCaster = deepFogOrder.getSubject();
-          addPlayerEvent( game, deepFogCaster, deepFogCaster.getName() + " had the Deep Fog dispelled by the enemy!" );
-        }
+        // None of the dispels worked, so the fog stops the attack.
+        addPlayerEvent( game, _subject, _subject.getName() + " was unable engage the " + _target.getName() +
+                                        " due to a deep fog obscuring the battle field." );
+        return true;
+      }
+      else
+      {
+        addPlayerEvent( game, _subject, _subject.getName() + " dispelled the Deep Fog cast by the enemy!" );
+        Wizard deepFogCaster = deepFogOrder.getSubject();
+        addPlayerEvent( game, deepFogCaster, deepFogCaster.getName() + " had the Deep Fog dispelled by the enemy!" );
       }
     }
     return false;
@@ -211,14 +205,11 @@ public abstract class AbstractArmyAttack extends AbstractArmyOrder
 
   private boolean handlePopProtected( Game game )
   {
-    for ( MagicDome magicDome : game.getCurrentTurn().getOrdersOfType( MagicDome.class ) )
+    if ( !game.getCurrentTurn().getOrders( MagicDome.BY_TARGET, _target ).isEmpty() )
     {
-      if ( magicDome.getTarget().equals( _target ) )
-      {
-        addPlayerEvent( game, _subject,
-          _subject.getName() + " was prevented from attacking by a magic dome around " + _target.getName() );
-        return true;
-      }
+      addPlayerEvent( game, _subject,
+        _subject.getName() + " was prevented from attacking by a magic dome around " + _target.getName() );
+      return true;
     }
     return false;
   }
@@ -266,9 +257,9 @@ public abstract class AbstractArmyAttack extends AbstractArmyOrder
       if ( _attackerWon )
       {
         changePopOwnership( game );
-        checkForPopDegradation();
+        checkForPopDegradation( game );
         checkForCapturedFigures( game, _subject.getOwner(), _target );
-        checkForCapitolTaken();
+        checkForCapitolTaken( game );
       }
       else
       {
@@ -300,11 +291,11 @@ public abstract class AbstractArmyAttack extends AbstractArmyOrder
   private int getInnateStrength( Game game, CombatCapableItem attacker, CombatCapableItem defender )
   {
     int innateStrength = 0;
-    for ( Wizard wizard : attacker.getOwner().getWizards() )
+    for ( Figure figure : game.getFigures( attacker ) )
     {
-      if ( wizard.getBase().equals( attacker ) )
+      if ( (figure instanceof Wizard) && figure.getOwner().equals( attacker.getOwner() ) )
       {
-        innateStrength += wizard.getTotalLevels() * WIZARD_INNATE_STRENGTH;
+        innateStrength += ((Wizard) figure).getTotalLevels() * WIZARD_INNATE_STRENGTH;
       }
     }
     return innateStrength;
@@ -313,24 +304,20 @@ public abstract class AbstractArmyAttack extends AbstractArmyOrder
   private int getFireballStrength( Game game, CombatCapableItem attacker, CombatCapableItem defender )
   {
     int fireballStrength = 0;
-    List<Fireball> orders = game.getCurrentTurn().getOrdersOfType( Fireball.class );
-    for ( Fireball fireballOrder : orders )
+    // The fireballs cast from the attacker's army at the defender.
+    Object attackerAndDefender = CombatSpell.getBaseAndTarget( attacker, defender );
+    for ( Fireball fireballOrder : game.getCurrentTurn().getOrders( Fireball.BY_BASE_AND_TARGET, attackerAndDefender ) )
     {
-      GameItem armyCastingFireball = fireballOrder.getSubject().getBase();
-      GameItem armyGettingToasted = fireballOrder.getTarget();
-      if ( armyCastingFireball.equals( attacker ) && armyGettingToasted.equals( defender ) )
+      // Found a relevant Fireball order, check if it's negated by a Dispel Combat Magic.
+      if ( CombatSpell.dispelSucceeds( game, defender, attacker, fireballOrder ) )
       {
-        // Found a relevant Fireball order, check if it's negated by a Dispel Combat Magic.
-        if ( CombatSpell.dispelSucceeds( game, defender, attacker, fireballOrder ) )
-        {
-          addPlayerEvent( game, defender, defender.getName() + "'s wizards dispelled the Fireball cast by the enemy!" );
-          GameItem fireballCaster = fireballOrder.getSubject();
-          addPlayerEvent( game, fireballCaster, fireballCaster.getName() + " had the Fireball dispelled by the enemy!" );
-        }
-        else
-        {
-          fireballStrength += fireballOrder.getValue();
-        }
+        addPlayerEvent( game, defender, defender.getName() + "'s wizards dispelled the Fireball cast by the enemy!" );
+        GameItem fireballCaster = fireballOrder.getSubject();
+        addPlayerEvent( game, fireballCaster, fireballCaster.getName() + " had the Fireball dispelled by the enemy!" );
+      }
+      else
+      {
+        fireballStrength += fireballOrder.getValue();
       }
     }
     return fireballStrength;
@@ -349,24 +336,20 @@ public abstract class AbstractArmyAttack extends AbstractArmyOrder
   private int getPhantomTroopImpact( Game game, CombatCapableItem attacker, CombatCapableItem defender )
   {
     int damageReduction = 0;
-    List<PhantomTroops> orders = game.getCurrentTurn().getOrdersOfType( PhantomTroops.class );
-    for ( PhantomTroops phantomTroopsOrder : orders )
+    // The phantom troops cast from the defender's army at the attacker.
+    Object defenderAndAttacker = CombatSpell.getBaseAndTarget( defender, attacker );
+    for ( PhantomTroops phantomTroopsOrder : game.getCurrentTurn().getOrders( PhantomTroops.BY_BASE_AND_TARGET, defenderAndAttacker ) )
     {
-      GameItem armyWithPhantoms = phantomTroopsOrder.getSubject().getBase();
-      GameItem armySeeingPhantoms = phantomTroopsOrder.getTarget();
-      if ( armyWithPhantoms.equals( defender ) && armySeeingPhantoms.equals( attacker ) )
+      // Found a relevant Phantom Troop order, check if it's negated by a Dispel Combat Magic.
+      if ( CombatSpell.dispelSucceeds( game, attacker, defender, phantomTroopsOrder ) )
       {
-        // Found a relevant Phantom Troop order, check if it's negated by a Dispel Combat Magic.
-        if ( CombatSpell.dispelSucceeds( game, attacker, defender, phantomTroopsOrder ) )
-        {
-          addPlayerEvent( game, attacker, attacker.getName() + "'s wizards dispelled the Phantom Troops cast by the enemy!" );
-          GameItem phantomsCaster = phantomTroopsOrder.getSubject();
-          addPlayerEvent( game, phantomsCaster, phantomsCaster.getName() + " had the Phantom Troops dispelled by the enemy!" );
-        }
-        else
-        {
-          damageReduction += phantomTroopsOrder.getValue();
-        }
+        addPlayerEvent( game, attacker, attacker.getName() + "'s wizards dispelled the Phantom Troops cast by the enemy!" );
+        GameItem phantomsCaster = phantomTroopsOrder.getSubject();
+        addPlayerEvent( game, phantomsCaster, phantomsCaster.getName() + " had the Phantom Troops dispelled by the enemy!" );
+      }
+      else
+      {
+        damageReduction += phantomTroopsOrder.getValue();
       }
     }
     return damageReduction;
@@ -395,20 +378,20 @@ public abstract class AbstractArmyAttack extends AbstractArmyOrder
   }
 
   /** PopCenters can have their level degrade as a result of combat damage. */
-  protected void checkForPopDegradation()
+  protected void checkForPopDegradation( Game game )
   {
     PopCenter pop = (PopCenter) _target;
-    if ( _r.nextInt( 100 ) < DEGRADE_CHANCE )
+    if ( game.getRandom().nextInt( 100 ) < DEGRADE_CHANCE )
     {
       pop.degradeLevel();
     }
   }
 
-  private void checkForCapitolTaken()
+  private void checkForCapitolTaken( Game game )
   {
     if ( !_targetOwner.equals( Player.UNOWNED ) && _targetOwner.getCapitol().equals( _target ) )
     {
-      _targetOwner.forcedCapitolRelocation();
+      _targetOwner.forcedCapitolRelocation( game.getRandom() );
     }
   }
 
@@ -433,66 +416,32 @@ public abstract class AbstractArmyAttack extends AbstractArmyOrder
   /** Check for catching non-friendly figures in the target. */
   private void checkForCapturedFigures( Game game, Player winningPlayer, GameItem conqueredItem )
   {
+    // Only the figures based in the target are checked: each player's agents, then diplomats, then wizards, as capture is rolled.
+    List<Figure> basedInTarget = game.getFigures( conqueredItem );
     for ( Player player : game.getPlayers() )
     {
       if ( player.equals( winningPlayer ) ) continue; // Don't capture your own guys. Future - allies are safe?
 
-      for ( Agent agent : new ArrayList<>( player.getAgents() ) )
+      for ( Class<? extends Figure> figureType : CAPTURED_FIGURE_TYPES )
       {
-        boolean isBasedInTarget = agent.getBase().equals( conqueredItem );
-        if ( isBasedInTarget )
+        for ( Figure figure : basedInTarget )
         {
-          boolean hasNoCapitol = agent.getOwner().getCapitol().equals( PopCenter.THE_WILDS );
-          if ( (_r.nextInt( 100 ) < CAPTURE_CHANCE) || hasNoCapitol )
-          {
-            agent.getOwner().remove( agent );
-            winningPlayer.removeKnownItem( agent );
-            publishCaptureEvent( game, agent );
-          }
-          else
-          {
-            agent.forceMove( agent.getOwner().getCapitol() );
-            publishEscapeEvent( game, agent );
-          }
-        }
-      }
-      for ( Diplomat diplomat : new ArrayList<>( player.getDiplomats() ) )
-      {
-        boolean isBasedInTarget = diplomat.getBase().equals( conqueredItem );
-        if ( isBasedInTarget )
-        {
-          boolean hasNoCapitol = diplomat.getOwner().getCapitol().equals( PopCenter.THE_WILDS );
-          if ( (_r.nextInt( 100 ) < CAPTURE_CHANCE) || hasNoCapitol )
-          {
-            diplomat.getOwner().remove( diplomat );
-            winningPlayer.removeKnownItem( diplomat );
-            publishCaptureEvent( game, diplomat );
-          }
-          else
-          {
-            diplomat.forceMove( diplomat.getOwner().getCapitol() );
-            publishEscapeEvent( game, diplomat );
-          }
-        }
-      }
-      for ( Wizard wizard : new ArrayList<>( player.getWizards() ) )
-      {
-        // Wizards are always safe in towns, but not armies.
-        boolean isBasedInTarget = wizard.getBase().equals( conqueredItem );
-        boolean wasConqueredArmy = conqueredItem instanceof Army;
-        if ( isBasedInTarget && wasConqueredArmy )
-        {
-          boolean hasNoCapitol = wizard.getOwner().getCapitol().equals( PopCenter.THE_WILDS );
-          if ( (_r.nextInt( 100 ) < CAPTURE_CHANCE) || hasNoCapitol )
-          {
-            wizard.getOwner().remove( wizard );
-            winningPlayer.removeKnownItem( wizard );
-            publishCaptureEvent( game, wizard );
-          }
-          else
+          // Wizards are always safe in towns, but not armies.
+          boolean isSafe = (figure instanceof Wizard) && !(conqueredItem instanceof Army);
+          if ( figureType.isInstance( figure ) && figure.getOwner().equals( player ) && !isSafe )
           {
-            wizard.forceMove( wizard.getOwner().getCapitol() );
-            publishEscapeEvent( game, wizard );
+            boolean hasNoCapitol = figure.getOwner().getCapitol().equals( PopCenter.THE_WILDS );
+            if ( (game.getRandom().nextInt( 100 ) < CAPTURE_CHANCE) || hasNoCapitol )
+            {
+              figure.getOwner().remove( figure );
+              winningPlayer.removeKnownItem( figure );
+              publishCaptureEvent( game, figure );
+            }
+            else
+            {
+              figure.forceMove( figure.getOwner().getCapitol() );
+              publishEscapeEvent( game, figure );
+            }
           }
         }
       }
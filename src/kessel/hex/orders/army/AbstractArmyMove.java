@@ -9,7 +9,6 @@ import kessel.hex.domain.Player;
 import kessel.hex.domain.PopCenter;
 import kessel.hex.map.Terrain;
 import kessel.hex.orders.Order;
-import kessel.hex.util.HexCalculator;
 import kessel.hex.util.Tuple;
 
 import java.util.ArrayList;
@@ -64,11 +63,8 @@ public abstract class AbstractArmyMove extends AbstractArmyOrder
     _movementSteps.clear();
     for ( Tuple nextStep : potentialSteps )
     {
-      boolean nextStepIsAdjacent = HexCalculator.calculateDistance( lastStep, nextStep ) == 1;
-      boolean nextStepIsOnMap = (nextStep.x < game.getMap().getWidth()) && (nextStep.x >= 0) &&
-                                (nextStep.y < game.getMap().getHeight()) && (nextStep.y >= 0);
       boolean stepSuccessful = false;
-      if ( nextStepIsAdjacent && nextStepIsOnMap )
+      if ( game.getMap().isAdjacent( lastStep, nextStep ) )
       {
         int moveStepCost = getLocationMovementCost( game, nextStep );
         boolean hasMovementForNextStep = moveTotal + moveStepCost <= MAX_MOVEMENT;
@@ -110,9 +110,9 @@ public class ArmyTransfer extends AbstractArmyOrder
     if ( !_subject.isActive() )
     {
       _subject.setLocation( _subject.getOwner().getCapitol().getLocation() );
-      for ( Figure figure : _subject.getOwner().getFigures() )
+      for ( Figure figure : game.getFigures( _subject ) )
       {
-        if ( figure.getBase().equals( _subject ) )
+        if ( figure.getOwner().equals( _subject.getOwner() ) )
         {
           figure.setBase( _target );
         }
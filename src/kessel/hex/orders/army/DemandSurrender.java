@@ -100,7 +100,7 @@ public class DemandSurrender extends AbstractArmyOrder
     if ( !_target.isCapitol() )
     {
       int armyLevel = deriveArmyDiplomaticLevel( game );
-      int diplomatHits = Mechanics.standardLevelRoll( armyLevel );
+      int diplomatHits = Mechanics.standardLevelRoll( game.getRandom(), armyLevel );
       _wasSuccessful = diplomatHits >= determinePopResistance( game );
     }
     else
@@ -9,8 +9,6 @@ import kessel.hex.map.Region;
 import kessel.hex.orders.wizard.CharmRegion;
 import org.apache.log4j.Logger;
 
-import java.util.List;
-import java.util.Random;
 
 /** An abstract class for those bits of functionality that are the same for all diplomatic attempts. */
 public abstract class AbstractDiplomaticAttempt extends AbstractDiplomatOrder
@@ -19,7 +17,6 @@ public abstract class AbstractDiplomaticAttempt extends AbstractDiplomatOrder
 
   /** How often the diplomat's action is reported to the affected player. */
   static int PERCENT_SEEN = 50;
-  protected final transient Random _r = new Random();
 
   /** Track some state about the execution of the order. */
   protected transient boolean _wasSuccessful = false;
@@ -52,7 +49,7 @@ public abstract class AbstractDiplomaticAttempt extends AbstractDiplomatOrder
   {
     _wasSuccessful = makeAttempt( game );
     _originalOwner = _subject.getBase().getOwner();
-    _wasSeen = _r.nextInt( 100 ) < PERCENT_SEEN;
+    _wasSeen = game.getRandom().nextInt( 100 ) < PERCENT_SEEN;
     if ( _wasSuccessful )
     {
       handleAttemptSuccess( game );
@@ -106,15 +103,10 @@ public abstract class AbstractDiplomaticAttempt extends AbstractDiplomatOrder
   protected int determineLoyaltyResistance( Game game )
   {
     PopCenter popCenter = (PopCenter) _subject.getBase();
-    List<DiplomatInspireLoyalty> loyaltyOrders = game.getCurrentTurn().getOrdersOfType( DiplomatInspireLoyalty.class );
     int inspiredLoyalty = 0;
-    for ( DiplomatInspireLoyalty loyaltyOrder : loyaltyOrders )
+    for ( DiplomatInspireLoyalty loyaltyOrder : game.getCurrentTurn().getOrders( DiplomatInspireLoyalty.BY_POP, popCenter ) )
     {
-      boolean affectsThisOrder = loyaltyOrder._subject.getBase().equals( popCenter );
-      if ( affectsThisOrder )
-      {
-        inspiredLoyalty = Math.max( inspiredLoyalty, loyaltyOrder._subject.getLevel() );
-      }
+      inspiredLoyalty = Math.max( inspiredLoyalty, loyaltyOrder._subject.getLevel() );
     }
     return inspiredLoyalty;
   }
@@ -144,13 +136,11 @@ public abstract class AbstractDiplomaticAttempt extends AbstractDiplomatOrder
 
   protected int getCharmImpact( GameItem subject, Game game )
   {
-    List<CharmRegion> charmOrders = game.getCurrentTurn().getOrdersOfType( CharmRegion.class );
     int charmLevel = 0;
-    for ( CharmRegion charmOrder : charmOrders )
+    for ( CharmRegion charmOrder : game.getCurrentTurn().getOrders( CharmRegion.BY_OWNER, subject.getOwner().getName() ) )
     {
-      // Is the charm order by the subject's owner for the subject's region?
-      if ( charmOrder.getSubject().getOwner().equals( subject.getOwner() ) &&
-           charmOrder.getSubject().getLocation().getRegion().equals( subject.getLocation().getRegion() ) )
+      // Is the charm order for the subject's region?
+      if ( charmOrder.getSubject().getLocation().getRegion().equals( subject.getLocation().getRegion() ) )
       {
         charmLevel = Math.max( charmLevel, charmOrder.getCharmLevel() );
       }
@@ -67,7 +67,7 @@ public class DiplomatInciteRebellion extends AbstractDiplomaticAttempt
     }
     else
     {
-      _diplomatHits = Mechanics.standardLevelRoll( _subject.getLevel() );
+      _diplomatHits = Mechanics.standardLevelRoll( game.getRandom(), _subject.getLevel() );
       return _diplomatHits >= determineResistance( game );
     }
   }
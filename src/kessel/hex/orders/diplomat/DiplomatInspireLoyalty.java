@@ -2,6 +2,7 @@ package kessel.hex.orders.diplomat;
 
 import kessel.hex.domain.Diplomat;
 import kessel.hex.domain.Game;
+import kessel.hex.domain.GameTurn;
 
 /**
  * The diplomat extorts the population center to be loyal to their current owner. If multiple such orders are executed in the same
@@ -10,6 +11,13 @@ import kessel.hex.domain.Game;
  */
 public class DiplomatInspireLoyalty extends AbstractDiplomaticAttempt
 {
+  /** The loyalty inspired this turn, by the pop it was inspired in. */
+  static final GameTurn.OrderIndex<DiplomatInspireLoyalty> BY_POP =
+    new GameTurn.OrderIndex<DiplomatInspireLoyalty>( DiplomatInspireLoyalty.class )
+  {
+    protected Object getKey( DiplomatInspireLoyalty order ) { return order.getSubject().getBase(); }
+  };
+
   public DiplomatInspireLoyalty() { super(); } // GSON only
   public DiplomatInspireLoyalty( Diplomat subject ) { super( subject ); }
 
@@ -44,7 +44,7 @@ public class DiplomatNegotiateFealty extends AbstractDiplomaticAttempt
 
   protected boolean makeAttempt( Game game )
   {
-    _diplomatHits = Mechanics.standardLevelRoll( _subject.getLevel() );
+    _diplomatHits = Mechanics.standardLevelRoll( game.getRandom(), _subject.getLevel() );
     return _diplomatHits >= determineResistance( game );
   }
 
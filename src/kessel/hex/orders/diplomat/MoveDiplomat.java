@@ -8,13 +8,12 @@ import kessel.hex.domain.Player;
 import kessel.hex.domain.PopCenter;
 import kessel.hex.orders.AbstractMoveFigure;
 
-import java.util.Random;
+import java.util.Collection;
 
 /** Move a Diplomat's base of operations. */
 public class MoveDiplomat extends AbstractMoveFigure<Diplomat>
 {
   /** How often the diplomat's action is reported to the affected player. */
-  private final transient Random _r = new Random();
   public transient int _percentSeen = 50;
 
   public MoveDiplomat() { super(); } // GSON only
@@ -54,13 +53,19 @@ public class MoveDiplomat extends AbstractMoveFigure<Diplomat>
     return false;
   }
 
+  /** A diplomat may be seen by chance as it moves, so its moves are executed in sequence. */
+  public Collection<Object> getFootprint()
+  {
+    return null;
+  }
+
   protected void updateViews( Game game )
   {
     if ( (_newBase instanceof PopCenter) &&
          !_newBase.getOwner().equals( Player.UNOWNED ) &&
          !_newBase.getOwner().equals( _subject.getOwner() ) )
     {
-      if ( _r.nextInt( 100 ) < _percentSeen )
+      if ( game.getRandom().nextInt( 100 ) < _percentSeen )
       {
         Player owningPlayer = _newBase.getOwner();
         Diplomat diplomatMoveAlert = new Diplomat( GameItem.UNKNOWN_ID, "Unknown", game.getTurn(), _newBase );
@@ -104,9 +104,9 @@ public class MoveCapitol extends Order<King> implements PolicyOrder
 
     // Any figures at the capitol, that haven't already done something, are moved as well and it counts as the
     // figure's order for the turn.
-    for ( Figure figure : _subject.getOwner().getFigures() )
+    for ( Figure figure : game.getFigures( oldCapitol ) )
     {
-      if ( figure.getBase().equals( oldCapitol ) && figure.getOrdersExecuted().isEmpty() )
+      if ( figure.getOwner().equals( _subject.getOwner() ) && figure.getOrdersExecuted().isEmpty() )
       {
         figure.setBase( _target );
         if ( figure instanceof Agent )
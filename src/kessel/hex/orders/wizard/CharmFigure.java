@@ -5,6 +5,7 @@ import com.google.gson.JsonElement;
 import kessel.hex.domain.Figure;
 import kessel.hex.domain.Game;
 import kessel.hex.domain.GameItem;
+import kessel.hex.domain.GameTurn;
 import kessel.hex.domain.Player;
 import kessel.hex.domain.Wizard;
 
@@ -13,6 +14,12 @@ import java.util.Map;
 /** Charm a figure, which prevents them from executing any orders for the turn. */
 public class CharmFigure extends AbstractSpell
 {
+  /** The charms executed this turn, by the figure charmed. */
+  public static final GameTurn.OrderIndex<CharmFigure> BY_TARGET = new GameTurn.OrderIndex<CharmFigure>( CharmFigure.class )
+  {
+    protected Object getKey( CharmFigure order ) { return order.getTarget(); }
+  };
+
   // Use for json persistence.
   public static final String TARGET_ID_JSON = "targetId";
 
@@ -1,11 +1,18 @@
 package kessel.hex.orders.wizard;
 
 import kessel.hex.domain.Game;
+import kessel.hex.domain.GameTurn;
 import kessel.hex.domain.Wizard;
 
 /** Make all diplomatic activities in the region more likely to succeed, including troop diplomacy like DemandSurrender. */
 public class CharmRegion extends AbstractSpell
 {
+  /** The charms executed this turn, by the name of the caster's owner. Locations can change region, so that's checked on use. */
+  public static final GameTurn.OrderIndex<CharmRegion> BY_OWNER = new GameTurn.OrderIndex<CharmRegion>( CharmRegion.class )
+  {
+    protected Object getKey( CharmRegion order ) { return order.getSubject().getOwner().getName(); }
+  };
+
   public CharmRegion() { super(); } // GSON only
   public CharmRegion( Wizard wizard )
   {
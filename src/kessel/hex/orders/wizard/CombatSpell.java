@@ -5,12 +5,13 @@ import com.google.gson.JsonElement;
 import kessel.hex.domain.CombatCapableItem;
 import kessel.hex.domain.Game;
 import kessel.hex.domain.GameItem;
+import kessel.hex.domain.GameTurn;
 import kessel.hex.domain.Wizard;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 
 /** Common functionality for combat spells. Combat spells require a target that's in the same location. */
 @SuppressWarnings({ "ClassReferencesSubclass" })
@@ -66,20 +67,22 @@ public abstract class CombatSpell extends AbstractSpell
   protected abstract int getValue();
 
 
+  /** @return an index of a type of combat spell by the base of the wizard who cast it and its target, see getBaseAndTarget(). */
+  public static <T extends CombatSpell> GameTurn.OrderIndex<T> indexByBaseAndTarget( Class<T> type )
+  {
+    return new GameTurn.OrderIndex<T>( type )
+    {
+      protected Object getKey( T order ) { return getBaseAndTarget( order.getSubject().getBase(), order.getTarget() ); }
+    };
+  }
+
+  /** @return the key to find the spells cast from the given base on the given target. */
+  public static Object getBaseAndTarget( GameItem base, GameItem target ) { return Arrays.asList( base, target ); }
+
   /** @return any dispel orders relevant for this battle. */
   public static List<DispelCombatMagic> getDispelCombatMagicOrders( Game game, CombatCapableItem subject, CombatCapableItem target )
   {
-    List<DispelCombatMagic> toReturn = new ArrayList<>();
-    List<DispelCombatMagic> dispelMagicOrders = game.getCurrentTurn().getOrdersOfType( DispelCombatMagic.class );
-    for ( DispelCombatMagic dispelMagicOrder : dispelMagicOrders )
-    {
-      if ( dispelMagicOrder.getSubject().getBase().equals( subject ) &&
-           dispelMagicOrder.getTarget().equals( target ) )
-      {
-        toReturn.add( dispelMagicOrder );
-      }
-    }
-    return toReturn;
+    return new ArrayList<>( game.getCurrentTurn().getOrders( DispelCombatMagic.BY_BASE_AND_TARGET, getBaseAndTarget( subject, target ) ) );
   }
 
   /** A helper to calculate if any of a list of dispel orders is successful against another combat spell. */
@@ -91,7 +94,7 @@ public abstract class CombatSpell extends AbstractSpell
     {
       double levelRatio = (double) dispelOrder.getSubject().getLevel() / (double) spellToDispel.getSubject().getLevel();
       int dispelChance = (int) (levelRatio * 50.0);
-      if ( new Random().nextInt( 100 ) < dispelChance )
+      if ( game.getRandom().nextInt( 100 ) < dispelChance )
       {
         return true;
       }
@@ -2,11 +2,22 @@ package kessel.hex.orders.wizard;
 
 import kessel.hex.domain.Army;
 import kessel.hex.domain.Game;
+import kessel.hex.domain.GameTurn;
 import kessel.hex.domain.Wizard;
 
 /** Creates a dense fog that prevents combat with the designated target. An army casting deep fog */
 public class DeepFog extends CombatSpell
 {
+  /** The fogs executed this turn, by the army of the wizard who cast it and by the army it was cast on. */
+  public static final GameTurn.OrderIndex<DeepFog> BY_BASE = new GameTurn.OrderIndex<DeepFog>( DeepFog.class )
+  {
+    protected Object getKey( DeepFog order ) { return order.getSubject().getBase(); }
+  };
+  public static final GameTurn.OrderIndex<DeepFog> BY_TARGET = new GameTurn.OrderIndex<DeepFog>( DeepFog.class )
+  {
+    protected Object getKey( DeepFog order ) { return order.getTarget(); }
+  };
+
   public DeepFog() { super(); } // GSON only
   public DeepFog( Wizard wizard, Army target )
   {
@@ -2,6 +2,7 @@ package kessel.hex.orders.wizard;
 
 import kessel.hex.domain.Game;
 import kessel.hex.domain.GameItem;
+import kessel.hex.domain.GameTurn;
 import kessel.hex.domain.Wizard;
 
 /**
@@ -10,6 +11,8 @@ import kessel.hex.domain.Wizard;
  */
 public class DispelCombatMagic extends CombatSpell
 {
+  public static final GameTurn.OrderIndex<DispelCombatMagic> BY_BASE_AND_TARGET = indexByBaseAndTarget( DispelCombatMagic.class );
+
   public DispelCombatMagic() { super(); } // GSON only
   public DispelCombatMagic( Wizard wizard, GameItem target )
   {
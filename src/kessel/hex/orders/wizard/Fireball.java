@@ -3,12 +3,15 @@ package kessel.hex.orders.wizard;
 import kessel.hex.domain.ArmyUnit;
 import kessel.hex.domain.Game;
 import kessel.hex.domain.GameItem;
+import kessel.hex.domain.GameTurn;
 import kessel.hex.domain.TroopType;
 import kessel.hex.domain.Wizard;
 
 /** Fireball adds to it's army's combat strength. Damage is exponential with the wizard level: damage =  1/6V * getTotalLevels(). */
 public class Fireball extends CombatSpell
 {
+  public static final GameTurn.OrderIndex<Fireball> BY_BASE_AND_TARGET = indexByBaseAndTarget( Fireball.class );
+
   static final int BASE_DAMAGE = new ArmyUnit( TroopType.FIREBALL ).getBaseCombatStrength();
 
   public Fireball() { super(); } // GSON only
@@ -3,6 +3,7 @@ package kessel.hex.orders.wizard;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonElement;
 import kessel.hex.domain.Game;
+import kessel.hex.domain.GameTurn;
 import kessel.hex.domain.Player;
 import kessel.hex.domain.PopCenter;
 import kessel.hex.domain.Wizard;
@@ -12,6 +13,12 @@ import java.util.Map;
 /** Shield a pop center, which prevents any army attacks against it that turn. */
 public class MagicDome extends AbstractSpell
 {
+  /** The domes executed this turn, by the pop protected. */
+  public static final GameTurn.OrderIndex<MagicDome> BY_TARGET = new GameTurn.OrderIndex<MagicDome>( MagicDome.class )
+  {
+    protected Object getKey( MagicDome order ) { return order.getTarget(); }
+  };
+
   // Use for json persistence.
   public static final String TARGET_ID_JSON = "targetId";
 
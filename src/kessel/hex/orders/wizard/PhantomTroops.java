@@ -2,6 +2,7 @@ package kessel.hex.orders.wizard;
 
 import kessel.hex.domain.Game;
 import kessel.hex.domain.GameItem;
+import kessel.hex.domain.GameTurn;
 import kessel.hex.domain.Wizard;
 
 /**
@@ -10,6 +11,8 @@ import kessel.hex.domain.Wizard;
  */
 public class PhantomTroops extends CombatSpell
 {
+  public static final GameTurn.OrderIndex<PhantomTroops> BY_BASE_AND_TARGET = indexByBaseAndTarget( PhantomTroops.class );
+
   public PhantomTroops() { super(); } // GSON only
   public PhantomTroops( Wizard wizard, GameItem target )
   {
@@ -12,7 +12,6 @@ import kessel.hex.domain.PopCenter;
 import kessel.hex.domain.Wizard;
 
 import java.util.Map;
-import java.util.Random;
 
 /** Cause a plague to run through the army, killing off multiple units worth of men. */
 public class PlagueArmy extends AbstractSpell
@@ -23,7 +22,6 @@ public class PlagueArmy extends AbstractSpell
   /** How often figures in a destroyed army is killed by the plague. */
   static int FIGURE_PLAGUE_CHANCE = 50;
 
-  protected final transient Random _r = new Random();
   protected Army _target;
   protected transient Integer _jsonTargetId;
   protected transient boolean _targetIsMissing = false;
@@ -96,12 +94,12 @@ public class PlagueArmy extends AbstractSpell
   private void checkForPlaguedFigures( Game game )
   {
     Player player = _target.getOwner();
-    for ( Figure figure : player.getFigures() )
+    for ( Figure figure : game.getFigures( _target ) )
     {
-      if ( figure.getBase().equals( _target ) )
+      if ( figure.getOwner().equals( player ) )
       {
         boolean hasNoCapitol = figure.getOwner().getCapitol().equals( PopCenter.THE_WILDS );
-        if ( (_r.nextInt( 100 ) < FIGURE_PLAGUE_CHANCE) || hasNoCapitol )
+        if ( (game.getRandom().nextInt( 100 ) < FIGURE_PLAGUE_CHANCE) || hasNoCapitol )
         {
           player.remove( figure );
           _subject.getOwner().removeKnownItem( figure );
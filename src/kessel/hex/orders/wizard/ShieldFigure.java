@@ -4,6 +4,7 @@ import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonElement;
 import kessel.hex.domain.Figure;
 import kessel.hex.domain.Game;
+import kessel.hex.domain.GameTurn;
 import kessel.hex.domain.Player;
 import kessel.hex.domain.Wizard;
 
@@ -15,6 +16,12 @@ import java.util.Map;
  */
 public class ShieldFigure extends AbstractSpell
 {
+  /** The shields executed this turn, by the figure shielded. */
+  public static final GameTurn.OrderIndex<ShieldFigure> BY_TARGET = new GameTurn.OrderIndex<ShieldFigure>( ShieldFigure.class )
+  {
+    protected Object getKey( ShieldFigure order ) { return order.getTarget(); }
+  };
+
   // Use for json persistence.
   public static final String TARGET_ID_JSON = "targetId";
 
@@ -0,0 +1,316 @@
+package kessel.hex.util;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static kessel.hex.util.BinaryJsonWriter.*;
+
+/**
+ * A JsonReader over a binary snapshot written by BinaryJsonWriter, so Gson adapters read snapshots exactly as they read json text. There's
+ * no text to tokenize and each string is decoded only once, which makes this much cheaper than parsing the json equivalent. Skipping an
+ * object or array jumps straight over it, so what's skipped costs next to nothing. Snapshots from before objects and arrays had their
+ * lengths are still read, though they're skipped token by token.
+ * <p/>
+ * Gson reads object form maps through reader internals that only work on text, so types holding such maps must read them with their own
+ * adapter, as Game and Player do.
+ */
+public class BinaryJsonReader extends JsonReader
+{
+  // The base class insists on a Reader, but we never use it.
+  private static final Reader UNREADABLE_READER = new Reader()
+  {
+    public int read( char[] buffer, int offset, int count ) { throw new AssertionError(); }
+    public void close() { throw new AssertionError(); }
+  };
+
+  private static final int NONE = -1;
+  private static final int END_DOCUMENT = 0;
+
+  // The oldest snapshot version that can still be read.
+  private static final int OLDEST_VERSION = 1;
+
+  private final DataInputStream _in;
+  private final int _version;
+  private final List<String> _stringTable = new ArrayList<>();
+  private int _peeked = NONE;
+
+  public BinaryJsonReader( InputStream in ) throws IOException
+  {
+    super( UNREADABLE_READER );
+    _in = new DataInputStream( in );
+    byte[] magic = new byte[MAGIC.length];
+    _in.readFully( magic );
+    if ( !Arrays.equals( magic, MAGIC ) ) { throw new MalformedJsonException( "Not a game snapshot." ); }
+    _version = readVarInt();
+    if ( _version < OLDEST_VERSION || _version > VERSION ) { throw new MalformedJsonException( "Unsupported snapshot version: " + _version ); }
+    if ( hasLengths() )
+    {
+      int stringCount = readVarInt();
+      for ( int i = 0; i < stringCount; i++ )
+      {
+        _stringTable.add( readUtf8() );
+      }
+    }
+  }
+
+  public void beginArray() throws IOException
+  {
+    consume( BEGIN_ARRAY );
+    if ( hasLengths() ) { readVarInt(); }
+  }
+
+  public void endArray() throws IOException { consume( END_ARRAY ); }
+
+  public void beginObject() throws IOException
+  {
+    consume( BEGIN_OBJECT );
+    if ( hasLengths() ) { readVarInt(); }
+  }
+
+  public void endObject() throws IOException { consume( END_OBJECT ); }
+
+  public boolean hasNext() throws IOException
+  {
+    int tag = peekTag();
+    return tag != END_OBJECT && tag != END_ARRAY && tag != END_DOCUMENT;
+  }
+
+  public JsonToken peek() throws IOException
+  {
+    switch ( peekTag() )
+    {
+      case BEGIN_OBJECT: return JsonToken.BEGIN_OBJECT;
+      case END_OBJECT: return JsonToken.END_OBJECT;
+      case BEGIN_ARRAY: return JsonToken.BEGIN_ARRAY;
+      case END_ARRAY: return JsonToken.END_ARRAY;
+      case NAME: return JsonToken.NAME;
+      case STRING: return JsonToken.STRING;
+      case LONG:
+      case DOUBLE:
+      case NUMBER: return JsonToken.NUMBER;
+      case TRUE:
+      case FALSE: return JsonToken.BOOLEAN;
+      case NULL: return JsonToken.NULL;
+      case END_DOCUMENT: return JsonToken.END_DOCUMENT;
+      default: throw new MalformedJsonException( "Unexpected snapshot tag: " + _peeked );
+    }
+  }
+
+  public String nextName() throws IOException
+  {
+    consume( NAME );
+    return readString();
+  }
+
+  public String nextString() throws IOException
+  {
+    int tag = nextTag();
+    switch ( tag )
+    {
+      case STRING:
+      case NUMBER: return readString();
+      case LONG: return Long.toString( readVarLong() );
+      case DOUBLE: return Double.toString( _in.readDouble() );
+      default: throw unexpected( "a string", tag );
+    }
+  }
+
+  public boolean nextBoolean() throws IOException
+  {
+    int tag = nextTag();
+    if ( tag == TRUE ) { return true; }
+    if ( tag == FALSE ) { return false; }
+    throw unexpected( "a boolean", tag );
+  }
+
+  public void nextNull() throws IOException { consume( NULL ); }
+
+  public double nextDouble() throws IOException
+  {
+    int tag = nextTag();
+    switch ( tag )
+    {
+      case LONG: return readVarLong();
+      case DOUBLE: return _in.readDouble();
+      case STRING:
+      case NUMBER: return Double.parseDouble( readString() );
+      default: throw unexpected( "a double", tag );
+    }
+  }
+
+  public long nextLong() throws IOException
+  {
+    int tag = nextTag();
+    switch ( tag )
+    {
+      case LONG: return readVarLong();
+      case DOUBLE: return toLong( _in.readDouble() );
+      case STRING:
+      case NUMBER: return toLong( readString() );
+      default: throw unexpected( "a long", tag );
+    }
+  }
+
+  public int nextInt() throws IOException
+  {
+    long value = nextLong();
+    if ( value != (int) value ) { throw new NumberFormatException( "Expected an int but was " + value ); }
+    return (int) value;
+  }
+
+  public void skipValue() throws IOException
+  {
+    int depth = 0;
+    do
+    {
+      int tag = nextTag();
+      switch ( tag )
+      {
+        case BEGIN_OBJECT:
+        case BEGIN_ARRAY:
+          if ( hasLengths() ) { skipBytes( readVarInt() ); }
+          else { depth++; }
+          break;
+        case END_OBJECT:
+        case END_ARRAY: depth--; break;
+        case NAME:
+        case STRING:
+        case NUMBER: readString(); break; // still needed to keep a version 1 string table in step.
+        case LONG: readVarLong(); break;
+        case DOUBLE: _in.readDouble(); break;
+        case END_DOCUMENT: return;
+        default: break;
+      }
+    }
+    while ( depth > 0 );
+  }
+
+  public void close() throws IOException
+  {
+    _in.close();
+  }
+
+  public String getPath() { return "$"; }
+
+  public String toString() { return getClass().getSimpleName(); }
+
+  private int peekTag() throws IOException
+  {
+    if ( _peeked == NONE )
+    {
+      try
+      {
+        _peeked = _in.readUnsignedByte();
+      }
+      catch ( EOFException e )
+      {
+        _peeked = END_DOCUMENT;
+      }
+    }
+    return _peeked;
+  }
+
+  private int nextTag() throws IOException
+  {
+    int tag = peekTag();
+    _peeked = NONE;
+    return tag;
+  }
+
+  private void consume( int expectedTag ) throws IOException
+  {
+    int tag = nextTag();
+    if ( tag != expectedTag ) { throw unexpected( "tag " + expectedTag, tag ); }
+  }
+
+  private static IllegalStateException unexpected( String expected, int tag )
+  {
+    return new IllegalStateException( "Expected " + expected + " but found snapshot tag " + tag );
+  }
+
+  private static long toLong( double value )
+  {
+    long asLong = (long) value;
+    if ( asLong != value ) { throw new NumberFormatException( "Expected a long but was " + value ); }
+    return asLong;
+  }
+
+  private static long toLong( String text )
+  {
+    try
+    {
+      return Long.parseLong( text );
+    }
+    catch ( NumberFormatException e )
+    {
+      return toLong( Double.parseDouble( text ) );
+    }
+  }
+
+  /** Version 1 snapshots have no lengths, and define each string where it's first used rather than in a table ahead of the tokens. */
+  private boolean hasLengths() { return _version > 1; }
+
+  private void skipBytes( int count ) throws IOException
+  {
+    while ( count > 0 )
+    {
+      int skipped = _in.skipBytes( count );
+      if ( skipped == 0 ) { throw new EOFException( "Snapshot ended in the middle of a value." ); }
+      count -= skipped;
+    }
+  }
+
+  private String readString() throws IOException
+  {
+    int index = readVarInt();
+    if ( hasLengths() ) { return _stringTable.get( index ); }
+
+    // A version 1 string is written in full the first time (as a 0 followed by the utf-8 bytes) and as its table index + 1 after that.
+    if ( index > 0 ) { return _stringTable.get( index - 1 ); }
+    String value = readUtf8();
+    _stringTable.add( value );
+    return value;
+  }
+
+  private String readUtf8() throws IOException
+  {
+    byte[] bytes = new byte[readVarInt()];
+    _in.readFully( bytes );
+    return new String( bytes, StandardCharsets.UTF_8 );
+  }
+
+  private long readVarLong() throws IOException
+  {
+    long zigZag = 0;
+    for ( int shift = 0; ; shift += 7 )
+    {
+      int b = _in.readUnsignedByte();
+      zigZag |= (long) (b & 0x7F) << shift;
+      if ( (b & 0x80) == 0 ) { break; }
+    }
+    return (zigZag >>> 1) ^ -(zigZag & 1);
+  }
+
+  private int readVarInt() throws IOException
+  {
+    int value = 0;
+    for ( int shift = 0; ; shift += 7 )
+    {
+      int b = _in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ( (b & 0x80) == 0 ) { break; }
+    }
+    return value;
+  }
+}
@@ -0,0 +1,370 @@
+package kessel.hex.util;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A JsonWriter that writes the compact binary snapshot format instead of json text, so any Gson adapter can write snapshots. Each json
+ * token is a one byte tag. Numbers are zig-zag varints (or raw doubles) and every string, names included, is referred to by its index in a
+ * string table written ahead of the tokens. Things like class names, owner names and terrain therefore cost a byte or two wherever they're
+ * used. Read the result back with BinaryJsonReader.
+ * <p/>
+ * Each object and array tag is followed by the length in bytes of the rest of it, so a reader can jump over any value it doesn't want
+ * without reading what's in it. Those lengths, and the string table, are only known once the document's done, so it's held in memory until
+ * then.
+ */
+public class BinaryJsonWriter extends JsonWriter
+{
+  // Identifies the format and its version at the start of every snapshot. Version 1 had no lengths, and defined each string where it
+  // was first used.
+  static final byte[] MAGIC = { 'H', 'E', 'X', 'S' };
+  static final int VERSION = 2;
+
+  // Token tags.
+  static final int BEGIN_OBJECT = 1;
+  static final int END_OBJECT = 2;
+  static final int BEGIN_ARRAY = 3;
+  static final int END_ARRAY = 4;
+  static final int NAME = 5;
+  static final int STRING = 6;
+  static final int LONG = 7;
+  static final int DOUBLE = 8;
+  static final int TRUE = 9;
+  static final int FALSE = 10;
+  static final int NULL = 11;
+  static final int NUMBER = 12; // a number kept as its json text, for anything not a long or double.
+
+  // The base class insists on a Writer, but we never use it.
+  private static final Writer UNWRITABLE_WRITER = new Writer()
+  {
+    public void write( char[] buffer, int offset, int counter ) { throw new AssertionError(); }
+    public void flush() { throw new AssertionError(); }
+    public void close() { throw new AssertionError(); }
+  };
+
+  private final OutputStream _out;
+  private final Map<String, Integer> _stringTable = new HashMap<>();
+  private final List<String> _strings = new ArrayList<>();
+  private String _deferredName;
+
+  // The document's tokens, until it's done.
+  private byte[] _tokens = new byte[8 * 1024];
+  private int _tokensLength;
+
+  // Where the rest of each open object and array starts in the tokens, innermost last. Its length goes in the byte before.
+  private int[] _containerStarts = new int[16];
+  private int _containerDepth;
+
+  public BinaryJsonWriter( OutputStream out ) throws IOException
+  {
+    super( UNWRITABLE_WRITER );
+    _out = out;
+  }
+
+  public JsonWriter beginArray() throws IOException
+  {
+    writeDeferredName();
+    openContainer( BEGIN_ARRAY );
+    return this;
+  }
+
+  public JsonWriter endArray() throws IOException
+  {
+    closeContainer( END_ARRAY );
+    return this;
+  }
+
+  public JsonWriter beginObject() throws IOException
+  {
+    writeDeferredName();
+    openContainer( BEGIN_OBJECT );
+    return this;
+  }
+
+  public JsonWriter endObject() throws IOException
+  {
+    closeContainer( END_OBJECT );
+    return this;
+  }
+
+  public JsonWriter name( String name ) throws IOException
+  {
+    if ( name == null ) { throw new NullPointerException( "name == null" ); }
+    if ( _deferredName != null ) { throw new IllegalStateException( "Already wrote a name, expecting a value." ); }
+    _deferredName = name;
+    return this;
+  }
+
+  public JsonWriter value( String value ) throws IOException
+  {
+    if ( value == null ) { return nullValue(); }
+    writeDeferredName();
+    write( STRING );
+    writeString( value );
+    endValue();
+    return this;
+  }
+
+  public JsonWriter jsonValue( String value ) throws IOException
+  {
+    throw new UnsupportedOperationException( "Raw json can't be written to a binary snapshot." );
+  }
+
+  public JsonWriter nullValue() throws IOException
+  {
+    if ( _deferredName != null && !getSerializeNulls() )
+    {
+      // Same as json text, a null member is skipped entirely unless nulls are being serialized.
+      _deferredName = null;
+      return this;
+    }
+    writeDeferredName();
+    write( NULL );
+    endValue();
+    return this;
+  }
+
+  public JsonWriter value( boolean value ) throws IOException
+  {
+    writeDeferredName();
+    write( value ? TRUE : FALSE );
+    endValue();
+    return this;
+  }
+
+  public JsonWriter value( Boolean value ) throws IOException
+  {
+    if ( value == null ) { return nullValue(); }
+    return value( value.booleanValue() );
+  }
+
+  public JsonWriter value( float value ) throws IOException
+  {
+    return value( (Number) value );
+  }
+
+  public JsonWriter value( double value ) throws IOException
+  {
+    writeDeferredName();
+    write( DOUBLE );
+    long bits = Double.doubleToLongBits( value );
+    for ( int shift = 56; shift >= 0; shift -= 8 )
+    {
+      write( (int) (bits >>> shift) );
+    }
+    endValue();
+    return this;
+  }
+
+  public JsonWriter value( long value ) throws IOException
+  {
+    writeDeferredName();
+    write( LONG );
+    writeVarLong( value );
+    endValue();
+    return this;
+  }
+
+  public JsonWriter value( Number value ) throws IOException
+  {
+    if ( value == null ) { return nullValue(); }
+    if ( value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte )
+    {
+      return value( value.longValue() );
+    }
+    if ( value instanceof Double )
+    {
+      return value( value.doubleValue() );
+    }
+
+    // Numbers parsed from json text (e.g. when converting) are still written compactly if that doesn't change their text.
+    String text = value.toString();
+    if ( isLongText( text ) )
+    {
+      return value( Long.parseLong( text ) );
+    }
+    if ( isDoubleText( text ) )
+    {
+      return value( Double.parseDouble( text ) );
+    }
+    writeDeferredName();
+    write( NUMBER );
+    writeString( text );
+    endValue();
+    return this;
+  }
+
+  private static boolean isLongText( String text )
+  {
+    try
+    {
+      return Long.toString( Long.parseLong( text ) ).equals( text );
+    }
+    catch ( NumberFormatException e )
+    {
+      return false;
+    }
+  }
+
+  private static boolean isDoubleText( String text )
+  {
+    try
+    {
+      return Double.toString( Double.parseDouble( text ) ).equals( text );
+    }
+    catch ( NumberFormatException e )
+    {
+      return false;
+    }
+  }
+
+  public void flush() throws IOException
+  {
+    _out.flush();
+  }
+
+  public void close() throws IOException
+  {
+    _out.close();
+  }
+
+  private void writeDeferredName()
+  {
+    if ( _deferredName != null )
+    {
+      write( NAME );
+      writeString( _deferredName );
+      _deferredName = null;
+    }
+  }
+
+  /** Open the object or array, leaving a byte for its length. That's usually all a length needs, and it's made room for otherwise. */
+  private void openContainer( int tag )
+  {
+    write( tag );
+    write( 0 );
+    if ( _containerDepth == _containerStarts.length ) { _containerStarts = Arrays.copyOf( _containerStarts, _containerDepth * 2 ); }
+    _containerStarts[_containerDepth++] = _tokensLength;
+  }
+
+  private void closeContainer( int tag ) throws IOException
+  {
+    if ( _containerDepth == 0 ) { throw new IllegalStateException( "Nothing to close." ); }
+    write( tag );
+    int start = _containerStarts[--_containerDepth];
+    int length = _tokensLength - start;
+    int extraBytes = getVarIntSize( length ) - 1;
+    if ( extraBytes > 0 )
+    {
+      ensureCapacity( extraBytes );
+      System.arraycopy( _tokens, start, _tokens, start + extraBytes, length );
+      _tokensLength += extraBytes;
+    }
+    putVarInt( start - 1, length );
+    endValue();
+  }
+
+  /** Once the whole document's been written, write it out with the string table ahead of it. */
+  private void endValue() throws IOException
+  {
+    if ( _containerDepth > 0 ) { return; }
+    _out.write( MAGIC );
+    writeVarInt( _out, VERSION );
+    writeVarInt( _out, _strings.size() );
+    for ( String string : _strings )
+    {
+      byte[] bytes = string.getBytes( StandardCharsets.UTF_8 );
+      writeVarInt( _out, bytes.length );
+      _out.write( bytes );
+    }
+    _out.write( _tokens, 0, _tokensLength );
+    _tokensLength = 0;
+  }
+
+  /** Strings are written as their index in the string table. */
+  private void writeString( String value )
+  {
+    Integer index = _stringTable.get( value );
+    if ( index == null )
+    {
+      index = _strings.size();
+      _stringTable.put( value, index );
+      _strings.add( value );
+    }
+    writeVarInt( index );
+  }
+
+  private void writeVarLong( long value )
+  {
+    // Zig-zag encode so small negative numbers (e.g. unknown values) stay small.
+    long zigZag = (value << 1) ^ (value >> 63);
+    while ( (zigZag & ~0x7FL) != 0 )
+    {
+      write( (int) ((zigZag & 0x7F) | 0x80) );
+      zigZag >>>= 7;
+    }
+    write( (int) zigZag );
+  }
+
+  private void writeVarInt( int value )
+  {
+    ensureCapacity( getVarIntSize( value ) );
+    _tokensLength = putVarInt( _tokensLength, value );
+  }
+
+  /** @return the position after the varint put at the given position in the tokens. */
+  private int putVarInt( int position, int value )
+  {
+    while ( (value & ~0x7F) != 0 )
+    {
+      _tokens[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    _tokens[position++] = (byte) value;
+    return position;
+  }
+
+  private static void writeVarInt( OutputStream out, int value ) throws IOException
+  {
+    while ( (value & ~0x7F) != 0 )
+    {
+      out.write( (value & 0x7F) | 0x80 );
+      value >>>= 7;
+    }
+    out.write( value );
+  }
+
+  private static int getVarIntSize( int value )
+  {
+    int size = 1;
+    while ( (value & ~0x7F) != 0 )
+    {
+      size++;
+      value >>>= 7;
+    }
+    return size;
+  }
+
+  private void write( int b )
+  {
+    ensureCapacity( 1 );
+    _tokens[_tokensLength++] = (byte) b;
+  }
+
+  private void ensureCapacity( int extraBytes )
+  {
+    if ( _tokensLength + extraBytes > _tokens.length )
+    {
+      _tokens = Arrays.copyOf( _tokens, Math.max( _tokens.length * 2, _tokensLength + extraBytes ) );
+    }
+  }
+}
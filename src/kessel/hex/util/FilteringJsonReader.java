@@ -0,0 +1,232 @@
+package kessel.hex.util;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A JsonReader that hides some of the object members read through it, so whatever reads from it behaves as though they were never saved.
+ * The hidden members are skipped over in the underlying reader without any objects being built for them.
+ * <p/>
+ * Members are identified by their path of member names from the top of the document, joined with dots, e.g. "_players.gameView". Array
+ * elements don't add to the path, so that example hides the game view of every player in the _players array.
+ */
+public class FilteringJsonReader extends JsonReader
+{
+  // The base class insists on a Reader, but we never use it.
+  private static final Reader UNREADABLE_READER = new Reader()
+  {
+    public int read( char[] buffer, int offset, int count ) { throw new AssertionError(); }
+    public void close() { throw new AssertionError(); }
+  };
+
+  private final JsonReader _in;
+  private final Set<String> _hiddenPaths;
+
+  /** The paths of the objects and arrays that hidden members can be found in. */
+  private final Set<String> _hiddenPathParents = new HashSet<>();
+
+  /** The paths of the arrays and objects currently open, innermost last. Null for one without any hidden members inside it. */
+  private final List<String> _containerPaths = new ArrayList<>();
+
+  /** Whether each open container is an object, innermost first. */
+  private final Deque<Boolean> _containerIsObject = new ArrayDeque<>();
+
+  /** The path of the member whose name was last read, or null if it's not inside anything with hidden members. */
+  private String _memberPath;
+
+  /** A member name that's been read from the underlying reader but not yet returned. */
+  private String _peekedName;
+
+  public FilteringJsonReader( JsonReader in, Collection<String> hiddenPaths )
+  {
+    super( UNREADABLE_READER );
+    _in = in;
+    _hiddenPaths = new HashSet<>( hiddenPaths );
+    for ( String path : hiddenPaths )
+    {
+      for ( int dot = path.lastIndexOf( '.' ); dot >= 0; dot = path.lastIndexOf( '.', dot - 1 ) )
+      {
+        _hiddenPathParents.add( path.substring( 0, dot ) );
+      }
+      _hiddenPathParents.add( "" );
+    }
+  }
+
+  public void beginArray() throws IOException
+  {
+    checkNoPeekedName();
+    _in.beginArray();
+    openContainer( false );
+  }
+
+  public void endArray() throws IOException
+  {
+    checkNoPeekedName();
+    _in.endArray();
+    closeContainer();
+  }
+
+  public void beginObject() throws IOException
+  {
+    checkNoPeekedName();
+    _in.beginObject();
+    openContainer( true );
+  }
+
+  public void endObject() throws IOException
+  {
+    skipHiddenMembers();
+    checkNoPeekedName();
+    _in.endObject();
+    closeContainer();
+  }
+
+  public boolean hasNext() throws IOException
+  {
+    skipHiddenMembers();
+    return _peekedName != null || _in.hasNext();
+  }
+
+  public JsonToken peek() throws IOException
+  {
+    skipHiddenMembers();
+    return _peekedName != null ? JsonToken.NAME : _in.peek();
+  }
+
+  public String nextName() throws IOException
+  {
+    skipHiddenMembers();
+    String name = (_peekedName != null) ? _peekedName : readName();
+    _peekedName = null;
+    return name;
+  }
+
+  public String nextString() throws IOException
+  {
+    checkNoPeekedName();
+    return _in.nextString();
+  }
+
+  public boolean nextBoolean() throws IOException
+  {
+    checkNoPeekedName();
+    return _in.nextBoolean();
+  }
+
+  public void nextNull() throws IOException
+  {
+    checkNoPeekedName();
+    _in.nextNull();
+  }
+
+  public double nextDouble() throws IOException
+  {
+    checkNoPeekedName();
+    return _in.nextDouble();
+  }
+
+  public long nextLong() throws IOException
+  {
+    checkNoPeekedName();
+    return _in.nextLong();
+  }
+
+  public int nextInt() throws IOException
+  {
+    checkNoPeekedName();
+    return _in.nextInt();
+  }
+
+  public void skipValue() throws IOException
+  {
+    // Skipping a name skips its value too, and a peeked name's value is all that's left of its member.
+    _peekedName = null;
+    _in.skipValue();
+  }
+
+  public void close() throws IOException
+  {
+    _in.close();
+  }
+
+  public String getPath()
+  {
+    return _in.getPath();
+  }
+
+  public String toString()
+  {
+    return getClass().getSimpleName() + " over " + _in;
+  }
+
+  /** Skip past any hidden members at the reader's position, peeking the name of the next member that isn't hidden. */
+  private void skipHiddenMembers() throws IOException
+  {
+    if ( _peekedName != null || _containerIsObject.isEmpty() || !_containerIsObject.peek() ) { return; }
+    while ( _in.peek() == JsonToken.NAME )
+    {
+      String name = readName();
+      if ( _memberPath == null || !_hiddenPaths.contains( _memberPath ) )
+      {
+        _peekedName = name;
+        return;
+      }
+      _in.skipValue();
+    }
+  }
+
+  private String readName() throws IOException
+  {
+    String name = _in.nextName();
+    String containerPath = _containerPaths.get( _containerPaths.size() - 1 );
+    if ( containerPath == null )
+    {
+      _memberPath = null;
+    }
+    else
+    {
+      _memberPath = containerPath.isEmpty() ? name : containerPath + "." + name;
+    }
+    return name;
+  }
+
+  private void openContainer( boolean isObject )
+  {
+    String path;
+    if ( _containerIsObject.isEmpty() )
+    {
+      path = "";
+    }
+    else
+    {
+      // An object's member is at the member's path, an array's element at the array's.
+      path = _containerIsObject.peek() ? _memberPath : _containerPaths.get( _containerPaths.size() - 1 );
+    }
+
+    // Most of a document usually has nothing hidden in it, so there's no need to track the paths there.
+    if ( !_hiddenPathParents.contains( path ) ) { path = null; }
+    _containerPaths.add( path );
+    _containerIsObject.push( isObject );
+  }
+
+  private void closeContainer()
+  {
+    _containerPaths.remove( _containerPaths.size() - 1 );
+    _containerIsObject.pop();
+  }
+
+  private void checkNoPeekedName()
+  {
+    if ( _peekedName != null ) { throw new IllegalStateException( "Expected a name but was reading a value at " + getPath() ); }
+  }
+}
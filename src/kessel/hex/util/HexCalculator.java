@@ -154,13 +154,15 @@ public class HexCalculator
   /** @return the target hex closes to the source or null if it can't be found. Randomly picks between equidistant targets. */
   public static Tuple getClosest( Tuple source, List<Tuple> targets, int maxRadius )
   {
+    Set<Tuple> targetSet = new HashSet<>( targets );
     for ( int i = 0; i <= maxRadius; i++ )
     {
-      List<Tuple> candidates = getEdgeNeighbors( source, i );
-      candidates.retainAll( targets );
-      if ( !candidates.isEmpty() )
+      for ( Tuple candidate : getEdgeNeighbors( source, i ) )
       {
-        return candidates.get( 0 );
+        if ( targetSet.contains( candidate ) )
+        {
+          return candidate;
+        }
       }
     }
     return null;
@@ -169,40 +171,132 @@ public class HexCalculator
   /** Get all the neighbors within the radius given. */
   public static List<Tuple> getNeighbors( Tuple center, int radius, boolean edgeOnly )
   {
-    Set<Tuple> stuff = new HashSet<>();
+    // Listed in the order of a hashed set, as they always have been, since map creation picks from them in that order.
+    final Set<Tuple> hexes = new HashSet<>();
+    forEachNeighbor( center, radius, edgeOnly, new HexVisitor()
+    {
+      public void visit( int x, int y )
+      {
+        hexes.add( new Tuple( x, y ) );
+      }
+    } );
+    return new ArrayList<>( hexes );
+  }
+
+  /** Visits hexes by their grid coordinates, so walking a neighborhood needs no Tuple or list per hex. */
+  public interface HexVisitor
+  {
+    void visit( int x, int y );
+  }
+
+  /** Visit all the neighbors within the radius given, or just those on its edge. */
+  public static void forEachNeighbor( Tuple center, int radius, boolean edgeOnly, HexVisitor visitor )
+  {
+    forEachNeighbor( center, radius, edgeOnly, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, visitor );
+  }
+
+  /** Visit the neighbors within the radius given, or just those on its edge, that are on a map of the given size. */
+  public static void forEachNeighbor( Tuple center, int radius, boolean edgeOnly, int mapWidth, int mapHeight, HexVisitor visitor )
+  {
+    forEachNeighbor( center, radius, edgeOnly, 0, 0, mapWidth, mapHeight, visitor );
+  }
+
+  private static void forEachNeighbor(
+    Tuple center, int radius, boolean edgeOnly, int minX, int minY, int maxX, int maxY, HexVisitor visitor )
+  {
+    if ( radius < 0 )
+    {
+      if ( !edgeOnly ) { visitIfBounded( center.x, center.y, minX, minY, maxX, maxY, visitor ); }
+      return;
+    }
+    int[] stencil = getStencil( Math.abs( center.x % 2 ), radius, edgeOnly );
+    for ( int offset : stencil )
+    {
+      visitIfBounded( center.x + Tuple.unpackX( offset ), center.y + Tuple.unpackY( offset ), minX, minY, maxX, maxY, visitor );
+    }
+  }
+
+  private static void visitIfBounded( int x, int y, int minX, int minY, int maxX, int maxY, HexVisitor visitor )
+  {
+    if ( (x >= minX) && (y >= minY) && (x < maxX) && (y < maxY) )
+    {
+      visitor.visit( x, y );
+    }
+  }
+
+  // The offsets from a center to its neighbors, packed, for centers in even and odd columns and each radius. The neighbors of most queries
+  // are within these radii, and those of larger radii are walked out as needed.
+  private static final int STENCIL_RADII = 16;
+  private static final int[][][] DISK_STENCILS = new int[2][STENCIL_RADII + 1][];
+  private static final int[][][] EDGE_STENCILS = new int[2][STENCIL_RADII + 1][];
+
+  static
+  {
+    for ( int column = 0; column < 2; column++ )
+    {
+      for ( int radius = 0; radius <= STENCIL_RADII; radius++ )
+      {
+        DISK_STENCILS[column][radius] = createStencil( column, radius, false );
+        EDGE_STENCILS[column][radius] = createStencil( column, radius, true );
+      }
+    }
+  }
+
+  private static int[] getStencil( int column, int radius, boolean edgeOnly )
+  {
+    if ( radius > STENCIL_RADII ) { return createStencil( column, radius, edgeOnly ); }
+    return edgeOnly ? EDGE_STENCILS[column][radius] : DISK_STENCILS[column][radius];
+  }
+
+  /** @return the offsets of the neighbors of a hex in the given column, in the order they're visited. */
+  private static int[] createStencil( int column, int radius, boolean edgeOnly )
+  {
+    // Walk out from a hex at (column, 0). Each hex's offset from it only depends on whether the column is odd or even.
+    int center = Tuple.pack( column, 0 );
+    int[] stencil = new int[edgeOnly ? Math.max( 1, 6 * radius ) : 3 * radius * (radius + 1) + 1];
+    int size = 0;
     if ( !edgeOnly || (radius == 0) )
     {
-      stuff.add( center );
+      stencil[size++] = Tuple.pack( 0, 0 );
     }
     for ( int direction = 0; direction < 6; direction++ )
     {
-      Tuple currentHex = center;
+      int mainStep = center;
       for ( int stepsTaken = 1; stepsTaken <= radius; stepsTaken++ )
       {
         // Step in the direction, add the hex.
-        Tuple mainStep = getGridNeighbor( currentHex, direction );
-        currentHex = mainStep;
+        mainStep = getGridNeighbor( mainStep, direction );
         if ( !edgeOnly || (stepsTaken == radius) )
         {
-          stuff.add( currentHex );
+          stencil[size++] = getOffset( mainStep, column );
         }
 
         // Turn right 60 degrees, add hexes for the remaining steps.
+        int currentHex = mainStep;
         int stepsToTheRight = radius - (stepsTaken);
         for ( int i = 1; i <= stepsToTheRight; i++ )
         {
           currentHex = getGridNeighbor( currentHex, (direction + 1) % 6 );
           if ( !edgeOnly || (stepsTaken + i == radius) )
           {
-            stuff.add( currentHex );
+            stencil[size++] = getOffset( currentHex, column );
           }
         }
-
-        // We're done going to the right, reset for the next step in the original direction.
-        currentHex = mainStep;
       }
     }
-    return new ArrayList<>( stuff );
+    return stencil;
+  }
+
+  private static int getGridNeighbor( int packedHex, int direction )
+  {
+    int gridX = Tuple.unpackX( packedHex );
+    int gridY = Tuple.unpackY( packedHex );
+    return Tuple.pack( getGridXNeighbor( gridX, gridY, direction ), getGridYNeighbor( gridX, gridY, direction ) );
+  }
+
+  private static int getOffset( int packedHex, int column )
+  {
+    return Tuple.pack( Tuple.unpackX( packedHex ) - column, Tuple.unpackY( packedHex ) );
   }
 
   public static int floor2( int i ) { return i >= 0 ? i >> 1 : (i - 1) / 2; }
@@ -246,6 +340,14 @@ public class HexCalculator
   /** @return true if the hexes are adjacent. */
   public static boolean isAdjacent( Tuple lastHex, Tuple nextHex )
   {
-    return getNeighbors( lastHex, 1, true ).contains( nextHex );
+    int column = Math.abs( lastHex.x % 2 );
+    for ( int direction = 0; direction < 6; direction++ )
+    {
+      if ( (nextHex.x - lastHex.x == NEIGHBORS_DI[direction]) && (nextHex.y - lastHex.y == NEIGHBORS_DJ[column][direction]) )
+      {
+        return true;
+      }
+    }
+    return false;
   }
 }
\ No newline at end of file
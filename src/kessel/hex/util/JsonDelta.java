@@ -0,0 +1,250 @@
+package kessel.hex.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes and applies the differences between two json trees. A delta is itself json, so it can be saved in any format a tree can.
+ * <p/>
+ * A delta is one of:
+ * <ul>
+ * <li>{"=": [value]} - replace the element with the value.</li>
+ * <li>{"{": {name: delta, ...}, "-": [name, ...], "order": [name, ...]} - patch, add and remove members of an object. New members are
+ * appended unless the resulting member order is given.</li>
+ * <li>{"[": [prefix, suffix], "~": {index: delta, ...}} - patch elements of an array between an unchanged prefix and suffix.</li>
+ * <li>{"[": [prefix, suffix], "+": [value, ...]} - replace the elements of an array between an unchanged prefix and suffix.</li>
+ * </ul>
+ * Items appended to or removed from a list, such as events or figures, therefore cost little more than the items themselves.
+ */
+public class JsonDelta
+{
+  private static final String REPLACE = "=";
+  private static final String MEMBERS = "{";
+  private static final String REMOVED = "-";
+  private static final String ORDER = "order";
+  private static final String RANGE = "[";
+  private static final String ELEMENTS = "~";
+  private static final String SPLICE = "+";
+
+  private JsonDelta() {}
+
+  /** @return the delta that turns from into to, or an empty delta if they're equal. */
+  public static JsonObject diff( JsonElement from, JsonElement to )
+  {
+    JsonObject delta = diffElement( from, to );
+    return delta == null ? new JsonObject() : delta;
+  }
+
+  /** @return the result of applying the delta to the base. The base may be modified, so pass a copy if it's still needed. */
+  public static JsonElement apply( JsonElement base, JsonObject delta )
+  {
+    if ( delta.has( REPLACE ) )
+    {
+      return delta.getAsJsonArray( REPLACE ).get( 0 );
+    }
+    else if ( delta.has( MEMBERS ) || delta.has( REMOVED ) )
+    {
+      applyToObject( base.getAsJsonObject(), delta );
+      return base;
+    }
+    else if ( delta.has( RANGE ) )
+    {
+      return applyToArray( base.getAsJsonArray(), delta );
+    }
+    else
+    {
+      return base;
+    }
+  }
+
+  /** @return the delta, or null if the elements are equal. */
+  private static JsonObject diffElement( JsonElement from, JsonElement to )
+  {
+    // Objects and arrays are compared as they're diffed, rather than up front, so each element is only walked once.
+    if ( from.isJsonObject() && to.isJsonObject() )
+    {
+      return diffObject( from.getAsJsonObject(), to.getAsJsonObject() );
+    }
+    else if ( from.isJsonArray() && to.isJsonArray() )
+    {
+      return diffArray( from.getAsJsonArray(), to.getAsJsonArray() );
+    }
+    else
+    {
+      return from.equals( to ) ? null : replace( to );
+    }
+  }
+
+  private static JsonObject replace( JsonElement to )
+  {
+    // Wrapped in an array so a null survives being saved.
+    JsonArray value = new JsonArray();
+    value.add( to );
+    JsonObject delta = new JsonObject();
+    delta.add( REPLACE, value );
+    return delta;
+  }
+
+  private static JsonObject diffObject( JsonObject from, JsonObject to )
+  {
+    JsonObject members = new JsonObject();
+    JsonArray removed = new JsonArray();
+    List<String> expectedOrder = new ArrayList<>();
+    for ( Map.Entry<String, JsonElement> entry : from.entrySet() )
+    {
+      JsonElement toValue = to.get( entry.getKey() );
+      if ( toValue == null )
+      {
+        removed.add( entry.getKey() );
+      }
+      else
+      {
+        expectedOrder.add( entry.getKey() );
+        JsonObject memberDelta = diffElement( entry.getValue(), toValue );
+        if ( memberDelta != null ) { members.add( entry.getKey(), memberDelta ); }
+      }
+    }
+
+    List<String> order = new ArrayList<>();
+    for ( Map.Entry<String, JsonElement> entry : to.entrySet() )
+    {
+      order.add( entry.getKey() );
+      if ( !from.has( entry.getKey() ) )
+      {
+        expectedOrder.add( entry.getKey() );
+        members.add( entry.getKey(), replace( entry.getValue() ) );
+      }
+    }
+
+    boolean reordered = !order.equals( expectedOrder );
+    if ( members.size() == 0 && removed.size() == 0 && !reordered ) { return null; }
+
+    JsonObject delta = new JsonObject();
+    delta.add( MEMBERS, members );
+    if ( removed.size() > 0 ) { delta.add( REMOVED, removed ); }
+    if ( reordered )
+    {
+      JsonArray orderJson = new JsonArray();
+      for ( String name : order )
+      {
+        orderJson.add( name );
+      }
+      delta.add( ORDER, orderJson );
+    }
+    return delta;
+  }
+
+  private static void applyToObject( JsonObject base, JsonObject delta )
+  {
+    if ( delta.has( REMOVED ) )
+    {
+      for ( JsonElement name : delta.getAsJsonArray( REMOVED ) )
+      {
+        base.remove( name.getAsString() );
+      }
+    }
+    if ( delta.has( MEMBERS ) )
+    {
+      for ( Map.Entry<String, JsonElement> entry : delta.getAsJsonObject( MEMBERS ).entrySet() )
+      {
+        JsonElement baseValue = base.get( entry.getKey() );
+        JsonObject memberDelta = entry.getValue().getAsJsonObject();
+        base.add( entry.getKey(), apply( baseValue, memberDelta ) );
+      }
+    }
+    if ( delta.has( ORDER ) )
+    {
+      List<Map.Entry<String, JsonElement>> members = new ArrayList<>();
+      for ( JsonElement name : delta.getAsJsonArray( ORDER ) )
+      {
+        members.add( new AbstractMap.SimpleEntry<>( name.getAsString(), base.remove( name.getAsString() ) ) );
+      }
+      for ( Map.Entry<String, JsonElement> member : members )
+      {
+        base.add( member.getKey(), member.getValue() );
+      }
+    }
+  }
+
+  private static JsonObject diffArray( JsonArray from, JsonArray to )
+  {
+    int prefix = 0;
+    int maxCommon = Math.min( from.size(), to.size() );
+    while ( prefix < maxCommon && from.get( prefix ).equals( to.get( prefix ) ) )
+    {
+      prefix++;
+    }
+    if ( prefix == from.size() && prefix == to.size() ) { return null; }
+    int suffix = 0;
+    while ( suffix < maxCommon - prefix && from.get( from.size() - 1 - suffix ).equals( to.get( to.size() - 1 - suffix ) ) )
+    {
+      suffix++;
+    }
+
+    JsonArray range = new JsonArray();
+    range.add( prefix );
+    range.add( suffix );
+    JsonObject delta = new JsonObject();
+    delta.add( RANGE, range );
+
+    int fromMiddle = from.size() - prefix - suffix;
+    int toMiddle = to.size() - prefix - suffix;
+    if ( fromMiddle == toMiddle )
+    {
+      // Same number of elements, so patch each of them in place.
+      JsonObject elements = new JsonObject();
+      for ( int i = 0; i < toMiddle; i++ )
+      {
+        JsonObject elementDelta = diffElement( from.get( prefix + i ), to.get( prefix + i ) );
+        if ( elementDelta != null ) { elements.add( Integer.toString( i ), elementDelta ); }
+      }
+      delta.add( ELEMENTS, elements );
+    }
+    else
+    {
+      JsonArray splice = new JsonArray();
+      for ( int i = 0; i < toMiddle; i++ )
+      {
+        splice.add( to.get( prefix + i ) );
+      }
+      delta.add( SPLICE, splice );
+    }
+    return delta;
+  }
+
+  private static JsonArray applyToArray( JsonArray base, JsonObject delta )
+  {
+    JsonArray range = delta.getAsJsonArray( RANGE );
+    int prefix = range.get( 0 ).getAsInt();
+    int suffix = range.get( 1 ).getAsInt();
+    if ( delta.has( ELEMENTS ) )
+    {
+      for ( Map.Entry<String, JsonElement> entry : delta.getAsJsonObject( ELEMENTS ).entrySet() )
+      {
+        int index = prefix + Integer.parseInt( entry.getKey() );
+        base.set( index, apply( base.get( index ), entry.getValue().getAsJsonObject() ) );
+      }
+      return base;
+    }
+    else
+    {
+      JsonArray result = new JsonArray();
+      for ( int i = 0; i < prefix; i++ )
+      {
+        result.add( base.get( i ) );
+      }
+      result.addAll( delta.getAsJsonArray( SPLICE ) );
+      for ( int i = base.size() - suffix; i < base.size(); i++ )
+      {
+        result.add( base.get( i ) );
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package kessel.hex.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A Random that either records every draw made from it or hands back previously recorded draws instead of generating new ones. Every
+ * Random method is built on next(), so recording its results is enough to reproduce any sequence of calls exactly.
+ */
+public class ReplayableRandom extends Random
+{
+  private static final long serialVersionUID = 1L;
+
+  private final int[] _replayDraws;
+  private final List<Integer> _recordedDraws = new ArrayList<>();
+  private int _nextReplayDraw = 0;
+
+  private ReplayableRandom( int[] replayDraws )
+  {
+    _replayDraws = replayDraws;
+  }
+
+  /** @return a random that generates new draws, remembering each of them. */
+  public static ReplayableRandom recording()
+  {
+    return new ReplayableRandom( null );
+  }
+
+  /** @return a random that returns exactly the given draws, in order. */
+  public static ReplayableRandom replaying( int[] draws )
+  {
+    return new ReplayableRandom( draws );
+  }
+
+  protected int next( int bits )
+  {
+    if ( _replayDraws == null )
+    {
+      int draw = super.next( bits );
+      _recordedDraws.add( draw );
+      return draw;
+    }
+    if ( _nextReplayDraw >= _replayDraws.length )
+    {
+      throw new IllegalStateException( "More draws were asked for than were recorded." );
+    }
+    return _replayDraws[_nextReplayDraw++];
+  }
+
+  /** @return the draws made so far while recording. */
+  public int[] getRecordedDraws()
+  {
+    int[] draws = new int[_recordedDraws.size()];
+    for ( int i = 0; i < draws.length; i++ )
+    {
+      draws[i] = _recordedDraws.get( i );
+    }
+    return draws;
+  }
+
+  /** @return true if every draw being replayed has been used. */
+  public boolean isReplayComplete()
+  {
+    return _replayDraws != null && _nextReplayDraw == _replayDraws.length;
+  }
+}
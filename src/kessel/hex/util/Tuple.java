@@ -1,9 +1,9 @@
 package kessel.hex.util;
 
-import org.apache.commons.lang.builder.EqualsBuilder;
-import org.apache.commons.lang.builder.HashCodeBuilder;
-
-/** An arbitrary tuple */
+/**
+ * An arbitrary tuple. Hexes are tuples and they're compared and hashed on every map lookup, so that's plain arithmetic. A map hands out
+ * one instance per hex, see GameMap.getTuple(), so most comparisons are by identity.
+ */
 public class Tuple
 {
   public final int x, y;
@@ -14,14 +14,27 @@ public class Tuple
     this.y = y;
   }
 
+  /** @return the coordinates packed into an int, for walking hexes without a Tuple per step. Each must fit in 16 bits. */
+  public static int pack( int x, int y ) { return (x << 16) | (y & 0xFFFF); }
+
+  public static int unpackX( int packed ) { return packed >> 16; }
+
+  public static int unpackY( int packed ) { return (short) packed; }
+
+  public int pack() { return pack( x, y ); }
+
   public boolean equals( Object that )
   {
-    return EqualsBuilder.reflectionEquals( this, that );
+    if ( this == that ) return true;
+    if ( !(that instanceof Tuple) ) return false;
+    Tuple tuple = (Tuple) that;
+    return (x == tuple.x) && (y == tuple.y);
   }
 
+  // The same hash as reflecting over the fields gave, so hashed sets of tuples keep their order, e.g. the hexes map creation picks from.
   public int hashCode()
   {
-    return HashCodeBuilder.reflectionHashCode( this );
+    return (17 * 37 + x) * 37 + y;
   }
 
   public String toString()
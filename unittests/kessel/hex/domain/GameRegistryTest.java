@@ -0,0 +1,171 @@
+package kessel.hex.domain;
+
+import kessel.hex.map.Region;
+import kessel.hex.util.Tuple;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/** Test the game's lookups by id and name stay current as items, players and regions change. */
+public class GameRegistryTest
+{
+  @Test
+  public void testItemsStayCurrent()
+  {
+    Game game = GameTest.createSimpleGame();
+    Player playerA = game.getPlayers().get( 0 );
+    Player playerB = game.getPlayers().get( 1 );
+    assertSame( playerA, game.getPlayer( playerA.getName() ) );
+    assertNull( game.getPlayer( "Nobody" ) );
+
+    // Hired and assassinated.
+    Agent agent = new Agent( game.generateUniqueId(), "AgentA", 0, playerA.getCapitol(), playerA );
+    playerA.add( agent );
+    assertSame( agent, game.getItem( agent.getId() ) );
+    playerA.remove( agent );
+    assertNull( game.getItem( agent.getId() ) );
+
+    // Raised and destroyed.
+    Army army = new Army( game.generateUniqueId(), "ArmyA", 0, playerA.getCapitol().getLocation(), playerA );
+    playerA.add( army );
+    assertSame( army, game.getArmy( army.getId() ) );
+    playerA.remove( army );
+    assertNull( game.getArmy( army.getId() ) );
+
+    // Captured.
+    PopCenter pop = game.getPopCenter( new Tuple( 1, 1 ) );
+    playerB.add( pop );
+    assertSame( pop, game.getItem( pop.getId() ) );
+    assertSame( pop, game.getPopCenter( pop.getId() ) );
+    playerB.remove( pop );
+    playerA.add( pop );
+    assertSame( playerA, game.getItem( pop.getId() ).getOwner() );
+
+    // A player added later.
+    Player playerC = new Player( "PlayerC" );
+    game.addPlayer( playerC );
+    assertSame( playerC, game.getPlayer( "PlayerC" ) );
+    Army armyC = new Army( game.generateUniqueId(), "ArmyC", 0, playerA.getCapitol().getLocation(), playerC );
+    playerC.add( armyC );
+    assertSame( armyC, game.getItem( armyC.getId() ) );
+  }
+
+  @Test
+  public void testItemHeldTwice()
+  {
+    Game game = GameTest.createSimpleGame();
+    Player playerA = game.getPlayers().get( 0 );
+    Player playerB = game.getPlayers().get( 1 );
+    Army army = new Army( game.generateUniqueId(), "ArmyA", 0, playerA.getCapitol().getLocation(), playerA );
+    Army staleArmy = new Army( army.getId(), "ArmyA", 0, playerA.getCapitol().getLocation(), playerA );
+
+    // The first player's item wins, as when searching.
+    playerB.add( staleArmy );
+    assertSame( staleArmy, game.getItem( army.getId() ) );
+    playerA.add( army );
+    assertSame( army, game.getItem( army.getId() ) );
+    playerA.remove( army );
+    assertSame( staleArmy, game.getItem( army.getId() ) );
+    playerB.remove( staleArmy );
+    assertNull( game.getItem( army.getId() ) );
+  }
+
+  @Test
+  public void testRegionRenamed()
+  {
+    Game game = GameTest.createSimpleGame();
+    Region region = game.getMap().getRegions().get( 0 );
+    String oldName = region.getName();
+    assertSame( region, game.getMap().getRegion( oldName ) );
+
+    region.setName( "Renamed" );
+    assertSame( region, game.getMap().getRegion( "Renamed" ) );
+    assertNull( game.getMap().getRegion( oldName ) );
+  }
+
+  @Test
+  public void testItemsByHex() throws Exception
+  {
+    Game game = GameTest.createSimpleGame();
+    Player playerA = game.getPlayers().get( 0 );
+    Tuple capitolHex = playerA.getCapitol().getLocation().getCoord();
+    Tuple hex = new Tuple( 2, 1 );
+    Army army = new Army( game.generateUniqueId(), "ArmyA", 0, playerA.getCapitol().getLocation(), playerA );
+    playerA.add( army );
+    Agent agent = new Agent( game.generateUniqueId(), "AgentA", 0, army, playerA );
+    playerA.add( agent );
+    assertTrue( game.getArmies( capitolHex ).contains( army ) );
+    assertTrue( game.getFigures( capitolHex ).contains( agent ) );
+
+    // The army's figures move with it.
+    army.setLocation( game.getMap().getLocation( hex ) );
+    assertEquals( Arrays.<GameItem>asList( army, agent ), game.getAllGameItems( hex ) );
+    assertFalse( game.getArmies( capitolHex ).contains( army ) );
+    assertFalse( game.getFigures( capitolHex ).contains( agent ) );
+
+    // A figure moves with its base.
+    agent.setBase( playerA.getCapitol() );
+    assertEquals( Arrays.<GameItem>asList( army ), game.getAllGameItems( hex ) );
+    assertTrue( game.getFigures( capitolHex ).contains( agent ) );
+
+    // Every hex holds just what's there, after loading too.
+    assertItemsByHex( game );
+    StringWriter sw = new StringWriter();
+    game.save( sw );
+    assertItemsByHex( Game.load( new StringReader( sw.toString() ) ) );
+
+    playerA.remove( army );
+    assertTrue( game.getAllGameItems( hex ).isEmpty() );
+  }
+
+  @Test
+  public void testFiguresByBase()
+  {
+    Game game = GameTest.createSimpleGame();
+    Player playerA = game.getPlayers().get( 0 );
+    Player playerB = game.getPlayers().get( 1 );
+    PopCenter capitol = playerA.getCapitol();
+    Army army = new Army( game.generateUniqueId(), "ArmyA", 0, capitol.getLocation(), playerA );
+    playerA.add( army );
+    Agent agentB = new Agent( game.generateUniqueId(), "AgentB", 0, army, playerB );
+    playerB.add( agentB );
+    Agent agentA = new Agent( game.generateUniqueId(), "AgentA", 0, army, playerA );
+    playerA.add( agentA );
+    Wizard wizardA = new Wizard( game.generateUniqueId(), "WizardA", 0, army, playerA );
+    playerA.add( wizardA );
+
+    // In the order searching the players' figures finds them.
+    assertEquals( Arrays.<Figure>asList( wizardA, agentA, agentB ), game.getFigures( army ) );
+
+    // Moved, forced to move and removed.
+    agentA.setBase( capitol );
+    assertEquals( Arrays.<Figure>asList( wizardA, agentB ), game.getFigures( army ) );
+    assertTrue( game.getFigures( capitol ).contains( agentA ) );
+    wizardA.forceMove( capitol );
+    playerB.remove( agentB );
+    assertTrue( game.getFigures( army ).isEmpty() );
+    assertTrue( game.getFigures( capitol ).containsAll( Arrays.asList( agentA, wizardA ) ) );
+  }
+
+  private static void assertItemsByHex( Game game )
+  {
+    for ( Tuple hex : game.getMap().getLocationsByHex().keySet() )
+    {
+      List<GameItem> expected = new ArrayList<>();
+      for ( GameItem item : game.getAllGameItems() )
+      {
+        if ( item.getLocation().getCoord().equals( hex ) ) { expected.add( item ); }
+      }
+      List<GameItem> items = game.getAllGameItems( hex );
+      assertEquals( expected.size(), items.size() );
+      assertEquals( new HashSet<>( expected ), new HashSet<>( items ) );
+    }
+  }
+}
@@ -13,9 +13,16 @@ import org.apache.log4j.Logger;
 import org.apache.log4j.PatternLayout;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -70,7 +77,7 @@ public class GameTest
     // Move the Diplomat doug to the army.
     MoveDiplomat orderDoug = new MoveDiplomat( doug, army );
 
-    game.processOrders( Arrays.<Order>asList( orderBob, orderDoug ) );
+    game.processOrders( Arrays.<Order<?>>asList( orderBob, orderDoug ) );
     assertSame( oldPopCenter, bob.getBase() );
     assertSame( army, doug.getBase() );
   }
@@ -154,6 +161,156 @@ public class GameTest
     assertEquals( oldGame, newGame );
   }
 
+  @Test
+  public void testFixDeserializationReferences() throws IOException
+  {
+    Game oldGame = createSimpleGame();
+    Player playerA = oldGame.getPlayers().get( 0 );
+    Army army = new Army( oldGame.generateUniqueId(), "ArmyA", 3, oldGame.getMap().getLocation( 1, 1 ) );
+    army.addUnit( new ArmyUnit( TroopType.LEVY ) );
+    playerA.add( army );
+    playerA.add( new Diplomat( oldGame.generateUniqueId(), "DiplomatA", 4, army ) );
+    StringWriter sw = new StringWriter();
+    oldGame.save( sw );
+
+    // References resolve to the loaded items themselves.
+    Game newGame = Game.load( new StringReader( sw.toString() ) );
+    Player newPlayerA = newGame.getPlayers().get( 0 );
+    Army newArmyA = newPlayerA.getArmy( army.getId() );
+    assertNotNull( newArmyA );
+    assertSame( newArmyA, newPlayerA.getDiplomats().get( newPlayerA.getDiplomats().size() - 1 ).getBase() );
+    assertSame( newGame.getPopCenter( new Tuple( 0, 0 ) ), newGame.getItem( newGame.getPopCenter( new Tuple( 0, 0 ) ).getId() ) );
+
+    // The map knows which hexes hold a pop once the game's loaded.
+    assertEquals( newGame.getPopCenter( new Tuple( 0, 0 ) ).getId(), newGame.getMap().getPopCenterId( new Tuple( 0, 0 ) ) );
+    assertEquals( 0, newGame.getMap().getPopCenterId( new Tuple( 0, 1 ) ) );
+    assertNull( newGame.getPopCenter( new Tuple( 0, 1 ) ) );
+
+    // Items added after loading are found too.
+    Army newArmy = new Army( newGame.generateUniqueId(), "ArmyB", 3, newGame.getMap().getLocation( 1, 1 ) );
+    newPlayerA.add( newArmy );
+    assertSame( newArmy, newGame.getItem( newArmy.getId() ) );
+  }
+
+  @Test
+  public void testConcurrentPlayerSaves() throws Exception
+  {
+    Game game = createSimpleGame();
+    File sequentialDir = Files.createTempDirectory( "hexgame" ).toFile();
+    File concurrentDir = Files.createTempDirectory( "hexgame" ).toFile();
+    try
+    {
+      game.setThreads( 1 );
+      game.save( sequentialDir );
+      game.setThreads( 4 );
+      game.save( concurrentDir );
+
+      for ( Player player : game.getPlayers() )
+      {
+        String fileName = SaveFormat.JSON.getFile( new File( Game.PLAYERS_DIR ), Player.getStateName( player.getName(), 0 ) ).getPath();
+        assertArrayEquals( Files.readAllBytes( new File( sequentialDir, fileName ).toPath() ),
+                           Files.readAllBytes( new File( concurrentDir, fileName ).toPath() ) );
+      }
+    }
+    finally
+    {
+      deleteDirectory( sequentialDir );
+      deleteDirectory( concurrentDir );
+    }
+  }
+
+  @Test
+  public void testConcurrentIntelligence() throws Exception
+  {
+    Game game = new Game( "intel" );
+    game.createGame( 6, 50, 0.67, 8 );
+    StringWriter gameSw = new StringWriter();
+    game.save( gameSw );
+
+    File sequentialDir = Files.createTempDirectory( "hexgame" ).toFile();
+    File concurrentDir = Files.createTempDirectory( "hexgame" ).toFile();
+    try
+    {
+      updateIntelligenceWithArmiesAbroad( Game.load( new StringReader( gameSw.toString() ) ), 1 ).save( sequentialDir );
+      updateIntelligenceWithArmiesAbroad( Game.load( new StringReader( gameSw.toString() ) ), 4 ).save( concurrentDir );
+
+      for ( Player player : game.getPlayers() )
+      {
+        String fileName = SaveFormat.JSON.getFile( new File( Game.PLAYERS_DIR ), Player.getStateName( player.getName(), 0 ) ).getPath();
+        assertArrayEquals( Files.readAllBytes( new File( sequentialDir, fileName ).toPath() ),
+                           Files.readAllBytes( new File( concurrentDir, fileName ).toPath() ) );
+      }
+    }
+    finally
+    {
+      deleteDirectory( sequentialDir );
+      deleteDirectory( concurrentDir );
+    }
+  }
+
+  /** @return the game once each player's armies have moved to the next player's capitol and the players have learned what they see. */
+  private static Game updateIntelligenceWithArmiesAbroad( Game game, int threads )
+  {
+    game.setThreads( threads );
+    List<Player> players = game.getPlayers();
+    for ( int i = 0; i < players.size(); i++ )
+    {
+      PopCenter nextCapitol = players.get( (i + 1) % players.size() ).getCapitol();
+      for ( Army army : players.get( i ).getArmies() )
+      {
+        army.setLocation( nextCapitol.getLocation() );
+      }
+    }
+    game.updateIntelligence();
+    return game;
+  }
+
+  @Test
+  public void testOrderLoadFailures() throws Exception
+  {
+    Game game = createSimpleGame();
+    File gameDir = Files.createTempDirectory( "hexgame" ).toFile();
+    game.save( gameDir );
+
+    // Every player's orders that fail are reported together, in player order.
+    File playersDir = new File( gameDir, Game.PLAYERS_DIR );
+    List<String> playerNames = new ArrayList<>();
+    for ( Player player : game.getPlayers() )
+    {
+      Files.write( SaveFormat.JSON.getFile( playersDir, Player.getStateName( player.getName(), 0 ) ).toPath(), "{ broken".getBytes() );
+      playerNames.add( player.getName() );
+    }
+    try
+    {
+      Game.runTurn( gameDir );
+      fail( "Running a turn with broken orders should fail." );
+    }
+    catch ( Game.OrderLoadException e )
+    {
+      assertEquals( playerNames, e.getPlayerNames() );
+    }
+  }
+
+  /** Delete the directory and everything in it. */
+  static void deleteDirectory( File dir ) throws IOException
+  {
+    Files.walkFileTree( dir.toPath(), new SimpleFileVisitor<Path>()
+    {
+      public FileVisitResult visitFile( Path file, BasicFileAttributes attrs ) throws IOException
+      {
+        Files.delete( file );
+        return FileVisitResult.CONTINUE;
+      }
+
+      public FileVisitResult postVisitDirectory( Path dir, IOException e ) throws IOException
+      {
+        if ( e != null ) { throw e; }
+        Files.delete( dir );
+        return FileVisitResult.CONTINUE;
+      }
+    } );
+  }
+
   public static Game createSimpleGame()
   {
     GameMap map = GameMapTest.createSimpleMap( 3, 3 );
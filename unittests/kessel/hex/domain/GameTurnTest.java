@@ -0,0 +1,47 @@
+package kessel.hex.domain;
+
+import kessel.hex.orders.wizard.CombatSpell;
+import kessel.hex.orders.wizard.Fireball;
+import kessel.hex.orders.wizard.ShieldFigure;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/** Test the executed orders of a turn are found by their index keys. */
+public class GameTurnTest
+{
+  @Test
+  public void testOrderIndex()
+  {
+    Game game = GameTest.createSimpleGame();
+    Player playerA = game.getPlayers().get( 0 );
+    Wizard wizard = playerA.getWizards().get( 0 );
+    Army army = new Army( game.generateUniqueId(), "ArmyA", 0, playerA.getCapitol().getLocation(), playerA );
+    Army enemy = new Army( game.generateUniqueId(), "ArmyB", 0, playerA.getCapitol().getLocation(), game.getPlayers().get( 1 ) );
+    Agent agent = new Agent( game.generateUniqueId(), "AgentA", 0, playerA.getCapitol(), playerA );
+    GameTurn turn = new GameTurn();
+
+    // Orders executed before the index is first used are found, as are those executed after.
+    ShieldFigure shieldAgent = new ShieldFigure( wizard, agent );
+    turn.addOrderExecuted( shieldAgent );
+    assertEquals( Arrays.asList( shieldAgent ), turn.getOrders( ShieldFigure.BY_TARGET, agent ) );
+    assertTrue( turn.getOrders( ShieldFigure.BY_TARGET, wizard ).isEmpty() );
+    ShieldFigure shieldWizard = new ShieldFigure( wizard, wizard );
+    ShieldFigure shieldAgentAgain = new ShieldFigure( wizard, agent );
+    turn.addOrderExecuted( shieldWizard );
+    turn.addOrderExecuted( shieldAgentAgain );
+    assertEquals( Arrays.asList( shieldAgent, shieldAgentAgain ), turn.getOrders( ShieldFigure.BY_TARGET, agent ) );
+    assertEquals( Arrays.asList( shieldWizard ), turn.getOrders( ShieldFigure.BY_TARGET, wizard ) );
+
+    // A combat spell is found by its caster's base and its target, as its caster was based when it was cast.
+    wizard.setBase( army );
+    Fireball fireball = new Fireball( wizard, enemy );
+    turn.addOrderExecuted( fireball );
+    wizard.setBase( playerA.getCapitol() );
+    assertEquals( Arrays.asList( fireball ), turn.getOrders( Fireball.BY_BASE_AND_TARGET, CombatSpell.getBaseAndTarget( army, enemy ) ) );
+    assertTrue( turn.getOrders( Fireball.BY_BASE_AND_TARGET, CombatSpell.getBaseAndTarget( enemy, army ) ).isEmpty() );
+    assertEquals( 3, turn.getOrdersOfType( ShieldFigure.class ).size() );
+  }
+}
@@ -0,0 +1,49 @@
+package kessel.hex.domain;
+
+import kessel.hex.util.Tuple;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/** Test the sweep finds what each player's armies and pops see of the others' armies. */
+public class IntelSweepTest
+{
+  @Test
+  public void testSightings()
+  {
+    Game game = GameTest.createSimpleGame();
+    Player playerA = game.getPlayers().get( 0 );
+    Player playerB = game.getPlayers().get( 1 );
+    Tuple hexA = playerA.getCapitol().getLocation().getCoord();
+    Tuple hexB = playerB.getCapitol().getLocation().getCoord();
+    Tuple unownedHex = new Tuple( 1, 1 );
+
+    // A's pop sees B's army, and B's army sees A's armies, but not an invisible one.
+    Army armyA = playerA.getArmies().get( 0 );
+    Army hiddenArmyA = new Army( game.generateUniqueId(), "HiddenA", 0, game.getMap().getLocation( hexA ), playerA );
+    hiddenArmyA.setInvisible( true );
+    playerA.add( hiddenArmyA );
+    Army armyB = playerB.getArmies().get( 0 );
+    armyB.setLocation( game.getMap().getLocation( hexA ) );
+    Army lostArmyB = new Army( game.generateUniqueId(), "LostB", 0, game.getMap().getLocation( unownedHex ), playerB );
+    playerB.add( lostArmyB );
+
+    IntelSweep sweep = new IntelSweep( game );
+    assertEquals( Arrays.asList( armyB ), sweep.getSightings( playerA, hexA ) );
+    assertTrue( sweep.getSightings( playerB, hexA ).contains( armyA ) );
+    assertFalse( sweep.getSightings( playerB, hexA ).contains( hiddenArmyA ) );
+
+    // Nothing is seen where a player has neither army nor pop, nor of a player's own armies.
+    assertEquals( Collections.<Army>emptyList(), sweep.getSightings( playerA, unownedHex ) );
+    assertEquals( Collections.<Army>emptyList(), sweep.getSightings( playerB, unownedHex ) );
+    assertEquals( Collections.<Army>emptyList(), sweep.getSightings( playerA, hexB ) );
+
+    // Only visible armies with a few units might be heard of.
+    assertFalse( sweep.getBigArmies().contains( hiddenArmyA ) );
+    assertFalse( sweep.getBigArmies().contains( lostArmyB ) );
+    assertEquals( armyA.getUnits().size() >= 2, sweep.getBigArmies().contains( armyA ) );
+  }
+}
@@ -0,0 +1,128 @@
+package kessel.hex.domain;
+
+import kessel.hex.orders.Order;
+import kessel.hex.orders.agent.MoveAgent;
+import kessel.hex.orders.agent.TrainAgent;
+import kessel.hex.orders.diplomat.MoveDiplomat;
+import kessel.hex.orders.wizard.MoveWizard;
+import kessel.hex.orders.wizard.TrainWizard;
+import kessel.hex.util.Tuple;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/** Test orders executed at the same time leave the game just as executing them in sequence would. */
+public class OrderExecutorTest
+{
+  @Test
+  public void testGroup()
+  {
+    Game game = GameTest.createSimpleGame();
+    Player playerA = game.getPlayers().get( 0 );
+    Player playerB = game.getPlayers().get( 1 );
+    PopCenter unowned = game.getPopCenter( new Tuple( 1, 1 ) );
+    Agent agentA = playerA.getAgents().get( 0 );
+    Agent agentB = playerB.getAgents().get( 0 );
+
+    // Orders of different players are apart unless they share something else, e.g. a base.
+    MoveAgent moveA = new MoveAgent( agentA, playerA.getCapitol() );
+    MoveAgent moveB = new MoveAgent( agentB, playerB.getCapitol() );
+    TrainAgent trainA = new TrainAgent( agentA );
+    List<List<Order<?>>> groups = OrderExecutor.group( Arrays.<Order<?>>asList( moveA, moveB, trainA ) );
+    assertEquals( Arrays.asList( Arrays.<Order<?>>asList( moveA, trainA ), Arrays.<Order<?>>asList( moveB ) ), groups );
+    MoveAgent moveBToUnowned = new MoveAgent( agentB, unowned );
+    MoveAgent moveAToUnowned = new MoveAgent( agentA, unowned );
+    groups = OrderExecutor.group( Arrays.<Order<?>>asList( moveBToUnowned, moveAToUnowned ) );
+    assertEquals( 1, groups.size() );
+
+    // Any order that may affect anything keeps its type in sequence.
+    MoveDiplomat moveDiplomat = new MoveDiplomat( playerA.getDiplomats().get( 0 ), unowned );
+    assertNull( OrderExecutor.group( Arrays.<Order<?>>asList( moveA, moveDiplomat ) ) );
+  }
+
+  @Test
+  public void testSameAsInSequence() throws IOException
+  {
+    StringWriter gameSw = new StringWriter();
+    GameTest.createSimpleGame().save( gameSw );
+    Game inSequence = runOrders( Game.load( new StringReader( gameSw.toString() ) ), 1 );
+    Game atOnce = runOrders( Game.load( new StringReader( gameSw.toString() ) ), 4 );
+
+    for ( int i = 0; i < inSequence.getPlayers().size(); i++ )
+    {
+      Player playerInSequence = inSequence.getPlayers().get( i );
+      Player playerAtOnce = atOnce.getPlayers().get( i );
+      assertEquals( playerInSequence.getGold(), playerAtOnce.getGold() );
+      assertEquals( describe( playerInSequence ), describe( playerAtOnce ) );
+      assertEquals( playerInSequence.getGameEvents().size(), playerAtOnce.getGameEvents().size() );
+      for ( int j = 0; j < playerInSequence.getGameEvents().size(); j++ )
+      {
+        GameEvent eventInSequence = playerInSequence.getGameEvents().get( j );
+        assertEquals( eventInSequence.getDescription(), playerAtOnce.getGameEvents().get( j ).getDescription() );
+      }
+    }
+    List<Class<? extends Order<?>>> types =
+      Arrays.<Class<? extends Order<?>>>asList( TrainAgent.class, MoveAgent.class, TrainWizard.class, MoveWizard.class );
+    for ( Class<? extends Order<?>> type : types )
+    {
+      List<? extends Order<?>> executedInSequence = inSequence.getCurrentTurn().getOrdersOfType( type );
+      assertEquals( describe( executedInSequence ), describe( atOnce.getCurrentTurn().getOrdersOfType( type ) ) );
+    }
+  }
+
+  /** @return a game after its figures have been trained and moved about, some to the same places. */
+  private static Game runOrders( Game game, int threads )
+  {
+    game.setThreads( threads );
+    game.setRandom( new Random( 7 ) );
+    PopCenter unowned = game.getPopCenter( new Tuple( 1, 1 ) );
+    List<Order<?>> orders = new ArrayList<>();
+    for ( Player player : game.getPlayers() )
+    {
+      for ( Agent agent : player.getAgents() )
+      {
+        orders.add( new TrainAgent( agent ) );
+        orders.add( new MoveAgent( agent, unowned ) );
+      }
+      for ( Wizard wizard : player.getWizards() )
+      {
+        orders.add( new TrainWizard( wizard ) );
+        orders.add( new MoveWizard( wizard, player.getCapitol() ) );
+      }
+      for ( Diplomat diplomat : player.getDiplomats() )
+      {
+        orders.add( new MoveDiplomat( diplomat, unowned ) );
+      }
+    }
+    game.processOrders( orders );
+    return game;
+  }
+
+  private static List<String> describe( List<? extends Order<?>> orders )
+  {
+    List<String> descriptions = new ArrayList<>();
+    for ( Order<?> order : orders )
+    {
+      descriptions.add( order.getSubject().getName() + ": " + order.getShortDescription() );
+    }
+    return descriptions;
+  }
+
+  private static List<String> describe( Player player )
+  {
+    List<String> figures = new ArrayList<>();
+    for ( Figure figure : player.getFigures() )
+    {
+      figures.add( figure.getName() + " level " + figure.getLevel() + " at " + figure.getBase().getName() );
+    }
+    return figures;
+  }
+}
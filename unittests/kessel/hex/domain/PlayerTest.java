@@ -1,14 +1,21 @@
 package kessel.hex.domain;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import kessel.hex.map.ControlLevel;
+import kessel.hex.map.Region;
 import kessel.hex.orders.diplomat.MoveDiplomat;
 import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Logger;
 import org.apache.log4j.PatternLayout;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.file.Files;
 
 import static org.junit.Assert.*;
 
@@ -89,6 +96,93 @@ public class PlayerTest
     assertEquals( playerB.getArmies().get( 2 ).getLocation(), playerB.getCapitol().getLocation() );
   }
 
+  @Test
+  public void testOrdersFile() throws Exception
+  {
+    Game game = GameTest.createSimpleGame();
+    Player playerA = game.getPlayers().get( 0 );
+    Diplomat diplomatA = playerA.getDiplomats().get( 0 );
+    playerA.addOrder( new MoveDiplomat( diplomatA, game.getPopCenter( 1, 0 ) ) );
+    File playersDir = Files.createTempDirectory( "hexplayers" ).toFile();
+
+    // Without an orders file, the orders come from the state file.
+    playerA.save( playersDir, 0 );
+    JsonArray stateOrders = Player.loadOrders( playersDir, playerA.getName(), 0 );
+    assertEquals( Game.GSON.toJsonTree( playerA.getNextTurnOrders(), Player.MyJsonAdapter.ORDER_LIST.getType() ), stateOrders );
+
+    // An orders file, in any format, takes precedence.
+    playerA.addOrder( new MoveDiplomat( diplomatA, game.getPopCenter( 1, 1 ) ) );
+    playerA.saveOrders( playersDir, 0, SaveFormat.SNAPSHOT );
+    JsonArray fileOrders = Player.loadOrders( playersDir, playerA.getName(), 0 );
+    assertEquals( Game.GSON.toJsonTree( playerA.getNextTurnOrders(), Player.MyJsonAdapter.ORDER_LIST.getType() ), fileOrders );
+    assertEquals( 2, fileOrders.size() );
+  }
+
+  @Test
+  public void testLoadToIssueOrders() throws Exception
+  {
+    Game game = GameTest.createSimpleGame();
+    Player playerA = game.getPlayers().get( 0 );
+    Diplomat diplomatA = playerA.getDiplomats().get( 0 );
+    game.updateIntelligence();
+    playerA.addKnownItem( game.getPopCenter( 1, 1 ) );
+    File playersDir = Files.createTempDirectory( "hexplayers" ).toFile();
+    playerA.save( playersDir, 0 );
+
+    // The orders saved since the state file was written are the ones the player picks up again.
+    playerA.addOrder( new MoveDiplomat( diplomatA, game.getPopCenter( 1, 1 ) ) );
+    playerA.addOrder( new MoveDiplomat( diplomatA, playerA.getCapitol() ) );
+    playerA.saveOrders( playersDir, 0 );
+    Player loadedA = Player.loadToIssueOrders( playersDir, playerA.getName(), 0 );
+    assertEquals( 2, loadedA.getNextTurnOrders().size() );
+    assertEquals( Game.GSON.toJsonTree( playerA.getNextTurnOrders(), Player.MyJsonAdapter.ORDER_LIST.getType() ),
+                  Game.GSON.toJsonTree( loadedA.getNextTurnOrders(), Player.MyJsonAdapter.ORDER_LIST.getType() ) );
+    assertSame( loadedA.getKnownItem( diplomatA.getId() ), loadedA.getNextTurnOrders().get( 0 ).getSubject() );
+
+    // So saving them again keeps them.
+    loadedA.saveOrders( playersDir, 0 );
+    assertEquals( 2, Player.loadOrders( playersDir, playerA.getName(), 0 ).size() );
+  }
+
+  @Test
+  public void testEmbassiesAndControlIntel() throws Exception
+  {
+    Game game = GameTest.createSimpleGame();
+    Player playerA = game.getPlayers().get( 0 );
+    Player playerB = game.getPlayers().get( 1 );
+    Region regionOne = game.getMap().getRegions().get( 0 );
+    Region regionTwo = game.getMap().getRegions().get( 1 );
+    int levelOne = playerA.getEmbassyLevel( regionOne );
+    playerA.improveEmbassy( regionOne );
+    playerA.improveEmbassy( regionTwo.getName() );
+    playerA.degradeEmbassy( regionTwo );
+    playerA.degradeEmbassy( regionTwo );
+    assertEquals( levelOne + 1, playerA.getEmbassyLevel( regionOne ) );
+    assertEquals( levelOne + 1, playerA.getEmbassyLevel( regionOne.getName() ) );
+    assertEquals( 0, playerA.getEmbassyLevel( new Region( "Elsewhere" ) ) );
+    playerA.addKnownControlLevel( regionTwo, playerB, ControlLevel.Presence );
+    assertEquals( ControlLevel.Presence, playerA.getControlLevelIntel( regionTwo, playerB ) );
+    assertEquals( ControlLevel.Unknown, playerA.getControlLevelIntel( regionTwo, "Nobody" ) );
+
+    // Saved by name, without the regions at level 0, and held by ordinal again once loaded.
+    StringWriter playerSw = new StringWriter();
+    playerA.save( playerSw );
+    JsonObject embassies = JsonParser.parseString( playerSw.toString() ).getAsJsonObject().getAsJsonObject( "embassies" );
+    assertEquals( levelOne + 1, embassies.get( regionOne.getName() ).getAsInt() );
+    assertFalse( embassies.has( regionTwo.getName() ) );
+    StringWriter sw = new StringWriter();
+    game.save( sw );
+    Game loaded = Game.load( new StringReader( sw.toString() ) );
+    Player loadedA = loaded.getPlayer( playerA.getName() );
+    Region loadedTwo = loaded.getMap().getRegion( regionTwo.getName() );
+    assertEquals( levelOne + 1, loadedA.getEmbassyLevel( loaded.getMap().getRegion( regionOne.getName() ) ) );
+    assertEquals( 0, loadedA.getEmbassyLevel( loadedTwo ) );
+    assertEquals( ControlLevel.Presence, loadedA.getControlLevelIntel( loadedTwo, playerB.getName() ) );
+    assertEquals( playerA._embassyLevels, loadedA._embassyLevels );
+    assertEquals( playerA._controlLevelIntel, loadedA._controlLevelIntel );
+    assertEquals( regionOne.getName(), loadedA._embassyLevels.getRegion( regionOne.getOrdinal() ) );
+  }
+
   @Test // Not really a test per se, just exercising the updatePlayerIntel code and spewing the player's json file.
   public void testIntelUpdates() throws IOException
   {
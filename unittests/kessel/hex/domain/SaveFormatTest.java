@@ -0,0 +1,218 @@
+package kessel.hex.domain;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import kessel.hex.orders.diplomat.MoveDiplomat;
+import kessel.hex.util.Tuple;
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+/** Test the save formats produce the same game, whichever one is used. */
+public class SaveFormatTest
+{
+  private static final Logger LOG = Logger.getLogger( SaveFormatTest.class );
+
+  static
+  {
+    LOG.addAppender( new ConsoleAppender( new PatternLayout( PatternLayout.TTCC_CONVERSION_PATTERN ) ) );
+  }
+
+  @Test
+  public void testSnapshotPersistence() throws Exception
+  {
+    Game oldGame = createGame();
+    File gameDir = Files.createTempDirectory( "hexsave" ).toFile();
+    oldGame.save( gameDir, SaveFormat.SNAPSHOT );
+    File gameFile = Game.getGameFile( gameDir );
+    assertEquals( SaveFormat.SNAPSHOT, SaveFormat.forFile( gameFile ) );
+
+    Game newGame = Game.load( gameDir );
+    assertEquals( toJson( oldGame ), toJson( newGame ) );
+    assertEquals( oldGame, newGame );
+
+    File playersDir = new File( gameDir, Game.PLAYERS_DIR );
+    for ( Player oldPlayer : oldGame.getPlayers() )
+    {
+      Player newPlayer = Player.load( playersDir, oldPlayer.getName(), oldGame.getTurn() );
+      newPlayer.fixDeserializationReferences();
+      assertEquals( toJson( oldPlayer ), toJson( newPlayer ) );
+      assertEquals( oldPlayer, newPlayer );
+    }
+  }
+
+  @Test
+  public void testCompressedPersistence() throws Exception
+  {
+    Game oldGame = createGame();
+    File jsonDir = Files.createTempDirectory( "hexsave" ).toFile();
+    oldGame.save( jsonDir );
+    File gameDir = Files.createTempDirectory( "hexsave" ).toFile();
+    oldGame.save( gameDir, SaveFormat.COMPRESSED );
+    File gameFile = Game.getGameFile( gameDir );
+    assertEquals( SaveFormat.COMPRESSED, SaveFormat.forFile( gameFile ) );
+    assertEquals( "game", SaveFormat.getBaseName( gameFile ) );
+    assertTrue( gameFile.length() * 5 < Game.getGameFile( jsonDir ).length() );
+
+    // It's compact json, without the pretty printing.
+    try (Reader in = new InputStreamReader( new GZIPInputStream( new FileInputStream( gameFile ) ) ))
+    {
+      String json = IOUtils.toString( in );
+      assertFalse( json.contains( "\n" ) );
+      assertEquals( JsonParser.parseString( toJson( oldGame ) ), JsonParser.parseString( json ) );
+    }
+
+    Game newGame = Game.load( gameDir );
+    assertEquals( toJson( oldGame ), toJson( newGame ) );
+    assertEquals( oldGame, newGame );
+
+    File playersDir = new File( gameDir, Game.PLAYERS_DIR );
+    for ( Player oldPlayer : oldGame.getPlayers() )
+    {
+      Player newPlayer = Player.load( playersDir, oldPlayer.getName(), oldGame.getTurn() );
+      newPlayer.fixDeserializationReferences();
+      assertEquals( toJson( oldPlayer ), toJson( newPlayer ) );
+    }
+
+    // Compressed content is recognized whatever the file's extension.
+    File renamedFile = SaveFormat.JSON.getFile( new File( gameDir, Game.ADMIN_DIR ), Game.GAME_NAME );
+    assertTrue( gameFile.renameTo( renamedFile ) );
+    assertEquals( toJson( oldGame ), toJson( Game.load( gameDir ) ) );
+  }
+
+  @Test
+  public void testConvert() throws Exception
+  {
+    Game game = createGame();
+    File gameDir = Files.createTempDirectory( "hexsave" ).toFile();
+    game.save( gameDir );
+    File jsonFile = Game.getGameFile( gameDir );
+    String json = new String( Files.readAllBytes( jsonFile.toPath() ), "UTF-8" );
+
+    // Converting to a snapshot and back must give exactly the original file.
+    File snapshotFile = SaveFormat.SNAPSHOT.convert( jsonFile );
+    assertFalse( jsonFile.exists() );
+    assertTrue( snapshotFile.length() < json.length() );
+    assertEquals( snapshotFile, Game.getGameFile( gameDir ) );
+
+    File convertedFile = SaveFormat.JSON.convert( snapshotFile );
+    assertFalse( snapshotFile.exists() );
+    assertEquals( json, new String( Files.readAllBytes( convertedFile.toPath() ), "UTF-8" ) );
+  }
+
+  @Test
+  public void testVersionOneSnapshot() throws Exception
+  {
+    // {"x":1,"y":-1,"z":["x","y"]} as a version 1 snapshot, which defined each string where it was first used and had no lengths.
+    byte[] snapshot = { 'H', 'E', 'X', 'S', 1,
+                        1, 5, 0, 1, 'x', 7, 2, 5, 0, 1, 'y', 7, 1, 5, 0, 1, 'z', 3, 6, 1, 6, 2, 4, 2 };
+    File file = SaveFormat.SNAPSHOT.getFile( Files.createTempDirectory( "hexsave" ).toFile(), "old" );
+    Files.write( file.toPath(), snapshot );
+    assertEquals( JsonParser.parseString( "{\"x\":1,\"y\":-1,\"z\":[\"x\",\"y\"]}" ), SaveFormat.SNAPSHOT.load( file, JsonElement.class ) );
+  }
+
+  @Test
+  public void testPartialLoad() throws Exception
+  {
+    Game oldGame = createGame();
+    for ( Player player : oldGame.getPlayers() )
+    {
+      player.addGameEvent( new GameEvent( "Something happened", player.getCapitol().getLocation(), oldGame.getTurn() ) );
+      player.addOrder( new MoveDiplomat( player.getDiplomats().get( 0 ), player.getCapitol() ) );
+    }
+
+    for ( SaveFormat format : SaveFormat.values() )
+    {
+      File gameDir = Files.createTempDirectory( "hexsave" ).toFile();
+      oldGame.save( gameDir, format );
+
+      // Just the map, regions and pop centers.
+      Game mapGame = Game.load( gameDir, EnumSet.noneOf( SavePart.class ) );
+      assertTrue( mapGame.getPlayers().isEmpty() );
+      assertEquals( Game.GSON.toJson( oldGame.getMap() ), Game.GSON.toJson( mapGame.getMap() ) );
+      assertEquals( oldGame.getAllPopCenters().size(), mapGame.getAllPopCenters().size() );
+      assertEquals( oldGame.getPopCenter( new Tuple( 0, 0 ) ).getLocation(), mapGame.getPopCenter( new Tuple( 0, 0 ) ).getLocation() );
+
+      // The players without their views, events and orders.
+      Game summaryGame = Game.load( gameDir, EnumSet.of( SavePart.PLAYERS ) );
+      Game expectedGame = Game.load( gameDir );
+      for ( Player player : expectedGame.getPlayers() )
+      {
+        player._gameView = null;
+        player._events = new ArrayList<>();
+        player._turnOrders = new ArrayList<>();
+      }
+      assertEquals( toJson( expectedGame ), toJson( summaryGame ) );
+      assertEquals( oldGame.getPopCenter( new Tuple( 0, 0 ) ).getOwnerName(), summaryGame.getPopCenter( new Tuple( 0, 0 ) ).getOwnerName() );
+
+      // One player's view and events, without their orders.
+      File playersDir = new File( gameDir, Game.PLAYERS_DIR );
+      for ( Player oldPlayer : oldGame.getPlayers() )
+      {
+        Player viewPlayer = Player.load( playersDir, oldPlayer.getName(), oldGame.getTurn(), EnumSet.of( SavePart.VIEWS, SavePart.EVENTS ) );
+        viewPlayer.fixDeserializationReferences();
+        Player expectedPlayer = Player.load( playersDir, oldPlayer.getName(), oldGame.getTurn() );
+        expectedPlayer.fixDeserializationReferences();
+        expectedPlayer._turnOrders = new ArrayList<>();
+        assertEquals( toJson( expectedPlayer ), toJson( viewPlayer ) );
+        assertEquals( 1, viewPlayer.getGameEvents().size() );
+        assertNotNull( viewPlayer.getGameView() );
+      }
+    }
+  }
+
+  @Test
+  public void testFileNames()
+  {
+    File dir = new File( "players" );
+    assertEquals( "Bob_turn3", SaveFormat.getBaseName( SaveFormat.SNAPSHOT.getFile( dir, Player.getStateName( "Bob", 3 ) ) ) );
+    assertEquals( "Bob_turn3", SaveFormat.getBaseName( SaveFormat.JSON.getFile( dir, Player.getStateName( "Bob", 3 ) ) ) );
+    assertTrue( SaveFormat.isSaveFile( new File( dir, "Bob_turn3.hexs" ) ) );
+    assertFalse( SaveFormat.isSaveFile( new File( dir, "Bob_turn3.txt" ) ) );
+  }
+
+  private static Game createGame()
+  {
+    Game game = GameTest.createSimpleGame();
+    Player playerA = game.getPlayers().get( 0 );
+    Player playerB = game.getPlayers().get( 1 );
+    PopCenter popA = game.getPopCenter( new Tuple( 0, 0 ) );
+    popA.setOwner( playerA );
+    PopCenter popB = game.getPopCenter( new Tuple( 1, 0 ) );
+    popB.setOwner( playerB );
+    playerA.add( new Diplomat( game.generateUniqueId(), "DiplomatA", 4, popB ) );
+    playerB.add( new Diplomat( game.generateUniqueId(), "DiplomatB", 4, popA ) );
+    playerA.updateIntelligence( game );
+    playerB.updateIntelligence( game );
+    return game;
+  }
+
+  private static String toJson( Game game ) throws IOException
+  {
+    StringWriter sw = new StringWriter();
+    game.save( sw );
+    return sw.toString();
+  }
+
+  private static String toJson( Player player ) throws IOException
+  {
+    StringWriter sw = new StringWriter();
+    player.save( sw );
+    return sw.toString();
+  }
+}
@@ -0,0 +1,174 @@
+package kessel.hex.domain;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/** Test turns are archived once per distinct file and restored exactly. */
+public class TurnArchiveTest
+{
+  @Test
+  public void testArchiveAndRestore() throws Exception
+  {
+    File gameDir = Files.createTempDirectory( "hexgame" ).toFile();
+    File archiveDir = Files.createTempDirectory( "hexarchive" ).toFile();
+    TurnArchive archive = new TurnArchive( archiveDir );
+    Game game = GameTest.createSimpleGame();
+    game.save( gameDir );
+    archive.archive( gameDir, game.getTurn() );
+    File turn0Dir = copyOf( gameDir );
+
+    // Only the game and the players' new files differ for the next turn.
+    game.incrementTurn();
+    game.getPlayers().get( 0 ).setGold( 1234 );
+    game.save( gameDir );
+    archive.archive( gameDir, game.getTurn() );
+
+    assertEquals( Arrays.asList( 0, 1 ), archive.getTurns() );
+    Map<String, String> turn0 = archive.getManifest( 0 );
+    Map<String, String> turn1 = archive.getManifest( 1 );
+    assertEquals( 1 + game.getPlayers().size(), turn0.size() );
+    assertEquals( 1 + 2 * game.getPlayers().size(), turn1.size() );
+    Set<String> distinctHashes = new HashSet<>( turn0.values() );
+    distinctHashes.addAll( turn1.values() );
+    assertEquals( distinctHashes.size(), countBlobs( archiveDir ) );
+    assertTrue( countBlobs( archiveDir ) < turn0.size() + turn1.size() );
+    assertTrue( archive.hasGameFile( 1, gameDir ) );
+    assertFalse( archive.hasGameFile( 0, gameDir ) );
+
+    // Restoring the first turn gives back exactly its files.
+    File restoredDir = Files.createTempDirectory( "hexrestored" ).toFile();
+    archive.restore( 0, restoredDir );
+    for ( String path : turn0.keySet() )
+    {
+      assertArrayEquals( Files.readAllBytes( new File( turn0Dir, path ).toPath() ),
+                         Files.readAllBytes( new File( restoredDir, path ).toPath() ) );
+    }
+
+    // Once a turn's files are removed from the game directory, they can be restored in place.
+    archive.removeArchivedFiles( 1, gameDir );
+    assertFalse( Game.getGameFile( gameDir ).exists() );
+    archive.restore( 1, gameDir );
+    assertTrue( archive.hasGameFile( 1, gameDir ) );
+  }
+
+  @Test
+  public void testRestoreAfterFailedSave() throws Exception
+  {
+    File gameDir = Files.createTempDirectory( "hexgame" ).toFile();
+    File archiveDir = Files.createTempDirectory( "hexarchive" ).toFile();
+    TurnArchive archive = new TurnArchive( archiveDir );
+    Game game = GameTest.createSimpleGame();
+    game.save( gameDir );
+    archive.archive( gameDir, game.getTurn() );
+    archive.removeArchivedFiles( game.getTurn(), gameDir );
+
+    // The last player's file for the next turn can't be written, so the save fails after the game and the other player are written.
+    game.incrementTurn();
+    File playersDir = new File( gameDir, Game.PLAYERS_DIR );
+    String lastPlayer = game.getPlayers().get( game.getPlayers().size() - 1 ).getName();
+    File blocker = SaveFormat.JSON.getFile( playersDir, Player.getStateName( lastPlayer, game.getTurn() ) );
+    assertTrue( blocker.mkdir() );
+    try
+    {
+      game.save( gameDir );
+      fail( "The save should fail on the last player's file." );
+    }
+    catch ( IOException e )
+    {
+      // expected.
+    }
+    assertTrue( listGameFiles( gameDir ).size() > 1 );
+
+    // Restoring the prior turn leaves exactly its files, so archiving it again archives the same turn.
+    archive.restore( 0, gameDir );
+    Map<String, String> turn0 = archive.getManifest( 0 );
+    assertEquals( turn0.keySet(), listGameFiles( gameDir ) );
+    assertTrue( archive.hasGameFile( 0, gameDir ) );
+    archive.archive( gameDir, 0 );
+    assertEquals( turn0, archive.getManifest( 0 ) );
+  }
+
+  @Test
+  public void testPrune() throws Exception
+  {
+    File gameDir = Files.createTempDirectory( "hexgame" ).toFile();
+    File archiveDir = Files.createTempDirectory( "hexarchive" ).toFile();
+    TurnArchive archive = new TurnArchive( archiveDir );
+    Game game = GameTest.createSimpleGame();
+    for ( int turn = 0; turn < 3; turn++ )
+    {
+      game.getPlayers().get( 0 ).setGold( turn );
+      game.save( gameDir );
+      archive.archive( gameDir, game.getTurn() );
+      archive.removeArchivedFiles( game.getTurn(), gameDir );
+      game.incrementTurn();
+    }
+
+    // A crash while archiving leaves a temporary file behind.
+    File tmpFile = new File( new File( archiveDir, "tmp" ), "leftover.tmp" );
+    assertTrue( tmpFile.createNewFile() );
+
+    assertTrue( archive.prune( 1 ) > 0 );
+    assertEquals( Collections.singletonList( 2 ), archive.getTurns() );
+    assertEquals( new HashSet<>( archive.getManifest( 2 ).values() ).size(), countBlobs( archiveDir ) );
+    assertFalse( tmpFile.exists() );
+
+    try
+    {
+      archive.restore( 0, gameDir );
+      fail( "A pruned turn shouldn't be restorable." );
+    }
+    catch ( IllegalArgumentException e )
+    {
+      // expected.
+    }
+  }
+
+  /** @return the paths of the admin and player files in the game directory, relative to it. */
+  private static Set<String> listGameFiles( File gameDir )
+  {
+    Set<String> paths = new HashSet<>();
+    for ( String dirName : new String[]{ Game.ADMIN_DIR, Game.PLAYERS_DIR } )
+    {
+      for ( File file : new File( gameDir, dirName ).listFiles() )
+      {
+        if ( file.isFile() ) { paths.add( dirName + "/" + file.getName() ); }
+      }
+    }
+    return paths;
+  }
+
+  private static int countBlobs( File archiveDir )
+  {
+    int count = 0;
+    for ( File blobDir : new File( archiveDir, "blobs" ).listFiles() )
+    {
+      count += blobDir.listFiles().length;
+    }
+    return count;
+  }
+
+  private static File copyOf( File gameDir ) throws Exception
+  {
+    File copy = Files.createTempDirectory( "hexcopy" ).toFile();
+    for ( String dirName : new String[]{ Game.ADMIN_DIR, Game.PLAYERS_DIR } )
+    {
+      new File( copy, dirName ).mkdir();
+      for ( File file : new File( gameDir, dirName ).listFiles() )
+      {
+        Files.copy( file.toPath(), new File( new File( copy, dirName ), file.getName() ).toPath() );
+      }
+    }
+    return copy;
+  }
+}
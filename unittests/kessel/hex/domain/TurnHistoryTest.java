@@ -0,0 +1,173 @@
+package kessel.hex.domain;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import kessel.hex.map.Location;
+import kessel.hex.orders.diplomat.MoveDiplomat;
+import kessel.hex.util.Tuple;
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/** Test turns recorded as deltas rebuild to exactly what was recorded. */
+public class TurnHistoryTest
+{
+  private static final Logger LOG = Logger.getLogger( TurnHistoryTest.class );
+
+  static
+  {
+    LOG.addAppender( new ConsoleAppender( new PatternLayout( PatternLayout.TTCC_CONVERSION_PATTERN ) ) );
+  }
+
+  @Test
+  public void testRebuild() throws Exception
+  {
+    Game game = GameTest.createSimpleGame();
+    Player playerA = game.getPlayers().get( 0 );
+    Player playerB = game.getPlayers().get( 1 );
+    PopCenter popA = game.getPopCenter( new Tuple( 0, 0 ) );
+    PopCenter popB = game.getPopCenter( new Tuple( 1, 0 ) );
+
+    // A baseline every 3 turns, so the turns are rebuilt from more than one baseline.
+    File historyDir = Files.createTempDirectory( "hexhistory" ).toFile();
+    TurnHistory history = new TurnHistory( historyDir, SaveFormat.JSON, 3 );
+    List<String> gameTurns = new ArrayList<>();
+    List<String> playerTurns = new ArrayList<>();
+    for ( int turn = 0; turn < 7; turn++ )
+    {
+      game.setTurn( turn );
+      switch ( turn % 3 )
+      {
+        case 0:
+          playerA.add( new Diplomat( game.generateUniqueId(), "Diplomat" + turn, 2, popA ) );
+          break;
+        case 1:
+          popB.setOwner( turn % 2 == 0 ? playerA : playerB );
+          playerB.addGameEvent( new GameEvent( "Something happened on turn " + turn, Location.NOWHERE, turn ) );
+          break;
+        default:
+          playerA.remove( playerA.getDiplomats().get( 0 ) );
+          break;
+      }
+      playerA.updateIntelligence( game );
+      playerB.updateIntelligence( game );
+      history.record( game );
+      gameTurns.add( toJson( game ) );
+      playerTurns.add( toJson( playerA ) );
+    }
+
+    assertEquals( Arrays.asList( 0, 1, 2, 3, 4, 5, 6 ), history.getTurns( Game.GAME_NAME ) );
+    assertTrue( SaveFormat.JSON.getFile( historyDir, "game_turn3" ).exists() );
+    assertTrue( SaveFormat.JSON.getFile( historyDir, "game_turn4_delta" ).exists() );
+
+    // Rebuild each turn with a fresh history, so nothing is remembered from recording.
+    TurnHistory rebuilt = new TurnHistory( historyDir, SaveFormat.JSON, 3 );
+    for ( int turn = 0; turn < 7; turn++ )
+    {
+      assertEquals( gameTurns.get( turn ), toJson( rebuilt.loadGame( turn ) ) );
+      Player player = rebuilt.loadPlayer( playerA.getName(), turn );
+      player.fixDeserializationReferences();
+      assertEquals( playerTurns.get( turn ), toJson( player ) );
+    }
+    assertEquals( game, rebuilt.loadGame( 6 ) );
+  }
+
+  @Test
+  public void testRecordLatestTurnAgain() throws Exception
+  {
+    Game game = GameTest.createSimpleGame();
+    Player playerA = game.getPlayers().get( 0 );
+    TurnHistory history = new TurnHistory( Files.createTempDirectory( "hexhistory" ).toFile() );
+    history.record( game );
+    game.setTurn( 1 );
+    history.record( game );
+
+    // e.g. the player's orders come back for the turn.
+    playerA.addGameEvent( new GameEvent( "Orders issued", Location.NOWHERE, 1 ) );
+    history.record( playerA, 1 );
+    Player player = history.loadPlayer( playerA.getName(), 1 );
+    player.fixDeserializationReferences();
+    assertEquals( toJson( playerA ), toJson( player ) );
+
+    try
+    {
+      history.record( playerA, 0 );
+      fail( "Recording a turn before the latest should fail." );
+    }
+    catch ( IllegalArgumentException e )
+    {
+      // expected.
+    }
+  }
+
+  @Test
+  public void testSaveToHistory() throws Exception
+  {
+    Game game = GameTest.createSimpleGame();
+    File gameDir = Files.createTempDirectory( "hexgame" ).toFile();
+    game.save( gameDir );
+
+    game.incrementTurn();
+    game.getPlayers().get( 0 ).addGameEvent( new GameEvent( "A new turn", Location.NOWHERE, game.getTurn() ) );
+    game.saveToHistory( gameDir, SaveFormat.JSON );
+
+    // The full game file is replaced by the history, while the players only have files for the new turn.
+    assertFalse( Game.getGameFile( gameDir ).exists() );
+    assertTrue( Game.exists( gameDir ) );
+    File playersDir = new File( gameDir, Game.PLAYERS_DIR );
+    for ( Player player : game.getPlayers() )
+    {
+      assertFalse( SaveFormat.JSON.getFile( playersDir, Player.getStateName( player.getName(), 0 ) ).exists() );
+      assertTrue( SaveFormat.JSON.getFile( playersDir, Player.getStateName( player.getName(), 1 ) ).exists() );
+    }
+    Game loaded = Game.load( gameDir );
+    assertEquals( toJson( game ), toJson( loaded ) );
+    assertEquals( Arrays.asList( 0, 1 ), Game.getHistory( gameDir ).getTurns( game.getPlayers().get( 0 ).getName() ) );
+  }
+
+  @Test
+  public void testSaveToHistoryWithOrdersFile() throws Exception
+  {
+    Game game = GameTest.createSimpleGame();
+    Player playerA = game.getPlayers().get( 0 );
+    File gameDir = Files.createTempDirectory( "hexgame" ).toFile();
+    game.save( gameDir );
+
+    // The orders are submitted in their own file, rather than written back into the player's state file.
+    File playersDir = new File( gameDir, Game.PLAYERS_DIR );
+    playerA.addOrder( new MoveDiplomat( playerA.getDiplomats().get( 0 ), game.getPopCenter( new Tuple( 1, 0 ) ) ) );
+    playerA.saveOrders( playersDir, 0 );
+    JsonArray orders = Player.loadOrders( playersDir, playerA.getName(), 0 );
+
+    game.incrementTurn();
+    game.saveToHistory( gameDir, SaveFormat.JSON );
+    assertFalse( SaveFormat.JSON.getFile( playersDir, Player.getOrdersName( playerA.getName(), 0 ) ).exists() );
+    JsonObject recorded = Game.getHistory( gameDir ).rebuild( playerA.getName(), 0 ).getAsJsonObject();
+    assertEquals( orders, recorded.get( Player.MyJsonAdapter.ORDERS ) );
+  }
+
+  private static String toJson( Game game ) throws IOException
+  {
+    StringWriter sw = new StringWriter();
+    game.save( sw );
+    return sw.toString();
+  }
+
+  private static String toJson( Player player ) throws IOException
+  {
+    StringWriter sw = new StringWriter();
+    player.save( sw );
+    return sw.toString();
+  }
+}
@@ -0,0 +1,134 @@
+package kessel.hex.domain;
+
+import com.google.gson.JsonArray;
+import kessel.hex.orders.Order;
+import kessel.hex.orders.agent.AgentReconLocation;
+import kessel.hex.orders.diplomat.MoveDiplomat;
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/** Test journaled turns replay to exactly the game they produced. */
+public class TurnJournalTest
+{
+  private static final Logger LOG = Logger.getLogger( TurnJournalTest.class );
+
+  static
+  {
+    LOG.addAppender( new ConsoleAppender( new PatternLayout( PatternLayout.TTCC_CONVERSION_PATTERN ) ) );
+  }
+
+  @Test
+  public void testReplay() throws Exception
+  {
+    Game game = createGame();
+
+    // A snapshot every 2 turns, so turns are replayed from more than one snapshot.
+    TurnJournal journal = new TurnJournal( Files.createTempDirectory( "hexjournal" ).toFile(), 2 );
+    List<String> turns = new ArrayList<>();
+    for ( int turn = 1; turn <= 5; turn++ )
+    {
+      journal.record( game, createOrders( game ) );
+      turns.add( toJson( game ) );
+    }
+
+    assertEquals( Arrays.asList( 1, 2, 3, 4, 5 ), journal.getTurns() );
+    for ( int turn = 1; turn <= 5; turn++ )
+    {
+      assertEquals( turns.get( turn - 1 ), toJson( journal.replay( turn ) ) );
+    }
+
+    try
+    {
+      journal.replay( 6 );
+      fail( "Replaying a turn that was never run should fail." );
+    }
+    catch ( IllegalArgumentException e )
+    {
+      // expected.
+    }
+  }
+
+  @Test
+  public void testRecordTurnAgain() throws Exception
+  {
+    File journalDir = Files.createTempDirectory( "hexjournal" ).toFile();
+    Game game = createGame();
+    TurnJournal journal = new TurnJournal( journalDir );
+    journal.record( game, createOrders( game ) );
+    journal.record( game, createOrders( game ) );
+    journal.record( game, createOrders( game ) );
+
+    // e.g. turn 2's results failed to save, so it's run again from turn 1 with different orders.
+    game = journal.replay( 1 );
+    journal.record( game, new JsonArray() );
+    String rerun = toJson( game );
+
+    assertEquals( Arrays.asList( 1, 2 ), journal.getTurns() );
+    assertEquals( 0, journal.getOrders( 2 ).size() );
+    assertEquals( rerun, toJson( new TurnJournal( journalDir ).replay( 2 ) ) );
+
+    // The superseded turn 3 went with its snapshot.
+    try
+    {
+      journal.replay( 3 );
+      fail( "Replaying a superseded turn should fail." );
+    }
+    catch ( IllegalArgumentException e )
+    {
+      // expected.
+    }
+  }
+
+  /** @return a game where the players have seen the start of the game, so turns can be run. */
+  private static Game createGame()
+  {
+    Game game = GameTest.createSimpleGame();
+    for ( Player player : game.getPlayers() )
+    {
+      player.updateIntelligence( game );
+    }
+    return game;
+  }
+
+  /**
+   * @return orders for both players that are shuffled together and whose outcomes are left to chance, so the turn depends on its random
+   *         draws. Each player's agents recon the other's capitol while the diplomats move back and forth between the players' pops.
+   */
+  private static JsonArray createOrders( Game game )
+  {
+    List<Order<?>> orders = new ArrayList<>();
+    for ( Player player : game.getPlayers() )
+    {
+      Player other = game.getPlayers().get( 1 - game.getPlayers().indexOf( player ) );
+      for ( Agent agent : player.getAgents() )
+      {
+        orders.add( new AgentReconLocation( agent, other.getCapitol().getLocation().getCoord() ) );
+      }
+      for ( Diplomat diplomat : player.getDiplomats() )
+      {
+        PopCenter newBase = diplomat.getBase().equals( player.getCapitol() ) ? other.getCapitol() : player.getCapitol();
+        orders.add( new MoveDiplomat( diplomat, newBase ) );
+      }
+    }
+    return Game.GSON.toJsonTree( orders, Player.MyJsonAdapter.ORDER_LIST.getType() ).getAsJsonArray();
+  }
+
+  private static String toJson( Game game ) throws IOException
+  {
+    StringWriter sw = new StringWriter();
+    game.save( sw );
+    return sw.toString();
+  }
+}
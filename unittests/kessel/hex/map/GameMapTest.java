@@ -1,12 +1,24 @@
 package kessel.hex.map;
 
 import kessel.hex.domain.Game;
+import kessel.hex.util.HexCalculator;
+import kessel.hex.util.Tuple;
 import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Logger;
 import org.apache.log4j.PatternLayout;
 import org.junit.Test;
 
-import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
 
 /** Test just things related to the map. */
 public class GameMapTest
@@ -53,4 +65,257 @@ public class GameMapTest
     assertEquals( region, newMap.getLocations()[0][1].getRegion() );
     assertEquals( newMap, oldMap );
   }
+
+  @Test
+  public void testTuples()
+  {
+    GameMap map = createSimpleMap( 3, 2 );
+    Tuple hex = map.getTuple( 2, 1 );
+    assertSame( map.getLocation( 2, 1 ).getCoord(), hex );
+    assertSame( hex, map.intern( new Tuple( 2, 1 ) ) );
+    assertEquals( new Tuple( 3, 1 ), map.getTuple( 3, 1 ) );
+    assertEquals( new Tuple( -1, 0 ), map.intern( new Tuple( -1, 0 ) ) );
+
+    int packed = Tuple.pack( -1, 5 );
+    assertEquals( -1, Tuple.unpackX( packed ) );
+    assertEquals( 5, Tuple.unpackY( packed ) );
+    assertEquals( new Tuple( 4, -3 ), new Tuple( Tuple.unpackX( new Tuple( 4, -3 ).pack() ), Tuple.unpackY( new Tuple( 4, -3 ).pack() ) ) );
+  }
+
+  @Test
+  public void testNeighbors()
+  {
+    GameMap map = createSimpleMap( 6, 5 );
+    for ( Location location : map.getLocationsByHex().values() )
+    {
+      Tuple hex = location.getCoord();
+      for ( int radius = 0; radius <= 3; radius++ )
+      {
+        for ( boolean edgeOnly : new boolean[] { false, true } )
+        {
+          // The visited hexes are those listed, less any off the map.
+          List<Tuple> expected = HexCalculator.getNeighbors( hex, radius, edgeOnly );
+          GameMap.removeOffMapTuples( expected, map.getWidth(), map.getHeight() );
+          final List<Tuple> visited = new ArrayList<>();
+          HexCalculator.forEachNeighbor( hex, radius, edgeOnly, map.getWidth(), map.getHeight(), new HexCalculator.HexVisitor()
+          {
+            public void visit( int x, int y )
+            {
+              visited.add( new Tuple( x, y ) );
+            }
+          } );
+          assertEquals( expected.size(), visited.size() );
+          assertEquals( new HashSet<>( expected ), new HashSet<>( visited ) );
+        }
+      }
+
+      List<Tuple> ring = HexCalculator.getEdgeNeighbors( hex, 1 );
+      for ( Tuple nearbyHex : HexCalculator.getAllNeighbors( hex, 2 ) )
+      {
+        assertEquals( ring.contains( nearbyHex ), HexCalculator.isAdjacent( hex, nearbyHex ) );
+      }
+    }
+  }
+
+  @Test
+  public void testTopology()
+  {
+    GameMap map = createSimpleMap( 6, 5 );
+    MapTopology topology = map.getTopology();
+    for ( Location location : map.getLocationsByHex().values() )
+    {
+      Tuple hex = location.getCoord();
+      int cell = topology.getCell( hex.x, hex.y );
+      assertSame( location, map.getLocationByCell( cell ) );
+
+      // The neighbors are those next to the hex on the map.
+      List<Tuple> expected = HexCalculator.getEdgeNeighbors( hex, 1 );
+      GameMap.removeOffMapTuples( expected, map.getWidth(), map.getHeight() );
+      List<Tuple> neighbors = new ArrayList<>();
+      for ( int i = topology.getNeighborsStart( cell ); i < topology.getNeighborsEnd( cell ); i++ )
+      {
+        neighbors.add( map.getLocationByCell( topology.getNeighbor( i ) ).getCoord() );
+      }
+      assertEquals( new HashSet<>( expected ), new HashSet<>( neighbors ) );
+      for ( Tuple neighbor : expected )
+      {
+        assertTrue( map.isAdjacent( hex, neighbor ) );
+      }
+      assertFalse( map.isAdjacent( hex, hex ) );
+    }
+    assertEquals( -1, topology.getCell( -1, 0 ) );
+    assertFalse( map.isAdjacent( new Tuple( 0, 0 ), new Tuple( -1, 0 ) ) );
+
+    // A wrapped map joins its east and west edges.
+    MapTopology wrapped = MapTopology.createWrapped( 6, 5 );
+    assertEquals( wrapped.getCell( 0, 2 ), wrapped.getCell( 6, 2 ) );
+    assertTrue( wrapped.isAdjacent( wrapped.getCell( 5, 2 ), wrapped.getCell( 0, 2 ) ) );
+    assertEquals( 6, wrapped.getNeighborsEnd( wrapped.getCell( 0, 2 ) ) - wrapped.getNeighborsStart( wrapped.getCell( 0, 2 ) ) );
+    try
+    {
+      MapTopology.createWrapped( 5, 5 );
+      fail( "An odd width can't wrap around." );
+    }
+    catch ( IllegalArgumentException e )
+    {
+      // expected
+    }
+  }
+
+  @Test
+  public void testLocationsByHex()
+  {
+    GameMap map = createSimpleMap( 3, 2 );
+    Map<Tuple, Location> locationsByHex = map.getLocationsByHex();
+    assertEquals( 6, locationsByHex.size() );
+    assertSame( map.getLocation( 2, 1 ), locationsByHex.get( new Tuple( 2, 1 ) ) );
+    assertNull( locationsByHex.get( new Tuple( 3, 1 ) ) );
+    assertFalse( locationsByHex.containsKey( new Tuple( -1, 0 ) ) );
+
+    Set<Location> locations = new HashSet<>();
+    for ( Map.Entry<Tuple, Location> entry : locationsByHex.entrySet() )
+    {
+      assertSame( entry.getValue().getCoord(), entry.getKey() );
+      locations.add( entry.getValue() );
+    }
+    assertEquals( 6, locations.size() );
+  }
+
+  @Test
+  public void testView()
+  {
+    GameMap map = createSimpleMap( 40, 20 );
+    map.getLocation( 30, 10 ).setTerrain( Terrain.Forest );
+    Region region = new Region( "Region One" );
+    map.addRegion( region );
+
+    // A view's locations have the map's terrain and hexes, but no known region.
+    GameMap view = GameMap.createView( map );
+    assertSame( map.getTuple( 30, 10 ), view.getTuple( 30, 10 ) );
+    Location viewLocation = view.getLocation( 30, 10 );
+    assertEquals( Terrain.Forest, viewLocation.getTerrain() );
+    assertSame( Region.UNKNOWN_REGION, viewLocation.getRegion() );
+    assertSame( map.getLocation( 30, 10 ).getCoord(), viewLocation.getCoord() );
+
+    // It's saved whole, just like the same view built up front.
+    Region viewRegion = new Region( region.getName() );
+    view.addRegion( viewRegion );
+    Location seenLocation = view.getLocation( 1, 1 );
+    seenLocation.setRegion( viewRegion );
+    viewRegion.addLocation( seenLocation );
+    GameMap wholeView = GameMap.createBySize( 40, 20 );
+    wholeView.getLocation( 30, 10 ).setTerrain( Terrain.Forest );
+    Region wholeViewRegion = new Region( region.getName() );
+    wholeView.addRegion( wholeViewRegion );
+    wholeView.getLocation( 1, 1 ).setRegion( wholeViewRegion );
+    wholeViewRegion.addLocation( wholeView.getLocation( 1, 1 ) );
+    String json = Game.GSON.toJson( view );
+    assertEquals( Game.GSON.toJson( wholeView ), json );
+
+    // Once loaded as a view again, locations with nothing more than the map's terrain are dropped until needed.
+    GameMap loadedView = Game.GSON.fromJson( json, GameMap.class );
+    Location unseenLocation = loadedView.getLocation( 30, 10 );
+    loadedView.setTemplate( map );
+    assertNotSame( unseenLocation, loadedView.getLocation( 30, 10 ) );
+    assertEquals( Terrain.Forest, loadedView.getLocation( 30, 10 ).getTerrain() );
+  }
+
+  @Test
+  public void testLocationGrid()
+  {
+    GameMap map = createSimpleMap( 40, 20 );
+    Location location = map.getLocation( 30, 10 );
+    assertSame( location, map.getLocation( 30, 10 ) );
+    assertEquals( Terrain.Undefined, location.getTerrain() );
+    assertSame( Region.UNKNOWN_REGION, location.getRegion() );
+
+    // What's set through a location is what the map holds for its hex.
+    Region region = new Region( "Region One" );
+    location.setTerrain( Terrain.Mountain );
+    location.setRegion( region );
+    assertEquals( Terrain.Mountain, map.getLocations()[30][10].getTerrain() );
+    assertSame( region, map.getLocationsByHex().get( new Tuple( 30, 10 ) ).getRegion() );
+    assertSame( Region.UNKNOWN_REGION, map.getLocation( 30, 11 ).getRegion() );
+
+    // A location that's not on a map holds what's known of its hex itself.
+    Location offMap = new Location( 30, 10 );
+    assertEquals( Terrain.Undefined, offMap.getTerrain() );
+    assertSame( Region.UNKNOWN_REGION, offMap.getRegion() );
+    offMap.setTerrain( Terrain.Forest );
+    offMap.setRegion( region );
+    assertEquals( Terrain.Forest, offMap.getTerrain() );
+    assertSame( region, offMap.getRegion() );
+    assertEquals( Terrain.Mountain, location.getTerrain() );
+    assertSame( Region.UNKNOWN_REGION, new Location( 30, 10 ).getRegion() );
+
+    // Pops are placed by id, and hexes off the map have no place for one.
+    map.setPopCenterId( new Tuple( 30, 10 ), 7 );
+    assertEquals( 7, map.getPopCenterId( new Tuple( 30, 10 ) ) );
+    assertEquals( 0, map.getPopCenterId( new Tuple( 30, 11 ) ) );
+    map.setPopCenterId( new Tuple( 40, 10 ), 7 );
+    assertEquals( 0, map.getPopCenterId( new Tuple( 40, 10 ) ) );
+  }
+
+  @Test
+  public void testConcurrentChunkCreation() throws Exception
+  {
+    // Every thread walks the whole of the fresh map from a different hex, so they race to create the same chunks.
+    final GameMap map = createSimpleMap( 64, 48 );
+    List<Callable<Location[][]>> walks = new ArrayList<>();
+    for ( int i = 0; i < 8; i++ )
+    {
+      final int start = i;
+      walks.add( new Callable<Location[][]>()
+      {
+        public Location[][] call()
+        {
+          Location[][] seen = new Location[64][48];
+          for ( int step = 0; step < 64 * 48; step++ )
+          {
+            int cell = (start * 389 + step) % (64 * 48);
+            seen[cell / 48][cell % 48] = map.getLocation( cell / 48, cell % 48 );
+          }
+          return seen;
+        }
+      } );
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool( walks.size() );
+    try
+    {
+      List<Future<Location[][]>> results = pool.invokeAll( walks );
+      Location[][] locations = map.getLocations();
+      for ( Future<Location[][]> result : results )
+      {
+        Location[][] seen = result.get();
+        for ( int x = 0; x < 64; x++ )
+        {
+          for ( int y = 0; y < 48; y++ )
+          {
+            assertSame( locations[x][y], seen[x][y] );
+          }
+        }
+      }
+    }
+    finally
+    {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testClearRegions()
+  {
+    GameMap map = createSimpleMap( 40, 20 );
+    Region region = new Region( "Region One" );
+    map.addRegion( region );
+    Location location = map.getLocation( 30, 10 );
+    location.setRegion( region );
+    region.addLocation( location );
+
+    // Regions can be created again from scratch, without the old ones left on their locations.
+    map.clearRegions();
+    assertTrue( map.getRegions().isEmpty() );
+    assertSame( Region.UNKNOWN_REGION, map.getLocation( 30, 10 ).getRegion() );
+  }
 }
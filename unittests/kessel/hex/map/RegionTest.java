@@ -9,6 +9,8 @@ import org.apache.log4j.Logger;
 import org.apache.log4j.PatternLayout;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.assertEquals;
 
 public class RegionTest
@@ -73,6 +75,93 @@ public class RegionTest
     assertEquals( ControlLevel.Control, player.getControlLevel( region ) );
   }
 
+  @Test
+  public void testControlFollowsPops() throws Exception
+  {
+    Game game = GameTest.createSimpleGame();
+    Region region = addRegion( game );
+    Player player = game.getPlayers().get( 0 );
+    assertEquals( Player.UNOWNED.getName(), region.getControllerName() );
+    assertEquals( Player.UNOWNED, game.getRegionOwners().get( region ) );
+
+    // Taking the city and some towns gives control, then domination with more towns and a bigger city.
+    PopCenter city = region.getPopCenters().get( 8 );
+    city.getOwner().remove( city );
+    player.add( city );
+    for ( int i = 0; i < 4; i++ )
+    {
+      region.getPopCenters().get( i ).setOwner( player );
+    }
+    assertEquals( ControlLevel.Control, player.getControlLevel( region ) );
+    assertEquals( player.getName(), region.getControllerName() );
+    assertEquals( player, game.getRegionOwners().get( region ) );
+    city.improveLevel();
+    region.getPopCenters().get( 4 ).setOwner( player );
+    region.getPopCenters().get( 5 ).setOwner( player );
+    assertEquals( 11, region.getTotalPopLevels() );
+    assertEquals( ControlLevel.Domination, player.getControlLevel( region ) );
+
+    // Losing towns loses control.
+    for ( int i = 0; i < 4; i++ )
+    {
+      region.getPopCenters().get( i ).setOwner( Player.UNOWNED );
+    }
+    assertEquals( ControlLevel.Presence, player.getControlLevel( region ) );
+    assertEquals( Player.UNOWNED, game.getRegionOwners().get( region ) );
+  }
+
+  @Test
+  public void testOnlyHoldersFollowPops() throws Exception
+  {
+    Game game = GameTest.createSimpleGame();
+    Region region = addRegion( game );
+    Region viewRegion = new Region( region.getName() );
+    PopCenter city = region.getPopCenters().get( 8 );
+    viewRegion.addPopCenter( city );
+    assertEquals( 10, region.getTotalPopLevels() );
+    assertEquals( 2, viewRegion.getTotalPopLevels() );
+
+    // Each region holding the pop follows it, but a copy of it is followed by neither.
+    city.improveLevel();
+    assertEquals( 11, region.getTotalPopLevels() );
+    assertEquals( 3, viewRegion.getTotalPopLevels() );
+    PopCenter intelCity = new PopCenter( city );
+    intelCity.setLevel( 20 );
+    assertEquals( 11, region.getTotalPopLevels() );
+    assertEquals( 3, viewRegion.getTotalPopLevels() );
+
+    // Once the view's pops are replaced, the pop is followed only by the region still holding it.
+    viewRegion.getPopCenters().clear();
+    viewRegion.addPopCenter( intelCity );
+    city.degradeLevel();
+    assertEquals( 10, region.getTotalPopLevels() );
+    assertEquals( 20, viewRegion.getTotalPopLevels() );
+  }
+
+  @Test
+  public void testLocations()
+  {
+    GameMap map = GameMap.createBySize( 4, 4 );
+    Region region = new Region( "Region One" );
+    region.addLocation( map.getLocation( 0, 0 ) );
+    map.addRegion( region );
+    region.addLocation( map.getLocation( 1, 0 ) );
+    region.addLocation( map.getLocation( 2, 0 ) );
+
+    // A location added again moves to the end, and one not in the region isn't removed.
+    region.addLocation( map.getLocation( 0, 0 ) );
+    assertEquals( Arrays.asList( map.getLocation( 1, 0 ), map.getLocation( 2, 0 ), map.getLocation( 0, 0 ) ), region.getLocations() );
+    region.removeLocation( map.getLocation( 3, 3 ) );
+    region.removeLocation( map.getLocation( 1, 0 ) );
+    assertEquals( Arrays.asList( map.getLocation( 2, 0 ), map.getLocation( 0, 0 ) ), region.getLocations() );
+
+    // The locations can be cleared away and added again.
+    region.getLocations().clear();
+    region.addLocation( map.getLocation( 2, 0 ) );
+    region.addLocation( map.getLocation( 3, 0 ) );
+    assertEquals( Arrays.asList( map.getLocation( 2, 0 ), map.getLocation( 3, 0 ) ), region.getLocations() );
+  }
+
   private Region addRegion( Game game )
   {
     Region region = game.getMap().getRegions().get( 0 );
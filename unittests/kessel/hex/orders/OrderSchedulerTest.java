@@ -0,0 +1,102 @@
+package kessel.hex.orders;
+
+import kessel.hex.domain.Game;
+import kessel.hex.domain.GameItem;
+import kessel.hex.orders.agent.CounterEspionage;
+import kessel.hex.orders.agent.MoveAgent;
+import kessel.hex.orders.army.ArmyAttackArmy;
+import kessel.hex.orders.wizard.Fireball;
+import kessel.hex.orders.wizard.ShieldFigure;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/** Test orders are scheduled by their place in the order sequence. */
+public class OrderSchedulerTest
+{
+  @Test
+  public void testSchedule()
+  {
+    List<Order<?>> orders = new ArrayList<>();
+    for ( int i = 0; i < 10; i++ )
+    {
+      orders.add( new CounterEspionage() );
+      orders.add( new MoveAgent() );
+      orders.add( new ArmyAttackArmy() );
+    }
+    orders.add( new Fireball() );
+    orders.add( new ShieldFigure() );
+
+    // Each bucket holds the orders of its rank, and the ranks follow the phases of a turn.
+    List<List<Order<?>>> buckets = OrderScheduler.schedule( orders, new Random( 1 ) );
+    assertEquals( OrderScheduler.getRankCount(), buckets.size() );
+    int shieldRank = OrderScheduler.getRank( ShieldFigure.class );
+    int fireballRank = OrderScheduler.getRank( Fireball.class );
+    int attackRank = OrderScheduler.getRank( ArmyAttackArmy.class );
+    int moveRank = OrderScheduler.getRank( MoveAgent.class );
+    int counterRank = OrderScheduler.getRank( CounterEspionage.class );
+    assertTrue( (shieldRank < fireballRank) && (fireballRank < attackRank) && (attackRank < moveRank) && (moveRank < counterRank) );
+    assertEquals( "Combat", OrderScheduler.getPhase( attackRank ) );
+    assertEquals( "ArmyAttackArmy", OrderScheduler.getOrderType( attackRank ) );
+    assertEquals( 10, buckets.get( counterRank ).size() );
+    assertEquals( 1, buckets.get( shieldRank ).size() );
+    for ( int rank = 0; rank < buckets.size(); rank++ )
+    {
+      for ( Order<?> order : buckets.get( rank ) )
+      {
+        assertEquals( OrderScheduler.getOrderType( rank ), order.getClass().getSimpleName() );
+      }
+    }
+
+    // The orders of a type are shuffled, the same way for the same seed.
+    List<List<Order<?>>> sameSeedBuckets = OrderScheduler.schedule( orders, new Random( 1 ) );
+    for ( int rank = 0; rank < buckets.size(); rank++ )
+    {
+      assertTrue( listsAreIdentical( buckets.get( rank ), sameSeedBuckets.get( rank ) ) );
+    }
+    List<Order<?>> counterOrders = new ArrayList<>();
+    for ( Order<?> order : orders )
+    {
+      if ( order instanceof CounterEspionage ) { counterOrders.add( order ); }
+    }
+    assertFalse( listsAreIdentical( counterOrders, buckets.get( counterRank ) ) );
+  }
+
+  @Test
+  public void testEveryOrderTypeHasAPlace()
+  {
+    // Each order type the game can load is checked for its place in the sequence as the game is loaded.
+    assertNotNull( Game.GSON );
+    try
+    {
+      OrderScheduler.getRank( UnsequencedOrder.class );
+      fail( "An order type without a place in the sequence should be rejected." );
+    }
+    catch ( IllegalStateException e )
+    {
+      // Expected.
+    }
+  }
+
+  // Orders of a type with the same values are equal, so compare them as the same instances.
+  private static boolean listsAreIdentical( List<Order<?>> a, List<Order<?>> b )
+  {
+    if ( a.size() != b.size() ) { return false; }
+    for ( int i = 0; i < a.size(); i++ )
+    {
+      if ( a.get( i ) != b.get( i ) ) { return false; }
+    }
+    return true;
+  }
+
+  private static class UnsequencedOrder extends Order<GameItem>
+  {
+    protected void processOrder( Game game ) {}
+
+    public String getShortDescription() { return "Unsequenced"; }
+  }
+}